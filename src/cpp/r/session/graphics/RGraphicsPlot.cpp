@@ -72,6 +72,11 @@ bool Plot::hasValidStorage() const
    return hasStorage() && snapshotFilePath().exists();
 }
 
+bool Plot::hasCurrentImage() const
+{
+   return !needsUpdate_ && (renderedSize() == graphicsDevice_.displaySize());
+}
+
 void Plot::invalidate()
 {
    needsUpdate_ = true;
@@ -123,11 +128,8 @@ Error Plot::renderFromDisplay()
 {
    // we can use our cached representation if we don't need an update and our 
    // rendered size is the same as the current graphics device size
-   if ( !needsUpdate_ &&
-        (renderedSize() == graphicsDevice_.displaySize()) )
-   {
+   if (hasCurrentImage())
       return Success();
-   }
    
    // generate a new storage uuid
    std::string storageUuid = core::system::generateUuid();
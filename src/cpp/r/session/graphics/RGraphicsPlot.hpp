@@ -56,6 +56,10 @@ public:
    
    std::string storageUuid() const;
    bool hasValidStorage() const;
+
+   // does the image file show the plot as it would render at the current
+   // device size?
+   bool hasCurrentImage() const;
    const DisplaySize& renderedSize() const { return renderedSize_; }
 
    bool hasManipulator() const;
@@ -80,6 +80,7 @@ PlotManager::PlotManager()
       lastChange_(boost::posix_time::not_a_date_time),
       suppressDeviceEvents_(false),
       activePlot_(-1),
+      activePlotDisplayPending_(false),
       plotInfoRegex_("([A-Za-z0-9\\-]+):([0-9]+),([0-9]+)")
 {
    plots_.set_capacity(100);
@@ -160,8 +161,13 @@ Error PlotManager::setActivePlot(int index)
       // set index
       activePlot_ = index;
       
-      // render it
-      renderActivePlotToDisplay();
+      // render it; if its image is current (e.g. when paging through the
+      // plot history at the same size) the image is shown as is, and the
+      // plot is only replayed on the device when it's next needed
+      if (activePlot().hasCurrentImage())
+         activePlotDisplayPending_ = true;
+      else
+         renderActivePlotToDisplay();
 
       // trip changes flag 
       setDisplayHasChanges(true);
@@ -234,6 +240,8 @@ Error PlotManager::savePlotAsFile(const boost::function<Error()>&
 {
    if (!hasPlot())
       return Error(errc::NoActivePlot, ERROR_LOCATION);
+
+   ensureActivePlotDisplayed();
    
    // restore previous device after invoking file device
    RestorePreviousGraphicsDeviceScope restoreScope;
@@ -513,6 +521,9 @@ void PlotManager::render(boost::function<void(DisplayState)> outputFunction)
 
    if (hasPlot()) // write image for active plot
    {
+      if (!activePlot().hasCurrentImage())
+         ensureActivePlotDisplayed();
+
       // copy current contents of the display to the active plot files
       Error error = activePlot().renderFromDisplay();
       if (error)
@@ -598,17 +609,21 @@ RSTUDIO_BOOST_SIGNAL<void ()>& PlotManager::onShowManipulator()
 
 void PlotManager::setPlotManipulatorValues(const json::Object& values)
 {
+   ensureActivePlotDisplayed();
    return plotManipulatorManager().setPlotManipulatorValues(values);
 }
 
 void PlotManager::manipulatorPlotClicked(int x, int y)
 {
+   ensureActivePlotDisplayed();
    plotManipulatorManager().manipulatorPlotClicked(x, y);
 }
 
 
 void PlotManager::onBeforeExecute()
 {
+   // R code may draw on the active plot
+   ensureActivePlotDisplayed();
    graphicsDevice_.onBeforeExecute();
 }
 
@@ -842,6 +857,7 @@ void PlotManager::onDeviceNewPage(SEXP previousPageSnapshot)
       // add the plot
       plots_.push_back(ptrPlot);
       activePlot_ = gsl::narrow_cast<int>(plots_.size()) - 1;
+      activePlotDisplayPending_ = false;
    }
 
    // once we render the new plot we always reset pending manipulator state
@@ -874,6 +890,7 @@ void PlotManager::onDeviceClosed()
    
    // clear plots
    activePlot_ = -1;
+   activePlotDisplayPending_ = false;
    plots_.clear();
    
    // trip changes flag to ensure repaint
@@ -926,6 +943,7 @@ void PlotManager::invalidateActivePlot()
 // render active plot to display (used in setActivePlot and onSessionResume)
 void PlotManager::renderActivePlotToDisplay()
 {   
+   activePlotDisplayPending_ = false;
    suppressDeviceEvents_ = true;
    
    // attempt to render the active plot -- notify end user if there is an error
@@ -936,6 +954,12 @@ void PlotManager::renderActivePlotToDisplay()
    suppressDeviceEvents_ = false;
    
 }
+
+void PlotManager::ensureActivePlotDisplayed()
+{
+   if (activePlotDisplayPending_ && hasPlot())
+      renderActivePlotToDisplay();
+}
    
       
 Error PlotManager::plotIndexError(int index, const ErrorLocation& location)
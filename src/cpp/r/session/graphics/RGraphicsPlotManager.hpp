@@ -151,6 +151,10 @@ private:
 
    // render active plot to display (used in setActivePlot and onSessionResume)
    void renderActivePlotToDisplay();
+
+   // render the active plot to display if setActivePlot deferred it; called
+   // before anything draws on or reads from the graphics device
+   void ensureActivePlotDisplayed();
    
    // render active plot file file
    core::Error savePlotAsFile(const boost::function<core::Error()>&
@@ -195,6 +199,9 @@ private:
    
    int activePlot_;
    boost::circular_buffer<PtrPlot> plots_;
+
+   // the graphics device still shows a previously active plot
+   bool activePlotDisplayPending_;
    
    boost::regex plotInfoRegex_;
 };
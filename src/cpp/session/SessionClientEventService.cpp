@@ -31,6 +31,7 @@
 #include <session/SessionOptions.hpp>
 #include <session/SessionHttpConnectionListener.hpp>
 #include <session/SessionClientEventService.hpp>
+#include <session/SessionConsoleProcessSocket.hpp>
 
 #include "SessionClientEventQueue.hpp"
 
@@ -43,6 +44,14 @@ namespace {
 
 const int kLastChanceWaitSeconds = 4;
 
+// Optional websocket over which events are pushed to the client, in place of
+// get_events long-polling. It uses the same server and message framing as
+// terminal sockets; the client connects with a URL ending in
+// /events/<clientId>/ and sends {"lastEventId": n} when it connects and
+// after each batch of events. If it can't connect, or the socket closes, it
+// falls back to get_events.
+console_process::ConsoleProcessSocket s_eventSocket;
+
 bool hasEventIdLessThanOrEqualTo(const json::Value& event, int targetId)
 {
    const json::Object& eventJSON = event.getObject();
@@ -60,6 +69,15 @@ ClientEventService& clientEventService()
 
 Error ClientEventService::start(const std::string& clientId)
 {
+   // offer the client a socket over which to receive events; without one,
+   // it long-polls get_events
+   if (options().allowClientEventWebsockets())
+   {
+      Error error = s_eventSocket.ensureServerRunning();
+      if (error)
+         LOG_ERROR(error);
+   }
+
    // set our clientid
    setClientId(clientId, false);
    
@@ -113,16 +131,34 @@ void ClientEventService::stop()
    
 void ClientEventService::setClientId(const std::string& clientId, bool clearEvents)
 {
+   std::string previousClientId;
    LOCK_MUTEX(mutex_)
    {
+      previousClientId = clientId_.c_str(); // avoid ref count
       clientId_ = clientId.c_str(); // avoid ref count
       if (clearEvents)
          clientEvents_.clear();
+
+      // a new client connects its own socket
+      if (previousClientId != clientId)
+      {
+         socketOpen_ = false;
+         socketResync_ = false;
+         socketLastEventIdSeen_ = -1;
+      }
    }
    END_LOCK_MUTEX
 
    if (clearEvents)
       clientEventQueue().clear();
+
+   // only the current client receives events over the socket
+   if (s_eventSocket.port() > 0 && previousClientId != clientId)
+   {
+      if (!previousClientId.empty())
+         s_eventSocket.stopListening(previousClientId);
+      listenOnSocket(clientId);
+   }
 }
    
 std::string ClientEventService::clientId()
@@ -137,6 +173,157 @@ std::string ClientEventService::clientId()
    return std::string();
 }
 
+int ClientEventService::socketPort()
+{
+   return s_eventSocket.port();
+}
+
+void ClientEventService::listenOnSocket(const std::string& clientId)
+{
+   using boost::bind;
+   console_process::ConsoleProcessSocketConnectionCallbacks callbacks;
+   callbacks.onReceivedInput =
+         bind(&ClientEventService::onSocketInput, this, clientId, _1);
+   callbacks.onConnectionClosed =
+         bind(&ClientEventService::onSocketClosed, this, clientId);
+
+   Error error = s_eventSocket.listen(clientId, callbacks);
+   if (error)
+      LOG_ERROR(error);
+}
+
+// called on the socket's thread
+void ClientEventService::onSocketInput(const std::string& clientId,
+                                       const std::string& input)
+{
+   json::Value value;
+   int lastClientEventIdSeen = -1;
+   if (value.parse(input) || !value.isObject() ||
+       json::readObject(value.getObject(), "lastEventId", lastClientEventIdSeen))
+   {
+      LOG_WARNING_MESSAGE("Unexpected client event socket message: " + input);
+      return;
+   }
+
+   if (clientId != this->clientId())
+      return;
+
+   erasePreviouslyDeliveredEvents(lastClientEventIdSeen);
+
+   LOCK_MUTEX(mutex_)
+   {
+      // the first message on a connection asks for all of the events the
+      // client hasn't seen, including any sent over a previous connection
+      if (!socketOpen_)
+      {
+         socketOpen_ = true;
+         socketResync_ = true;
+      }
+      socketLastEventIdSeen_ = std::max(socketLastEventIdSeen_,
+                                        lastClientEventIdSeen);
+   }
+   END_LOCK_MUTEX
+}
+
+// called on the socket's thread
+void ClientEventService::onSocketClosed(const std::string& clientId)
+{
+   LOCK_MUTEX(mutex_)
+   {
+      if (clientId == clientId_)
+         socketOpen_ = false;
+   }
+   END_LOCK_MUTEX
+}
+
+bool ClientEventService::isSocketOpen()
+{
+   LOCK_MUTEX(mutex_)
+   {
+      return socketOpen_;
+   }
+   END_LOCK_MUTEX
+
+   // keep compiler happy
+   return false;
+}
+
+void ClientEventService::pushSocketEvents(
+                  int* pNextEventId,
+                  const boost::posix_time::time_duration& maxWait,
+                  const boost::posix_time::time_duration& batchDelay,
+                  const boost::posix_time::time_duration& maxTotalBatchDelay)
+{
+   ClientEventQueue& clientEventQueue = session::clientEventQueue();
+
+   bool resync = false;
+   LOCK_MUTEX(mutex_)
+   {
+      resync = socketResync_;
+   }
+   END_LOCK_MUTEX
+
+   // wait for events, batching those that occur in rapid succession as
+   // for get_events; a client that has just connected gets any pending
+   // events straight away
+   if (!resync)
+   {
+      if (!clientEventQueue.hasEvents() && !clientEventQueue.waitForEvent(maxWait))
+         return;
+
+      boost::system_time maxBatchDelayTime =
+                     boost::get_system_time() + maxTotalBatchDelay;
+      while (clientEventQueue.waitForEvent(batchDelay) &&
+             (boost::get_system_time() < maxBatchDelayTime))
+      {
+      }
+   }
+
+   std::vector<ClientEvent> events;
+   clientEventQueue.remove(&events);
+
+   // events stay in clientEvents_ until the client confirms it has seen
+   // them, so that they can be sent again if it falls back to get_events
+   std::string clientId;
+   json::Array batch;
+   LOCK_MUTEX(mutex_)
+   {
+      clientId = clientId_.c_str(); // avoid ref count
+      *pNextEventId = std::max(*pNextEventId, socketLastEventIdSeen_ + 1);
+
+      if (socketResync_)
+      {
+         for (const json::Value& event : clientEvents_)
+            batch.push_back(event);
+         socketResync_ = false;
+      }
+
+      for (const ClientEvent& clientEvent : events)
+      {
+         json::Object event;
+         clientEvent.asJsonObject((*pNextEventId)++, &event);
+         clientEvents_.push_back(event);
+         batch.push_back(event);
+      }
+   }
+   END_LOCK_MUTEX
+
+   if (batch.isEmpty())
+      return;
+
+   Error error = s_eventSocket.sendText(clientId, batch.write());
+   if (error)
+   {
+      // the client will fall back to get_events, which sends the events again
+      LOCK_MUTEX(mutex_)
+      {
+         if (clientId == clientId_)
+            socketOpen_ = false;
+      }
+      END_LOCK_MUTEX
+   }
+}
+
 void ClientEventService::erasePreviouslyDeliveredEvents(int lastClientEventIdSeen)
 {
    LOCK_MUTEX(mutex_)
@@ -214,29 +401,55 @@ void ClientEventService::run()
          boost::shared_ptr<HttpConnection> ptrConnection;
          try
          {
-            // wait for up to 1 second for a connection
-            long secondsToWait = stopServer ? kLastChanceWaitSeconds : 1;
-            ptrConnection =
-             httpConnectionListener().eventsConnectionQueue().dequeConnection(
-                                             boost::posix_time::seconds(secondsToWait));
-
-            // if we didn't get one then check for interruption requested
-            // and then continue waiting
-            if (!ptrConnection)
+            // while the client receives events over its socket, push them
+            // to it; answer any get_events requests in between (e.g. from
+            // a client that has just fallen back to polling)
+            if (isSocketOpen())
             {
-               if (stopServer)
+               ptrConnection =
+                  httpConnectionListener().eventsConnectionQueue().dequeConnection();
+               if (!ptrConnection)
                {
-                  // This was our last chance. There are still some events
-                  // left in the queue, but we waited and nobody came.
-                  break;
+                  // on the way out, just send what's left
+                  pushSocketEvents(&nextEventId,
+                                   stopServer ? seconds(0) : seconds(1),
+                                   batchDelay,
+                                   maxTotalBatchDelay);
+                  if (stopServer)
+                     break;
+
+                  if (boost::this_thread::interruption_requested())
+                     throw boost::thread_interrupted();
+                  continue;
                }
+            }
 
-               // check for interruption and set stopServer flag if we were
-               if (boost::this_thread::interruption_requested())
-                  throw boost::thread_interrupted();
-
-               // accept next request (assuming we weren't interrupted)
-               continue;
+            if (!ptrConnection)
+            {
+               // wait for up to 1 second for a connection
+               long secondsToWait = stopServer ? kLastChanceWaitSeconds : 1;
+               ptrConnection =
+                httpConnectionListener().eventsConnectionQueue().dequeConnection(
+                                                boost::posix_time::seconds(secondsToWait));
+
+               // if we didn't get one then check for interruption requested
+               // and then continue waiting
+               if (!ptrConnection)
+               {
+                  if (stopServer)
+                  {
+                     // This was our last chance. There are still some events
+                     // left in the queue, but we waited and nobody came.
+                     break;
+                  }
+
+                  // check for interruption and set stopServer flag if we were
+                  if (boost::this_thread::interruption_requested())
+                     throw boost::thread_interrupted();
+
+                  // accept next request (assuming we weren't interrupted)
+                  continue;
+               }
             }
          }
          catch(const boost::thread_interrupted&)
@@ -100,6 +100,29 @@ std::string userIdentityDisplay(const http::Request& request)
       return session::options().userIdentity();
 }
 
+// the hashes of the source documents the client has cached, keyed by
+// document id (we don't need to send the contents of these documents)
+json::Object cachedDocumentHashes(boost::shared_ptr<HttpConnection> ptrConnection)
+{
+   json::JsonRpcRequest request;
+   Error error = parseJsonRpcRequest(ptrConnection->request().body(), &request);
+   if (error)
+   {
+      LOG_ERROR(error);
+      return json::Object();
+   }
+
+   json::Object cachedHashes;
+   error = json::getOptionalParam(request.kwparams,
+                                  "cached_documents",
+                                  json::Object(),
+                                  &cachedHashes);
+   if (error)
+      LOG_ERROR(error);
+
+   return cachedHashes;
+}
+
 #ifdef RSTUDIO_SERVER
 Error makePortTokenCookie(boost::shared_ptr<HttpConnection> ptrConnection, 
       http::Response& response)
@@ -251,7 +274,8 @@ void handleClientInit(const boost::function<void()>& initFunction,
    
    // source documents
    json::Array jsonDocs;
-   error = modules::source::clientInitDocuments(&jsonDocs);
+   error = modules::source::clientInitDocuments(
+            cachedDocumentHashes(ptrConnection), &jsonDocs);
    if (error)
       LOG_ERROR(error);
    sessionInfo["source_documents"] = jsonDocs;
@@ -458,6 +482,7 @@ void handleClientInit(const boost::function<void()>& initFunction,
    sessionInfo["allow_full_ui"] = options.allowFullUI();
    sessionInfo["websocket_ping_interval"] = options.webSocketPingInterval();
    sessionInfo["websocket_connect_timeout"] = options.webSocketConnectTimeout();
+   sessionInfo["client_events_websocket_port"] = clientEventService().socketPort();
 
    // publishing may be disabled globally or just for external services, and
    // via configuration options or environment variables
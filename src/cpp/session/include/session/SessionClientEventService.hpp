@@ -41,7 +41,10 @@ ClientEventService& clientEventService();
 class ClientEventService : boost::noncopyable
 {
 private:
-   ClientEventService() {}
+   ClientEventService()
+      : socketOpen_(false), socketResync_(false), socketLastEventIdSeen_(-1)
+   {
+   }
    friend ClientEventService& clientEventService();
 
 public:
@@ -54,9 +57,22 @@ public:
 
    std::string clientId();
 
+   // network port of the socket over which the client can receive events;
+   // 0 if the client should long-poll get_events instead
+   int socketPort();
+
 private:
    void run();
 
+   void listenOnSocket(const std::string& clientId);
+   void onSocketInput(const std::string& clientId, const std::string& input);
+   void onSocketClosed(const std::string& clientId);
+   bool isSocketOpen();
+   void pushSocketEvents(int* pNextEventId,
+                         const boost::posix_time::time_duration& maxWait,
+                         const boost::posix_time::time_duration& batchDelay,
+                         const boost::posix_time::time_duration& maxTotalBatchDelay);
+
    void erasePreviouslyDeliveredEvents(int lastClientEventIdSeen);
    bool havePendingClientEvents();
    void addClientEvent(const core::json::Object& eventObject);
@@ -69,6 +85,12 @@ private:
 
    std::string clientId_;
    core::json::Array clientEvents_;
+
+   // the client's event socket: whether it's open, whether the client needs
+   // all pending events (after connecting), and the last event it has seen
+   bool socketOpen_;
+   bool socketResync_;
+   int socketLastEventIdSeen_;
 };
    
   
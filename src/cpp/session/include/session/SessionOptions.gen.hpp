@@ -229,6 +229,9 @@ protected:
       ("allow-terminal-websockets",
       value<bool>(&allowTerminalWebsockets_)->default_value(true),
       "Indicates whether or not to allow connections to terminal sessions with websockets.")
+      ("allow-client-event-websockets",
+      value<bool>(&allowClientEventWebsockets_)->default_value(true),
+      "Indicates whether or not to allow client events to be sent over a websocket, rather than in response to long-polling requests.")
       ("allow-file-downloads",
       value<bool>(&allowFileDownloads_)->default_value(true),
       "Indicates whether or not to allow file downloads from the files pane.")
@@ -442,6 +445,7 @@ public:
    bool allowPackageInstallation() const { return allowPackageInstallation_; }
    bool allowShell() const { return allowShell_; }
    bool allowTerminalWebsockets() const { return allowTerminalWebsockets_; }
+   bool allowClientEventWebsockets() const { return allowClientEventWebsockets_; }
    bool allowFileDownloads() const { return allowFileDownloads_; }
    bool allowFileUploads() const { return allowFileUploads_; }
    bool allowRemovePublicFolder() const { return allowRemovePublicFolder_; }
@@ -539,6 +543,7 @@ protected:
    bool allowPackageInstallation_;
    bool allowShell_;
    bool allowTerminalWebsockets_;
+   bool allowClientEventWebsockets_;
    bool allowFileDownloads_;
    bool allowFileUploads_;
    bool allowRemovePublicFolder_;
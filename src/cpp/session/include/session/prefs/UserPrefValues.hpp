@@ -44,6 +44,7 @@ namespace prefs {
 #define kBioconductorMirrorUrl "bioconductor_mirror_url"
 #define kAlwaysSaveHistory "always_save_history"
 #define kRemoveHistoryDuplicates "remove_history_duplicates"
+#define kHistorySearchIndexLimit "history_search_index_limit"
 #define kShowLastDotValue "show_last_dot_value"
 #define kLineEndingConversion "line_ending_conversion"
 #define kLineEndingConversionDefault "default"
@@ -445,6 +446,12 @@ public:
    bool removeHistoryDuplicates();
    core::Error setRemoveHistoryDuplicates(bool val);
 
+   /**
+    * The maximum number of history entries to download and index for searching in the browser. Larger histories are searched by the R session.
+    */
+   int historySearchIndexLimit();
+   core::Error setHistorySearchIndexLimit(int val);
+
    /**
     * Show the result of the last expression (.Last.value) in the Environment pane.
     */
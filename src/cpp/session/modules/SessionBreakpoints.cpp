@@ -306,20 +306,15 @@ bool setBreakpoint(const std::string& functionName,
 // 3. The copy of the function on the global search path
 //
 // Note that this is not guaranteed to find ALL copies of the function in ANY
-// environment--at most, three breakpoints are set.
-Error setBreakpoints(const json::JsonRpcRequest& request,
-                     json::JsonRpcResponse* pResponse)
+// environment--at most, three breakpoints are set. Returns true if any copy of
+// the function was found.
+bool setFunctionBreakpoints(const std::string& functionName,
+                            const std::string& fileName,
+                            const std::string& packageName,
+                            const json::Array& steps)
 {
-   std::string functionName, fileName, packageName, projPackageName;
-   json::Array steps;
+   std::string projPackageName;
    bool set = false;
-   Error error = json::readParams(request.params,
-            &functionName,
-            &fileName,
-            &packageName,
-            &steps);
-   if (error)
-      return error;
 
    // Always search the global namespace (and attached namespaces)
    // first. Manipulating the source references for the copy in a searchable
@@ -345,13 +340,7 @@ Error setBreakpoints(const json::JsonRpcRequest& request,
       set |= setBreakpoint(functionName, fileName, packageName, steps);
    }
 
-   // Couldn't find a function to set a breakpoint on--maybe a bad parameter?
-   if (!set)
-   {
-      return Error(json::errc::ParamInvalid, ERROR_LOCATION);
-   }
-
-   return Success();
+   return set;
 }
 
 std::vector<boost::shared_ptr<Breakpoint> >::iterator posOfBreakpointId(int id)
@@ -549,47 +538,92 @@ Error initBreakpoints()
    return Success();
 }
 
-Error updateBreakpoints(const json::JsonRpcRequest& request,
-                        json::JsonRpcResponse*)
+void updateBreakpoint(const json::Object& bp, bool set, bool arm)
 {
-   json::Array breakpointArr;
-   bool set = false, arm = false;
-   Error error = json::readParams(request.params, &breakpointArr, &set, &arm);
+   boost::shared_ptr<Breakpoint> breakpoint(breakpointFromJson(bp));
+   std::vector<boost::shared_ptr<Breakpoint> >::iterator psbi =
+         posOfBreakpointId(breakpoint->id);
+
+   // Erase anything we already know about this breakpoint
+   if (psbi != s_breakpoints.end())
+      s_breakpoints.erase(psbi);
+
+   // If setting or updating the brekapoint, reintroduce it
+   if (set)
+      s_breakpoints.push_back(breakpoint);
+
+   // Is this breakpoint associated with a running Shiny function? If it is,
+   // and the caller wants the changes armed immediately, reflect them
+   if (arm && breakpoint->type == TYPE_TOPLEVEL) {
+      boost::shared_ptr<ShinyFunction> psf =
+            findShinyFunction(breakpoint->path, breakpoint->lineNumber);
+      if (psf)
+      {
+         // Collect all the breakpoints associated with this function and
+         // update the function's state
+         std::vector<int> lines = getShinyBreakpointLines(*psf);
+         r::exec::RFunction(".rs.setShinyBreakpoints", psf->getName(),
+                                                       psf->getWhere(),
+                                                       lines).call();
+      }
+   }
+}
+
+// Applies a batch of changes queued by the client: first the updates to the
+// breakpoints we know about (in the order they were made), then the new set of
+// breakpoints for each function. Returns an array indicating, for each
+// function, whether its breakpoints were set.
+Error syncBreakpoints(const json::JsonRpcRequest& request,
+                      json::JsonRpcResponse* pResponse)
+{
+   json::Array updates, functions;
+   Error error = json::readParams(request.params, &updates, &functions);
    if (error)
       return error;
 
-   for (json::Value bp : breakpointArr)
+   for (const json::Value& update : updates)
    {
-      boost::shared_ptr<Breakpoint> breakpoint
-            (breakpointFromJson(bp.getObject()));
-      std::vector<boost::shared_ptr<Breakpoint> >::iterator psbi =
-            posOfBreakpointId(breakpoint->id);
-
-      // Erase anything we already know about this breakpoint
-      if (psbi != s_breakpoints.end())
-         s_breakpoints.erase(psbi);
-
-      // If setting or updating the brekapoint, reintroduce it
-      if (set)
-         s_breakpoints.push_back(breakpoint);
-
-      // Is this breakpoint associated with a running Shiny function? If it is,
-      // and the caller wants the changes armed immediately, reflect them
-      if (arm && breakpoint->type == TYPE_TOPLEVEL) {
-         boost::shared_ptr<ShinyFunction> psf =
-               findShinyFunction(breakpoint->path, breakpoint->lineNumber);
-         if (psf)
-         {
-            // Collect all the breakpoints associated with this function and
-            // update the function's state
-            std::vector<int> lines = getShinyBreakpointLines(*psf);
-            r::exec::RFunction(".rs.setShinyBreakpoints", psf->getName(),
-                                                          psf->getWhere(),
-                                                          lines).call();
-         }
+      if (!json::isType<json::Object>(update))
+         continue;
+
+      json::Object bp;
+      bool set = false, arm = false;
+      error = json::readObject(update.getObject(),
+                               "breakpoint", bp,
+                               "set", set,
+                               "arm", arm);
+      if (error)
+      {
+         LOG_ERROR(error);
+         continue;
+      }
+
+      updateBreakpoint(bp, set, arm);
+   }
+
+   json::Array results;
+   for (const json::Value& function : functions)
+   {
+      bool set = false;
+      if (json::isType<json::Object>(function))
+      {
+         std::string functionName, fileName, packageName;
+         json::Array steps;
+         error = json::readObject(function.getObject(),
+                                  "function_name", functionName,
+                                  "file_name", fileName,
+                                  "package_name", packageName,
+                                  "steps", steps);
+         if (error)
+            LOG_ERROR(error);
+         else
+            set = setFunctionBreakpoints(
+                     functionName, fileName, packageName, steps);
       }
+      results.push_back(set);
    }
 
+   pResponse->setResult(results);
    return Success();
 }
 
@@ -620,9 +654,8 @@ Error initialize()
    ExecBlock initBlock;
    initBlock.addFunctions()
       (bind(registerRpcMethod, "get_function_state", getFunctionState))
-      (bind(registerRpcMethod, "set_function_breakpoints", setBreakpoints))
       (bind(registerRpcMethod, "remove_all_breakpoints", removeAllBreakpoints))
-      (bind(registerRpcMethod, "update_breakpoints", updateBreakpoints))
+      (bind(registerRpcMethod, "sync_breakpoints", syncBreakpoints))
       (bind(sourceModuleRFile, "SessionBreakpoints.R"))
       (bind(initBreakpoints));
 
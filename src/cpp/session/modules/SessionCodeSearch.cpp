@@ -794,6 +794,36 @@ public:
       }
    }
    
+   // list the indexed files (optionally restricted to the given aliased
+   // paths) along with the source items defined within them
+   void listEntries(const std::set<std::string>& paths,
+                    std::vector<std::string>* pNames,
+                    std::vector<std::string>* pPaths,
+                    std::vector<r_util::RSourceItem>* pItems)
+   {
+      EntryTree::leaf_iterator it = pEntries_->begin_leaf();
+      for (; pEntries_->is_valid(it); ++it)
+      {
+         const Entry& entry = *it;
+         if (entry.fileInfo.empty() || !isSourceFile(entry.fileInfo))
+            continue;
+
+         FilePath filePath(entry.fileInfo.absolutePath());
+         std::string path = module_context::createAliasedPath(filePath);
+         if (!paths.empty() && paths.find(path) == paths.end())
+            continue;
+
+         pNames->push_back(filePath.getFilename());
+         pPaths->push_back(path);
+
+         if (entry.hasIndex())
+         {
+            const std::vector<r_util::RSourceItem>& items = entry.pIndex->items();
+            pItems->insert(pItems->end(), items.begin(), items.end());
+         }
+      }
+   }
+
    void clear()
    {
       indexing_ = false;
@@ -1698,7 +1728,11 @@ Error searchCode(const json::JsonRpcRequest& request,
    // get params
    std::string term;
    int maxResultsInt = 20;
-   Error error = json::readParams(request.params, &term, &maxResultsInt);
+   bool unindexedOnly = false;
+   Error error = json::readParams(request.params,
+                                  &term,
+                                  &maxResultsInt,
+                                  &unindexedOnly);
    if (error)
       return error;
    
@@ -1716,13 +1750,26 @@ Error searchCode(const json::JsonRpcRequest& request,
    // TODO: Refactor searchSourceFiles, searchSource to no longer take maximum number
    // of results (since we want to grab everything possible then filter before
    // sending over the wire). Simiarly with the 'more*Available' bools
-   searchFiles(term, 100, true, &names, &paths, &moreFilesAvailable);
+   //
+   // when the client has a copy of the project index (see CodeSearchIndex.java)
+   // it only asks for what the index doesn't cover: open (possibly unsaved)
+   // source documents, C++ definitions and bookdown cross references
+   if (!unindexedOnly)
+      searchFiles(term, 100, true, &names, &paths, &moreFilesAvailable);
 
    // search source and convert to source items
    std::vector<SourceItem> srcItems;
    std::vector<r_util::RSourceItem> rSrcItems;
    bool moreSourceItemsAvailable = false;
-   searchSource(term, 100, false, &rSrcItems, &moreSourceItemsAvailable);
+   if (unindexedOnly)
+   {
+      std::set<std::string> srcDBContexts;
+      searchSourceDatabase(term, 100, false, &rSrcItems, &srcDBContexts);
+   }
+   else
+   {
+      searchSource(term, 100, false, &rSrcItems, &moreSourceItemsAvailable);
+   }
    std::transform(rSrcItems.begin(),
                   rSrcItems.end(),
                   std::back_inserter(srcItems),
@@ -1821,6 +1868,62 @@ Error searchCode(const json::JsonRpcRequest& request,
    return Success();
 }
 
+Error getCodeSearchIndex(const json::JsonRpcRequest& request,
+                         json::JsonRpcResponse* pResponse)
+{
+   // aliased paths of the files to list (all files if empty)
+   json::Array pathsJson;
+   Error error = json::readParams(request.params, &pathsJson);
+   if (error)
+      return error;
+
+   std::set<std::string> paths;
+   for (const json::Value& pathJson : pathsJson)
+   {
+      if (pathJson.isString())
+         paths.insert(pathJson.getString());
+   }
+
+   // the project index is only maintained when we have a file monitor
+   bool available = session::projects::projectContext().hasFileMonitor();
+
+   std::vector<std::string> names;
+   std::vector<std::string> filePaths;
+   std::vector<SourceItem> srcItems;
+   if (available)
+   {
+      std::vector<r_util::RSourceItem> rSrcItems;
+      projectIndex().listEntries(paths, &names, &filePaths, &rSrcItems);
+      std::transform(rSrcItems.begin(),
+                     rSrcItems.end(),
+                     std::back_inserter(srcItems),
+                     fromRSourceItem);
+   }
+
+   json::Object result;
+   result["available"] = available;
+
+   json::Object files;
+   files["filename"] = json::toJsonArray(names);
+   files["path"] = json::toJsonArray(filePaths);
+   result["file_items"] = files;
+
+   // return rpc array list (wire efficiency)
+   json::Object src;
+   src["type"] = toJsonArray<int>(srcItems, &SourceItem::type);
+   src["name"] = toJsonArray<std::string>(srcItems, &SourceItem::name);
+   src["parent_name"] = toJsonArray<std::string>(srcItems, &SourceItem::parentName);
+   src["extra_info"] = toJsonArray<std::string>(srcItems, &SourceItem::extraInfo);
+   src["context"] = toJsonArray<std::string>(srcItems, &SourceItem::context);
+   src["line"] = toJsonArray<int>(srcItems, &SourceItem::line);
+   src["column"] = toJsonArray<int>(srcItems, &SourceItem::column);
+   result["source_items"] = src;
+
+   pResponse->setResult(result);
+
+   return Success();
+}
+
 
 bool namespaceIsPackage(const std::string& namespaceName,
                         std::string* pPackage)
@@ -2620,6 +2723,7 @@ Error initialize()
    ExecBlock initBlock;
    initBlock.addFunctions()
       (bind(registerRpcMethod, "search_code", searchCode))
+      (bind(registerRpcMethod, "get_code_search_index", getCodeSearchIndex))
       (bind(registerRpcMethod, "get_function_definition", getFunctionDefinition))
       (bind(registerRpcMethod, "get_search_path_function_definition", getSearchPathFunctionDefinition))
       (bind(registerRpcMethod, "get_method_definition", getMethodDefinition))
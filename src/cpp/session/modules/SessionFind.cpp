@@ -63,8 +63,17 @@ const std::string& findCategory()
 
 namespace {
 
-// This must be the same as MAX_COUNT in FindOutputPane.java
-const size_t MAX_COUNT = 1000;
+// The most matching lines a search collects. This must be the same as
+// MAX_COUNT in FindOutputPresenter.java
+const size_t MAX_COUNT = 50000;
+
+// The first matching lines, which are sent to the client as they're found;
+// the client fetches the rest a page at a time with get_find_results. This
+// must be the same as STREAMED_COUNT in FindOutputPresenter.java
+const size_t STREAMED_COUNT = 1000;
+
+// The most matching lines returned by one get_find_results call
+const size_t MAX_PAGE_SIZE = 1000;
 
 const size_t MAX_LINE_LENGTH = 3000;
 
@@ -202,7 +211,8 @@ public:
                   const json::Array& matchOns,
                   const json::Array& matchOffs,
                   const json::Array& replaceMatchOns,
-                  const json::Array& replaceMatchOffs)
+                  const json::Array& replaceMatchOffs,
+                  const json::Array& errors)
    {
       if (handle_.empty())
          handle_ = handle;
@@ -218,9 +228,38 @@ public:
                std::back_inserter(replaceMatchOns_));
       std::copy(replaceMatchOffs.begin(), replaceMatchOffs.end(),
                 std::back_inserter(replaceMatchOffs_));
+      std::copy(errors.begin(), errors.end(), std::back_inserter(errors_));
       return true;
    }
 
+   // The results from offset (at most count of them), in the form sent to
+   // the client
+   json::Object resultsAsJson(size_t offset, size_t count) const
+   {
+      json::Object results;
+      results["file"] = slice(files_, offset, count);
+      results["line"] = slice(lineNums_, offset, count);
+      results["lineValue"] = slice(contents_, offset, count);
+      results["matchOn"] = slice(matchOns_, offset, count);
+      results["matchOff"] = slice(matchOffs_, offset, count);
+      results["replaceMatchOn"] = slice(replaceMatchOns_, offset, count);
+      results["replaceMatchOff"] = slice(replaceMatchOffs_, offset, count);
+
+      // errors aren't read back after a suspend
+      json::Array errors;
+      size_t end = std::min(offset + count, files_.getSize());
+      for (size_t i = offset; i < end; i++)
+      {
+         if (i < errors_.getSize())
+            errors.push_back(errors_.getValueAt(i));
+         else
+            errors.push_back(json::Array());
+      }
+      results["errors"] = errors;
+
+      return results;
+   }
+
    void onFindBegin(const std::string& handle,
                     const std::string& input,
                     const std::string& path,
@@ -278,6 +317,7 @@ public:
       contents_.clear();
       matchOns_.clear();
       matchOffs_.clear();
+      errors_.clear();
       replace_ = false;
       preview_ = false;
       replacePattern_.clear();
@@ -321,11 +361,13 @@ public:
          lineNums_.clear();
          contents_.clear();
       }
+      errors_.clear();
 
       return Success();
    }
 
-   json::Object asJson()
+   // The state, with at most maxResults of the results
+   json::Object asJson(size_t maxResults = MAX_COUNT + 1)
    {
       json::Object obj;
       obj["handle"] = handle_;
@@ -334,15 +376,8 @@ public:
       obj["regex"] = regex_;
       obj["ignoreCase"] = ignoreCase_;
 
-      json::Object results;
-      results["file"] = files_;
-      results["line"] = lineNums_;
-      results["lineValue"] = contents_;
-      results["matchOn"] = matchOns_;
-      results["matchOff"] = matchOffs_;
-      results["replaceMatchOn"] = replaceMatchOns_;
-      results["replaceMatchOff"] = replaceMatchOffs_;
-      obj["results"] = results;
+      obj["results"] = resultsAsJson(0, maxResults);
+      obj["total"] = resultCount();
 
       obj["running"] = running_;
 
@@ -355,6 +390,15 @@ public:
    }
 
 private:
+   static json::Array slice(const json::Array& array, size_t offset, size_t count)
+   {
+      json::Array result;
+      size_t end = std::min(offset + count, array.getSize());
+      for (size_t i = offset; i < end; i++)
+         result.push_back(array.getValueAt(i));
+      return result;
+   }
+
    std::string handle_;
    std::string input_;
    std::string path_;
@@ -372,6 +416,7 @@ private:
    std::string replacePattern_;
    json::Array replaceMatchOns_;
    json::Array replaceMatchOffs_;
+   json::Array errors_;
    // this is not tracked via json because it exclusively applies to replaces (not previews)
    // which can not currently be paused
    LocalProgress* pReplaceProgress_;
@@ -927,6 +972,8 @@ private:
       json::Array replaceMatchOns;
       json::Array replaceMatchOffs;
       json::Array errors;
+      int matchCount = 0;
+      int errorCount = 0;
 
       int recordsToProcess = MAX_COUNT + 1 - findResults().resultCount();
       if (recordsToProcess < 0)
@@ -1048,6 +1095,9 @@ private:
             replaceMatchOffs.push_back(replaceMatchOff);
             json::Array combinedErrors = json::toJsonArray(errorMessage);
             errors.push_back(combinedErrors);
+            matchCount += gsl::narrow_cast<int>(matchOn.getSize());
+            if (!errorMessage.empty())
+               errorCount++;
             recordsToProcess--;
          }
       }
@@ -1063,6 +1113,8 @@ private:
          if (!errorMessage.empty())
          {
             json::Array lastErrors = errors.getBack().getArray();
+            if (lastErrors.isEmpty())
+               errorCount++;
             errors.erase(--errors.end());
             lastErrors.push_back(json::Value(*errorMessage.begin()));
             errors.push_back(lastErrors);
@@ -1076,34 +1128,35 @@ private:
 
       if (files.getSize() > 0)
       {
-         json::Object result;
-         result["handle"] = handle();
-         json::Object results;
-         results["file"] = files;
-         results["line"] = lineNums;
-         results["lineValue"] = contents;
-         results["matchOn"] = matchOns;
-         results["matchOff"] = matchOffs;
-         results["replaceMatchOn"] = replaceMatchOns;
-         results["replaceMatchOff"] = replaceMatchOffs;
-         results["errors"] = errors;
-         result["results"] = results;
-
-         findResults().addResult(handle(),
-                                 files,
-                                 lineNums,
-                                 contents,
-                                 matchOns,
-                                 matchOffs,
-                                 replaceMatchOns,
-                                 replaceMatchOffs);
-
-         if (!findResults().replace() || findResults().preview())
-            module_context::enqueClientEvent(
-                     ClientEvent(client_events::kFindResult, result));
-         else
-            module_context::enqueClientEvent(
-                    ClientEvent(client_events::kReplaceResult, result));
+         size_t offset = static_cast<size_t>(findResults().resultCount());
+         if (findResults().addResult(handle(),
+                                     files,
+                                     lineNums,
+                                     contents,
+                                     matchOns,
+                                     matchOffs,
+                                     replaceMatchOns,
+                                     replaceMatchOffs,
+                                     errors))
+         {
+            // only the first results are sent with the event; the client
+            // fetches the rest when it needs them, and just gets the counts
+            size_t count = offset < STREAMED_COUNT ? STREAMED_COUNT - offset : 0;
+
+            json::Object result;
+            result["handle"] = handle();
+            result["results"] = findResults().resultsAsJson(offset, count);
+            result["total"] = findResults().resultCount();
+            result["matchCount"] = matchCount;
+            result["errorCount"] = errorCount;
+
+            if (!findResults().replace() || findResults().preview())
+               module_context::enqueClientEvent(
+                        ClientEvent(client_events::kFindResult, result));
+            else
+               module_context::enqueClientEvent(
+                       ClientEvent(client_events::kReplaceResult, result));
+         }
       }
 
       if (recordsToProcess <= 0)
@@ -1510,6 +1563,33 @@ core::Error stopFind(const json::JsonRpcRequest& request,
    return Success();
 }
 
+core::Error getFindResults(const json::JsonRpcRequest& request,
+                           json::JsonRpcResponse* pResponse)
+{
+   std::string handle;
+   int offset, count;
+   Error error = json::readParams(request.params, &handle, &offset, &count);
+   if (error)
+      return error;
+   if (offset < 0 || count < 0)
+      return Error(json::errc::ParamInvalid, ERROR_LOCATION);
+
+   // results of another search (or none, if they've been cleared) are
+   // reported as empty
+   bool current = !handle.empty() && findResults().handle() == handle;
+
+   json::Object result;
+   result["handle"] = handle;
+   result["results"] = findResults().resultsAsJson(
+            static_cast<size_t>(current ? offset : findResults().resultCount()),
+            std::min(static_cast<size_t>(count), MAX_PAGE_SIZE));
+   result["total"] = current ? findResults().resultCount() : 0;
+   result["running"] = current && findResults().isRunning();
+   pResponse->setResult(result);
+
+   return Success();
+}
+
 core::Error clearFindResults(const json::JsonRpcRequest& /*request*/,
                              json::JsonRpcResponse* /*pResponse*/)
 {
@@ -1621,7 +1701,8 @@ void onResume(const core::Settings& settings)
 
 json::Object findInFilesStateAsJson()
 {
-   return findResults().asJson();
+   // the client fetches the rest of the results when it needs them
+   return findResults().asJson(STREAMED_COUNT);
 }
 
 core::Error initialize()
@@ -1637,6 +1718,7 @@ core::Error initialize()
    initBlock.addFunctions()
       (bind(registerRpcMethod, "begin_find", beginFind))
       (bind(registerRpcMethod, "stop_find", stopFind))
+      (bind(registerRpcMethod, "get_find_results", getFindResults))
       (bind(registerRpcMethod, "clear_find_results", clearFindResults))
       (bind(registerRpcMethod, "preview_replace", previewReplace))
       (bind(registerRpcMethod, "complete_replace", completeReplace))
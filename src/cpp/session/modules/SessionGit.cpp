@@ -1204,7 +1204,7 @@ public:
       else
       {
          std::vector<CommitInfo> output;
-         Error error = log(rev, fileFilter, 0, -1, searchText, &output);
+         Error error = log(rev, fileFilter, 0, -1, searchText, false, &output);
          if (error)
             return error;
          *pLength = gsl::narrow_cast<int>(output.size());
@@ -1217,6 +1217,7 @@ public:
                    int skip,
                    int maxentries,
                    const std::string& searchText,
+                   bool includeGraph,
                    std::vector<CommitInfo>* pOutput)
    {
       ShellArgs args = gitArgs() << "log" << "--encoding=UTF-8"
@@ -1236,6 +1237,12 @@ public:
       {
          // This is a way more efficient way to implement skip and maxentries
          // if we know that all commits are included.
+         if (maxentries >= 0)
+         {
+            // the graph needs every commit up to the end of the page
+            revListArgs << "--max-count=" + safe_convert::numberToString(
+                  (skip < 0 ? 0 : skip) + maxentries);
+         }
          if (skip > 0)
          {
             args << "--skip=" + safe_convert::numberToString(skip);
@@ -1245,9 +1252,6 @@ public:
          {
             args << "--max-count=" + safe_convert::numberToString(maxentries);
             maxentries = -1;
-
-            revListArgs << "--max-count=" + safe_convert::numberToString(
-                  (skip < 0 ? 0 : skip) + maxentries);
          }
       }
 
@@ -1272,8 +1276,11 @@ public:
       outLines = split(output);
       output.clear();
 
+      // the client may lay out the graph itself as it pages through the
+      // history, in which case we don't need to walk the commits up to
+      // this page with rev-list
       std::vector<std::string> graphLines;
-      if (searchText.empty() && fileFilter.isEmpty())
+      if (includeGraph && searchText.empty() && fileFilter.isEmpty())
       {
          std::vector<std::string> revOutLines;
          std::string revOutput;
@@ -2286,12 +2293,14 @@ Error vcsHistory(const json::JsonRpcRequest& request,
    std::string rev, searchText;
    json::Value fileFilterJson;
    int skip, maxentries;
+   bool includeGraph;
    Error error = json::readParams(request.params,
                                   &rev,
                                   &fileFilterJson,
                                   &skip,
                                   &maxentries,
-                                  &searchText);
+                                  &searchText,
+                                  &includeGraph);
    if (error)
       return error;
 
@@ -2300,7 +2309,8 @@ Error vcsHistory(const json::JsonRpcRequest& request,
    boost::algorithm::trim(searchText);
 
    std::vector<CommitInfo> commits;
-   error = s_git_.log(rev, fileFilter, skip, maxentries, searchText, &commits);
+   error = s_git_.log(rev, fileFilter, skip, maxentries, searchText,
+                      includeGraph, &commits);
    if (error)
       return error;
 
@@ -1011,6 +1011,14 @@ SEXP rs_showPythonHelp(SEXP codeSEXP)
    return R_NilValue;
 }
 
+void onPackageLibraryMutated()
+{
+   // installed or removed packages may have different help topics
+   Error error = r::exec::RFunction(".rs.clearHelpTopicsCache").call();
+   if (error)
+      LOG_ERROR(error);
+}
+
 } // anonymous namespace
    
 Error initialize()
@@ -1022,6 +1030,9 @@ Error initialize()
    using core::http::UriHandler;
    using namespace module_context;
    using namespace rstudio::r::function_hook;
+
+   events().onPackageLibraryMutated.connect(onPackageLibraryMutated);
+
    ExecBlock initBlock;
    initBlock.addFunctions()
       (bind(registerRBrowseUrlHandler, handleLocalHttpUrl))
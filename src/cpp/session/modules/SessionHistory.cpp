@@ -256,6 +256,14 @@ Error getHistoryArchiveItems(const json::JsonRpcRequest& request,
    // return json for the appropriate range
    return setJsonResultFromHistory(startIndex, endIndex, pResponse);
 }
+
+Error getHistoryArchiveSize(const json::JsonRpcRequest& request,
+                            json::JsonRpcResponse* pResponse)
+{
+   int historySize = gsl::narrow_cast<int>(historyArchive().entries().size());
+   pResponse->setResult(historySize);
+   return Success();
+}
    
 Error searchHistory(const json::JsonRpcRequest& request,
                     json::JsonRpcResponse* pResponse)
@@ -441,6 +449,7 @@ Error initialize()
       (bind(registerRpcMethod, "remove_history_items", removeHistoryItems))
       (bind(registerRpcMethod, "clear_history", clearHistory))
       (bind(registerRpcMethod, "get_history_archive_items", getHistoryArchiveItems))
+      (bind(registerRpcMethod, "get_history_archive_size", getHistoryArchiveSize))
       (bind(registerRpcMethod, "search_history", searchHistory))
       (bind(registerRpcMethod, "search_history_archive", searchHistoryArchive))
       (bind(registerRpcMethod, "search_history_archive_by_prefix", searchHistoryArchiveByPrefix));
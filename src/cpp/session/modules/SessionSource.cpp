@@ -140,10 +140,11 @@ std::string inferDocumentType(const FilePath& documentPath,
 }
 
 void writeDocToJson(boost::shared_ptr<SourceDocument> pDoc,
-                    core::json::Object* pDocJson)
+                    core::json::Object* pDocJson,
+                    bool includeContents = true)
 {
    // write the doc
-   pDoc->writeToJson(pDocJson);
+   pDoc->writeToJson(pDocJson, includeContents);
 
    // derive the extended type property
    (*pDocJson)["extended_type"] = module_context::events()
@@ -1440,7 +1441,18 @@ SEXP rs_readSourceDocument(SEXP idSEXP)
 
 } // anonymous namespace
 
-Error clientInitDocuments(core::json::Array* pJsonDocs)
+bool isContentsCached(const core::json::Object& cachedHashes,
+                      const std::string& id,
+                      const std::string& hash)
+{
+   json::Object::Iterator cached = cachedHashes.find(id);
+   return cached != cachedHashes.end() &&
+          (*cached).getValue().isString() &&
+          (*cached).getValue().getString() == hash;
+}
+
+Error clientInitDocuments(const core::json::Object& cachedHashes,
+                          core::json::Array* pJsonDocs)
 {
    source_database::events().onRemoveAll();
 
@@ -1470,8 +1482,14 @@ Error clientInitDocuments(core::json::Array* pJsonDocs)
       if (error)
          LOG_ERROR(error);
 
+      // skip the contents of documents the client already has a copy of
+      // (it will fill them in from its cache)
+      bool contentsCached =
+            isContentsCached(cachedHashes, pDoc->id(), pDoc->hash());
+
       json::Object jsonDoc;
-      writeDocToJson(pDoc, &jsonDoc);
+      writeDocToJson(pDoc, &jsonDoc, !contentsCached);
+      jsonDoc["contents_cached"] = contentsCached;
       pJsonDocs->push_back(jsonDoc);
 
       source_database::events().onDocUpdated(pDoc);
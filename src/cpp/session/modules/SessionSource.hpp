@@ -36,7 +36,16 @@ namespace session {
 namespace modules { 
 namespace source {
    
-core::Error clientInitDocuments(core::json::Array* pJsonDocs);
+// True if cachedHashes (document ids mapped to hashes, as sent by the client)
+// maps the given document's id to its current hash.
+bool isContentsCached(const core::json::Object& cachedHashes,
+                      const std::string& id,
+                      const std::string& hash);
+
+// Lists the open documents for the client. Documents whose id maps to their
+// current hash in cachedHashes are listed without their contents.
+core::Error clientInitDocuments(const core::json::Object& cachedHashes,
+                                core::json::Array* pJsonDocs);
 
 core::Error initialize();
                        
@@ -0,0 +1,86 @@
+/*
+ * SessionSourceTests.cpp
+ *
+ * Copyright (C) 2021 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+
+#include "SessionSource.hpp"
+
+#include <session/SessionSourceDatabase.hpp>
+
+#define RSTUDIO_NO_TESTTHAT_ALIASES
+#include <tests/TestThat.hpp>
+
+namespace rstudio {
+namespace session {
+namespace modules {
+namespace source {
+namespace tests {
+
+using namespace rstudio::core;
+
+namespace {
+
+const std::string kId("ABCD1234");
+const std::string kOtherId("EFGH5678");
+const std::string kContents("x <- 1\ny <- 2\n");
+const std::string kEditedContents("x <- 1\ny <- 3\n");
+
+} // anonymous namespace
+
+TEST_CASE("SessionSource")
+{
+   source_database::SourceDocument doc;
+   doc.setContents(kContents);
+
+   SECTION("Contents are skipped when the client's hash matches")
+   {
+      json::Object cachedHashes;
+      cachedHashes[kId] = doc.hash();
+      CHECK(isContentsCached(cachedHashes, kId, doc.hash()));
+   }
+
+   SECTION("Contents are sent when the client's copy is stale")
+   {
+      source_database::SourceDocument edited;
+      edited.setContents(kEditedContents);
+
+      json::Object cachedHashes;
+      cachedHashes[kId] = doc.hash();
+      CHECK_FALSE(isContentsCached(cachedHashes, kId, edited.hash()));
+   }
+
+   SECTION("Contents are sent when the client has no copy")
+   {
+      json::Object cachedHashes;
+      CHECK_FALSE(isContentsCached(cachedHashes, kId, doc.hash()));
+
+      cachedHashes[kOtherId] = doc.hash();
+      CHECK_FALSE(isContentsCached(cachedHashes, kId, doc.hash()));
+   }
+
+   SECTION("Contents are sent when the client's hash isn't a string")
+   {
+      json::Object cachedHashes;
+      cachedHashes[kId] = 42;
+      CHECK_FALSE(isContentsCached(cachedHashes, kId, doc.hash()));
+
+      cachedHashes[kId] = json::Value();
+      CHECK_FALSE(isContentsCached(cachedHashes, kId, doc.hash()));
+   }
+}
+
+} // namespace tests
+} // namespace source
+} // namespace modules
+} // namespace session
+} // namespace rstudio
@@ -47,6 +47,7 @@
 
 #include <session/SessionConsoleProcess.hpp>
 #include <session/SessionModuleContext.hpp>
+#include <session/SessionSourceDatabase.hpp>
 #include <session/RVersionSettings.hpp>
 #include <session/SessionTerminalShell.hpp>
 
@@ -72,40 +73,96 @@ namespace {
 
 module_context::WaitForMethodFunction s_waitForEditorContext;
 
-SEXP rs_getEditorContext(SEXP typeSEXP)
+bool requestEditorContext(int type,
+                          bool contentsRequired,
+                          json::JsonRpcRequest* pRequest)
 {
-   int type = r::sexp::asInteger(typeSEXP);
-   
+   json::Object data;
+   data["type"] = type;
+   data["contents_required"] = contentsRequired;
+
    json::Object eventData;
    eventData["type"] = "editor_context";
-   eventData["data"] = type;
+   eventData["data"] = data;
    
    // send the event
    ClientEvent editorContextEvent(client_events::kEditorCommand, eventData);
    
    // wait for event to complete
-   json::JsonRpcRequest request;
+   return s_waitForEditorContext(pRequest, editorContextEvent);
+}
+
+Error readEditorContext(const json::JsonRpcRequest& request,
+                        std::string* pId,
+                        std::string* pPath,
+                        std::string* pHash,
+                        std::string* pContents,
+                        json::Array* pSelection)
+{
+   json::Object context;
+   Error error = json::readParams(request.params, &context);
+   if (error)
+      return error;
+
+   error = json::readObject(context,
+                            "id", *pId,
+                            "path", *pPath,
+                            "contents", *pContents,
+                            "selection", *pSelection);
+   if (error)
+      return error;
+
+   // the hash is only sent by clients which can omit the contents
+   return json::getOptionalParam(context, "hash", std::string(), pHash);
+}
+
+SEXP rs_getEditorContext(SEXP typeSEXP)
+{
+   int type = r::sexp::asInteger(typeSEXP);
    
-   bool succeeded = s_waitForEditorContext(&request, editorContextEvent);
-   if (!succeeded)
+   // ask for the context without the contents, which the client will omit
+   // if the document is in sync with our copy of it
+   json::JsonRpcRequest request;
+   if (!requestEditorContext(type, false, &request))
       return R_NilValue;
    
    std::string id;
    std::string path;
+   std::string hash;
    std::string contents;
    json::Array selection;
    
-   Error error = json::readObjectParam(request.params, 0,
-                                       "id", &id,
-                                       "path", &path,
-                                       "contents", &contents,
-                                       "selection", &selection);
+   Error error = readEditorContext(request, &id, &path, &hash, &contents, &selection);
    if (error)
    {
       LOG_ERROR(error);
       return R_NilValue;
    }
    
+   if (!hash.empty())
+   {
+      boost::shared_ptr<source_database::SourceDocument> pDoc(
+               new source_database::SourceDocument());
+      error = source_database::get(id, pDoc);
+      if (error)
+         pDoc.reset();
+
+      if (!resolveEditorContextContents(hash, pDoc.get(), &contents))
+      {
+         // our copy is stale; ask again, this time for the full contents
+         json::JsonRpcRequest contentsRequest;
+         if (!requestEditorContext(type, true, &contentsRequest))
+            return R_NilValue;
+
+         error = readEditorContext(contentsRequest, &id, &path, &hash, &contents, &selection);
+         if (error)
+         {
+            LOG_ERROR(error);
+            return R_NilValue;
+         }
+      }
+   }
+   
    // if the id is empty, implies the source window is closed or
    // no documents were available
    if (id.empty())
@@ -468,6 +525,21 @@ Error setUserCrashHandlerPrompted(const json::JsonRpcRequest& request,
 }
 
 } // anonymous namespace
+
+bool resolveEditorContextContents(const std::string& hash,
+                                  const source_database::SourceDocument* pDoc,
+                                  std::string* pContents)
+{
+   // no hash: the client sent the contents
+   if (hash.empty())
+      return true;
+
+   if (pDoc == nullptr || pDoc->hash() != hash)
+      return false;
+
+   *pContents = pDoc->contents();
+   return true;
+}
    
 std::string editFileCommand()
 {
@@ -31,6 +31,14 @@ namespace core {
 }
 }
  
+namespace rstudio {
+namespace session {
+namespace source_database {
+   class SourceDocument;
+}
+}
+}
+ 
 namespace rstudio {
 namespace session {
 namespace modules { 
@@ -38,6 +46,15 @@ namespace workbench {
    
 std::string editFileCommand();
 
+// Resolves the document contents sent in reply to an editor context request.
+// Clients omit the contents when their copy of the document matches ours,
+// sending the hash of that version instead. Returns false if the hash doesn't
+// match our copy (pDoc, which may be null), in which case the contents need
+// to be requested again.
+bool resolveEditorContextContents(const std::string& hash,
+                                  const source_database::SourceDocument* pDoc,
+                                  std::string* pContents);
+
 core::Error initialize();
 
 template <typename T>
@@ -0,0 +1,79 @@
+/*
+ * SessionWorkbenchTests.cpp
+ *
+ * Copyright (C) 2021 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+
+#include "SessionWorkbench.hpp"
+
+#include <shared_core/Hash.hpp>
+
+#include <session/SessionSourceDatabase.hpp>
+
+#define RSTUDIO_NO_TESTTHAT_ALIASES
+#include <tests/TestThat.hpp>
+
+namespace rstudio {
+namespace session {
+namespace modules {
+namespace workbench {
+namespace tests {
+
+using namespace rstudio::core;
+
+namespace {
+
+const std::string kContents("x <- 1\ny <- 2\n");
+const std::string kEditedContents("x <- 1\ny <- 3\n");
+
+} // anonymous namespace
+
+TEST_CASE("SessionWorkbench")
+{
+   source_database::SourceDocument doc;
+   doc.setContents(kContents);
+
+   SECTION("Editor context contents sent by the client are used as-is")
+   {
+      std::string contents(kEditedContents);
+      CHECK(resolveEditorContextContents(std::string(), &doc, &contents));
+      CHECK(contents == kEditedContents);
+   }
+
+   SECTION("Editor context contents are taken from a matching document")
+   {
+      std::string contents;
+      CHECK(resolveEditorContextContents(doc.hash(), &doc, &contents));
+      CHECK(contents == kContents);
+   }
+
+   SECTION("Editor context contents aren't taken from a stale document")
+   {
+      std::string contents;
+      std::string hash = hash::crc32Hash(kEditedContents);
+      CHECK_FALSE(resolveEditorContextContents(hash, &doc, &contents));
+      CHECK(contents.empty());
+   }
+
+   SECTION("Editor context contents aren't taken from a missing document")
+   {
+      std::string contents;
+      CHECK_FALSE(resolveEditorContextContents(doc.hash(), nullptr, &contents));
+      CHECK(contents.empty());
+   }
+}
+
+} // namespace tests
+} // namespace workbench
+} // namespace modules
+} // namespace session
+} // namespace rstudio
@@ -26,6 +26,9 @@
 #include <r/RJson.hpp>
 
 #include <core/Exec.hpp>
+#include <core/http/Request.hpp>
+#include <core/http/Response.hpp>
+#include <shared_core/SafeConvert.hpp>
 
 #include <session/SessionModuleContext.hpp>
 
@@ -69,6 +72,72 @@ void handleNotebookDataResReq(const http::Request& request,
 
 } // anonymous namespace
 
+Error readDataOutput(const FilePath& dataFile,
+                     int start,
+                     int count,
+                     json::Value* pValue)
+{
+   SEXP dataSEXP;
+   r::sexp::Protect rProtect;
+   Error error = r::exec::RFunction(
+      ".rs.readDataCapture",
+      string_utils::utf8ToSystem(dataFile.getAbsolutePath()),
+      start,
+      count).call(
+         &dataSEXP,
+         &rProtect);
+   if (error)
+      return error;
+
+   return r::json::jsonValueFromList(dataSEXP, pValue);
+}
+
+Error handleDataOutputRowsRequest(const FilePath& dataFile,
+                                  const http::Request& request,
+                                  http::Response* pResponse)
+{
+   // parameters may be omitted (and take their defaults), but if given must
+   // describe a sensible range
+   std::string startParam = request.queryParamValue("start");
+   std::string countParam = request.queryParamValue("count");
+   boost::optional<int> start = startParam.empty() ?
+            boost::optional<int>(0) :
+            safe_convert::stringTo<int>(startParam);
+   boost::optional<int> count = countParam.empty() ?
+            boost::optional<int>(kDataOutputRows) :
+            safe_convert::stringTo<int>(countParam);
+   if (!start || !count ||
+       *start < 0 ||
+       *count < 1 || *count > kMaxDataOutputRowsPerRequest)
+   {
+      pResponse->setError(http::status::BadRequest, "Invalid row range");
+      return Success();
+   }
+
+   json::Value dataJson;
+   Error error = readDataOutput(dataFile, *start, *count, &dataJson);
+   if (error)
+   {
+      LOG_ERROR(error);
+      pResponse->setStatusCode(http::status::InternalServerError);
+      return Success();
+   }
+
+   json::Value rows = json::Array();
+   if (dataJson.isObject())
+   {
+      json::Object dataObject = dataJson.getObject();
+      json::Object::Iterator it = dataObject.find("data");
+      if (it != dataObject.end())
+         rows = (*it).getValue();
+   }
+
+   pResponse->setNoCacheHeaders();
+   pResponse->setContentType("application/json");
+   pResponse->setBody(rows.write());
+   return Success();
+}
+
 // provide default constructor/destructor
 DataCapture::DataCapture()
 {
@@ -23,6 +23,10 @@ namespace rstudio {
 namespace core {
    class FilePath;
    class Error;
+namespace http {
+   class Request;
+   class Response;
+}
 }
 }
 
@@ -32,6 +36,12 @@ namespace modules {
 namespace rmarkdown {
 namespace notebook {
 
+// the number of rows sent to the client with a data output
+#define kDataOutputRows 100
+
+// the most rows the client may request at once when paging a data output
+#define kMaxDataOutputRowsPerRequest 1000
+
 class DataCapture : public NotebookCapture
 {
 public:
@@ -46,6 +56,19 @@ private:
 
 core::Error initData();
 
+// Reads the table data in a data output file for the client, which gets the
+// first rows with the output and fetches the others as they're needed
+core::Error readDataOutput(const core::FilePath& dataFile,
+                           int start,
+                           int count,
+                           core::json::Value* pValue);
+
+// Serves rows from a data output file; the requested rows are given in the
+// "start" and "count" query parameters
+core::Error handleDataOutputRowsRequest(const core::FilePath& dataFile,
+                                        const core::http::Request& request,
+                                        core::http::Response* pResponse);
+
 } // namespace notebook
 } // namespace rmarkdown
 } // namespace modules
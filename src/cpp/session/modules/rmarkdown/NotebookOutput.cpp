@@ -15,6 +15,7 @@
 
 #include "SessionRmdNotebook.hpp"
 #include "NotebookCache.hpp"
+#include "NotebookData.hpp"
 #include "NotebookOutput.hpp"
 #include "NotebookPlots.hpp"
 
@@ -178,23 +179,22 @@ Error fillOutputObject(const std::string& docId, const std::string& chunkId,
    }
    else if (outputType == ChunkOutputData)
    {
-      SEXP argsSEXP;
-      r::sexp::Protect rProtect;
-
-      Error error = r::exec::RFunction(
-         ".rs.readDataCapture",
-         string_utils::utf8ToSystem(path.getAbsolutePath())).call(
-            &argsSEXP,
-            &rProtect);
-
-      if (error)
-         return error;
-
+      // send the first rows of the table; the client requests the others
+      // from the data file's URL as needed
       json::Value valJson;
-      error = r::json::jsonValueFromList(argsSEXP, &valJson);
+      Error error = readDataOutput(path, 0, kDataOutputRows, &valJson);
       if (error)
          return error;
 
+      if (valJson.isObject())
+      {
+         json::Object dataJson = valJson.getObject();
+         dataJson["rows_url"] = kChunkOutputPath "/" + nbCtxId + "/" +
+                                docId + "/" + chunkId + "/" +
+                                path.getFilename();
+         valJson = dataJson;
+      }
+
       (*pObj)[kChunkOutputValue] = valJson;
    }
 
@@ -315,6 +315,10 @@ Error handleChunkOutputRequest(const http::Request& request,
       }
    }
 
+   // requests for data files are for rows of their tables
+   if (target.hasExtensionLowerCase(".rdf"))
+      return handleDataOutputRowsRequest(target, request, pResponse);
+
    bool isHtml = target.hasExtensionLowerCase(".htm") ||
                  target.hasExtensionLowerCase(".html");
 
@@ -140,6 +140,19 @@ core::Error UserPrefValues::setRemoveHistoryDuplicates(bool val)
    return writePref("remove_history_duplicates", val);
 }
 
+/**
+ * The maximum number of history entries to download and index for searching in the browser. Larger histories are searched by the R session.
+ */
+int UserPrefValues::historySearchIndexLimit()
+{
+   return readPref<int>("history_search_index_limit");
+}
+
+core::Error UserPrefValues::setHistorySearchIndexLimit(int val)
+{
+   return writePref("history_search_index_limit", val);
+}
+
 /**
  * Show the result of the last expression (.Last.value) in the Environment pane.
  */
@@ -2895,6 +2908,7 @@ std::vector<std::string> UserPrefValues::allKeys()
       kBioconductorMirrorUrl,
       kAlwaysSaveHistory,
       kRemoveHistoryDuplicates,
+      kHistorySearchIndexLimit,
       kShowLastDotValue,
       kLineEndingConversion,
       kUseNewlinesInMakefiles,
@@ -144,10 +144,16 @@ if (!Array.prototype.map) {
    };
 }
 
-var PagedTable = function (pagedTable) {
+// The table's source is read from its data-pagedtable-source element, unless
+// it's given as pagedTableSource. A given source may hold only some of the
+// table's rows in its data (with rowCount giving the number of rows), along
+// with a fetchRows(start, end, callback) function that loads the rows in
+// [start, end) into data and then calls callback (with a message describing
+// the problem, if the rows couldn't be loaded).
+var PagedTable = function (pagedTable, pagedTableSource) {
    var me = this;
 
-   var source = (function (pagedTable) {
+   var source = pagedTableSource || (function (pagedTable) {
       var sourceElems = [].slice.call(pagedTable.children).filter(function (e) {
          return e.hasAttribute("data-pagedtable-source");
       });
@@ -229,7 +235,7 @@ var PagedTable = function (pagedTable) {
       };
 
       var totalPages = function () {
-         return Math.ceil(data.length / me.rows);
+         return Math.ceil(rowCount / me.rows);
       };
 
       me.number = 0;
@@ -305,13 +311,13 @@ var PagedTable = function (pagedTable) {
 
       me.getRowEnd = function () {
          var rowStart = me.getRowStart();
-         return Math.min(rowStart + me.rows, data.length);
+         return Math.min(rowStart + me.rows, rowCount);
       };
 
       me.getPaddingRows = function () {
          var rowStart = me.getRowStart();
          var rowEnd = me.getRowEnd();
-         return data.length > me.rows ? me.rows - (rowEnd - rowStart) : 0;
+         return rowCount > me.rows ? me.rows - (rowEnd - rowStart) : 0;
       };
    };
 
@@ -350,7 +356,9 @@ var PagedTable = function (pagedTable) {
          columns.forEach(function (column) {
             var maxChars = Math.max(column.label.toString().length, column.type.toString().length);
 
-            for (var idxRow = 0; idxRow < Math.min(widthsLookAhead, data.length); idxRow++) {
+            for (var idxRow = 0; idxRow < Math.min(widthsLookAhead, rowCount); idxRow++) {
+               // rows which haven't been fetched yet don't count
+               if (typeof data[idxRow] === "undefined") continue;
                maxChars = Math.max(maxChars, data[idxRow][column.name.toString()].length);
             }
 
@@ -439,6 +447,7 @@ var PagedTable = function (pagedTable) {
    };
 
    var data = source.data;
+   var rowCount = typeof source.rowCount === "number" ? source.rowCount : data.length;
    var page = new Page(data, options);
    var measurer = new Measurer(data, options);
    var columns = new Columns(data, source.columns, options);
@@ -691,12 +700,48 @@ var PagedTable = function (pagedTable) {
       }
    };
 
+   var hasRows = function (rowStart, rowEnd) {
+      for (var idxRow = rowStart; idxRow < rowEnd; idxRow++) {
+         if (typeof data[idxRow] === "undefined") return false;
+      }
+      return true;
+   };
+
+   var showFetchError = function (error) {
+      if (!tbody || !tbody.firstChild || !tbody.firstChild.firstChild) return;
+
+      var cell = tbody.firstChild.firstChild;
+      cell.textContent = error;
+      cell.setAttribute("class", "pagedtable-error-cell");
+   };
+
    var renderBody = function (clear) {
+      var rowStart = page.getRowStart();
+      var rowEnd = page.getRowEnd();
+
+      // if we don't have the page's rows yet, fetch them and render the page
+      // empty for now; it's rendered again once they arrive (if it's still
+      // the current page)
+      var pending = !hasRows(rowStart, rowEnd) && typeof source.fetchRows === "function";
+      if (pending) {
+         source.fetchRows(rowStart, rowEnd, function (error) {
+            if (error) {
+               // show the error in place of the rows, if they're still
+               // showing; visiting the page again tries again
+               if (page.getRowStart() === rowStart && !hasRows(rowStart, rowEnd))
+                  showFetchError(error);
+            } else if (hasRows(page.getRowStart(), page.getRowEnd())) {
+               renderBody();
+               triggerOnChange();
+            }
+         });
+      }
+
       cachedPagedTableClientWidth = pagedTable.clientWidth;
 
       var fragment = document.createDocumentFragment();
 
-      var pageData = data.slice(page.getRowStart(), page.getRowEnd());
+      var pageData = pending ? [] : data.slice(rowStart, rowEnd);
 
       pageData.forEach(function (dataRow, idxRow) {
          var htmlRow = document.createElement("tr");
@@ -737,7 +782,8 @@ var PagedTable = function (pagedTable) {
          fragment.appendChild(htmlRow);
       });
 
-      for (var idxPadding = 0; idxPadding < page.getPaddingRows(); idxPadding++) {
+      var paddingRows = page.getPaddingRows() + (pending ? rowEnd - rowStart : 0);
+      for (var idxPadding = 0; idxPadding < paddingRows; idxPadding++) {
          var paddingRow = document.createElement("tr");
 
          var paddingCellRow = document.createElement("td");
@@ -758,7 +804,7 @@ var PagedTable = function (pagedTable) {
    var getLabelInfo = function () {
       var pageStart = page.getRowStart();
       var pageEnd = page.getRowEnd();
-      var totalRows = data.length;
+      var totalRows = rowCount;
 
       var totalRowsLabel = options.rows.total ? options.rows.total : totalRows;
       var totalRowsLabelFormat = totalRowsLabel
@@ -824,7 +870,7 @@ var PagedTable = function (pagedTable) {
 
          triggerOnChange();
       };
-      if (data.length > page.rows) footer.appendChild(next);
+      if (rowCount > page.rows) footer.appendChild(next);
 
       var pageNumbers = document.createElement("div");
       pageNumbers.setAttribute("class", "pagedtable-indexes");
@@ -857,7 +903,7 @@ var PagedTable = function (pagedTable) {
          pageNumbers.appendChild(pageLink);
       }
 
-      if (data.length > page.rows) footer.appendChild(pageNumbers);
+      if (rowCount > page.rows) footer.appendChild(pageNumbers);
 
       var previous = document.createElement("a");
       previous.appendChild(document.createTextNode("Previous"));
@@ -868,7 +914,7 @@ var PagedTable = function (pagedTable) {
 
          triggerOnChange();
       };
-      if (data.length > page.rows) footer.appendChild(previous);
+      if (rowCount > page.rows) footer.appendChild(previous);
 
       var infoLabel = document.createElement("div");
       infoLabel.setAttribute("class", "pagedtable-info");
@@ -881,7 +927,7 @@ var PagedTable = function (pagedTable) {
       previous.setAttribute("class", page.number <= 0 ? disabledClass : enabledClass);
       next.setAttribute(
          "class",
-         (page.number + 1) * page.rows >= data.length ? disabledClass : enabledClass
+         (page.number + 1) * page.rows >= rowCount ? disabledClass : enabledClass
       );
    };
 
@@ -911,9 +957,9 @@ var PagedTable = function (pagedTable) {
       tableDiv = document.createElement("div");
       pagedTable.appendChild(tableDiv);
       var pagedTableClass =
-         data.length > 0 ? "pagedtable pagedtable-not-empty" : "pagedtable pagedtable-empty";
+         rowCount > 0 ? "pagedtable pagedtable-not-empty" : "pagedtable pagedtable-empty";
 
-      if (columns.total == 0 || (columns.emptyNames() && data.length == 0)) {
+      if (columns.total == 0 || (columns.emptyNames() && rowCount == 0)) {
          pagedTableClass = pagedTableClass + " pagedtable-empty-columns";
       }
 
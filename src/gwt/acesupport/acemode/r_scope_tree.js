@@ -558,6 +558,48 @@ define('mode/r_scope_tree', ["require", "exports", "module"], function(require,
          this.printScopeTree();
       };
 
+      // Removes the top-level scopes beginning on or after the given row,
+      // returning them in document order. Used to hold on to the scopes
+      // following an edit while the scopes before them are rebuilt.
+      this.detachTopLevelScopes = function(row) {
+         var children = this.$root.$children;
+         var index = children.length;
+         while (index > 0 && children[index - 1].preamble.row >= row)
+            index--;
+         return children.splice(index, children.length - index);
+      };
+
+      // Appends scopes previously removed with 'detachTopLevelScopes' (from
+      // the given index onwards) to the top level.
+      this.attachTopLevelScopes = function(nodes, from) {
+         for (var i = from; i < nodes.length; i++) {
+            nodes[i].parentScope = this.$root;
+            this.$root.$children.push(nodes[i]);
+         }
+         this.$root.end = null;
+      };
+
+      // Moves the given scopes (from the given index onwards), along with
+      // their descendants, down by 'delta' rows.
+      this.shiftScopes = function(nodes, from, delta) {
+         for (var i = from; i < nodes.length; i++)
+            $shiftNode(nodes[i], delta);
+      };
+
+      // NOTE: positions may be shared between nodes (e.g. a node's end and
+      // that of its last child), so we replace rather than modify them
+      function $shiftPos(pos, delta) {
+         return pos ? {row: pos.row + delta, column: pos.column} : pos;
+      }
+
+      function $shiftNode(node, delta) {
+         node.start = $shiftPos(node.start, delta);
+         node.preamble = $shiftPos(node.preamble, delta);
+         node.end = $shiftPos(node.end, delta);
+         for (var i = 0; i < node.$children.length; i++)
+            $shiftNode(node.$children[i], delta);
+      }
+
       function $getChunkCount(node) {
          count = node.isChunk() ? 1 : 0;
          var children = node.$children || [];
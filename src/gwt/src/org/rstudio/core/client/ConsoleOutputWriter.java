@@ -42,6 +42,19 @@ public class ConsoleOutputWriter
          output_.getElement().setAttribute("aria-label", a11yLabel);
          Roles.getDocumentRole().set(output_.getElement());
       }
+
+      // drop the output's scroller when it leaves the document, so the
+      // manager doesn't hold on to it (a new one is created if the output
+      // is attached again)
+      output_.addAttachHandler(event ->
+      {
+         if (event.isAttached())
+            return;
+
+         VirtualScrollerManager.remove(output_.getElement());
+         if (virtualConsole_ != null)
+            virtualConsole_.releaseScroller();
+      });
    }
 
    public PreWidget getWidget()
@@ -124,12 +137,19 @@ public class ConsoleOutputWriter
          }
       }
 
-      int oldLineCount = DomUtils.countLines(appendTarget, true);
-      virtualConsole_.submit(text, className, isError, ariaLiveAnnounce);
-      int newLineCount = DomUtils.countLines(appendTarget, true);
-
-      if (!virtualConsole_.isLimitConsoleVisible())
+      // lines are only counted (which means walking the output's text) when
+      // they're limited by trimming rather than by the virtual scroller
+      if (virtualConsole_.isLimitConsoleVisible())
+      {
+         virtualConsole_.submit(text, className, isError, ariaLiveAnnounce);
+      }
+      else
+      {
+         int oldLineCount = DomUtils.countLines(appendTarget, true);
+         virtualConsole_.submit(text, className, isError, ariaLiveAnnounce);
+         int newLineCount = DomUtils.countLines(appendTarget, true);
          lines_ += newLineCount - oldLineCount;
+      }
 
       return ignoreLineCount || !trimExcess();
    }
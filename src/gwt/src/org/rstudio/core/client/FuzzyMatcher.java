@@ -0,0 +1,169 @@
+/*
+ * FuzzyMatcher.java
+ *
+ * Copyright (C) 2021 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.core.client;
+
+/**
+ * Matches and scores candidates against a query, where the query's
+ * characters must appear (case-insensitively) in order in the candidate.
+ * Used to filter and rank code completions and Go to File/Function results.
+ *
+ * A matcher is created once per query. Candidates are matched by their keys
+ * (see fold), which callers can compute once per candidate and reuse across
+ * queries; matching and scoring then don't allocate.
+ *
+ * Scores are penalties (lower is better), computed as by scoreMatch in
+ * SessionCodeSearch.cpp. When modifying the scoring, be sure to make the
+ * same change on the server.
+ */
+public class FuzzyMatcher
+{
+   public FuzzyMatcher(String query)
+   {
+      query_ = query;
+      queryKey_ = fold(query);
+      positions_ = new int[queryKey_.length()];
+   }
+
+   /**
+    * Returns the key used to match the given candidate.
+    */
+   public static String fold(String candidate)
+   {
+      return candidate.toLowerCase();
+   }
+
+   public String getQuery()
+   {
+      return query_;
+   }
+
+   /**
+    * Returns true if every character of the query appears, in order, in the
+    * candidate with the given key.
+    */
+   public boolean matches(String key)
+   {
+      int n = queryKey_.length();
+      if (n > key.length())
+         return false;
+
+      int index = -1;
+      for (int i = 0; i < n; i++)
+      {
+         index = key.indexOf(queryKey_.charAt(i), index + 1);
+         if (index == -1)
+            return false;
+      }
+      return true;
+   }
+
+   public int score(String candidate, boolean isFile)
+   {
+      return score(candidate, fold(candidate), isFile);
+   }
+
+   /**
+    * Scores the candidate (with the given key) against the query. The
+    * positions of the matched characters are available from
+    * getMatchPosition until the next call.
+    */
+   public int score(String candidate, String key, boolean isFile)
+   {
+      // find the earliest match of each character of the query, in order;
+      // characters that can't be matched are skipped
+      matchCount_ = 0;
+      int index = -1;
+      for (int i = 0, n = queryKey_.length(); i < n; i++)
+      {
+         int match = key.indexOf(queryKey_.charAt(i), index + 1);
+         if (match == -1)
+            continue;
+
+         positions_[matchCount_++] = match;
+         index = match;
+      }
+
+      // no penalty for identical results
+      if (candidate.equals(query_))
+         return 0;
+
+      // more penalty for 'uninteresting' files and extensions (e.g. .Rd)
+      int extraPenalty = 0;
+      if (candidate.equals("RcppExports.R") || candidate.equals("RcppExports.cpp"))
+         extraPenalty += 6;
+      if (key.endsWith(".rd"))
+         extraPenalty += 6;
+
+      int totalPenalty = 0;
+      for (int j = 0; j < matchCount_; j++)
+      {
+         int matchPos = positions_[j];
+
+         // the initial penalty is equal to the match position
+         int penalty = matchPos;
+
+         // less penalty if character follows special delim
+         if (matchPos >= 1)
+         {
+            char prevChar = key.charAt(matchPos - 1);
+            if (prevChar == '_' || prevChar == '-' ||
+                (!isFile && prevChar == '.'))
+            {
+               penalty = j + 1;
+            }
+         }
+
+         // less penalty for case-sensitive matches (note that, as on the
+         // server, this compares with the j'th character of the query even
+         // if earlier characters went unmatched)
+         if (StringUtil.charAt(candidate, matchPos) == StringUtil.charAt(query_, j))
+            penalty--;
+
+         totalPenalty += penalty + extraPenalty;
+      }
+
+      // penalize file targets
+      if (isFile)
+         totalPenalty++;
+
+      // penalize unmatched characters
+      int n = query_.length();
+      totalPenalty += (n - matchCount_) * n;
+
+      return totalPenalty;
+   }
+
+   /**
+    * The number of query characters matched by the last call to score.
+    */
+   public int getMatchCount()
+   {
+      return matchCount_;
+   }
+
+   /**
+    * The position in the candidate of the i'th matched character, as of the
+    * last call to score.
+    */
+   public int getMatchPosition(int i)
+   {
+      return positions_[i];
+   }
+
+   private final String query_;
+   private final String queryKey_;
+   private final int[] positions_;
+   private int matchCount_;
+}
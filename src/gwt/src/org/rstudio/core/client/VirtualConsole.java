@@ -28,6 +28,7 @@ import com.google.inject.Provider;
 import com.google.inject.assistedinject.Assisted;
 import org.rstudio.core.client.regex.Match;
 import org.rstudio.core.client.regex.Pattern;
+import org.rstudio.core.client.virtualscroller.VirtualScroller;
 import org.rstudio.core.client.virtualscroller.VirtualScrollerManager;
 import org.rstudio.studio.client.workbench.prefs.model.UserPrefs;
 
@@ -91,8 +92,6 @@ public class VirtualConsole
    {
       prefs_ = prefs;
       parent_ = parent;
-
-      VirtualScrollerManager.init();
    }
 
    public void clear()
@@ -115,11 +114,50 @@ public class VirtualConsole
       return !virtualizedDisableOverride_ && prefs_.limitConsoleVisible() && parent_ != null;
    }
 
+   /**
+    * Gets the virtual scroller for the console's output, looking it up the
+    * first time it's needed (output is appended directly if there is none).
+    */
+   private VirtualScroller getScroller()
+   {
+      if (!scrollerResolved_)
+      {
+         // if the output isn't in the document yet, try again next time
+         scroller_ = VirtualScrollerManager.getScroller(parent_.getParentElement());
+         scrollerResolved_ = scroller_ != null ||
+               Document.get().getBody().isOrHasChild(parent_);
+      }
+      return scroller_;
+   }
+
+   /**
+    * Uses the given scroller for the console's output (e.g. one created for
+    * a pane's own scroll panel) rather than looking one up. If it's null,
+    * output is appended directly.
+    */
+   public void setScroller(VirtualScroller scroller)
+   {
+      scroller_ = scroller;
+      scrollerResolved_ = true;
+   }
+
+   /**
+    * Forgets the console's scroller (e.g. after its container was detached);
+    * it's looked up again the next time it's needed.
+    */
+   public void releaseScroller()
+   {
+      scroller_ = null;
+      scrollerResolved_ = false;
+   }
+
    public void clearVirtualScroller()
    {
       if (isVirtualized())
       {
-         VirtualScrollerManager.clear(parent_.getParentElement());
+         VirtualScroller scroller = getScroller();
+         if (scroller != null)
+            scroller.clear();
       }
    }
 
@@ -434,8 +472,9 @@ public class VirtualConsole
     */
    private void appendChild(Element element)
    {
-      if (isVirtualized())
-         VirtualScrollerManager.append(parent_.getParentElement(), element);
+      VirtualScroller scroller = isVirtualized() ? getScroller() : null;
+      if (scroller != null)
+         scroller.append(element);
       else
          parent_.appendChild(element);
    }
@@ -489,9 +528,8 @@ public class VirtualConsole
     */
    public void submit(String data, String clazz, boolean forceNewRange, boolean ariaLiveAnnounce)
    {
-      boolean wasAtBottom = false;
-      if (isVirtualized())
-         wasAtBottom = VirtualScrollerManager.scrolledToBottom(parent_.getParentElement());
+      VirtualScroller scroller = isVirtualized() ? getScroller() : null;
+      boolean wasAtBottom = scroller != null && scroller.scrolledToBottom();
 
       // Only capture new elements when dealing with error output, which
       // is the only place that sets forceNewRange to true. This is just an
@@ -657,15 +695,20 @@ public class VirtualConsole
       if (last != null)
       {
          ClassRange range = last.getValue();
-         if (isVirtualized()) VirtualScrollerManager.prune(parent_.getParentElement(), range.element);
+         if (scroller != null) scroller.prune(range.element);
       }
 
       // If there was any plain text after the last control character, add it
       if (tail < data.length())
          text(data.substring(tail), currentClazz, forceNewRange);
 
-      if (wasAtBottom && isVirtualized())
-         VirtualScrollerManager.scrollToBottom(parent_.getParentElement());
+      if (wasAtBottom)
+         scroller.scrollToBottom();
+
+      // Callers may rearrange the elements captured for error output (e.g.
+      // to swap in an error widget), so they need to be in the document
+      if (captureNewElements_ && scroller != null)
+         scroller.flush();
    }
 
    // Elements added by last submit call; only captured if forceNewRange was true
@@ -684,8 +727,9 @@ public class VirtualConsole
 
    public void ensureStartingOnNewLine()
    {
-      if (isVirtualized())
-         VirtualScrollerManager.ensureStartingOnNewLine(parent_.getParentElement());
+      VirtualScroller scroller = isVirtualized() ? getScroller() : null;
+      if (scroller != null)
+         scroller.ensureStartingOnNewLine();
       else
       {
          Node child = getParent().getLastChild();
@@ -775,6 +819,8 @@ public class VirtualConsole
 
    // only a select few panes should be virtualized. default it to off everywhere.
    private boolean virtualizedDisableOverride_ = true;
+   private VirtualScroller scroller_;
+   private boolean scrollerResolved_;
 
    private final StringBuilder output_ = new StringBuilder();
    private final TreeMap<Integer, ClassRange> class_ = new TreeMap<>();
@@ -0,0 +1,216 @@
+/*
+ * DomScheduler.java
+ *
+ * Copyright (C) 2021 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.core.client.dom;
+
+import java.util.ArrayList;
+
+import org.rstudio.core.client.Debug;
+
+import com.google.gwt.animation.client.AnimationScheduler;
+import com.google.gwt.user.client.Command;
+
+/**
+ * Batches DOM reads and writes into animation frames. In each frame, every
+ * pending measure phase (reading offsets, scroll positions, etc.) runs
+ * before any mutate phase (setting styles, scroll positions, etc.), so
+ * layout is computed once per frame rather than after each write that is
+ * followed by a read.
+ *
+ * Widgets that measure and resize themselves repeatedly should create a
+ * Task once and schedule it whenever they need updating; scheduling a task
+ * that is already pending has no effect, so bursts of updates within a
+ * frame are coalesced.
+ *
+ * Mutations scheduled while a frame is running (e.g. from a measure phase)
+ * run in that frame; anything else scheduled then waits for the next frame.
+ */
+public class DomScheduler
+{
+   public class Task
+   {
+      private Task(Command measure, Command mutate)
+      {
+         measure_ = measure;
+         mutate_ = mutate;
+      }
+
+      /**
+       * Schedules the task to run in the next frame (if it isn't already
+       * scheduled).
+       */
+      public void schedule()
+      {
+         if (pending_)
+            return;
+
+         pending_ = true;
+         tasks_.add(this);
+         requestFrame();
+      }
+
+      /**
+       * Cancels the task if it is scheduled. If it is cancelled between its
+       * measure and mutate phases, the mutate phase is skipped.
+       */
+      public void cancel()
+      {
+         if (pending_)
+         {
+            pending_ = false;
+            tasks_.remove(this);
+         }
+         measured_ = false;
+      }
+
+      public boolean isScheduled()
+      {
+         return pending_;
+      }
+
+      /**
+       * Runs the task now if it is scheduled, for callers which need its
+       * effects before the next frame.
+       */
+      public void flush()
+      {
+         if (!pending_)
+            return;
+
+         cancel();
+         execute(measure_);
+         execute(mutate_);
+      }
+
+      private void measure()
+      {
+         pending_ = false;
+         measured_ = true;
+         execute(measure_);
+      }
+
+      private void mutate()
+      {
+         if (!measured_)
+            return;
+
+         measured_ = false;
+         execute(mutate_);
+      }
+
+      private final Command measure_;
+      private final Command mutate_;
+      private boolean pending_;
+      private boolean measured_;
+   }
+
+   public static DomScheduler get()
+   {
+      if (instance_ == null)
+         instance_ = new DomScheduler();
+      return instance_;
+   }
+
+   /**
+    * Creates a task with the given measure and mutate phases (either may be
+    * null).
+    */
+   public Task createTask(Command measure, Command mutate)
+   {
+      return new Task(measure, mutate);
+   }
+
+   /**
+    * Runs the command with the measure phase of the next frame.
+    */
+   public void measure(Command command)
+   {
+      measures_.add(command);
+      requestFrame();
+   }
+
+   /**
+    * Runs the command with the mutate phase of the current frame (if one is
+    * running) or of the next frame.
+    */
+   public void mutate(Command command)
+   {
+      if (currentMutates_ != null)
+      {
+         currentMutates_.add(command);
+         return;
+      }
+
+      mutates_.add(command);
+      requestFrame();
+   }
+
+   private void requestFrame()
+   {
+      if (frameRequested_)
+         return;
+
+      frameRequested_ = true;
+      AnimationScheduler.get().requestAnimationFrame(timestamp -> runFrame());
+   }
+
+   private void runFrame()
+   {
+      frameRequested_ = false;
+
+      // take everything scheduled so far; anything scheduled while we run
+      // belongs to the next frame
+      ArrayList<Task> tasks = tasks_;
+      ArrayList<Command> measures = measures_;
+      currentMutates_ = mutates_;
+      tasks_ = new ArrayList<>();
+      measures_ = new ArrayList<>();
+      mutates_ = new ArrayList<>();
+
+      for (Task task : tasks)
+         task.measure();
+      for (Command command : measures)
+         execute(command);
+
+      for (Task task : tasks)
+         task.mutate();
+      for (int i = 0; i < currentMutates_.size(); i++)
+         execute(currentMutates_.get(i));
+      currentMutates_ = null;
+   }
+
+   private static void execute(Command command)
+   {
+      if (command == null)
+         return;
+
+      // don't let one misbehaving widget keep the others from updating
+      try
+      {
+         command.execute();
+      }
+      catch (Exception e)
+      {
+         Debug.logException(e);
+      }
+   }
+
+   private ArrayList<Task> tasks_ = new ArrayList<>();
+   private ArrayList<Command> measures_ = new ArrayList<>();
+   private ArrayList<Command> mutates_ = new ArrayList<>();
+   private ArrayList<Command> currentMutates_;
+   private boolean frameRequested_;
+
+   private static DomScheduler instance_;
+}
@@ -22,6 +22,7 @@ import org.rstudio.core.client.ClassIds;
 import org.rstudio.core.client.ElementIds;
 import org.rstudio.core.client.Point;
 import org.rstudio.core.client.StringUtil;
+import org.rstudio.core.client.dom.DomScheduler;
 import org.rstudio.core.client.dom.DomUtils;
 import org.rstudio.core.client.dom.DomUtils.NodePredicate;
 import org.rstudio.core.client.dom.ElementEx;
@@ -87,6 +88,7 @@ import com.google.gwt.user.client.ui.Label;
 import com.google.gwt.user.client.ui.TabLayoutPanel;
 import com.google.gwt.user.client.ui.Widget;
 
+import java.util.ArrayList;
 
 /**
  * A tab panel that is styled for document tabs.
@@ -343,6 +345,16 @@ public class DocTabLayoutPanel
          currentAnimation_ = null;
       }
 
+      // requests made within a frame (e.g. selecting a tab, then resizing)
+      // are coalesced; we only animate if all of them asked us to
+      scrollAnimate_ = scrollTask_.isScheduled() ? scrollAnimate_ && animate : animate;
+      scrollTask_.schedule();
+   }
+
+   private void measureSelectedTabScroll()
+   {
+      scrollHost_ = null;
+
       Element selectedTab = (Element) DomUtils.findNode(
             getElement(),
             true,
@@ -392,37 +404,48 @@ public class DocTabLayoutPanel
       if (edge <= tabBarParent.getOffsetWidth() - rightMargin_)
          end = 0;
 
-      if (start != end)
+      scrollHost_ = tabBarParent;
+      scrollStart_ = start;
+      scrollEnd_ = end;
+   }
+
+   private void scrollToSelectedTab()
+   {
+      final Element tabBarParent = scrollHost_;
+      final int start = scrollStart_;
+      final int end = scrollEnd_;
+      scrollHost_ = null;
+
+      if (tabBarParent == null || start == end)
+         return;
+
+      if (!scrollAnimate_)
       {
-         if (!animate)
-         {
-            tabBarParent.setScrollLeft(end);
-         }
-         else
-         {
-            final int finalEnd = end;
-            currentAnimation_ = new Animation() {
-               @Override
-               protected void onUpdate(double progress)
-               {
-                  double delta = (finalEnd - start) * progress;
-                  tabBarParent.setScrollLeft((int) (start + delta));
-               }
+         tabBarParent.setScrollLeft(end);
+      }
+      else
+      {
+         currentAnimation_ = new Animation() {
+            @Override
+            protected void onUpdate(double progress)
+            {
+               double delta = (end - start) * progress;
+               tabBarParent.setScrollLeft((int) (start + delta));
+            }
 
-               @Override
-               protected void onComplete()
+            @Override
+            protected void onComplete()
+            {
+               if (this == currentAnimation_)
                {
-                  if (this == currentAnimation_)
-                  {
-                     tabBarParent.setScrollLeft(finalEnd);
-                     currentAnimation_ = null;
-                  }
+                  tabBarParent.setScrollLeft(end);
+                  currentAnimation_ = null;
                }
-            };
-            currentAnimation_.run(Math.max(200,
-                                           Math.min(1500,
-                                                    Math.abs(end - start)*2)));
-         }
+            }
+         };
+         currentAnimation_.run(Math.max(200,
+                                        Math.min(1500,
+                                                 Math.abs(end - start)*2)));
       }
    }
 
@@ -858,7 +881,21 @@ public class DocTabLayoutPanel
       {
          lastElementX_ = pos;
 
-         // check to see if we're overlapping with another tab
+         // check for overlap with other tabs in the next frame; mouse moves
+         // come in faster than we can lay out the tab bar, so this way we
+         // measure the tabs and move the placeholder at most once per frame
+         positionTask_.schedule();
+      }
+
+      private void measureTabs()
+      {
+         tabIndices_.clear();
+         tabLefts_.clear();
+         tabWidths_.clear();
+
+         if (curState_ != STATE_DRAGGING || dragTabsHost_ == null)
+            return;
+
          for (int i = 0; i < dragTabsHost_.getChildCount(); i++)
          {
             // skip non-element DOM nodes
@@ -868,23 +905,38 @@ public class DocTabLayoutPanel
                continue;
             }
 
-            // skip the current candidate (no point in testing it for swap)
-            if (i == candidatePos_)
+            // skip the element we're dragging and elements that are not tabs
+            Element ele = (Element)node;
+            if (ele == dragElement_ || !ele.getClassName().contains("gwt-TabLayoutPanelTab"))
             {
                continue;
             }
 
-            // skip the element we're dragging and elements that are not tabs
-            Element ele = (Element)node;
-            if (ele == dragElement_ || !ele.getClassName().contains("gwt-TabLayoutPanelTab"))
+            tabIndices_.add(i);
+            tabLefts_.add(DomUtils.leftRelativeTo(dragTabsHost_, ele));
+            tabWidths_.add(ele.getClientWidth());
+         }
+      }
+
+      private void movePlaceholder()
+      {
+         if (curState_ != STATE_DRAGGING || dragPlaceholder_ == null)
+            return;
+
+         // check to see if we're overlapping with another tab
+         for (int j = 0; j < tabIndices_.size(); j++)
+         {
+            // skip the current candidate (no point in testing it for swap)
+            int i = tabIndices_.get(j);
+            if (i == candidatePos_)
             {
                continue;
             }
 
-            int left = DomUtils.leftRelativeTo(dragTabsHost_, ele);
-            int right = left + ele.getClientWidth();
+            int left = tabLefts_.get(j);
+            int right = left + tabWidths_.get(j);
             int minOverlap = Math.min(initDragWidth_ / 2,
-                  ele.getClientWidth() / 2);
+                  tabWidths_.get(j) / 2);
 
             // a little complicated: compute the number of overlapping pixels
             // with this element; if the overlap is more than half of our width
@@ -892,6 +944,7 @@ public class DocTabLayoutPanel
             if (Math.min(lastElementX_ + initDragWidth_, right) -
                 Math.max(lastElementX_, left) >= minOverlap)
             {
+               Element ele = Element.as(dragTabsHost_.getChild(i));
                dragTabsHost_.removeChild(dragPlaceholder_);
                if (candidatePos_ > i)
                {
@@ -914,6 +967,11 @@ public class DocTabLayoutPanel
                {
                   destPos_ = candidatePos_;
                }
+
+               // the tabs have moved, so measure them again before checking
+               // for any further overlap
+               positionTask_.schedule();
+               return;
             }
          }
       }
@@ -953,6 +1011,9 @@ public class DocTabLayoutPanel
          if (curState_ == STATE_NONE)
             return;
 
+         // settle the placeholder at the last drag position
+         positionTask_.flush();
+
          // remove the properties used to position for dragging
          if (dragElement_ != null)
          {
@@ -1115,6 +1176,12 @@ public class DocTabLayoutPanel
       private int curState_ = STATE_NONE;
       private Point dropPoint_;
 
+      private final DomScheduler.Task positionTask_ =
+            DomScheduler.get().createTask(this::measureTabs, this::movePlaceholder);
+      private final ArrayList<Integer> tabIndices_ = new ArrayList<>();
+      private final ArrayList<Integer> tabLefts_ = new ArrayList<>();
+      private final ArrayList<Integer> tabWidths_ = new ArrayList<>();
+
       private final static int SCROLL_THRESHOLD = 25;
 
       // No drag operation is taking place
@@ -1416,4 +1483,12 @@ public class DocTabLayoutPanel
    private final ThemeStyles styles_;
    private Animation currentAnimation_;
    private final DragManager dragManager_;
+
+   // scrolls the selected tab into view; see ensureSelectedTabIsVisible
+   private final DomScheduler.Task scrollTask_ = DomScheduler.get().createTask(
+         this::measureSelectedTabScroll, this::scrollToSelectedTab);
+   private boolean scrollAnimate_;
+   private Element scrollHost_;
+   private int scrollStart_;
+   private int scrollEnd_;
 }
@@ -0,0 +1,712 @@
+/*
+ * VirtualScroller.java
+ *
+ * Copyright (C) 2021 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.core.client.virtualscroller;
+
+import java.util.ArrayList;
+
+import org.rstudio.core.client.dom.DomScheduler;
+import org.rstudio.core.client.theme.res.ThemeStyles;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.dom.client.Document;
+import com.google.gwt.dom.client.Element;
+import com.google.gwt.dom.client.Node;
+import com.google.gwt.dom.client.Style.Display;
+import com.google.gwt.user.client.Timer;
+
+/**
+ * Limits the amount of streaming output (console output, build output, and
+ * the like) that is visible at once.
+ *
+ * Appended elements are collected into buckets of a limited number of lines;
+ * only a window of the most recent buckets is visible, and the rest are
+ * visually hidden (but remain in the DOM for screen readers). The window
+ * moves up and down as the user scrolls to the top or bottom of the output.
+ *
+ * The output can also be the bodies of a table (e.g. search results), which
+ * can't be wrapped in bucket elements; then each bucket is a run of bodies,
+ * filled by row count, and the window stays where the user left it (rather
+ * than following the latest output).
+ *
+ * Appends are batched, and applied to the DOM once per animation frame.
+ * Bucket heights are measured in the measure phase of the frame after they
+ * change, and estimated from the measured line height otherwise, so that
+ * neither appending nor moving the window forces a layout.
+ *
+ * Obtain a scroller for a container from VirtualScrollerManager, and keep
+ * the handle rather than looking it up for each append.
+ */
+public class VirtualScroller
+{
+   /**
+    * Creates a scroller for the given container, which scrolls within the
+    * given scroll element. Any existing children of the container are moved
+    * into buckets (or, for table bodies, grouped into them in place).
+    */
+   VirtualScroller(Element container, Element scrollElement, boolean tableBodies)
+   {
+      container_ = container;
+      scrollElement_ = scrollElement;
+      tableBodies_ = tableBodies;
+      hiddenClass_ = ThemeStyles.INSTANCE.visuallyHidden();
+      flushTask_ = DomScheduler.get().createTask(this::checkScrolled, this::flushPending);
+      measureTask_ = DomScheduler.get().createTask(this::measure, null);
+
+      if (tableBodies_)
+      {
+         createBucket();
+         for (Element child = container_.getFirstChildElement();
+              child != null;
+              child = child.getNextSiblingElement())
+         {
+            appendNow(child);
+         }
+      }
+      else
+      {
+         // set up the initial bucket, and put all historical elements into
+         // buckets
+         appendNow(Document.get().createSpanElement());
+         while (container_.getFirstChildElement() != null)
+         {
+            Element child = container_.getFirstChildElement();
+            child.removeFromParent();
+            appendNow(child);
+         }
+
+         // put the buckets into the container
+         for (Bucket bucket : buckets_)
+            container_.appendChild(bucket.element_);
+      }
+      initialized_ = true;
+      measureTask_.schedule();
+
+      scrollListener_ = addScrollListener(scrollElement_, this::onScroll);
+
+      // jump to latest button
+      Element host = scrollElement_.getParentElement();
+      if (!tableBodies_ && host != null && !hasJumpToLatestButton(host))
+      {
+         jumpToLatest_ = Document.get().createDivElement();
+         jumpToLatest_.addClassName(JUMP_TO_LATEST_CLASS);
+         jumpToLatest_.setInnerText("Latest");
+         jumpToLatest_.getStyle().setDisplay(Display.NONE);
+         addClickListener(jumpToLatest_, () ->
+         {
+            jumpToBottom();
+            setJumpToLatestVisible(false);
+            container_.focus();
+         });
+         host.appendChild(jumpToLatest_);
+      }
+   }
+
+   /**
+    * Appends an element to the output. The element is added to the DOM with
+    * the next animation frame (or sooner, if the scroller is queried).
+    *
+    * Table bodies are instead expected to be in the table already (as
+    * FastSelectTable adds them); they're just grouped into buckets.
+    */
+   public void append(Element element)
+   {
+      if (element == null)
+         return;
+
+      pending_.add(element);
+      flushTask_.schedule();
+   }
+
+   /**
+    * Applies any pending appends to the DOM now.
+    */
+   public void flush()
+   {
+      flushTask_.flush();
+   }
+
+   public boolean scrolledToBottom()
+   {
+      return Math.abs(scrollElement_.getScrollHeight() -
+                      scrollElement_.getOffsetHeight() -
+                      scrollElement_.getScrollTop()) < BOTTOM_TOLERANCE_PX;
+   }
+
+   /**
+    * Scrolls to the bottom of the output (after any pending appends have
+    * been applied).
+    */
+   public void scrollToBottom()
+   {
+      if (flushTask_.isScheduled())
+      {
+         scrollToBottomPending_ = true;
+         return;
+      }
+
+      scrollElement_.setScrollTop(scrollElement_.getScrollHeight());
+   }
+
+   /**
+    * Moves the window of visible buckets, if necessary, so that the given
+    * element (e.g. a selected row) is visible.
+    */
+   public void ensureVisible(Element element)
+   {
+      flush();
+
+      for (int i = 0; i < buckets_.size(); i++)
+      {
+         if (!contains(buckets_.get(i), element))
+            continue;
+
+         if (i < firstVisible_)
+            setWindow(i, Math.min(i + MAX_VISIBLE_BUCKETS, buckets_.size()) - 1);
+         else if (i > lastVisible_)
+            setWindow(Math.max(i - MAX_VISIBLE_BUCKETS + 1, 0), i);
+         return;
+      }
+   }
+
+   /**
+    * Returns true if the last bucket is visible, i.e. scrolling to the
+    * bottom of the scroll element reaches the end of the output.
+    */
+   public boolean isWindowAtBottom()
+   {
+      flush();
+      return isAtBottomBucket();
+   }
+
+   /**
+    * Removes all output.
+    */
+   public void clear()
+   {
+      flushTask_.cancel();
+      measureTask_.cancel();
+      pending_.clear();
+      scrollToBottomPending_ = false;
+
+      // remove all buckets from the DOM
+      for (Bucket bucket : buckets_)
+      {
+         for (Element element : bucket.elements())
+            element.removeFromParent();
+      }
+
+      // remove possible vestigial contents of the container that may have
+      // snuck in before the scroller was created
+      while (container_.getFirstChild() != null)
+         container_.getFirstChild().removeFromParent();
+
+      setJumpToLatestVisible(false);
+      buckets_.clear();
+      firstVisible_ = 0;
+      lastVisible_ = -1;
+
+      createBucket();
+   }
+
+   /**
+    * Truncates the element's text to the maximum number of lines the server
+    * would send (the console's own overwriting is partially obviated by the
+    * scroller).
+    */
+   public void prune(Element element)
+   {
+      String text = getTextContent(element);
+      int newlines = countNewlines(text);
+      if (newlines <= MAX_NEWLINES)
+         return;
+
+      int index = 0;
+      for (int i = newlines - MAX_NEWLINES; i > 0; i--)
+         index = text.indexOf('\n', index + 1);
+
+      if (index > 0)
+         element.setInnerText("<console output truncated>" + text.substring(index));
+   }
+
+   public void ensureStartingOnNewLine()
+   {
+      flush();
+
+      Element last = getCurBucket().getLastChildElement();
+      if (last == null)
+         return;
+
+      String lastText = last.getInnerHTML();
+      if (!lastText.endsWith("\n"))
+         last.setInnerHTML(lastText + "\n");
+   }
+
+   /**
+    * Gets the element of the bucket output is currently appended to (not
+    * applicable to table bodies, which aren't wrapped).
+    */
+   public Element getCurBucket()
+   {
+      flush();
+
+      // there should always be a bucket
+      return currentBucket().element_;
+   }
+
+   /**
+    * Stops listening to the scroll element; the scroller can't be used after
+    * this. Hidden buckets are shown again, so that the output is intact if
+    * the container is reused (e.g. by a new scroller).
+    */
+   public void detach()
+   {
+      flush();
+      measureTask_.cancel();
+      scrollTimer_.cancel();
+      removeScrollListener(scrollElement_, scrollListener_);
+
+      for (Bucket bucket : buckets_)
+      {
+         for (Element element : bucket.elements())
+            element.removeClassName(hiddenClass_);
+      }
+
+      if (jumpToLatest_ != null)
+      {
+         jumpToLatest_.removeFromParent();
+         jumpToLatest_ = null;
+      }
+   }
+
+   Element getContainer()
+   {
+      return container_;
+   }
+
+   private void checkScrolled()
+   {
+      keepScrolled_ = !tableBodies_ && scrolledToBottom();
+   }
+
+   private void measure()
+   {
+      // measure the visible buckets whose contents changed since they were
+      // last measured (layout is clean at this point in the frame)
+      for (int i = firstVisible_; i <= lastVisible_ && i < buckets_.size(); i++)
+      {
+         Bucket bucket = buckets_.get(i);
+         if (bucket.height_ < 0)
+            measureBucket(bucket);
+      }
+   }
+
+   private void flushPending()
+   {
+      boolean appended = !pending_.isEmpty();
+
+      // the last element's text may have grown since it was appended, so
+      // recount the current bucket's lines before filling it further
+      Bucket current = currentBucket();
+      if (!tableBodies_)
+         current.lines_ = countNewlines(getTextContent(current.element_));
+
+      for (Element element : pending_)
+         appendNow(element);
+      pending_.clear();
+
+      if (appended && !tableBodies_)
+         jumpToBottom();
+
+      if (keepScrolled_ || scrollToBottomPending_)
+         scrollElement_.setScrollTop(scrollElement_.getScrollHeight());
+
+      keepScrolled_ = false;
+      scrollToBottomPending_ = false;
+
+      if (appended)
+         measureTask_.schedule();
+   }
+
+   private void appendNow(Element element)
+   {
+      Bucket bucket = currentBucket();
+      if (bucket.lines_ >= BUCKET_MAX_LINES)
+         bucket = createBucket();
+
+      if (tableBodies_)
+      {
+         // bodies stay where the table put them, and are counted by rows
+         if (element.getParentElement() != container_)
+            container_.appendChild(element);
+         if (bucket.hidden_)
+            element.addClassName(hiddenClass_);
+         bucket.bodies_.add(element);
+         bucket.lines_ += element.getChildCount();
+      }
+      else
+      {
+         // lines are counted from textContent, which (unlike the DOM's
+         // innerText) doesn't require layout
+         prune(element);
+         bucket.element_.appendChild(element);
+         bucket.lines_ += countNewlines(getTextContent(element));
+      }
+      bucket.height_ = -1;
+   }
+
+   private Bucket currentBucket()
+   {
+      if (buckets_.isEmpty())
+         return createBucket();
+      return buckets_.get(buckets_.size() - 1);
+   }
+
+   private Bucket createBucket()
+   {
+      Bucket bucket = new Bucket(tableBodies_ ? null : Document.get().createSpanElement());
+
+      // before we're initialized, buckets live in the ether
+      if (initialized_ && bucket.element_ != null)
+         container_.appendChild(bucket.element_);
+
+      buckets_.add(bucket);
+
+      // output buckets always start visible (the window catches up when
+      // pending output is flushed); table bodies join the window only if
+      // it's at the bottom and has room
+      int last = buckets_.size() - 1;
+      if (!tableBodies_ ||
+          (lastVisible_ == last - 1 && last - firstVisible_ < MAX_VISIBLE_BUCKETS))
+      {
+         lastVisible_ = last;
+      }
+      else
+      {
+         bucket.hidden_ = true;
+      }
+
+      return bucket;
+   }
+
+   private void onScroll()
+   {
+      if (buckets_.size() <= MAX_VISIBLE_BUCKETS)
+         return;
+
+      // read the scroll position before changing anything, so that it
+      // doesn't force a layout
+      boolean atTop = scrolledToTop();
+      boolean atBottom = scrolledToBottom();
+
+      setJumpToLatestVisible(!isAtBottomBucket());
+
+      double now = System.currentTimeMillis();
+      if (now - lastScrollTime_ <= SCROLL_DEBOUNCE_MS)
+         return;
+
+      // if we scrolled to the top, move the window up; if we scrolled to the
+      // bottom, move the window down
+      if (atTop && !isAtTopBucket())
+         moveWindow(true);
+      else if (atBottom && !isAtBottomBucket())
+         moveWindow(false);
+      else
+         return;
+
+      lastScrollTime_ = now;
+
+      // check again after the debounce, in case the user is holding the
+      // scrollbar at the top or bottom, so we keep showing more content
+      scrollTimer_.schedule(SCROLL_DEBOUNCE_MS + 10);
+   }
+
+   private void moveWindow(boolean up)
+   {
+      if (up && isAtTopBucket())
+         return;
+      if (!up && isAtBottomBucket())
+         return;
+
+      // read before the buckets change, which would otherwise force a layout
+      boolean adjustScroll = up && scrollElement_.getScrollTop() == 0;
+
+      int indexToShow;
+      int indexToHide;
+      if (up)
+      {
+         indexToShow = firstVisible_ - 1;
+         indexToHide = lastVisible_;
+         firstVisible_--;
+         lastVisible_--;
+      }
+      else
+      {
+         indexToShow = lastVisible_ + 1;
+         indexToHide = firstVisible_;
+         firstVisible_++;
+         lastVisible_++;
+      }
+
+      // the hidden bucket keeps its measured (or estimated) height; the
+      // shown one is measured in the next frame if it has changed
+      showBucket(indexToShow);
+      hideBucket(indexToHide);
+      measureTask_.schedule();
+
+      // move the scrollbar to keep the content in the same location (using
+      // the shown bucket's known or estimated height, to avoid forcing a
+      // layout)
+      if (adjustScroll)
+      {
+         int height = heightOf(buckets_.get(indexToShow));
+         if (height > 0)
+            scrollElement_.setScrollTop(height);
+      }
+   }
+
+   private void jumpToBottom()
+   {
+      int count = buckets_.size();
+      if (count <= MAX_VISIBLE_BUCKETS)
+      {
+         setWindow(0, count - 1);
+         return;
+      }
+
+      setWindow(count - MAX_VISIBLE_BUCKETS, count - 1);
+      scrollElement_.setScrollTop(scrollElement_.getScrollHeight() -
+                                  scrollElement_.getOffsetHeight());
+   }
+
+   // shows the buckets from first to last (inclusive), and hides the others
+   // that were visible
+   private void setWindow(int first, int last)
+   {
+      for (int i = firstVisible_; i <= lastVisible_ && i < buckets_.size(); i++)
+      {
+         if (i < first || i > last)
+            hideBucket(i);
+      }
+
+      for (int i = first; i <= last; i++)
+         showBucket(i);
+
+      firstVisible_ = first;
+      lastVisible_ = last;
+      measureTask_.schedule();
+   }
+
+   private void hideBucket(int index)
+   {
+      Bucket bucket = buckets_.get(index);
+      if (!bucket.hidden_)
+      {
+         for (Element element : bucket.elements())
+            element.addClassName(hiddenClass_);
+         bucket.hidden_ = true;
+      }
+   }
+
+   private void showBucket(int index)
+   {
+      Bucket bucket = buckets_.get(index);
+      if (bucket.hidden_)
+      {
+         for (Element element : bucket.elements())
+            element.removeClassName(hiddenClass_);
+         bucket.hidden_ = false;
+      }
+   }
+
+   private void measureBucket(Bucket bucket)
+   {
+      if (bucket.hidden_)
+         return;
+
+      int height = 0;
+      for (Element element : bucket.elements())
+         height += element.getOffsetHeight();
+      if (height <= 0)
+         return;
+
+      // only full buckets contribute to the line height estimate (the
+      // current bucket is measured again with every batch of appends)
+      bucket.height_ = height;
+      if (bucket.lines_ >= BUCKET_MAX_LINES)
+      {
+         measuredHeight_ += height;
+         measuredLines_ += bucket.lines_;
+      }
+   }
+
+   private int heightOf(Bucket bucket)
+   {
+      if (bucket.height_ >= 0)
+         return bucket.height_;
+
+      // estimate from the line height measured so far
+      int lines = bucket.lines_ > 0 ? bucket.lines_ : BUCKET_MAX_LINES;
+      if (measuredLines_ > 0)
+         return (int) Math.round((double) measuredHeight_ * lines / measuredLines_);
+      return lines * DEFAULT_LINE_HEIGHT_PX;
+   }
+
+   private boolean scrolledToTop()
+   {
+      return scrollElement_.getScrollTop() < 4;
+   }
+
+   private boolean isAtTopBucket()
+   {
+      return firstVisible_ == 0;
+   }
+
+   private boolean isAtBottomBucket()
+   {
+      return lastVisible_ == buckets_.size() - 1;
+   }
+
+   private void setJumpToLatestVisible(boolean visible)
+   {
+      if (jumpToLatest_ != null)
+         jumpToLatest_.getStyle().setDisplay(visible ? Display.BLOCK : Display.NONE);
+   }
+
+   private static boolean contains(Bucket bucket, Element element)
+   {
+      for (Element e : bucket.elements())
+      {
+         if (e.isOrHasChild(element))
+            return true;
+      }
+      return false;
+   }
+
+   private static boolean hasJumpToLatestButton(Element host)
+   {
+      for (Node child = host.getFirstChild(); child != null; child = child.getNextSibling())
+      {
+         if (Element.is(child) && Element.as(child).hasClassName(JUMP_TO_LATEST_CLASS))
+            return true;
+      }
+      return false;
+   }
+
+   private static int countNewlines(String text)
+   {
+      int count = 0;
+      for (int index = text.indexOf('\n'); index != -1; index = text.indexOf('\n', index + 1))
+         count++;
+      return count;
+   }
+
+   private static native String getTextContent(Element ele) /*-{
+      return ele.textContent || "";
+   }-*/;
+
+   private static native JavaScriptObject addScrollListener(Element ele, Runnable handler) /*-{
+      var listener = $entry(function() {
+         handler.@java.lang.Runnable::run()();
+      });
+      ele.addEventListener("scroll", listener);
+      return listener;
+   }-*/;
+
+   private static native void removeScrollListener(Element ele, JavaScriptObject listener) /*-{
+      ele.removeEventListener("scroll", listener);
+   }-*/;
+
+   private static native void addClickListener(Element ele, Runnable handler) /*-{
+      ele.addEventListener("click", $entry(function() {
+         handler.@java.lang.Runnable::run()();
+      }));
+   }-*/;
+
+   private static class Bucket
+   {
+      Bucket(Element element)
+      {
+         element_ = element;
+      }
+
+      // the elements making up the bucket
+      ArrayList<Element> elements()
+      {
+         if (element_ == null)
+            return bodies_;
+
+         ArrayList<Element> elements = new ArrayList<>();
+         elements.add(element_);
+         return elements;
+      }
+
+      // the element wrapping the bucket's output, or null for table bodies
+      final Element element_;
+
+      // the table bodies in the bucket
+      final ArrayList<Element> bodies_ = new ArrayList<>();
+
+      // measured height, or -1 if the contents changed since last measured
+      int height_ = -1;
+
+      // number of lines (or table rows) appended so far
+      int lines_;
+
+      boolean hidden_;
+   }
+
+   private final Element container_;
+   private final Element scrollElement_;
+   private final boolean tableBodies_;
+   private final String hiddenClass_;
+   private final DomScheduler.Task flushTask_;
+   private final DomScheduler.Task measureTask_;
+   private final JavaScriptObject scrollListener_;
+   private final ArrayList<Bucket> buckets_ = new ArrayList<>();
+   private final ArrayList<Element> pending_ = new ArrayList<>();
+   private final Timer scrollTimer_ = new Timer()
+   {
+      @Override
+      public void run()
+      {
+         if (scrolledToBottom() || scrolledToTop())
+            onScroll();
+      }
+   };
+
+   private Element jumpToLatest_;
+   private boolean initialized_;
+   private boolean keepScrolled_;
+   private boolean scrollToBottomPending_;
+   private double lastScrollTime_;
+
+   // the window of visible buckets (inclusive)
+   private int firstVisible_ = 0;
+   private int lastVisible_ = -1;
+
+   // total measured height and lines of measured buckets, for estimating
+   // the heights of the others
+   private long measuredHeight_;
+   private int measuredLines_;
+
+   private static final int SCROLL_DEBOUNCE_MS = 500;
+   private static final int BUCKET_MAX_LINES = 50;
+   private static final int MAX_VISIBLE_BUCKETS = 10;
+   private static final int MAX_NEWLINES = 1000;
+   private static final int BOTTOM_TOLERANCE_PX = 50;
+   private static final int DEFAULT_LINE_HEIGHT_PX = 15;
+
+   private static final String JUMP_TO_LATEST_CLASS = "jump-to-latest-console";
+}
@@ -14,144 +14,105 @@
  */
 package org.rstudio.core.client.virtualscroller;
 
-import com.google.gwt.core.client.JavaScriptException;
-
-import java.util.Date;
 import java.util.HashMap;
 
 import com.google.gwt.dom.client.Element;
-import org.rstudio.core.client.Debug;
-import org.rstudio.core.client.ExternalJavaScriptLoader;
-import org.rstudio.core.client.theme.res.ThemeStyles;
+import com.google.gwt.dom.client.TableElement;
 
+/**
+ * Keeps track of the virtual scrollers attached to output containers.
+ *
+ * Callers should look up (or create) a container's scroller once and keep
+ * the returned handle, rather than resolving it for each operation. The
+ * widget that owns a container should call remove() when it's detached, so
+ * that scrollers for discarded output aren't kept alive.
+ */
 public class VirtualScrollerManager
 {
-   public static void init()
+   /**
+    * Gets the scroller for the given container (or the scrolled container
+    * it's part of), creating one if necessary. The container must be inside
+    * an editor scroller (as the console's output is).
+    *
+    * @return The scroller, or null if the container isn't inside an editor
+    *   scroller.
+    */
+   public static VirtualScroller getScroller(Element parent)
    {
-      if (!initialized_ && !loading_)
-      {
-         scrollers_ = new HashMap<>();
-         loading_ = true;
-         virtualScrollerLoader_.addCallback(() -> {
-            loading_ = false;
-            try
-            {
-               initialized_ = true;
-            }
-            catch (JavaScriptException e)
-            {
-               // If we get an error initializing the virtualScroller, log
-               // and no-op the error to continue non-virtualized
-               Debug.log(e.getMessage());
-            }
-         });
-      }
-   }
-
-   public static void append(Element parent, Element content)
-   {
-      // wholly degenerate case
-      if (parent == null) {
-         return;
-      }
-
-      // ensure that the element is added to be turned into a bucket later
-      if (!initialized_) {
-         parent.appendChild(content);
-         return;
-      }
+      if (parent == null)
+         return null;
 
       parent = getVirtualScrollerAncestor(parent);
+      VirtualScroller scroller = scrollerForElement(parent);
+      if (scroller != null)
+         return scroller;
 
-      if (parent.getAttribute(scrollerAttribute_) == null || parent.getAttribute(scrollerAttribute_).length() == 0)
-         parent.setAttribute(scrollerAttribute_, "vs_" + new Date().getTime());
+      // find the editor scroller the container scrolls within
+      Element scrollElement = parent.getParentElement();
+      while (scrollElement != null && !scrollElement.hasClassName(ACE_SCROLLER_CLASS))
+         scrollElement = scrollElement.getParentElement();
 
-      if (scrollers_.get(parent.getAttribute(scrollerAttribute_)) == null)
-      {
-         VirtualScrollerNative vs = new VirtualScrollerNative();
-         vs.setup(parent, ThemeStyles.INSTANCE.visuallyHidden());
-         scrollers_.put(parent.getAttribute(scrollerAttribute_), vs);
-      }
-
-      scrollers_.get(parent.getAttribute(scrollerAttribute_)).append(content);
-   }
-
-   public static boolean scrolledToBottom(Element parent)
-   {
-      // if we don't have a connection to that parent there's nothing to clear
-      if (!initialized_ || parent == null ) return false;
+      if (scrollElement == null)
+         return null;
 
-      parent = getVirtualScrollerAncestor(parent);
-
-      if (scrollers_.get(parent.getAttribute(scrollerAttribute_)) == null)
-         return false;
-
-      return scrollerForElement(parent).scrolledToBottom();
+      return create(parent, scrollElement);
    }
 
-   public static void scrollToBottom(Element parent)
+   /**
+    * Creates a scroller for the given container, which scrolls within the
+    * given scroll element (e.g. a ScrollPanel's element). Any existing
+    * scroller for the container is detached.
+    */
+   public static VirtualScroller create(Element container, Element scrollElement)
    {
-      // if we don't have a connection to that parent there's nothing to clear
-      if (!initialized_ || parent == null ) return;
-
-      parent = getVirtualScrollerAncestor(parent);
-
-      if (scrollers_.get(parent.getAttribute(scrollerAttribute_)) == null)
-         return;
-
-      scrollerForElement(parent).scrollToBottom();
+      remove(container);
+      return register(container, new VirtualScroller(container, scrollElement, false));
    }
 
-   public static void prune(Element parent, Element ele)
+   /**
+    * Creates a scroller for the bodies of the given table (e.g. the
+    * FastSelectTable showing search results), which scrolls within the given
+    * scroll element. Any existing scroller for the table is detached.
+    */
+   public static VirtualScroller createForTable(TableElement table, Element scrollElement)
    {
-      // if we don't have a connection to that parent there's nothing to clear
-      if (!initialized_ || parent == null ) return;
-
-      parent = getVirtualScrollerAncestor(parent);
-
-      if (scrollers_.get(parent.getAttribute(scrollerAttribute_)) == null)
-         return;
-
-      scrollers_.get(parent.getAttribute(scrollerAttribute_)).prune(ele);
+      remove(table);
+      return register(table, new VirtualScroller(table, scrollElement, true));
    }
 
-   public static void clear(Element parent)
+   /**
+    * Detaches and forgets the scroller for the given container, if any.
+    */
+   public static void remove(Element container)
    {
-      // if we don't have a connection to that parent there's nothing to clear
-      if (!initialized_ || parent == null ) return;
-
-      parent = getVirtualScrollerAncestor(parent);
-
-      if (scrollers_.get(parent.getAttribute(scrollerAttribute_)) == null)
+      VirtualScroller scroller = scrollerForElement(container);
+      if (scroller == null)
          return;
 
-      scrollers_.get(parent.getAttribute(scrollerAttribute_)).clear();
+      scroller.detach();
+      scrollers_.remove(container.getAttribute(scrollerAttribute_));
    }
 
-   public static void ensureStartingOnNewLine(Element parent)
+   /**
+    * Gets the existing scroller for the given container, if any.
+    */
+   public static VirtualScroller scrollerForElement(Element parent)
    {
-      if (!initialized_ || parent == null ) return;
+      if (parent == null)
+         return null;
 
-      parent = getVirtualScrollerAncestor(parent);
+      String id = parent.getAttribute(scrollerAttribute_);
+      if (id.isEmpty())
+         return null;
 
-      if (scrollers_.get(parent.getAttribute(scrollerAttribute_)) == null)
-         return;
-
-      scrollerForElement(parent).ensureStartingOnNewLine();
-   }
-
-   public static Element getCurBucket(Element parent)
-   {
-      if (scrollerForElement(parent) == null) return null;
-
-      return scrollerForElement(parent).getCurBucket();
+      return scrollers_.get(id);
    }
 
-   public static VirtualScrollerNative scrollerForElement(Element parent)
+   public static void clear(Element parent)
    {
-      if (!initialized_ || parent == null) return null;
-
-      return scrollers_.get(parent.getAttribute(scrollerAttribute_));
+      VirtualScroller scroller = scrollerForElement(getVirtualScrollerAncestor(parent));
+      if (scroller != null)
+         scroller.clear();
    }
 
    public static Element getVirtualScrollerAncestor(Element parent)
@@ -175,12 +136,22 @@ public class VirtualScrollerManager
       return parent;
    }
 
-   private static final ExternalJavaScriptLoader virtualScrollerLoader_ =
-      new ExternalJavaScriptLoader(VirtualScrollerResources.INSTANCE.virtualscrollerjs().getSafeUri().asString());
+   private static VirtualScroller register(Element container, VirtualScroller scroller)
+   {
+      String id = container.getAttribute(scrollerAttribute_);
+      if (id.isEmpty())
+      {
+         id = "vs_" + (nextId_++);
+         container.setAttribute(scrollerAttribute_, id);
+      }
+
+      scrollers_.put(id, scroller);
+      return scroller;
+   }
 
-   private static HashMap<String, VirtualScrollerNative> scrollers_;
-   private static boolean initialized_ = false;
-   private static boolean loading_ = false;
+   private static final HashMap<String, VirtualScroller> scrollers_ = new HashMap<>();
+   private static int nextId_ = 0;
 
    private static final String scrollerAttribute_ = "scroller_id";
+   private static final String ACE_SCROLLER_CLASS = "ace_scroller";
 }
@@ -14,11 +14,11 @@
  */
 package org.rstudio.core.client.widget;
 
-import com.google.gwt.user.client.Timer;
 import com.google.gwt.user.client.ui.ScrollPanel;
 import com.google.gwt.user.client.ui.Widget;
 
 import org.rstudio.core.client.Debug;
+import org.rstudio.core.client.dom.DomScheduler;
 import org.rstudio.core.client.dom.DomUtils;
 
 /**
@@ -30,38 +30,30 @@ public class BottomScrollPanel extends ScrollPanel
 {
    public BottomScrollPanel()
    {
-      scrolling_ = false;
-      
-      // use a timer to help debounce scroll events
-      scrollTimer_ = new Timer()
-      {
-         @Override
-         public void run()
-         {
-            scrollToBottom();
-         }
-      };
-      
-      addScrollHandler((event) -> updateScrollHeight());
+      this(true);
    }
 
-   // Constructor for a BottomScrollPanel without the timer autoscroll
+   // Constructor for a BottomScrollPanel without autoscroll on content changes
    public BottomScrollPanel(boolean useTimer)
    {
       scrolling_ = false;
       if (useTimer)
       {
-         // use a timer to help debounce scroll events
-         scrollTimer_ = new Timer()
-         {
-            @Override
-            public void run()
-            {
-               scrollToBottom();
-            }
-         };
+         // scroll once per animation frame, however often the content
+         // changes, and measure along with any other pending layout reads
+         scrollTask_ = DomScheduler.get().createTask(
+               () -> scrollHeight_ = getElement().getScrollHeight(),
+               () ->
+               {
+                  if (!scrolledToBottom_)
+                     return;
+
+                  scrolling_ = true;
+                  getElement().setScrollTop(scrollHeight_);
+                  scrolling_ = false;
+               });
       } else
-         scrollTimer_ = null;
+         scrollTask_ = null;
 
       addScrollHandler((event) -> updateScrollHeight());
    }
@@ -137,13 +129,11 @@ public class BottomScrollPanel extends ScrollPanel
       if (!scrolledToBottom_)
          return;
       
-      // allow an existing timer to continue running (ensures
-      // that we attempt a scroll every few ticks as appropriate)
-      if (scrollTimer_ == null || scrollTimer_.isRunning())
+      if (scrollTask_ == null)
          return;
 
-      // schedule a new scroll if we haven't done this yet
-      scrollTimer_.schedule(SCROLL_DELAY_MS);
+      // a scroll that's already scheduled will take this change into account
+      scrollTask_.schedule();
    }
 
    public void saveScrollPosition()
@@ -167,9 +157,9 @@ public class BottomScrollPanel extends ScrollPanel
       return vScroll_ != null;
    }
    
-   private final Timer scrollTimer_;
-   private static final int SCROLL_DELAY_MS = 50;
-   
+   private final DomScheduler.Task scrollTask_;
+   private int scrollHeight_;
+
    private boolean scrolledToBottom_;
    private boolean scrolling_;
    private Integer vScroll_;
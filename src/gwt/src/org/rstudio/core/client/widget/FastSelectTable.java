@@ -19,6 +19,7 @@ import com.google.gwt.core.client.Scheduler;
 import com.google.gwt.core.client.Scheduler.ScheduledCommand;
 import com.google.gwt.dom.client.*;
 import com.google.gwt.dom.client.Style.Cursor;
+import com.google.gwt.dom.client.Style.Display;
 import com.google.gwt.event.dom.client.*;
 import com.google.gwt.event.shared.HandlerRegistration;
 import com.google.gwt.user.client.DOM;
@@ -311,8 +312,13 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
       int increment = up ? -1 : 1;
       for (int i = physicalRowIndex + increment; i != limit; i += increment)
       {
-         if (codec_.isValueRow(getRow(i)))
+         // skip rows that have been hidden (e.g. in collapsed groups)
+         TableRowElement row = getRow(i);
+         if (codec_.isValueRow(row) &&
+             !Display.NONE.getCssName().equals(row.getStyle().getDisplay()))
+         {
             return i;
+         }
       }
       return null;
    }
@@ -171,8 +171,7 @@ public class MultiSelectCellTable<T> extends CellTable<T>
                   event.preventDefault();
                   event.stopPropagation();
 
-                  for (T item : getVisibleItems())
-                     getSelectionModel().setSelected(item, true);
+                  selectAll();
                }
             }
             break;
@@ -299,6 +298,14 @@ public class MultiSelectCellTable<T> extends CellTable<T>
       }
    }
 
+   // selects all rows; subclasses that render only some of their rows can
+   // override this to select the rest as well
+   protected void selectAll()
+   {
+      for (T item : getVisibleItems())
+         getSelectionModel().setSelected(item, true);
+   }
+
    private void ensureRowVisible(int row, boolean alignWithTop)
    {
       Element el;
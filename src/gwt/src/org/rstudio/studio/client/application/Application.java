@@ -84,6 +84,7 @@ import org.rstudio.studio.client.workbench.model.SessionOpener;
 import org.rstudio.studio.client.workbench.model.SessionUtils;
 import org.rstudio.studio.client.workbench.prefs.model.UserPrefs;
 import org.rstudio.studio.client.workbench.prefs.model.UserState;
+import org.rstudio.studio.client.workbench.views.source.model.SourceDocumentCache;
 
 @Singleton
 public class Application implements ApplicationEventHandlers
@@ -447,6 +448,9 @@ public class Application implements ApplicationEventHandlers
    {
       cleanupWorkbench();
 
+      // don't leave copies of the user's documents in the browser
+      SourceDocumentCache.clear();
+
       // create an invisible form to host the sign-out process
       FormElement form = DocumentEx.get().createFormElement();
       form.setMethod("POST");
@@ -710,6 +714,7 @@ public class Application implements ApplicationEventHandlers
    public void onQuit(QuitEvent event)
    {
       cleanupWorkbench();
+      SourceDocumentCache.clear();
 
       // only show the quit state in server mode (desktop mode has its
       // own handling triggered to process exit)
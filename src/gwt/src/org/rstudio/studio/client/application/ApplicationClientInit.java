@@ -27,6 +27,7 @@ import org.rstudio.studio.client.server.ServerError;
 import org.rstudio.studio.client.server.ServerRequestCallback;
 import org.rstudio.studio.client.server.Void;
 import org.rstudio.studio.client.workbench.model.SessionInfo;
+import org.rstudio.studio.client.workbench.views.source.model.SourceDocumentCache;
 
 public class ApplicationClientInit implements RTimeoutOptions.RTimeoutObserver
 {
@@ -63,6 +64,18 @@ public class ApplicationClientInit implements RTimeoutOptions.RTimeoutObserver
             if (!timedOut_)
             {
                cancelTimeoutTimer();
+
+               // fill in the contents of documents the server skipped
+               // because we have them cached; if we can't, ask again for
+               // everything
+               if (!SourceDocumentCache.restoreContents(sessionInfo))
+               {
+                  SourceDocumentCache.clear();
+                  execute(requestCallback, options, retryOnTransmissionError);
+                  return;
+               }
+               SourceDocumentCache.reset(sessionInfo);
+
                requestCallback.onResponseReceived(sessionInfo);
             }
          }
@@ -97,7 +110,10 @@ public class ApplicationClientInit implements RTimeoutOptions.RTimeoutObserver
          }
       };
 
-      server_.clientInit(GWT.getHostPageBaseURL(), options, rpcRequestCallback_);
+      server_.clientInit(GWT.getHostPageBaseURL(),
+                         options,
+                         SourceDocumentCache.getCachedHashes(),
+                         rpcRequestCallback_);
    }
    
    private void reloadWithDelay(int delayMs)
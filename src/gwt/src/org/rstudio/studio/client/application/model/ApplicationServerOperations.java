@@ -25,9 +25,11 @@ import com.google.gwt.core.client.JsArray;
 
 public interface ApplicationServerOperations extends PrefsServerOperations
 {   
-   // establish new session for this client
+   // establish new session for this client (cachedDocuments maps the ids
+   // of source documents the client has cached to their hashes)
    void clientInit(String baseURL, 
            SessionInitOptions options,
+           JavaScriptObject cachedDocuments,
            ServerRequestCallback<SessionInfo> requestCallback);
 
    // get current connection status for a session job
@@ -17,6 +17,8 @@
 package org.rstudio.studio.client.common.compile;
 
 import org.rstudio.core.client.VirtualConsole;
+import org.rstudio.core.client.virtualscroller.VirtualScroller;
+import org.rstudio.core.client.virtualscroller.VirtualScrollerManager;
 import org.rstudio.core.client.widget.BottomScrollPanel;
 import org.rstudio.core.client.widget.FontSizer;
 import org.rstudio.core.client.widget.PreWidget;
@@ -39,6 +41,10 @@ public class CompileOutputBufferWithHighlight extends Composite
       FontSizer.applyNormalFontSize(output_);
       console_ = RStudioGinjector.INSTANCE.getVirtualConsoleFactory().create(output_.getElement());
 
+      // our scroller is created when we're attached (see onLoad); until then
+      // output is appended directly
+      console_.setScroller(null);
+
       scrollPanel_ = new BottomScrollPanel();
       scrollPanel_.setSize("100%", "100%");
       scrollPanel_.addStyleName("ace_editor");
@@ -47,6 +53,36 @@ public class CompileOutputBufferWithHighlight extends Composite
       
       initWidget(scrollPanel_);
    }
+
+   @Override
+   protected void onLoad()
+   {
+      super.onLoad();
+
+      // limit the visible output as the console does, within our own scroll
+      // panel (rather than the console's editor scroller)
+      if (console_.isVirtualized())
+      {
+         scroller_ = VirtualScrollerManager.create(output_.getElement(),
+                                                   scrollPanel_.getElement());
+         console_.setScroller(scroller_);
+      }
+   }
+
+   @Override
+   protected void onUnload()
+   {
+      // don't keep the scroller alive while we're detached; the output is
+      // appended directly until we're attached again
+      if (scroller_ != null)
+      {
+         VirtualScrollerManager.remove(output_.getElement());
+         console_.setScroller(null);
+         scroller_ = null;
+      }
+
+      super.onUnload();
+   }
    
    
    @Override
@@ -70,20 +106,30 @@ public class CompileOutputBufferWithHighlight extends Composite
    @Override
    public void scrollToBottom()
    {
-      scrollPanel_.scrollToBottom();
+      if (scroller_ != null)
+         scroller_.scrollToBottom();
+      else
+         scrollPanel_.scrollToBottom();
    }
 
    @Override
    public void clear()
    {
       console_.clear();
-      output_.setText("");
+      if (scroller_ != null)
+         scroller_.clear();
+      else
+         output_.setText("");
    }
    
    private void write(String output, String className)
    {
       console_.submit(output, className);
-      scrollPanel_.onContentSizeChanged();
+
+      // the scroller keeps the output scrolled to the bottom itself, once
+      // the output has been added
+      if (scroller_ == null)
+         scrollPanel_.onContentSizeChanged();
    }
    
    private String getErrorClass()
@@ -95,6 +141,7 @@ public class CompileOutputBufferWithHighlight extends Composite
  
    PreWidget output_;
    VirtualConsole console_;
+   private VirtualScroller scroller_;
    private BottomScrollPanel scrollPanel_;
    private ConsoleResources.ConsoleStyles styles_;
 }
@@ -33,13 +33,12 @@ import org.rstudio.studio.client.common.debugging.events.PackageLoadedEvent;
 import org.rstudio.studio.client.common.debugging.events.PackageUnloadedEvent;
 import org.rstudio.studio.client.common.debugging.model.Breakpoint;
 import org.rstudio.studio.client.common.debugging.model.BreakpointState;
+import org.rstudio.studio.client.common.debugging.model.BreakpointSync;
 import org.rstudio.studio.client.common.debugging.model.FunctionState;
 import org.rstudio.studio.client.common.debugging.model.FunctionSteps;
 import org.rstudio.studio.client.common.satellite.Satellite;
-import org.rstudio.studio.client.server.QuietServerRequestCallback;
 import org.rstudio.studio.client.server.ServerError;
 import org.rstudio.studio.client.server.ServerRequestCallback;
-import org.rstudio.studio.client.server.Void;
 import org.rstudio.studio.client.server.VoidServerRequestCallback;
 import org.rstudio.studio.client.workbench.WorkbenchContext;
 import org.rstudio.studio.client.workbench.commands.Commands;
@@ -54,6 +53,8 @@ import org.rstudio.studio.client.workbench.views.environment.events.DebugSourceC
 import org.rstudio.studio.client.workbench.views.environment.model.CallFrame;
 
 import com.google.gwt.core.client.JsArray;
+import com.google.gwt.core.client.JsArrayBoolean;
+import com.google.gwt.core.client.Scheduler;
 import com.google.gwt.regexp.shared.MatchResult;
 import com.google.gwt.regexp.shared.RegExp;
 import com.google.inject.Inject;
@@ -75,8 +76,10 @@ import com.google.inject.Singleton;
 //    which the breakpoint occurs from the server, and updates the breakpoint
 //    with this information (get_function_steps)
 // 5) The breakpoint manager combines the breakpoint with all of the other
-//    breakpoints for the function, and makes a single call to the server to
-//    update the function's breakpoints (set_function_breakpoints)
+//    breakpoints for the function, and queues the function's breakpoints to be
+//    set. Queued changes (from e.g. a debugger step or a package load) are
+//    sent together in a single call to the server once any outstanding step
+//    requests have completed (sync_breakpoints)
 // 6) If successful, the breakpoint manager emits a BreakpointsSavedEvent, which
 //    is picked up by the editing target, which updates the display to show that
 //    the breakpoint is now enabled.
@@ -148,9 +151,6 @@ public class BreakpointManager
          breakpoint.setPendingDebugCompletion(true);
 
       notifyServer(breakpoint, true, true);
-
-      ArrayList<Breakpoint> bps = new ArrayList<>();
-      bps.add(breakpoint);
       return breakpoint;
    }
 
@@ -192,7 +192,8 @@ public class BreakpointManager
             {
                if (state.isPackageFunction())
                {
-                  breakpoint.markAsPackageBreakpoint(state.getPackageName());
+                  breakpoints_.markAsPackageBreakpoint(
+                        breakpoint, state.getPackageName());
                }
                // If the breakpoint is not to be set immediately,
                // stop processing now
@@ -231,14 +232,14 @@ public class BreakpointManager
 
    public void removeBreakpoint(int breakpointId)
    {
-      Breakpoint breakpoint = getBreakpoint(breakpointId);
+      Breakpoint breakpoint = breakpoints_.get(breakpointId);
       if (breakpoint != null)
       {
          breakpoints_.remove(breakpoint);
          if (breakpoint.getState() == Breakpoint.STATE_ACTIVE &&
              breakpoint.getType() == Breakpoint.TYPE_FUNCTION)
          {
-            setFunctionBreakpoints(new FileFunction(breakpoint));
+            queueFunctionBreakpoints(new FileFunction(breakpoint));
          }
          notifyServer(breakpoint, false,
                breakpoint.getType() == Breakpoint.TYPE_TOPLEVEL);
@@ -255,9 +256,10 @@ public class BreakpointManager
 
       // the breakpoint knows its position in the function, which needs to be
       // recalculated; do that the next time we set breakpoints on this function
-      Breakpoint breakpoint = getBreakpoint(breakpointId);
+      Breakpoint breakpoint = breakpoints_.get(breakpointId);
       if (breakpoint != null)
       {
+         breakpoints_.moved(breakpoint);
          breakpoint.markStepsNeedUpdate();
          notifyServer(breakpoint, true, false);
       }
@@ -265,15 +267,7 @@ public class BreakpointManager
 
    public ArrayList<Breakpoint> getBreakpointsInFile(String fileName)
    {
-      ArrayList<Breakpoint> breakpoints = new ArrayList<>();
-      for (Breakpoint breakpoint: breakpoints_)
-      {
-         if (breakpoint.isInFile(fileName))
-         {
-            breakpoints.add(breakpoint);
-         }
-      }
-      return breakpoints;
+      return breakpoints_.inFile(fileName);
    }
 
    // Event handlers ----------------------------------------------------------
@@ -319,7 +313,7 @@ public class BreakpointManager
                 // breakpoints. as new source windows are opened, they will
                 // call getBreakpointsInFile to populate themselves.
                 events_.fireEvent(
-                      new BreakpointsSavedEvent(breakpoints_, true));
+                      new BreakpointsSavedEvent(breakpoints_.all(), true));
              }
           }
 
@@ -328,7 +322,7 @@ public class BreakpointManager
           {
              BreakpointState state =
                    BreakpointState.create();
-             for (Breakpoint breakpoint: breakpoints_)
+             for (Breakpoint breakpoint: breakpoints_.all())
              {
                 state.addPersistedBreakpoint(breakpoint);
              }
@@ -414,7 +408,8 @@ public class BreakpointManager
       {
          if (!activeFunctions.contains(function))
          {
-            for (Breakpoint breakpoint: breakpoints_)
+            for (Breakpoint breakpoint:
+                 breakpoints_.inFunction(function.functionName))
             {
                if (breakpoint.isPendingDebugCompletion() &&
                    breakpoint.getState() == Breakpoint.STATE_INACTIVE &&
@@ -481,7 +476,7 @@ public class BreakpointManager
          // Restarting R unloads all the packages, so mark all active package
          // breakpoints as inactive when this happens.
          ArrayList<Breakpoint> breakpoints = new ArrayList<>();
-         for (Breakpoint breakpoint: breakpoints_)
+         for (Breakpoint breakpoint: breakpoints_.all())
          {
             if (breakpoint.isPackageBreakpoint())
             {
@@ -495,39 +490,99 @@ public class BreakpointManager
 
    // Private methods ---------------------------------------------------------
 
-   private void setFunctionBreakpoints(FileFunction function)
+   // Queues the breakpoints in the given function to be set on the server
+   private void queueFunctionBreakpoints(FileFunction function)
+   {
+      pendingFunctions_.add(function);
+      scheduleSync();
+   }
+
+   private void scheduleSync()
    {
-      ArrayList<String> steps = new ArrayList<>();
-      final ArrayList<Breakpoint> breakpoints = new ArrayList<>();
-      for (Breakpoint breakpoint: breakpoints_)
+      if (syncScheduled_)
+         return;
+
+      // wait until the current event has been fully processed, so that all
+      // of the changes it causes are sent together
+      syncScheduled_ = true;
+      Scheduler.get().scheduleDeferred(() ->
       {
-         if (function.containsBreakpoint(breakpoint))
+         syncScheduled_ = false;
+         syncBreakpoints();
+      });
+   }
+
+   private void syncBreakpoints()
+   {
+      // if we're still waiting for function steps, we'll sync when they arrive
+      if (pendingStepRequests_ > 0)
+         return;
+
+      BreakpointSync sync = pendingSync_;
+      pendingSync_ = BreakpointSync.create();
+
+      // collect the current breakpoints in each function to be set
+      final ArrayList<ArrayList<Breakpoint>> functionBreakpoints =
+            new ArrayList<>();
+      for (FileFunction function: pendingFunctions_)
+      {
+         ArrayList<String> steps = new ArrayList<>();
+         ArrayList<Breakpoint> breakpoints = new ArrayList<>();
+         for (Breakpoint breakpoint:
+              breakpoints_.inFunction(function.functionName))
          {
-            steps.add(breakpoint.getFunctionSteps());
-            breakpoints.add(breakpoint);
+            if (function.containsBreakpoint(breakpoint))
+            {
+               steps.add(breakpoint.getFunctionSteps());
+               breakpoints.add(breakpoint);
+            }
          }
+         sync.addFunction(function.functionName,
+                          function.fileName,
+                          function.packageName,
+                          steps);
+         functionBreakpoints.add(breakpoints);
       }
-      server_.setFunctionBreakpoints(
-            function.functionName,
-            function.fileName,
-            function.packageName,
-            steps,
-            new ServerRequestCallback<Void>()
+      pendingFunctions_.clear();
+
+      if (sync.isEmpty())
+         return;
+
+      server_.syncBreakpoints(sync,
+            new ServerRequestCallback<JsArrayBoolean>()
             {
                @Override
-               public void onResponseReceived(Void v)
+               public void onResponseReceived(JsArrayBoolean results)
                {
-                  for (Breakpoint breakpoint: breakpoints)
+                  ArrayList<Breakpoint> activated = new ArrayList<>();
+                  for (int i = 0; i < functionBreakpoints.size(); i++)
                   {
-                     breakpoint.setState(Breakpoint.STATE_ACTIVE);
+                     ArrayList<Breakpoint> breakpoints =
+                           functionBreakpoints.get(i);
+                     if (i < results.length() && results.get(i))
+                     {
+                        for (Breakpoint breakpoint: breakpoints)
+                        {
+                           breakpoint.setState(Breakpoint.STATE_ACTIVE);
+                        }
+                        activated.addAll(breakpoints);
+                     }
+                     else
+                     {
+                        discardUnsettableBreakpoints(breakpoints);
+                     }
                   }
-                  notifyBreakpointsSaved(breakpoints, true);
+                  if (activated.size() > 0)
+                     notifyBreakpointsSaved(activated, true);
                }
 
                @Override
                public void onError(ServerError error)
                {
-                  discardUnsettableBreakpoints(breakpoints);
+                  for (ArrayList<Breakpoint> breakpoints: functionBreakpoints)
+                  {
+                     discardUnsettableBreakpoints(breakpoints);
+                  }
                }
             });
    }
@@ -538,16 +593,14 @@ public class BreakpointManager
       // marked inactive, or if they need their steps refreshed (necessary
       // when a function has had steps added or removed in the editor)
       final ArrayList<Breakpoint> inactiveBreakpoints = new ArrayList<>();
-      int[] inactiveLines = new int[]{};
-      int numLines = 0;
-      for (Breakpoint breakpoint: breakpoints_)
+      for (Breakpoint breakpoint:
+           breakpoints_.inFunction(function.functionName))
       {
          if (function.containsBreakpoint(breakpoint) &&
              (breakpoint.getState() != Breakpoint.STATE_ACTIVE ||
               breakpoint.needsUpdatedSteps()))
          {
             inactiveBreakpoints.add(breakpoint);
-            inactiveLines[numLines++] = breakpoint.getLineNumber();
          }
       }
 
@@ -555,6 +608,14 @@ public class BreakpointManager
       // corresponding steps from the function
       if (inactiveBreakpoints.size() > 0)
       {
+         int[] inactiveLines = new int[inactiveBreakpoints.size()];
+         for (int i = 0; i < inactiveLines.length; i++)
+         {
+            inactiveLines[i] = inactiveBreakpoints.get(i).getLineNumber();
+         }
+
+         // hold the sync until the steps arrive
+         pendingStepRequests_++;
          server_.getFunctionSteps(
                function.functionName,
                function.fileName,
@@ -570,28 +631,36 @@ public class BreakpointManager
                      if (response.length() > 0)
                      {
                         processFunctionSteps(inactiveBreakpoints, response);
-                        setFunctionBreakpoints(function);
-                      }
+                        pendingFunctions_.add(function);
+                     }
                      // no results: discard the breakpoints
                      else
                      {
                         discardUnsettableBreakpoints(inactiveBreakpoints);
                      }
+                     onStepRequestCompleted();
                   }
 
                   @Override
                   public void onError(ServerError error)
                   {
                      discardUnsettableBreakpoints(inactiveBreakpoints);
+                     onStepRequestCompleted();
                   }
          });
       }
       else
       {
-         setFunctionBreakpoints(function);
+         queueFunctionBreakpoints(function);
       }
    }
 
+   private void onStepRequestCompleted()
+   {
+      pendingStepRequests_--;
+      scheduleSync();
+   }
+
    private void discardUnsettableBreakpoints(ArrayList<Breakpoint> breakpoints)
    {
       if (breakpoints.size() == 0)
@@ -609,16 +678,14 @@ public class BreakpointManager
    private void resetBreakpointsInPath(String path, boolean isFile)
    {
       Set<FileFunction> functionsToBreak = new TreeSet<>();
-      for (Breakpoint breakpoint: breakpoints_)
+      ArrayList<Breakpoint> breakpoints = isFile ?
+            breakpoints_.inFile(path) :
+            breakpoints_.inPath(path);
+      for (Breakpoint breakpoint: breakpoints)
       {
          // set this breakpoint if it's a function breakpoint in the file
          // (or path) given
-         boolean processBreakpoint =
-               (breakpoint.getType() == Breakpoint.TYPE_FUNCTION) &&
-               (isFile ?
-                  breakpoint.isInFile(path) :
-                  breakpoint.isInPath(path));
-         if (processBreakpoint)
+         if (breakpoint.getType() == Breakpoint.TYPE_FUNCTION)
          {
             functionsToBreak.add(new FileFunction(breakpoint));
          }
@@ -658,13 +725,12 @@ public class BreakpointManager
             // line; if there is, discard this one.
             if (breakpoint.getLineNumber() != steps.getLineNumber())
             {
-               for (Breakpoint possibleDupe: breakpoints_)
+               for (Breakpoint possibleDupe: breakpoints_.inLines(
+                     breakpoint.getPath(),
+                     steps.getLineNumber(),
+                     steps.getLineNumber()))
                {
-                  if (breakpoint.getPath() ==
-                         possibleDupe.getPath() &&
-                      steps.getLineNumber() ==
-                         possibleDupe.getLineNumber() &&
-                      breakpoint.getBreakpointId() !=
+                  if (breakpoint.getBreakpointId() !=
                          possibleDupe.getBreakpointId())
                   {
                      breakpoint.setState(Breakpoint.STATE_REMOVING);
@@ -672,7 +738,8 @@ public class BreakpointManager
                   }
                }
             }
-            breakpoint.addFunctionSteps(steps.getName(),
+            breakpoints_.setFunctionSteps(breakpoint,
+                  steps.getName(),
                   steps.getLineNumber(),
                   steps.getSteps());
          }
@@ -693,18 +760,6 @@ public class BreakpointManager
             new BreakpointsSavedEvent(breakpoints, saved));
    }
 
-   private Breakpoint getBreakpoint (int breakpointId)
-   {
-      for (Breakpoint breakpoint: breakpoints_)
-      {
-         if (breakpoint.getBreakpointId() == breakpointId)
-         {
-            return breakpoint;
-         }
-      }
-      return null;
-   }
-
    private Breakpoint addBreakpoint (Breakpoint breakpoint)
    {
       breakpoints_.add(breakpoint);
@@ -716,20 +771,16 @@ public class BreakpointManager
    {
       Set<FileFunction> functionsToBreak = new TreeSet<>();
       ArrayList<Breakpoint> breakpointsToDisable = new ArrayList<>();
-      for (Breakpoint breakpoint: breakpoints_)
+      for (Breakpoint breakpoint: breakpoints_.inPackage(packageName))
       {
-         if (breakpoint.isPackageBreakpoint() &&
-             breakpoint.getPackageName() == packageName)
+         if (enable)
          {
-            if (enable)
-            {
-               functionsToBreak.add(new FileFunction(breakpoint));
-            }
-            else
-            {
-               breakpoint.setState(Breakpoint.STATE_INACTIVE);
-               breakpointsToDisable.add(breakpoint);
-            }
+            functionsToBreak.add(new FileFunction(breakpoint));
+         }
+         else
+         {
+            breakpoint.setState(Breakpoint.STATE_INACTIVE);
+            breakpointsToDisable.add(breakpoint);
          }
       }
       if (enable)
@@ -747,33 +798,28 @@ public class BreakpointManager
 
    private void clearAllBreakpoints()
    {
-      Set<FileFunction> functions = new TreeSet<>();
-      for (Breakpoint breakpoint: breakpoints_)
+      ArrayList<Breakpoint> breakpoints = breakpoints_.all();
+      for (Breakpoint breakpoint: breakpoints)
       {
          breakpoint.setState(Breakpoint.STATE_REMOVING);
          if (breakpoint.getType () == Breakpoint.TYPE_FUNCTION)
-            functions.add(new FileFunction(breakpoint));
-      }
-      // Remove the breakpoints from each unique function that had breakpoints
-      // set previously
-      for (FileFunction function: functions)
-      {
-         // There's a possibility here that the breakpoints were  
-         // not successfully cleared, so we may be in a temporarily  
-         // confusing state, but no error message will be less 
-         // confusing. 
-         server_.setFunctionBreakpoints(
-               function.functionName,
-               function.fileName,
-               function.packageName,
-               new ArrayList<>(),
-               new QuietServerRequestCallback<>());
+            pendingFunctions_.add(new FileFunction(breakpoint));
       }
 
+      // Updates not yet sent are moot since every breakpoint is being removed
+      pendingSync_ = BreakpointSync.create();
       server_.removeAllBreakpoints(new VoidServerRequestCallback());
-      notifyBreakpointsSaved(new ArrayList<>(breakpoints_), false);
+      notifyBreakpointsSaved(breakpoints, false);
       breakpoints_.clear();
       onBreakpointAddOrRemove();
+
+      // Remove the breakpoints from each unique function that had breakpoints
+      // set previously (the registry is now empty, so each function's set of
+      // breakpoints will be empty). There's a possibility here that the
+      // breakpoints were not successfully cleared, so we may be in a
+      // temporarily confusing state, but no error message will be less
+      // confusing.
+      scheduleSync();
    }
 
    private void onBreakpointAddOrRemove()
@@ -784,21 +830,18 @@ public class BreakpointManager
 
    private void notifyServer(Breakpoint breakpoint, boolean added, boolean arm)
    {
-      ArrayList<Breakpoint> bps = new ArrayList<>();
-      bps.add(breakpoint);
-      server_.updateBreakpoints(bps, added, arm,
-                                new VoidServerRequestCallback());
+      pendingSync_.addUpdate(breakpoint, added, arm);
+      scheduleSync();
    }
 
    private void activateTopLevelBreakpoints(String path)
    {
-      for (Breakpoint breakpoint: breakpoints_)
+      ArrayList<Breakpoint> activatedBreakpoints = new ArrayList<>();
+      for (Breakpoint breakpoint: breakpoints_.inFile(path))
       {
-         ArrayList<Breakpoint> activatedBreakpoints = new ArrayList<>();
          if (breakpoint.isPendingDebugCompletion() &&
              breakpoint.getState() == Breakpoint.STATE_INACTIVE &&
-             breakpoint.getType() == Breakpoint.TYPE_TOPLEVEL &&
-             breakpoint.getPath() == path)
+             breakpoint.getType() == Breakpoint.TYPE_TOPLEVEL)
          {
             // If this is a top-level breakpoint in the file that we
             // just finished sourcing, activate the breakpoint.
@@ -806,9 +849,9 @@ public class BreakpointManager
             breakpoint.setState(Breakpoint.STATE_ACTIVE);
             activatedBreakpoints.add(breakpoint);
          }
-         if (activatedBreakpoints.size() > 0)
-            notifyBreakpointsSaved(activatedBreakpoints, true);
       }
+      if (activatedBreakpoints.size() > 0)
+         notifyBreakpointsSaved(activatedBreakpoints, true);
    }
 
    // Private classes ---------------------------------------------------------
@@ -883,7 +926,11 @@ public class BreakpointManager
    private final GlobalDisplay globalDisplay_;
    private final Commands commands_;
 
-   private ArrayList<Breakpoint> breakpoints_ = new ArrayList<>();
+   private final BreakpointRegistry breakpoints_ = new BreakpointRegistry();
+   private BreakpointSync pendingSync_ = BreakpointSync.create();
+   private final Set<FileFunction> pendingFunctions_ = new TreeSet<>();
+   private int pendingStepRequests_ = 0;
+   private boolean syncScheduled_ = false;
    private Set<FileFunction> activeFunctions_ = new TreeSet<>();
    private String activeSource_;
 
@@ -0,0 +1,261 @@
+/*
+ * BreakpointRegistry.java
+ *
+ * Copyright (C) 2021 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+
+package org.rstudio.studio.client.common.debugging;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.rstudio.studio.client.common.debugging.model.Breakpoint;
+
+// Holds the breakpoints known to the BreakpointManager, indexed by id, file,
+// function and package, and within each file by line.
+//
+// The indexes are keyed on properties of the breakpoint objects, which are
+// shared with the editor; changes to those properties need to go through the
+// registry (or, for line moves made by the editor, be reported with moved())
+// so the indexes can follow.
+class BreakpointRegistry
+{
+   public void add(Breakpoint breakpoint)
+   {
+      remove(get(breakpoint.getBreakpointId()));
+
+      byId_.put(breakpoint.getBreakpointId(), breakpoint);
+      addTo(byFile_, breakpoint.getPath(), breakpoint);
+      addTo(byFunction_, breakpoint.getFunctionName(), breakpoint);
+      if (breakpoint.isPackageBreakpoint())
+         addTo(byPackage_, breakpoint.getPackageName(), breakpoint);
+      addLine(breakpoint);
+   }
+
+   public void remove(Breakpoint breakpoint)
+   {
+      if (breakpoint == null ||
+          byId_.remove(breakpoint.getBreakpointId()) == null)
+      {
+         return;
+      }
+
+      removeFrom(byFile_, breakpoint.getPath(), breakpoint);
+      removeFrom(byFunction_, breakpoint.getFunctionName(), breakpoint);
+      if (breakpoint.isPackageBreakpoint())
+         removeFrom(byPackage_, breakpoint.getPackageName(), breakpoint);
+      removeLine(breakpoint);
+   }
+
+   public void clear()
+   {
+      byId_.clear();
+      byFile_.clear();
+      byFunction_.clear();
+      byPackage_.clear();
+      byLine_.clear();
+      indexedLines_.clear();
+   }
+
+   public int size()
+   {
+      return byId_.size();
+   }
+
+   public Breakpoint get(int breakpointId)
+   {
+      return byId_.get(breakpointId);
+   }
+
+   // All breakpoints, in the order they were added
+   public ArrayList<Breakpoint> all()
+   {
+      return new ArrayList<>(byId_.values());
+   }
+
+   public ArrayList<Breakpoint> inFile(String path)
+   {
+      return copyOf(byFile_.get(path));
+   }
+
+   // Breakpoints in any file under the given path
+   public ArrayList<Breakpoint> inPath(String path)
+   {
+      ArrayList<Breakpoint> breakpoints = new ArrayList<>();
+      for (Map.Entry<String, ArrayList<Breakpoint>> entry: byFile_.entrySet())
+      {
+         if (entry.getKey().startsWith(path))
+            breakpoints.addAll(entry.getValue());
+      }
+      return breakpoints;
+   }
+
+   // Breakpoints in functions with the given name (in any file)
+   public ArrayList<Breakpoint> inFunction(String functionName)
+   {
+      return copyOf(byFunction_.get(functionName));
+   }
+
+   public ArrayList<Breakpoint> inPackage(String packageName)
+   {
+      return copyOf(byPackage_.get(packageName));
+   }
+
+   // Breakpoints in the given file between the given lines (inclusive)
+   public ArrayList<Breakpoint> inLines(String path, int firstLine, int lastLine)
+   {
+      ArrayList<Breakpoint> breakpoints = new ArrayList<>();
+      TreeMap<Integer, ArrayList<Breakpoint>> lines = byLine_.get(path);
+      if (lines == null)
+         return breakpoints;
+
+      for (ArrayList<Breakpoint> atLine:
+           lines.subMap(firstLine, true, lastLine, true).values())
+      {
+         breakpoints.addAll(atLine);
+      }
+      return breakpoints;
+   }
+
+   // Records the function steps for a breakpoint, which may move it to a
+   // different function or line
+   public void setFunctionSteps(Breakpoint breakpoint,
+                                String functionName,
+                                int lineNumber,
+                                String steps)
+   {
+      boolean indexed = byId_.containsKey(breakpoint.getBreakpointId());
+      if (indexed)
+         removeFrom(byFunction_, breakpoint.getFunctionName(), breakpoint);
+
+      breakpoint.addFunctionSteps(functionName, lineNumber, steps);
+
+      if (indexed)
+      {
+         addTo(byFunction_, breakpoint.getFunctionName(), breakpoint);
+         moved(breakpoint);
+      }
+   }
+
+   public void markAsPackageBreakpoint(Breakpoint breakpoint,
+                                       String packageName)
+   {
+      boolean indexed = byId_.containsKey(breakpoint.getBreakpointId());
+      if (indexed && breakpoint.isPackageBreakpoint())
+         removeFrom(byPackage_, breakpoint.getPackageName(), breakpoint);
+
+      breakpoint.markAsPackageBreakpoint(packageName);
+
+      if (indexed)
+         addTo(byPackage_, packageName, breakpoint);
+   }
+
+   // Called when a breakpoint's line number has changed
+   public void moved(Breakpoint breakpoint)
+   {
+      if (!byId_.containsKey(breakpoint.getBreakpointId()))
+         return;
+
+      removeLine(breakpoint);
+      addLine(breakpoint);
+   }
+
+   private void addLine(Breakpoint breakpoint)
+   {
+      TreeMap<Integer, ArrayList<Breakpoint>> lines =
+            byLine_.get(breakpoint.getPath());
+      if (lines == null)
+      {
+         lines = new TreeMap<>();
+         byLine_.put(breakpoint.getPath(), lines);
+      }
+
+      int line = breakpoint.getLineNumber();
+      ArrayList<Breakpoint> atLine = lines.get(line);
+      if (atLine == null)
+      {
+         atLine = new ArrayList<>();
+         lines.put(line, atLine);
+      }
+      atLine.add(breakpoint);
+      indexedLines_.put(breakpoint.getBreakpointId(), line);
+   }
+
+   private void removeLine(Breakpoint breakpoint)
+   {
+      // the breakpoint may have been moved since it was indexed, so look it
+      // up by the line it was indexed on
+      Integer line = indexedLines_.remove(breakpoint.getBreakpointId());
+      TreeMap<Integer, ArrayList<Breakpoint>> lines =
+            byLine_.get(breakpoint.getPath());
+      if (line == null || lines == null)
+         return;
+
+      ArrayList<Breakpoint> atLine = lines.get(line);
+      if (atLine == null)
+         return;
+
+      atLine.remove(breakpoint);
+      if (atLine.isEmpty())
+         lines.remove(line);
+      if (lines.isEmpty())
+         byLine_.remove(breakpoint.getPath());
+   }
+
+   private static void addTo(HashMap<String, ArrayList<Breakpoint>> index,
+                             String key,
+                             Breakpoint breakpoint)
+   {
+      ArrayList<Breakpoint> breakpoints = index.get(key);
+      if (breakpoints == null)
+      {
+         breakpoints = new ArrayList<>();
+         index.put(key, breakpoints);
+      }
+      breakpoints.add(breakpoint);
+   }
+
+   private static void removeFrom(HashMap<String, ArrayList<Breakpoint>> index,
+                                  String key,
+                                  Breakpoint breakpoint)
+   {
+      ArrayList<Breakpoint> breakpoints = index.get(key);
+      if (breakpoints == null)
+         return;
+
+      breakpoints.remove(breakpoint);
+      if (breakpoints.isEmpty())
+         index.remove(key);
+   }
+
+   private static ArrayList<Breakpoint> copyOf(ArrayList<Breakpoint> breakpoints)
+   {
+      return breakpoints == null ?
+            new ArrayList<>() :
+            new ArrayList<>(breakpoints);
+   }
+
+   private final LinkedHashMap<Integer, Breakpoint> byId_ =
+         new LinkedHashMap<>();
+   private final HashMap<String, ArrayList<Breakpoint>> byFile_ =
+         new HashMap<>();
+   private final HashMap<String, ArrayList<Breakpoint>> byFunction_ =
+         new HashMap<>();
+   private final HashMap<String, ArrayList<Breakpoint>> byPackage_ =
+         new HashMap<>();
+   private final HashMap<String, TreeMap<Integer, ArrayList<Breakpoint>>> byLine_ =
+         new HashMap<>();
+   private final HashMap<Integer, Integer> indexedLines_ = new HashMap<>();
+}
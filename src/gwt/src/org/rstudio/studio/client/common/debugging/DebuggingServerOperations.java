@@ -15,11 +15,10 @@
 
 package org.rstudio.studio.client.common.debugging;
 
-import java.util.ArrayList;
-
 import com.google.gwt.core.client.JsArray;
+import com.google.gwt.core.client.JsArrayBoolean;
 
-import org.rstudio.studio.client.common.debugging.model.Breakpoint;
+import org.rstudio.studio.client.common.debugging.model.BreakpointSync;
 import org.rstudio.studio.client.common.debugging.model.FunctionState;
 import org.rstudio.studio.client.common.debugging.model.FunctionSteps;
 import org.rstudio.studio.client.server.ServerRequestCallback;
@@ -34,13 +33,6 @@ public interface DebuggingServerOperations
          int[] lineNumbers,
          ServerRequestCallback<JsArray<FunctionSteps>> requestCallback);
    
-   public void setFunctionBreakpoints(
-         String functionName,
-         String fileName,
-         String packageName,
-         ArrayList<String> steps,
-         ServerRequestCallback<Void> requestCallback);
-   
    public void getFunctionState(
          String functionName,
          String fileName,
@@ -51,11 +43,12 @@ public interface DebuggingServerOperations
          String type,
          ServerRequestCallback<Void> requestCallback);
    
-   public void updateBreakpoints(
-         ArrayList<Breakpoint> breakpoints,
-         boolean set, 
-         boolean arm, 
-         ServerRequestCallback<Void> requestCallback);
+   // Applies the breakpoint updates and function breakpoints in the batch;
+   // the result indicates, for each function, whether its breakpoints were
+   // set.
+   public void syncBreakpoints(
+         BreakpointSync sync,
+         ServerRequestCallback<JsArrayBoolean> requestCallback);
 
    public void removeAllBreakpoints(
          ServerRequestCallback<Void> requestCallback);
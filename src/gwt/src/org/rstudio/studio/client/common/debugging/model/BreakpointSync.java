@@ -0,0 +1,75 @@
+/*
+ * BreakpointSync.java
+ *
+ * Copyright (C) 2021 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+
+package org.rstudio.studio.client.common.debugging.model;
+
+import java.util.ArrayList;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArrayString;
+
+// A batch of breakpoint changes to send to the server in one request
+// (sync_breakpoints): updates to individual breakpoints, in the order they
+// were made, followed by the complete set of breakpoint steps for each
+// function whose breakpoints changed.
+public class BreakpointSync extends JavaScriptObject
+{
+   protected BreakpointSync() {}
+
+   public static final native BreakpointSync create() /*-{
+      return { updates: [], functions: [] };
+   }-*/;
+
+   public final native void addUpdate(Breakpoint breakpoint,
+                                      boolean set,
+                                      boolean arm) /*-{
+      this.updates.push({ breakpoint: breakpoint, set: set, arm: arm });
+   }-*/;
+
+   public final void addFunction(String functionName,
+                                 String fileName,
+                                 String packageName,
+                                 ArrayList<String> steps)
+   {
+      JsArrayString stepsArray = JavaScriptObject.createArray().cast();
+      for (String step: steps)
+         stepsArray.push(step);
+      addFunctionNative(functionName, fileName, packageName, stepsArray);
+   }
+
+   public final native boolean isEmpty() /*-{
+      return this.updates.length == 0 && this.functions.length == 0;
+   }-*/;
+
+   public final native JavaScriptObject getUpdates() /*-{
+      return this.updates;
+   }-*/;
+
+   public final native JavaScriptObject getFunctions() /*-{
+      return this.functions;
+   }-*/;
+
+   private final native void addFunctionNative(String functionName,
+                                               String fileName,
+                                               String packageName,
+                                               JsArrayString steps) /*-{
+      this.functions.push({
+         function_name: functionName,
+         file_name: fileName,
+         package_name: packageName,
+         steps: steps
+      });
+   }-*/;
+}
@@ -24,6 +24,7 @@ import com.google.gwt.resources.client.TextResource;
 import com.google.inject.Inject;
 
 import org.rstudio.core.client.Debug;
+import org.rstudio.core.client.LruCache;
 import org.rstudio.studio.client.RStudioGinjector;
 import org.rstudio.studio.client.common.spelling.model.SpellCheckerResult;
 import org.rstudio.studio.client.server.ServerError;
@@ -35,7 +36,6 @@ import org.rstudio.studio.client.workbench.prefs.model.UserPrefs;
 import org.rstudio.studio.client.workbench.views.source.editors.text.spelling.SpellingDoc;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.HashSet;
 
 public class RealtimeSpellChecker
@@ -153,7 +153,7 @@ public class RealtimeSpellChecker
       SpellCheckerResult result = new SpellCheckerResult();
       for (String word : words)
       {
-         if (isWordIgnored(word) || correctWords.contains(word))
+         if (isWordIgnored(word) || correctWords.containsKey(word))
          {
             result.getCorrect().add(word);
          }
@@ -184,7 +184,10 @@ public class RealtimeSpellChecker
             public void onResponseReceived(SpellCheckerResult response)
             {
                // cache responses so we don't have to hit the server for these words again in the session
-               correctWords.addAll(response.getCorrect());
+               for (String word : response.getCorrect())
+               {
+                  correctWords.put(word, Boolean.TRUE);
+               }
                for (String wrongWord : response.getIncorrect())
                {
                   incorrectWords.put(wrongWord, null);
@@ -303,9 +306,12 @@ public class RealtimeSpellChecker
    private final HashSet<String> allIgnoredWords_ = new HashSet<>();
    private final HashSet<String> domainSpecificWords_ = new HashSet<>();
 
-   private final HashSet<String> correctWords = new HashSet<>();
-   private final HashMap<String, JsArrayString> incorrectWords = new HashMap<>();
+   // bounded so long editing sessions don't accumulate verdicts forever
+   private final LruCache<String, Boolean> correctWords = new LruCache<>(MAX_CACHED_WORDS);
+   private final LruCache<String, JsArrayString> incorrectWords = new LruCache<>(MAX_CACHED_WORDS);
 
    private SpellingService spellingService_;
    private UserPrefs userPrefs_;
+
+   private static final int MAX_CACHED_WORDS = 5000;
 }
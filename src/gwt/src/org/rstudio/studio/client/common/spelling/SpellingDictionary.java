@@ -0,0 +1,244 @@
+/*
+ * SpellingDictionary.java
+ *
+ * Copyright (C) 2021 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.common.spelling;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+
+/**
+ * A compact, array-backed trie of known-good words. Nodes are stored in
+ * parallel primitive arrays (first child, next sibling, label) rather than
+ * as objects, so even large word lists stay small in the browser.
+ *
+ * The dictionary only ever answers "known correct"; a word missing from it
+ * is not necessarily misspelled (hunspell affix rules are not modelled), so
+ * callers must fall back to the server for words it doesn't contain.
+ */
+public class SpellingDictionary
+{
+   public SpellingDictionary()
+   {
+      clear();
+   }
+
+   public void clear()
+   {
+      firstChild_ = new int[INITIAL_CAPACITY];
+      nextSibling_ = new int[INITIAL_CAPACITY];
+      labels_ = new char[INITIAL_CAPACITY];
+      terminal_ = new boolean[INITIAL_CAPACITY];
+      nodeCount_ = 0;
+      wordCount_ = 0;
+
+      // root node
+      newNode('\0');
+   }
+
+   public int size()
+   {
+      return wordCount_;
+   }
+
+   public boolean add(String word)
+   {
+      if (word == null || word.isEmpty())
+         return false;
+
+      int node = ROOT;
+      for (int i = 0; i < word.length(); i++)
+      {
+         char ch = word.charAt(i);
+         int child = findChild(node, ch);
+         if (child == NONE)
+         {
+            child = newNode(ch);
+            nextSibling_[child] = firstChild_[node];
+            firstChild_[node] = child;
+         }
+         node = child;
+      }
+
+      if (terminal_[node])
+         return false;
+
+      terminal_[node] = true;
+      wordCount_++;
+      return true;
+   }
+
+   public boolean contains(String word)
+   {
+      if (word == null || word.isEmpty())
+         return false;
+
+      int node = ROOT;
+      for (int i = 0; i < word.length() && node != NONE; i++)
+         node = findChild(node, word.charAt(i));
+
+      return node != NONE && terminal_[node];
+   }
+
+   /**
+    * Returns up to maxResults known words within one edit (insertion,
+    * deletion, substitution or transposition of adjacent characters) of
+    * the given word.
+    */
+   public ArrayList<String> suggest(String word, int maxResults)
+   {
+      LinkedHashSet<String> results = new LinkedHashSet<>();
+      if (word != null && !word.isEmpty() && maxResults > 0)
+         suggest(ROOT, word, 0, 1, new StringBuilder(), results, maxResults);
+      return new ArrayList<>(results);
+   }
+
+   /**
+    * Returns all words in the dictionary, in no particular order.
+    */
+   public ArrayList<String> getWords()
+   {
+      ArrayList<String> words = new ArrayList<>(wordCount_);
+      collectWords(ROOT, new StringBuilder(), words);
+      return words;
+   }
+
+   private void suggest(int node,
+                        String word,
+                        int index,
+                        int edits,
+                        StringBuilder prefix,
+                        LinkedHashSet<String> results,
+                        int maxResults)
+   {
+      if (results.size() >= maxResults)
+         return;
+
+      int length = word.length();
+      if (index == length && terminal_[node])
+      {
+         String candidate = prefix.toString();
+         if (!candidate.equals(word))
+            results.add(candidate);
+      }
+
+      // deletion: skip a character of the word
+      if (edits > 0 && index < length)
+         suggest(node, word, index + 1, edits - 1, prefix, results, maxResults);
+
+      // transposition: match the next two characters swapped
+      if (edits > 0 && index + 1 < length)
+      {
+         char first = word.charAt(index + 1);
+         char second = word.charAt(index);
+         if (first != second)
+         {
+            int child = findChild(node, first);
+            int grandchild = child == NONE ? NONE : findChild(child, second);
+            if (grandchild != NONE)
+            {
+               prefix.append(first).append(second);
+               suggest(grandchild, word, index + 2, edits - 1, prefix, results, maxResults);
+               prefix.setLength(prefix.length() - 2);
+            }
+         }
+      }
+
+      for (int child = firstChild_[node]; child != NONE; child = nextSibling_[child])
+      {
+         char label = labels_[child];
+         prefix.append(label);
+
+         if (index < length && label == word.charAt(index))
+            suggest(child, word, index + 1, edits, prefix, results, maxResults);
+         else if (edits > 0)
+         {
+            // substitution
+            if (index < length)
+               suggest(child, word, index + 1, edits - 1, prefix, results, maxResults);
+
+            // insertion: the candidate has an extra character
+            suggest(child, word, index, edits - 1, prefix, results, maxResults);
+         }
+
+         prefix.setLength(prefix.length() - 1);
+      }
+   }
+
+   private void collectWords(int node, StringBuilder prefix, ArrayList<String> words)
+   {
+      if (terminal_[node])
+         words.add(prefix.toString());
+
+      for (int child = firstChild_[node]; child != NONE; child = nextSibling_[child])
+      {
+         prefix.append(labels_[child]);
+         collectWords(child, prefix, words);
+         prefix.setLength(prefix.length() - 1);
+      }
+   }
+
+   private int findChild(int node, char ch)
+   {
+      for (int child = firstChild_[node]; child != NONE; child = nextSibling_[child])
+      {
+         if (labels_[child] == ch)
+            return child;
+      }
+      return NONE;
+   }
+
+   private int newNode(char label)
+   {
+      if (nodeCount_ == labels_.length)
+         grow();
+
+      int node = nodeCount_++;
+      firstChild_[node] = NONE;
+      nextSibling_[node] = NONE;
+      labels_[node] = label;
+      terminal_[node] = false;
+      return node;
+   }
+
+   private void grow()
+   {
+      int capacity = labels_.length * 2;
+
+      int[] firstChild = new int[capacity];
+      int[] nextSibling = new int[capacity];
+      char[] labels = new char[capacity];
+      boolean[] terminal = new boolean[capacity];
+
+      System.arraycopy(firstChild_, 0, firstChild, 0, nodeCount_);
+      System.arraycopy(nextSibling_, 0, nextSibling, 0, nodeCount_);
+      System.arraycopy(labels_, 0, labels, 0, nodeCount_);
+      System.arraycopy(terminal_, 0, terminal, 0, nodeCount_);
+
+      firstChild_ = firstChild;
+      nextSibling_ = nextSibling;
+      labels_ = labels;
+      terminal_ = terminal;
+   }
+
+   private int[] firstChild_;
+   private int[] nextSibling_;
+   private char[] labels_;
+   private boolean[] terminal_;
+   private int nodeCount_;
+   private int wordCount_;
+
+   private static final int ROOT = 0;
+   private static final int NONE = -1;
+   private static final int INITIAL_CAPACITY = 1024;
+}
@@ -16,9 +16,11 @@
 package org.rstudio.studio.client.common.spelling;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 
+import org.rstudio.core.client.LruCache;
+import org.rstudio.core.client.StringUtil;
 import org.rstudio.core.client.js.JsUtil;
 import org.rstudio.studio.client.common.spelling.model.SpellCheckerResult;
 import org.rstudio.studio.client.common.spelling.model.SpellingServerOperations;
@@ -39,6 +41,8 @@ import com.google.gwt.event.logical.shared.ValueChangeHandler;
 import com.google.gwt.event.shared.GwtEvent;
 import com.google.gwt.event.shared.HandlerManager;
 import com.google.gwt.event.shared.HandlerRegistration;
+import com.google.gwt.storage.client.Storage;
+import com.google.gwt.user.client.Timer;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 
@@ -78,12 +82,16 @@ public class SpellingService implements HasChangeHandlers
       // results to return
       final SpellCheckerResult spellCheckerResult = new SpellCheckerResult();
       
-      // only send words to the server that aren't in the cache
+      // only send words to the server that aren't in the cache or
+      // already known to be correct
+      ensureKnownWordsLoaded();
       final ArrayList<String> wordsToCheck = new ArrayList<>();
       for (int i = 0; i<words.size(); i++)
       {
          String word = words.get(i);
-         Boolean isCorrect = previousResults_.get(word);
+         Boolean isCorrect = knownWords_.contains(word)
+               ? Boolean.TRUE
+               : previousResults_.get(word);
          if (isCorrect != null)
          {
             if (isCorrect)
@@ -112,7 +120,7 @@ public class SpellingService implements HasChangeHandlers
          public void onResponseReceived(JsArrayInteger result)
          {
             // get misspelled indexes
-            ArrayList<Integer> misspelledIndexes = new ArrayList<>();
+            HashSet<Integer> misspelledIndexes = new HashSet<>();
             for (int i=0; i<result.length(); i++)
                misspelledIndexes.add(result.get(i));
             
@@ -129,6 +137,7 @@ public class SpellingService implements HasChangeHandlers
                {
                   spellCheckerResult.getCorrect().add(word);
                   previousResults_.put(word,  true);
+                  learnWord(word);
                }
             }
             
@@ -145,8 +154,19 @@ public class SpellingService implements HasChangeHandlers
    }
 
    public void suggestionList(String word,
-                              ServerRequestCallback<JsArrayString> callback)
+                              final ServerRequestCallback<JsArrayString> callback)
    {
+      // suggest learned words that are close to this one; only ask the
+      // server (i.e. the full dictionary) when there are none
+      ensureKnownWordsLoaded();
+      ArrayList<String> knownSuggestions =
+            knownWords_.suggest(word, MAX_SUGGESTIONS);
+      if (!knownSuggestions.isEmpty())
+      {
+         callback.onResponseReceived(JsUtil.toJsArrayString(knownSuggestions));
+         return;
+      }
+
       server_.suggestionList(word, callback);
    }
    
@@ -173,6 +193,19 @@ public class SpellingService implements HasChangeHandlers
    public void invalidateCache()
    {
       previousResults_.clear();
+
+      // the dictionary (or set of custom dictionaries) changed, so words we
+      // learned were correct may no longer be
+      saveKnownWordsTimer_.cancel();
+      if (knownWordsLanguage_ != null)
+      {
+         Storage storage = Storage.getLocalStorageIfSupported();
+         if (storage != null)
+            storage.removeItem(KNOWN_WORDS_KEY_PREFIX + knownWordsLanguage_);
+      }
+      knownWords_.clear();
+      knownWordsLanguage_ = null;
+
       DomEvent.fireNativeEvent(Document.get().createChangeEvent(),
                                handlerManager_);
    }
@@ -189,6 +222,85 @@ public class SpellingService implements HasChangeHandlers
       handlerManager_.fireEvent(event);
    }
    
+   // Words the server has reported as correct are kept in a compact
+   // dictionary that is persisted in the browser (per dictionary language),
+   // so they are not sent to the server again -- even after a reload. The
+   // persisted words are discarded once they're KNOWN_WORDS_MAX_AGE_MS old
+   // (and no more are learned once there are MAX_KNOWN_WORDS), so the store
+   // doesn't grow without bound.
+   private void ensureKnownWordsLoaded()
+   {
+      String language = uiPrefs_.spellingDictionaryLanguage().getValue();
+      if (StringUtil.equals(language, knownWordsLanguage_))
+         return;
+
+      saveKnownWordsTimer_.cancel();
+      knownWords_.clear();
+      knownWordsLanguage_ = language;
+      knownWordsCreated_ = System.currentTimeMillis();
+
+      Storage storage = Storage.getLocalStorageIfSupported();
+      if (storage == null)
+         return;
+
+      String value = storage.getItem(KNOWN_WORDS_KEY_PREFIX + language);
+      if (StringUtil.isNullOrEmpty(value))
+         return;
+
+      // the first line holds the time the words were first learned
+      String[] lines = value.split("\n");
+      long created = parseTime(lines[0]);
+      if (created < 0 ||
+          knownWordsCreated_ - created > KNOWN_WORDS_MAX_AGE_MS)
+      {
+         storage.removeItem(KNOWN_WORDS_KEY_PREFIX + language);
+         return;
+      }
+
+      knownWordsCreated_ = created;
+      for (int i = 1; i < lines.length; i++)
+         knownWords_.add(lines[i]);
+   }
+
+   private static long parseTime(String value)
+   {
+      try
+      {
+         return Long.parseLong(value);
+      }
+      catch (NumberFormatException e)
+      {
+         return -1;
+      }
+   }
+
+   private void learnWord(String word)
+   {
+      if (knownWordsLanguage_ == null || knownWords_.size() >= MAX_KNOWN_WORDS)
+         return;
+
+      if (knownWords_.add(word))
+         saveKnownWordsTimer_.schedule(SAVE_KNOWN_WORDS_DELAY_MS);
+   }
+
+   private void saveKnownWords()
+   {
+      Storage storage = Storage.getLocalStorageIfSupported();
+      if (storage == null || knownWordsLanguage_ == null)
+         return;
+
+      try
+      {
+         storage.setItem(KNOWN_WORDS_KEY_PREFIX + knownWordsLanguage_,
+                         knownWordsCreated_ + "\n" +
+                         StringUtil.join(knownWords_.getWords(), "\n"));
+      }
+      catch (Exception e)
+      {
+         // storage quota exceeded; we'll simply ask the server next time
+      }
+   }
+
    private class CustomDictCallback extends ServerRequestCallback<JsArrayString>
    {
       public CustomDictCallback(ServerRequestCallback<JsArrayString> callback)
@@ -225,7 +337,27 @@ public class SpellingService implements HasChangeHandlers
    private final SpellingServerOperations server_;
    private final UserPrefs uiPrefs_;
    
-   private HashMap<String,Boolean> previousResults_ = new HashMap<>();
+   private final LruCache<String,Boolean> previousResults_ =
+         new LruCache<>(MAX_CACHED_RESULTS);
+
+   private final SpellingDictionary knownWords_ = new SpellingDictionary();
+   private String knownWordsLanguage_;
+   private long knownWordsCreated_;
+   private final Timer saveKnownWordsTimer_ = new Timer()
+   {
+      @Override
+      public void run()
+      {
+         saveKnownWords();
+      }
+   };
+
+   private static final int MAX_CACHED_RESULTS = 10000;
+   private static final int MAX_KNOWN_WORDS = 100000;
+   private static final int MAX_SUGGESTIONS = 10;
+   private static final int SAVE_KNOWN_WORDS_DELAY_MS = 2000;
+   private static final long KNOWN_WORDS_MAX_AGE_MS = 30L * 24 * 60 * 60 * 1000;
+   private static final String KNOWN_WORDS_KEY_PREFIX = "rstudio.spelling.known-words.";
    
    HandlerManager handlerManager_ = new HandlerManager(this);
    
@@ -111,12 +111,15 @@ public interface GitServerOperations extends VCSServerOperations
    /**
     * @param spec Revision list or description. "" for default.
     * @param maxentries Limit the number of entries returned. -1 for no limit.
+    * @param includeGraph Whether to lay out the commit graph (only possible
+    *    for unfiltered history).
     */
    void gitHistory(String spec,
                    FileSystemItem fileFilter,
                    int skip,
                    int maxentries,
                    String searchText,
+                   boolean includeGraph,
                    ServerRequestCallback<RpcObjectList<CommitInfo>> requestCallback);
 
    void gitShow(String rev,
@@ -29,8 +29,19 @@ public class GetEditorContextEvent extends CrossWindowEvent<GetEditorContextEven
    {
       protected Data() {}
 
-      public static final native Data create() /*-{ return 0; }-*/;
-      public final native int getType() /*-{ return this; }-*/;
+      public static final native Data create()
+      /*-{
+         return {
+            "type": 0,
+            "contents_required": true
+         };
+      }-*/;
+
+      public final native int getType() /*-{ return this["type"]; }-*/;
+
+      // When false, the contents of a source document may be omitted if it's
+      // in sync with the server's copy (see SelectionData.createWithHash)
+      public final native boolean isContentsRequired() /*-{ return !!this["contents_required"]; }-*/;
    }
 
    public static class DocumentSelection extends JavaScriptObject
@@ -73,8 +84,26 @@ public class GetEditorContextEvent extends CrossWindowEvent<GetEditorContextEven
          };
       }-*/;
 
+      // Creates selection data for a document whose contents are omitted;
+      // the server uses its own copy of the document if it has the version
+      // with the given hash, and otherwise asks for the contents again
+      public static final native SelectionData createWithHash(String id,
+                                                              String path,
+                                                              String hash,
+                                                              JsArray<DocumentSelection> selection)
+      /*-{
+         return {
+            "id": id,
+            "path": path,
+            "hash": hash,
+            "contents": "",
+            "selection": selection,
+         };
+      }-*/;
+
       public final native String getId() /*-{ return this["id"]; }-*/;
       public final native String getPath() /*-{ return this["path"]; }-*/;
+      public final native String getHash() /*-{ return this["hash"] || ""; }-*/;
       public final native String getContents() /*-{ return this["contents"]; }-*/;
       public final native DocumentSelection getSelection() /*-{ return this["selection"]; }-*/;
    }
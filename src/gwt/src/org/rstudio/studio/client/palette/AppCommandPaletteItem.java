@@ -100,18 +100,15 @@ public class AppCommandPaletteItem extends BasePaletteItem<AppCommandPaletteEntr
    }
    
    @Override
-   public boolean matchesSearch(String[] keywords)
+   protected String getSearchText()
    {
-      String prefix = "";
-
       // Non-workbench commands can match on context
       if (command_.getContext() != Context.Workbench)
       {
-         prefix = command_.getContext().toString() + " ";
+         return command_.getContext().toString() + " " + label_;
       }
 
-      // Matches if the label matches
-      return super.labelMatchesSearch(prefix + label_, keywords);
+      return label_;
    }
 
    @Override
@@ -82,12 +82,18 @@ public abstract class BasePaletteItem<T extends Widget> implements CommandPalett
       return isMru_;
    }
 
-   protected boolean labelMatchesSearch(String label, String[] keywords)
+   @Override
+   public boolean matchesSearch(String[] keywords)
    {
-      String hay = label.toLowerCase();
+      // Fold the search text once; the palette matches every item against
+      // each keystroke's keywords
+      if (searchKey_ == null)
+      {
+         searchKey_ = getSearchText().toLowerCase();
+      }
       for (String needle: keywords)
       {
-         if (!hay.contains(needle))
+         if (!searchKey_.contains(needle))
          {
             return false;
          }
@@ -95,10 +101,19 @@ public abstract class BasePaletteItem<T extends Widget> implements CommandPalett
       return true;
    }
 
+   /**
+    * Gets the text against which search keywords are matched (typically the
+    * item's label along with any context).
+    *
+    * @return The text to search
+    */
+   protected abstract String getSearchText();
+
    public abstract T createWidget();
    
    protected T widget_;
 
    private boolean isMru_;
+   private String searchKey_;
    private HandlerManager handlers_;
 }
@@ -59,9 +59,9 @@ public class UserPrefPaletteItem extends BasePaletteItem<UserPrefPaletteEntry>
    }
 
    @Override
-   public boolean matchesSearch(String[] keywords)
+   protected String getSearchText()
    {
-      return super.labelMatchesSearch("setting " + val_.getTitle(), keywords);
+      return "setting " + val_.getTitle();
    }
 
    @Override
@@ -88,6 +88,19 @@ public class UserPrefPaletteItem extends BasePaletteItem<UserPrefPaletteEntry>
       return val_.getId();
    }
 
+   /**
+    * Can the given preference be shown (and edited) in the palette?
+    *
+    * @param val The preference value
+    * @return Whether the palette has an entry for the preference's type
+    */
+   public static boolean isSupported(PrefValue<?> val)
+   {
+      return val instanceof BooleanValue ||
+             val instanceof EnumValue ||
+             val instanceof IntValue;
+   }
+
    public void nudgeWriter()
    {
       PREF_WRITER.nudge();
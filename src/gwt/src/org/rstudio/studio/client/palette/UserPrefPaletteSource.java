@@ -49,6 +49,11 @@ public class UserPrefPaletteSource implements CommandPaletteEntryProvider
             // reasonable thing we can display)
             continue;
          }
+         if (!UserPrefPaletteItem.isSupported(val))
+         {
+            // Ignore preferences that can't be edited in the palette
+            continue;
+         }
          items.add(new UserPrefPaletteItem(val));
       }
       
@@ -16,7 +16,11 @@
 package org.rstudio.studio.client.palette.ui;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.rstudio.core.client.DebouncedCommand;
 import org.rstudio.core.client.ElementIds;
@@ -36,6 +40,7 @@ import com.google.gwt.aria.client.Roles;
 import com.google.gwt.core.client.GWT;
 import com.google.gwt.core.client.Scheduler;
 import com.google.gwt.dom.client.Element;
+import com.google.gwt.dom.client.Style.Unit;
 import com.google.gwt.event.dom.client.KeyCodes;
 import com.google.gwt.resources.client.CssResource;
 import com.google.gwt.uibinder.client.UiBinder;
@@ -43,6 +48,7 @@ import com.google.gwt.uibinder.client.UiField;
 import com.google.gwt.user.client.ui.Composite;
 import com.google.gwt.user.client.ui.HTMLPanel;
 import com.google.gwt.user.client.ui.ScrollPanel;
+import com.google.gwt.user.client.ui.SimplePanel;
 import com.google.gwt.user.client.ui.TextBox;
 import com.google.gwt.user.client.ui.Widget;
 import com.google.gwt.user.client.ui.Label;
@@ -89,11 +95,12 @@ public class CommandPalette extends Composite
    {
       initWidget(uiBinder.createAndBindUi(this));
 
-      items_ = new ArrayList<>();
-      visible_ = new ArrayList<>();
+      rows_ = new ArrayList<>();
+      matches_ = new ArrayList<>();
       host_ = host;
       selected_ = -1;
       attached_ = false;
+      populated_ = false;
       pageSize_ = 0;
       sources_ = sources;
       needles_ = new String[0];
@@ -101,6 +108,12 @@ public class CommandPalette extends Composite
       styles_.ensureInjected();
       mru_ = mru;
       
+      // Spacers stand in for the results above and below the rendered window
+      topSpacer_ = new SimplePanel();
+      bottomSpacer_ = new SimplePanel();
+      A11y.setARIAHidden(topSpacer_);
+      A11y.setARIAHidden(bottomSpacer_);
+      
       Element searchBox = searchBox_.getElement();
       searchBox.setAttribute("spellcheck", "false");
       searchBox.setAttribute("autocomplete", "off");
@@ -134,14 +147,14 @@ public class CommandPalette extends Composite
 
       attached_ = true;
 
-      // If we have already populated, compute the page size. Do this deferred
-      // so that a render pass occurs (otherwise the page size computations will
-      // take place with unrendered elements)
-      if (commandList_.getWidgetCount() > 0)
+      // If we have already populated, re-render so that entries are measured.
+      // Do this deferred so that a render pass occurs (otherwise the
+      // measurements will take place with unrendered elements)
+      if (populated_)
       {
          Scheduler.get().scheduleDeferred(() ->
          {
-            computePageSize();
+            renderWindow(true);
          });
       }
    }
@@ -236,14 +249,76 @@ public class CommandPalette extends Composite
          }
       });
       
-      // Render the first page of elements
-      renderNextPage();
+      // Render the entries scrolled into view as the user scrolls
+      scroller_.addScrollHandler((evt) ->
+      {
+         renderWindow(false);
+      });
       
-      // If we are already attached to the DOM at this point, compute the page
-      // size for scrolling by pages. 
-      if (attached_)
+      // Build the search index and show the first window of results
+      buildIndex();
+      populated_ = true;
+      applyFilter();
+   }
+   
+   /**
+    * Builds the list of palette items from which search results are drawn:
+    * the MRU items first, followed by the items from each source. Items are
+    * cheap; their widgets are created only when they're first rendered.
+    */
+   private void buildIndex()
+   {
+      // Index the providers by scope, so we can find the provider of each MRU
+      // entry
+      Map<String, CommandPaletteEntryProvider> providers = new HashMap<>();
+      for (CommandPaletteEntryProvider provider: sources_)
+      {
+         if (provider != null)
+         {
+            providers.put(provider.getProviderScope(), provider);
+         }
+      }
+
+      // Start with MRU items
+      Set<String> mruKeys = new HashSet<>();
+      if (mru_ != null)
+      {
+         for (CommandPaletteMruEntry mru: mru_)
+         {
+            CommandPaletteEntryProvider provider = providers.get(mru.getScope());
+            if (provider == null)
+               continue;
+
+            // Ask the provider that originated this MRU entry to supply the
+            // command
+            CommandPaletteItem item = provider.getCommandPaletteItem(mru.getId());
+            if (item != null)
+            {
+               item.setIsMru(true);
+               rows_.add(new Row(item));
+               mruKeys.add(mruKey(mru.getScope(), mru.getId()));
+            }
+         }
+      }
+
+      // Add items from each source, omitting any already present in the MRU
+      for (CommandPaletteEntryProvider provider: sources_)
       {
-         computePageSize();
+         if (provider == null)
+            continue;
+
+         List<CommandPaletteItem> items = provider.getCommandPaletteItems();
+         if (items == null)
+            continue;
+
+         String scope = provider.getProviderScope();
+         for (CommandPaletteItem item: items)
+         {
+            if (item != null && !mruKeys.contains(mruKey(scope, item.getId())))
+            {
+               rows_.add(new Row(item));
+            }
+         }
       }
    }
    
@@ -255,18 +330,11 @@ public class CommandPalette extends Composite
     */
    private void computePageSize()
    {
-      // Find the first visible entry (we can't measure an invisible one)
-      for (CommandPaletteItem item: items_)
+      // Compute the page size: the total size of the scrolling area divided by
+      // the size of a rendered entry
+      if (rowHeight_ > 0)
       {
-         Widget entry = item.asWidget();
-         if (entry.isVisible())
-         {
-            // Compute the page size: the total size of the scrolling area
-            // divided by the size of a visible entry
-            pageSize_ = Math.floorDiv(scroller_.getOffsetHeight(), 
-                  entry.getOffsetHeight());
-            break;
-         }
+         pageSize_ = Math.floorDiv(scroller_.getOffsetHeight(), rowHeight_);
       }
       
       if (pageSize_ > 1)
@@ -288,17 +356,173 @@ public class CommandPalette extends Composite
     */
    private void applyFilter()
    {
-      // Clear the command list and render marker in preparation for a re-render
-      commandList_.clear();
-      renderedItem_ = 0;
-      if (selected_ >= 0)
-         visible_.get(selected_).setSelected(false);
-      visible_.clear();
+      // If the search text only grew since the last filter, each new keyword
+      // contains one of the old ones, so only the current matches can match
+      List<Row> candidates = rows_;
+      if (filterText_ != null && searchText_ != null &&
+          searchText_.startsWith(filterText_))
+      {
+         candidates = matches_;
+      }
+      filterText_ = searchText_;
 
+      // Clear the current selection
+      if (selected_ >= 0)
+      {
+         Row row = matches_.get(selected_);
+         if (row.item_.isRendered())
+            row.item_.setSelected(false);
+      }
       selected_ = -1;
-      
-      // Render the next page of command entries
-      renderNextPage();
+
+      // Find the matching items in the index
+      List<Row> matches = new ArrayList<>();
+      int mruMatches = 0;
+      boolean all = needles_.length == 0 ||
+            (needles_.length == 1 && needles_[0].isEmpty());
+      for (Row row: candidates)
+      {
+         if (row.empty_)
+            continue;
+         if (all || row.item_.matchesSearch(needles_))
+         {
+            matches.add(row);
+            if (row.item_.getIsMru())
+               mruMatches++;
+         }
+      }
+      matches_ = matches;
+      mruMatches_ = mruMatches;
+
+      // Render the top of the results, selecting the first
+      scroller_.setVerticalScrollPosition(0);
+      renderWindow(true);
+      if (!matches_.isEmpty())
+      {
+         selectNewCommand(0);
+      }
+
+      completeRender();
+   }
+   
+   /**
+    * Renders the results scrolled into view (plus a few on either side) into
+    * the command list; the rest of the results are represented by spacers.
+    * 
+    * By far the slowest part of the command palette is the rendering of
+    * individual items into GWT widgets, so we only create widgets for the
+    * items that are actually shown. Widgets are kept by their items, so an
+    * item scrolled out of view and back again reuses its widget.
+    * 
+    * @param force Whether to render even if the window hasn't changed.
+    */
+   private void renderWindow(boolean force)
+   {
+      int count = matches_.size();
+      int top = scroller_.getVerticalScrollPosition();
+      int viewport = scroller_.getOffsetHeight();
+      if (viewport <= 0)
+         viewport = DEFAULT_VIEWPORT_HEIGHT;
+
+      // Find the results overlapping the viewport
+      int first = -1;
+      int last = count;
+      int y = 0;
+      for (int i = 0; i < count; i++)
+      {
+         if (i == mruMatches_ && hasMruSeparator())
+            y += MRU_SEPARATOR_HEIGHT;
+         if (y >= top + viewport)
+         {
+            last = i;
+            break;
+         }
+         y += heightOf(matches_.get(i));
+         if (first == -1 && y > top)
+            first = i;
+      }
+      if (first == -1)
+         first = Math.max(0, count - 1);
+      first = Math.max(0, first - RENDER_OVERSCAN);
+      last = Math.min(count, last + RENDER_OVERSCAN);
+
+      if (!force && first == renderedFirst_ && last == renderedLast_)
+         return;
+      renderedFirst_ = first;
+      renderedLast_ = last;
+
+      commandList_.clear();
+      commandList_.add(topSpacer_);
+      for (int i = first; i < last; i++)
+      {
+         Row row = matches_.get(i);
+         if (i == mruMatches_ && hasMruSeparator())
+         {
+            // Render the MRU separator at the start of the non-MRU items
+            addMruSeparator();
+         }
+
+         // Render the item to a widget (this is the expensive step, but only
+         // happens the first time the item is shown)
+         boolean isRendered = row.item_.isRendered();
+         Widget widget = row.item_.asWidget();
+         if (widget == null)
+         {
+            // Nothing to show for this item; leave it out of future results
+            row.empty_ = true;
+            row.height_ = 0;
+            continue;
+         }
+
+         // Attach an invocation handler if this is the first time we've
+         // rendered this item
+         if (!isRendered)
+         {
+            registrations_.add(row.item_.addInvokeHandler((evt) ->
+            {
+               if (evt.getItem().dismissOnInvoke())
+               {
+                  host_.dismiss();
+               }
+               evt.getItem().invoke(InvocationSource.Mouse);
+            }));
+         }
+
+         // Add and highlight the item (the highlight is kept until the
+         // search changes)
+         commandList_.add(widget);
+         if (!StringUtil.equals(row.highlight_, searchText_))
+         {
+            row.item_.setSearchHighlight(needles_);
+            row.highlight_ = searchText_;
+         }
+         row.item_.setSelected(i == selected_);
+      }
+      commandList_.add(bottomSpacer_);
+
+      // Measure the rendered entries (all the DOM changes are made above, so
+      // this needs just one layout pass)
+      if (attached_)
+      {
+         for (int i = first; i < last; i++)
+         {
+            Row row = matches_.get(i);
+            if (row.empty_)
+               continue;
+            int height = row.item_.asWidget().getOffsetHeight();
+            if (height <= 0)
+               continue;
+            row.height_ = height;
+            if (rowHeight_ == 0)
+            {
+               rowHeight_ = height;
+               computePageSize();
+            }
+         }
+      }
+
+      setSpacerHeight(topSpacer_, offsetOf(first));
+      setSpacerHeight(bottomSpacer_, offsetOf(count) - offsetOf(last));
    }
    
    /**
@@ -306,7 +530,7 @@ public class CommandPalette extends Composite
     */
    private void completeRender()
    {
-      int matches = commandList_.getWidgetCount();
+      int matches = matches_.size();
       
       // Show "no results" message if appropriate
       if (matches == 0 && !noResults_.isVisible())
@@ -343,9 +567,9 @@ public class CommandPalette extends Composite
       {
          target = 0;
       }
-      else if (target >= visible_.size())
+      else if (target >= matches_.size())
       {
-         target = visible_.size() - 1;
+         target = matches_.size() - 1;
       }
 
       // Select new command if we moved
@@ -370,11 +594,12 @@ public class CommandPalette extends Composite
    {
       if (selected_ >= 0)
       {
-         if (visible_.get(selected_).dismissOnInvoke())
+         CommandPaletteItem selected = matches_.get(selected_).item_;
+         if (selected.dismissOnInvoke())
          {
             host_.dismiss();
          }
-         visible_.get(selected_).invoke(InvocationSource.Keyboard);
+         selected.invoke(InvocationSource.Keyboard);
       }
    }
    
@@ -386,189 +611,98 @@ public class CommandPalette extends Composite
    private void selectNewCommand(int target)
    {
       // No-op if target was already selected
-      if (selected_ == target)
+      if (selected_ == target || target < 0)
          return;
       
       // Clear previous selection, if any
       if (selected_ >= 0)
       {
-         visible_.get(selected_).setSelected(false);
+         CommandPaletteItem previous = matches_.get(selected_).item_;
+         if (previous.isRendered())
+            previous.setSelected(false);
       }
       
-      // Set new selection
+      // Scroll the new selection into view, rendering it if necessary
       selected_ = target;
-      CommandPaletteItem selected = visible_.get(selected_);
+      scrollToSelection();
+      
+      // Set new selection (if the item has an entry to select)
+      CommandPaletteItem selected = matches_.get(selected_).item_;
+      if (!selected.isRendered())
+         return;
       selected.setSelected(true);
-      selected.asWidget().getElement().scrollIntoView();
 
       // Update active descendant for accessibility
       Roles.getComboboxRole().setAriaActivedescendantProperty(
             searchBox_.getElement(), Id.of(selected.asWidget().getElement()));
    }
-   
+
    /**
-    * Renders the next page of search results from the command palette.
-    * 
-    * By far the slowest part of the command palette is the rendering of
-    * individual items into GWT widgets, so doing this all at once would cause
-    * the palette to take several seconds to appear. To make it performant, we
-    * render just a few widgets at a time, letting the browser do a render
-    * pass after each batch. 
+    * Scrolls the command list so that the selected entry is in view, and
+    * renders the entries now in view.
     */
-   private void renderNextPage()
+   private void scrollToSelection()
    {
-      // If we have no items yet, start with MRU items
-      if (items_.size() == 0 && mru_ != null)
+      int top = scroller_.getVerticalScrollPosition();
+      int viewport = scroller_.getOffsetHeight();
+      int start = offsetOf(selected_);
+      int end = start + heightOf(matches_.get(selected_));
+      if (selected_ == mruMatches_ && hasMruSeparator())
+         end += MRU_SEPARATOR_HEIGHT;
+
+      if (start < top)
       {
-         for (CommandPaletteMruEntry mru: mru_)
-         {
-            // Look for the entry provider from which this MRU entry originated
-            for (CommandPaletteEntryProvider provider: sources_)
-            {
-               if (StringUtil.equals(provider.getProviderScope(), mru.getScope()))
-               {
-                  // Found the entry provider; ask it to supply the command.
-                  CommandPaletteItem item = provider.getCommandPaletteItem(mru.getId());
-                  if (item != null)
-                  {
-                     item.setIsMru(true);
-                     items_.add(item);
-                  }
-
-                  // Command found; no need to look at other providers
-                  break;
-               }
-            }
-         }
+         scroller_.setVerticalScrollPosition(start);
       }
-
-      // If we haven't already pulled items from all our sources and we have
-      // less than a page of data left, pull in data from the next source.
-      if (renderedSource_ < sources_.size() &&
-          items_.size() - renderedItem_ < RENDER_PAGE_SIZE)
+      else if (viewport > 0 && end > top + viewport)
       {
-         // Read the next non-null data source
-         List<CommandPaletteItem> items = null;
-         do
-         {
-            items = null;
-            CommandPaletteEntryProvider provider = sources_.get(renderedSource_);
-            if (provider != null)
-            {
-               items = provider.getCommandPaletteItems();
-
-               // Remove any items already present in the MRU
-               if (mru_ != null)
-               {
-                  items.removeIf((item) ->
-                  {
-                     for (CommandPaletteMruEntry entry : mru_)
-                     {
-                        if (StringUtil.equals(entry.getScope(), provider.getProviderScope()) &&
-                            StringUtil.equals(entry.getId(), item.getId()))
-                        {
-                           // Item already present in MRU; remove it
-                           return true;
-                        }
-                     }
-                     // Item not present in MRU; don't remove
-                     return false;
-                  });
-               }
-            }
-            renderedSource_++;
-         } while (items == null);
-
-         items_.addAll(items);
+         scroller_.setVerticalScrollPosition(end - viewport);
       }
-      
-      // Set initial conditions for render loop
-      int rendered = 0;
-      int idx = renderedItem_;
-      boolean mruSeparator = false;
 
-      // Main render loop; render items until we have rendered a full page
-      while (idx < items_.size() && rendered < RENDER_PAGE_SIZE)
-      {
-         CommandPaletteItem item = items_.get(idx);
-
-         // Render this item if non-null and matches the search keywords, if we
-         // have them
-         if (item != null && (needles_.length == 0 || item.matchesSearch(needles_)))
-         {
-            // Remember whether this item has been rendered
-            boolean isRendered = item.isRendered();
-            
-            // Render the item to a widget (this is the expensive step)
-            Widget widget = item.asWidget();
-            if (widget != null)
-            {
-               if (item.getIsMru())
-               {
-                  // If this item came from the MRU, we need to render a separator to
-                  // delineate the MRU and non MRU entries in the palette
-                  mruSeparator = true;
-               }
-               else if (mruSeparator)
-               {
-                  // Render the MRU separator if we've entered the region of non-MRU items
-                  addMruSeparator();
-                  mruSeparator = false;
-               }
+      renderWindow(false);
+   }
 
-               // Add and highlight the item
-               commandList_.add(item.asWidget());
-               visible_.add(item);
-               item.setSearchHighlight(needles_);
-               
-               // If we just added the first widget to the box, select it
-               if (visible_.size() == 1)
-               {
-                  selectNewCommand(0);
-               }
-               rendered++;
-            }
-            
-            // Attach an invocation handler if this is the first time we've
-            // rendered this item
-            if (!isRendered)
-            {
-               registrations_.add(item.addInvokeHandler((evt) ->
-               {
-                  if (evt.getItem().dismissOnInvoke())
-                  {
-                     host_.dismiss();
-                  }
-                  evt.getItem().invoke(InvocationSource.Mouse);
-               }));
-            }
-         }
-         
-         // Advance to next command palette item
-         idx++;
-      }
-      
-      // Save our place so we'll start rendering at the next page
-      renderedItem_ = idx;
-      
-      // If we didn't render everything, schedule another pass
-      if (renderedItem_ < items_.size() || renderedSource_ < sources_.size())
+   /**
+    * Computes the vertical offset of the given result in the command list
+    * (above the MRU separator, for the first non-MRU result).
+    * 
+    * @param index The index of the result
+    * @return The offset, in pixels
+    */
+   private int offsetOf(int index)
+   {
+      int offset = 0;
+      for (int i = 0; i < index; i++)
       {
-         // Don't populate while user is typing as dumping more elements into
-         // the DOM is distracting (plus the additional elements will be
-         // discarded once the timer finishes running)
-         if (!applyFilter_.isRunning())
-         {
-            Scheduler.get().scheduleDeferred(() ->
-            {
-               renderNextPage();
-            });
-         }
+         offset += heightOf(matches_.get(i));
       }
-      else
+      if (hasMruSeparator() && mruMatches_ < index)
       {
-         completeRender();
+         offset += MRU_SEPARATOR_HEIGHT;
       }
+      return offset;
+   }
+
+   private int heightOf(Row row)
+   {
+      if (row.height_ >= 0)
+         return row.height_;
+      return rowHeight_ > 0 ? rowHeight_ : DEFAULT_ROW_HEIGHT;
+   }
+
+   private boolean hasMruSeparator()
+   {
+      return mruMatches_ > 0 && mruMatches_ < matches_.size();
+   }
+
+   private void setSpacerHeight(Widget spacer, int height)
+   {
+      spacer.getElement().getStyle().setHeight(height, Unit.PX);
+   }
+
+   private static String mruKey(String scope, String id)
+   {
+      return scope + SCOPE_MRU_DELIMITER + id;
    }
 
    /**
@@ -584,21 +718,59 @@ public class CommandPalette extends Composite
       commandList_.add(separator);
    }
 
+   /**
+    * An item in the palette's search index, along with its rendering state.
+    */
+   private static class Row
+   {
+      Row(CommandPaletteItem item)
+      {
+         item_ = item;
+      }
+
+      final CommandPaletteItem item_;
+
+      // The measured height of the item's entry, or -1 if not yet measured
+      int height_ = -1;
+
+      // The search text the entry was last highlighted for
+      String highlight_;
+
+      // Whether the item turned out to have no entry to show
+      boolean empty_;
+   }
+
    private final Host host_;
    private final List<CommandPaletteEntryProvider> sources_;
-   private final List<CommandPaletteItem> items_;
-   private final List<CommandPaletteItem> visible_;
+   private final List<Row> rows_;
    private final List<CommandPaletteMruEntry> mru_;
    private final HandlerRegistrations registrations_;
+   private final SimplePanel topSpacer_;
+   private final SimplePanel bottomSpacer_;
+   private List<Row> matches_;
+   private int mruMatches_;
    private int selected_;
    private String searchText_;
+   private String filterText_;
    private String[] needles_;
    private boolean attached_;
+   private boolean populated_;
    private int pageSize_;
+   private int rowHeight_;
    
-   private int renderedItem_; // The index of the last rendered item
-   private int renderedSource_ = 0; // The index of the last rendered data source
-   private final int RENDER_PAGE_SIZE = 50;
+   private int renderedFirst_ = -1; // The index of the first rendered result
+   private int renderedLast_ = -1;  // The index after the last rendered result
+
+   // The number of results rendered above and below those in view
+   private final static int RENDER_OVERSCAN = 10;
+
+   // Estimates used until entries have been measured
+   private final static int DEFAULT_ROW_HEIGHT = 30;
+   private final static int DEFAULT_VIEWPORT_HEIGHT = 375;
+
+   // The height of the MRU separator, including its margins (see mruSeparator
+   // in CommandPalette.ui.xml)
+   private final static int MRU_SEPARATOR_HEIGHT = 11;
 
    // These scopes serve two purposes: they ensure IDs are unique across different
    // kinds of commands, and they serve as a key to look up MRU entries
@@ -15,9 +15,13 @@
 
 package org.rstudio.studio.client.panmirror.pandoc;
 
+import org.rstudio.core.client.LruCache;
 import org.rstudio.core.client.StringUtil;
+import org.rstudio.core.client.files.FileSystemItem;
 import org.rstudio.core.client.promise.PromiseServerRequestCallback;
 import org.rstudio.studio.client.RStudioGinjector;
+import org.rstudio.studio.client.application.events.EventBus;
+import org.rstudio.studio.client.workbench.views.files.events.FileChangeEvent;
 
 import com.google.gwt.core.client.JavaScriptObject;
 import com.google.gwt.core.client.JsArrayString;
@@ -39,9 +43,21 @@ public class PanmirrorPandocServer {
    }
    
    @Inject
-   void initialize(PanmirrorPandocServerOperations server)
+   void initialize(PanmirrorPandocServerOperations server, EventBus events)
    {
       server_ = server;
+      
+      // the caches are shared by all editors, so only the first instance
+      // needs to watch for changes to citation styles
+      if (!watchingCsl_)
+      {
+         watchingCsl_ = true;
+         events.addHandler(FileChangeEvent.TYPE, event -> {
+            FileSystemItem file = event.getFileChange().getFile();
+            if (file != null && StringUtil.equals(file.getExtension().toLowerCase(), ".csl"))
+               cslModified_ = Math.max(cslModified_, file.getLastModifiedNative());
+         });
+      }
    }
    
    public Promise<JavaScriptObject> getCapabilities()
@@ -59,34 +75,83 @@ public class PanmirrorPandocServer {
       // ever write stdin if it's empty)
       final String input = !StringUtil.isNullOrEmpty(markdown) ? markdown : " ";
       
+      // syncing an unchanged document (e.g. switching modes back and forth)
+      // is served from the cache rather than by running pandoc again. the
+      // ast is cached as json so callers can't mutate the cached copy
+      final String key = cacheKey(format, options, contentHash(input));
+      String cachedAst = AST_CACHE.get(key);
+      if (cachedAst != null)
+         return Promise.resolve(fromJson(cachedAst));
+      
       return new Promise<>((ResolveCallbackFn<JavaScriptObject> resolve, RejectCallbackFn reject) -> {
          
          server_.pandocMarkdownToAst(
             input, format, options, 
-            new PromiseServerRequestCallback<>(resolve, reject)
+            new PromiseServerRequestCallback<JavaScriptObject>(resolve, reject)
+            {
+               @Override
+               public void onResponseReceived(JavaScriptObject ast)
+               {
+                  AST_CACHE.put(key, toJson(ast));
+                  super.onResponseReceived(ast);
+               }
+            }
          );
       });
    }
    
    public Promise<String> astToMarkdown(JavaScriptObject ast, String format, JsArrayString options)
    {
+      final String key = cacheKey(format, options, contentHash(ast));
+      String cachedMarkdown = MARKDOWN_CACHE.get(key);
+      if (cachedMarkdown != null)
+         return Promise.resolve(cachedMarkdown);
+      
       return new Promise<>((ResolveCallbackFn<String> resolve, RejectCallbackFn reject) -> {
          server_.pandocAstToMarkdown(
             ast, format, options, 
-            new PromiseServerRequestCallback<>(resolve, reject)
+            new PromiseServerRequestCallback<String>(resolve, reject)
+            {
+               @Override
+               public void onResponseReceived(String markdown)
+               {
+                  MARKDOWN_CACHE.put(key, markdown);
+                  super.onResponseReceived(markdown);
+               }
+            }
          );
       });
    }
    
    public Promise<JavaScriptObject> getBibliography(String file, JsArrayString bibliographies, String refBlock, String etag)
    {
+      // a new editor starts out without an etag, so offer the server the etag
+      // of the last bibliography we received for the same sources; if it is
+      // still current we can return our copy rather than transferring it again
+      final String key = cacheKey(file, bibliographies, refBlock);
+      final CachedBibliography cached = BIBLIOGRAPHY_CACHE.get(key);
+      final boolean useCachedEtag = StringUtil.isNullOrEmpty(etag) && cached != null;
+      final String requestEtag = useCachedEtag ? cached.etag : etag;
+      
       return new Promise<>((ResolveCallbackFn<JavaScriptObject> resolve, RejectCallbackFn reject) -> {       
           server_.pandocGetBibliography(
             file,
             bibliographies,
             refBlock,
-            etag,
-            new PromiseServerRequestCallback<>(resolve, reject, "Reading bibliography...", 1500)
+            requestEtag,
+            new PromiseServerRequestCallback<JavaScriptObject>(resolve, reject, "Reading bibliography...", 1500)
+            {
+               @Override
+               public void onResponseReceived(JavaScriptObject result)
+               {
+                  // the cache holds json so that each caller gets its own copy
+                  if (hasBibliography(result))
+                     BIBLIOGRAPHY_CACHE.put(key, new CachedBibliography(getEtag(result), toJson(result)));
+                  else if (useCachedEtag && StringUtil.equals(getEtag(result), requestEtag))
+                     result = fromJson(cached.json);
+                  super.onResponseReceived(result);
+               }
+            }
          );
       });
    }
@@ -107,10 +172,26 @@ public class PanmirrorPandocServer {
    
    public Promise<String> citationHTML(String file, String sourceAsJson, String csl)
    {
+      // the server resolves the style (which may be relative to the file or
+      // come from bookdown), so key on the latest change to any style we've
+      // seen rather than the path alone
+      final String key = cacheKey(file, csl + "\u0001" + cslModified_, sourceAsJson);
+      String cachedHtml = CITATION_CACHE.get(key);
+      if (cachedHtml != null)
+         return Promise.resolve(cachedHtml);
+      
       return new Promise<>((ResolveCallbackFn<String> resolve, RejectCallbackFn reject) -> {
          server_.pandocCitationHTML(
             file, sourceAsJson, csl,
-            new PromiseServerRequestCallback<>(resolve, reject)
+            new PromiseServerRequestCallback<String>(resolve, reject)
+            {
+               @Override
+               public void onResponseReceived(String html)
+               {
+                  CITATION_CACHE.put(key, html);
+                  super.onResponseReceived(html);
+               }
+            }
          );
       });
    }
@@ -123,6 +204,93 @@ public class PanmirrorPandocServer {
       });
    }
 
+   private static String cacheKey(String first, JsArrayString options, String content)
+   {
+      String joined = options != null ? options.join("\u0001") : "";
+      return first + "\u0002" + joined + "\u0002" + content;
+   }
+   
+   private static String cacheKey(String first, String second, String content)
+   {
+      return first + "\u0002" + second + "\u0002" + content;
+   }
+   
+   // hashes strings and json-like objects (e.g. pandoc asts) without first
+   // serializing them. two independent 32-bit hashes (fnv-1a and djb2) plus
+   // the number of characters hashed make collisions vanishingly unlikely
+   private static native String contentHash(Object value) /*-{
+      var h1 = 0x811c9dc5, h2 = 5381, n = 0;
+      var mix = function(str) {
+         for (var i = 0; i < str.length; i++) {
+            var c = str.charCodeAt(i);
+            h1 = Math.imul(h1 ^ c, 0x01000193);
+            h2 = (Math.imul(h2, 33) ^ c) | 0;
+         }
+         n += str.length;
+      };
+      var walk = function(v) {
+         if (v === null || v === undefined) {
+            mix("\u0000n");
+         } else if (typeof v === "string") {
+            mix("\u0000s");
+            mix(v);
+         } else if (Array.isArray(v)) {
+            mix("\u0000a" + v.length);
+            for (var i = 0; i < v.length; i++)
+               walk(v[i]);
+         } else if (typeof v === "object") {
+            var keys = Object.keys(v);
+            mix("\u0000o" + keys.length);
+            for (var j = 0; j < keys.length; j++) {
+               mix(keys[j]);
+               walk(v[keys[j]]);
+            }
+         } else {
+            mix("\u0000p" + v);
+         }
+      };
+      walk(value);
+      return (h1 >>> 0).toString(16) + ":" + (h2 >>> 0).toString(16) + ":" + n;
+   }-*/;
+   
+   private static native String toJson(JavaScriptObject object) /*-{
+      return JSON.stringify(object);
+   }-*/;
+   
+   private static native JavaScriptObject fromJson(String json) /*-{
+      return JSON.parse(json);
+   }-*/;
+   
+   private static native String getEtag(JavaScriptObject result) /*-{
+      return result.etag || "";
+   }-*/;
+   
+   private static native boolean hasBibliography(JavaScriptObject result) /*-{
+      return !!result.bibliography;
+   }-*/;
+
+   private static class CachedBibliography
+   {
+      CachedBibliography(String etag, String json)
+      {
+         this.etag = etag;
+         this.json = json;
+      }
+      
+      final String etag;
+      final String json;
+   }
+
    private PanmirrorPandocServerOperations server_;
    
+   // conversions are keyed by their format, options and a hash of their
+   // content. these are shared by all editors
+   private static final LruCache<String, String> AST_CACHE = new LruCache<>(8);
+   private static final LruCache<String, String> MARKDOWN_CACHE = new LruCache<>(8);
+   private static final LruCache<String, String> CITATION_CACHE = new LruCache<>(200);
+   private static final LruCache<String, CachedBibliography> BIBLIOGRAPHY_CACHE = new LruCache<>(4);
+   
+   private static boolean watchingCsl_ = false;
+   private static double cslModified_ = 0;
+   
 }
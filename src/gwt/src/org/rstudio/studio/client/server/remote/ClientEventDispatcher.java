@@ -460,7 +460,8 @@ public class ClientEventDispatcher
          {
             FindResultEvent.Data data = event.getData();
             eventBus_.dispatchEvent(new FindResultEvent(
-                  data.getHandle(), data.getResults().toArrayList()));
+                  data.getHandle(), data.getResults().toArrayList(),
+                  data.getMatchCount(), data.getTotal()));
          }
          else if (type == ClientEvent.FindOperationEnded)
          {
@@ -471,7 +472,8 @@ public class ClientEventDispatcher
          {
             ReplaceResultEvent.Data data = event.getData();
             eventBus_.dispatchEvent(new ReplaceResultEvent(
-                   data.getHandle(), data.getResults().toArrayList()));
+                   data.getHandle(), data.getResults().toArrayList(),
+                   data.getErrorCount(), data.getTotal()));
          }
          else if (type == ClientEvent.ReplaceProgress)
          {
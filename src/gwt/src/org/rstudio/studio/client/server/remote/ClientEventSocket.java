@@ -0,0 +1,197 @@
+/*
+ * ClientEventSocket.java
+ *
+ * Copyright (C) 2021 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.server.remote;
+
+import com.google.gwt.core.client.GWT;
+import com.google.gwt.core.client.JsArray;
+import com.google.gwt.user.client.Timer;
+import com.sksamuel.gwt.websockets.CloseEvent;
+import com.sksamuel.gwt.websockets.Websocket;
+import com.sksamuel.gwt.websockets.WebsocketListenerExt;
+
+import org.rstudio.studio.client.workbench.views.terminal.TerminalSocketPacket;
+
+/**
+ * Persistent WebSocket over which the session pushes client events, used in
+ * place of get_events long-polling when the session supports it.
+ *
+ * The protocol mirrors get_events: the client sends the id of the last event
+ * it has processed (on connect and after each batch), and the session
+ * discards events up to that id and pushes each new batch as a JSON array of
+ * client events. Messages are framed, and the connection kept alive, in the
+ * same way as terminal sockets (see TerminalSocketPacket).
+ */
+class ClientEventSocket
+{
+   interface Observer
+   {
+      void onEventsReceived(JsArray<ClientEvent> events);
+
+      // the socket could not be opened or was closed by the other end; the
+      // observer should fall back to long-polling
+      void onSocketFailed();
+   }
+
+   ClientEventSocket(String url,
+                     int connectTimeoutSeconds,
+                     int pingIntervalSeconds,
+                     Observer observer)
+   {
+      url_ = url;
+      connectTimeoutSeconds_ = connectTimeoutSeconds;
+      pingIntervalSeconds_ = pingIntervalSeconds;
+      observer_ = observer;
+   }
+
+   void connect(final int lastEventId)
+   {
+      if (socket_ != null)
+         return;
+
+      closed_ = false;
+      open_ = false;
+      socket_ = new Websocket(url_);
+      socket_.addListener(new WebsocketListenerExt()
+      {
+         @Override
+         public void onOpen()
+         {
+            connectTimer_.cancel();
+            if (closed_)
+               return;
+
+            open_ = true;
+            acknowledge(lastEventId);
+
+            // keep proxies from closing the socket while no events arrive
+            if (pingIntervalSeconds_ > 0)
+               keepAliveTimer_.scheduleRepeating(pingIntervalSeconds_ * 1000);
+         }
+
+         @Override
+         public void onMessage(String msg)
+         {
+            if (closed_ || TerminalSocketPacket.isKeepAlive(msg))
+               return;
+
+            JsArray<ClientEvent> events;
+            try
+            {
+               events = parseEvents(TerminalSocketPacket.getMessage(msg));
+            }
+            catch (Exception e)
+            {
+               GWT.log("ERROR: Parsing client events from socket", e);
+               fail();
+               return;
+            }
+            observer_.onEventsReceived(events);
+         }
+
+         @Override
+         public void onClose(CloseEvent event)
+         {
+            fail();
+         }
+
+         @Override
+         public void onError()
+         {
+            fail();
+         }
+      });
+
+      if (connectTimeoutSeconds_ > 0)
+         connectTimer_.schedule(connectTimeoutSeconds_ * 1000);
+      socket_.open();
+   }
+
+   // confirm receipt of all events up to and including lastEventId
+   void acknowledge(int lastEventId)
+   {
+      if (!open_ || closed_)
+         return;
+
+      socket_.send(TerminalSocketPacket.textPacket(
+            "{\"lastEventId\":" + lastEventId + "}"));
+   }
+
+   boolean isOpen()
+   {
+      return open_ && !closed_;
+   }
+
+   // close the socket without notifying the observer
+   void close()
+   {
+      if (closed_)
+         return;
+
+      closed_ = true;
+      open_ = false;
+      connectTimer_.cancel();
+      keepAliveTimer_.cancel();
+      if (socket_ != null)
+      {
+         Websocket socket = socket_;
+         socket_ = null;
+         socket.close();
+      }
+   }
+
+   private void fail()
+   {
+      if (closed_)
+         return;
+
+      close();
+      observer_.onSocketFailed();
+   }
+
+   private static native JsArray<ClientEvent> parseEvents(String msg) /*-{
+      return JSON.parse(msg);
+   }-*/;
+
+   private final Timer connectTimer_ = new Timer()
+   {
+      @Override
+      public void run()
+      {
+         if (!open_)
+            fail();
+      }
+   };
+
+   private final Timer keepAliveTimer_ = new Timer()
+   {
+      @Override
+      public void run()
+      {
+         if (isOpen())
+            socket_.send(TerminalSocketPacket.keepAlivePacket());
+         else
+            cancel();
+      }
+   };
+
+   private final String url_;
+   private final int connectTimeoutSeconds_;
+   private final int pingIntervalSeconds_;
+   private final Observer observer_;
+
+   private Websocket socket_;
+   private boolean open_;
+   private boolean closed_;
+}
@@ -49,7 +49,7 @@ import org.rstudio.studio.client.common.console.ConsoleProcess;
 import org.rstudio.studio.client.common.console.ConsoleProcess.ConsoleProcessFactory;
 import org.rstudio.studio.client.common.console.ConsoleProcessInfo;
 import org.rstudio.studio.client.common.crypto.PublicKeyInfo;
-import org.rstudio.studio.client.common.debugging.model.Breakpoint;
+import org.rstudio.studio.client.common.debugging.model.BreakpointSync;
 import org.rstudio.studio.client.common.debugging.model.FunctionState;
 import org.rstudio.studio.client.common.debugging.model.FunctionSteps;
 import org.rstudio.studio.client.common.debugging.model.TopLevelLineData;
@@ -135,6 +135,7 @@ import org.rstudio.studio.client.server.VoidServerRequestCallback;
 import org.rstudio.studio.client.shiny.model.ShinyRunCmd;
 import org.rstudio.studio.client.shiny.model.ShinyTestResults;
 import org.rstudio.studio.client.workbench.addins.Addins.RAddins;
+import org.rstudio.studio.client.workbench.codesearch.model.CodeSearchIndexResults;
 import org.rstudio.studio.client.workbench.codesearch.model.CodeSearchResults;
 import org.rstudio.studio.client.workbench.codesearch.model.ObjectDefinition;
 import org.rstudio.studio.client.workbench.codesearch.model.SearchPathFunctionDefinition;
@@ -176,9 +177,11 @@ import org.rstudio.studio.client.workbench.views.environment.model.RObject;
 import org.rstudio.studio.client.workbench.views.files.model.DirectoryListing;
 import org.rstudio.studio.client.workbench.views.files.model.FileUploadToken;
 import org.rstudio.studio.client.workbench.views.help.model.HelpInfo;
+import org.rstudio.studio.client.workbench.views.help.model.HelpTopicIndexUpdate;
 import org.rstudio.studio.client.workbench.views.history.model.HistoryEntry;
 import org.rstudio.studio.client.workbench.views.jobs.model.JobLaunchSpec;
 import org.rstudio.studio.client.workbench.views.jobs.model.JobOutput;
+import org.rstudio.studio.client.workbench.views.output.find.model.FindResultPage;
 import org.rstudio.studio.client.workbench.views.output.lint.model.AceAnnotation;
 import org.rstudio.studio.client.workbench.views.output.lint.model.LintItem;
 import org.rstudio.studio.client.workbench.views.packages.model.PackageInstallContext;
@@ -210,6 +213,7 @@ import org.rstudio.studio.client.workbench.views.vcs.dialog.CommitInfo;
 import com.google.gwt.core.client.GWT;
 import com.google.gwt.core.client.JavaScriptObject;
 import com.google.gwt.core.client.JsArray;
+import com.google.gwt.core.client.JsArrayBoolean;
 import com.google.gwt.core.client.JsArrayInteger;
 import com.google.gwt.core.client.JsArrayNumber;
 import com.google.gwt.core.client.JsArrayString;
@@ -218,6 +222,7 @@ import com.google.gwt.user.client.Random;
 import com.google.inject.Inject;
 import com.google.inject.Provider;
 import com.google.inject.Singleton;
+import com.sksamuel.gwt.websockets.Websocket;
 
 @Singleton
 public class RemoteServer implements Server
@@ -321,6 +326,7 @@ public class RemoteServer implements Server
 
    public void clientInit(String baseURL,
                      SessionInitOptions options,
+                     JavaScriptObject cachedDocuments,
                      final ServerRequestCallback<SessionInfo> requestCallback)
    {
       // generate a unique id to represent this client init request
@@ -333,10 +339,21 @@ public class RemoteServer implements Server
       JSONArray params = new JSONArray();
       params.set(0, new JSONString(baseURL));
       params.set(1, new JSONString(clientInitId_));
+
+      JSONObject kwparams = new JSONObject();
+      if (options != null)
+      {
+         JSONObject optionsJson = new JSONObject(options);
+         for (String key : optionsJson.keySet())
+            kwparams.put(key, optionsJson.get(key));
+      }
+      if (cachedDocuments != null)
+         kwparams.put("cached_documents", new JSONObject(cachedDocuments));
+
       sendRequest(RPC_SCOPE,
                   CLIENT_INIT,
                   params,
-                  options == null ? null : new JSONObject(options),
+                  kwparams,
                   new ServerRequestCallback<SessionInfo>()
       {
          @Override
@@ -613,14 +630,25 @@ public class RemoteServer implements Server
    public void searchCode(
          String term,
          int maxResults,
+         boolean unindexedOnly,
          ServerRequestCallback<CodeSearchResults> requestCallback)
    {
       JSONArray params = new JSONArray();
       params.set(0, new JSONString(term));
       params.set(1, new JSONNumber(maxResults));
+      params.set(2, JSONBoolean.getInstance(unindexedOnly));
       sendRequest(RPC_SCOPE, SEARCH_CODE, params, requestCallback);
    }
 
+   public void getCodeSearchIndex(
+         JsArrayString paths,
+         ServerRequestCallback<CodeSearchIndexResults> requestCallback)
+   {
+      JSONArray params = new JSONArray();
+      params.set(0, new JSONArray(paths));
+      sendRequest(RPC_SCOPE, GET_CODE_SEARCH_INDEX, params, requestCallback);
+   }
+
    public void getObjectDefinition(
          String line,
          int pos,
@@ -1375,6 +1403,14 @@ public class RemoteServer implements Server
       sendRequest(RPC_SCOPE, "suggest_topics", prefix, requestCallback);
    }
 
+   public void getHelpTopicIndex(JsArrayString knownPackages,
+                                 ServerRequestCallback<HelpTopicIndexUpdate> requestCallback)
+   {
+      JSONArray params = new JSONArray();
+      params.set(0, new JSONArray(knownPackages));
+      sendRequest(RPC_SCOPE, "get_help_topic_index", params, requestCallback);
+   }
+
    public void getHelp(String topic,
                        String packageName,
                        int options,
@@ -2520,6 +2556,12 @@ public class RemoteServer implements Server
       sendRequest(RPC_SCOPE, GET_HISTORY_ARCHIVE_ITEMS, params, requestCallback);
    }
 
+   public void getHistoryArchiveSize(
+         ServerRequestCallback<Double> requestCallback)
+   {
+      sendRequest(RPC_SCOPE, GET_HISTORY_ARCHIVE_SIZE, requestCallback);
+   }
+
    public void searchHistory(
          String query,
          long maxEntries,
@@ -2879,6 +2921,7 @@ public class RemoteServer implements Server
                           int skip,
                           int maxentries,
                           String searchText,
+                          boolean includeGraph,
                           ServerRequestCallback<RpcObjectList<CommitInfo>> requestCallback)
    {
       JSONArray params = new JSONArray();
@@ -2888,6 +2931,7 @@ public class RemoteServer implements Server
       params.set(2, new JSONNumber(skip));
       params.set(3, new JSONNumber(maxentries));
       params.set(4, new JSONString(StringUtil.notNull(searchText)));
+      params.set(5, JSONBoolean.getInstance(includeGraph));
       sendRequest(RPC_SCOPE, GIT_HISTORY, params, requestCallback);
    }
 
@@ -3023,6 +3067,48 @@ public class RemoteServer implements Server
       return eventBus_;
    }
 
+   // returns the url of the session's client event socket, or null if
+   // events should be received by long-polling get_events
+   String getClientEventsSocketUrl()
+   {
+      if (clientId_ == null || !Websocket.isSupported())
+         return null;
+
+      SessionInfo sessionInfo = session_.getSessionInfo();
+      if (sessionInfo == null)
+         return null;
+
+      int port = sessionInfo.getClientEventsWebsocketPort();
+      if (port <= 0)
+         return null;
+
+      // For desktop IDE, talk directly to the websocket, anything else, go
+      // through the server via the /p proxy.
+      String urlSuffix = port + "/events/" + clientId_ + "/";
+      if (Desktop.isDesktop())
+         return "ws://127.0.0.1:" + urlSuffix;
+
+      String url = GWT.getHostPageBaseURL();
+      if (url.startsWith("https:"))
+         return "wss:" + url.substring(6) + "p/" + urlSuffix;
+      else if (url.startsWith("http:"))
+         return "ws:" + url.substring(5) + "p/" + urlSuffix;
+      else
+         return null;
+   }
+
+   int getWebSocketConnectTimeout()
+   {
+      SessionInfo sessionInfo = session_.getSessionInfo();
+      return sessionInfo == null ? 0 : sessionInfo.getWebSocketConnectTimeout();
+   }
+
+   int getWebSocketPingInterval()
+   {
+      SessionInfo sessionInfo = session_.getSessionInfo();
+      return sessionInfo == null ? 0 : sessionInfo.getWebSocketPingInterval();
+   }
+
    RpcRequest getEvents(
                   int lastEventId,
                   ServerRequestCallback<JsArray<ClientEvent>> requestCallback,
@@ -4446,6 +4532,19 @@ public class RemoteServer implements Server
       sendRequest(RPC_SCOPE, STOP_FIND, findOperationHandle, requestCallback);
    }
 
+   @Override
+   public void getFindResults(String findOperationHandle,
+                              int offset,
+                              int count,
+                              ServerRequestCallback<FindResultPage> requestCallback)
+   {
+      JSONArray params = new JSONArray();
+      params.set(0, new JSONString(findOperationHandle));
+      params.set(1, new JSONNumber(offset));
+      params.set(2, new JSONNumber(count));
+      sendRequest(RPC_SCOPE, GET_FIND_RESULTS, params, requestCallback);
+   }
+
    @Override
    public void clearFindResults(ServerRequestCallback<Void> requestCallback)
    {
@@ -4718,30 +4817,6 @@ public class RemoteServer implements Server
          requestCallback);
    }
 
-   @Override
-   public void setFunctionBreakpoints(
-         String functionName,
-         String fileName,
-         String packageName,
-         ArrayList<String> steps,
-         ServerRequestCallback<Void> requestCallback)
-   {
-      JSONArray breakSteps = new JSONArray();
-      for (int idx = 0; idx < steps.size(); idx++)
-      {
-         breakSteps.set(idx, new JSONString(steps.get(idx)));
-      }
-      JSONArray params = new JSONArray();
-      params.set(0, new JSONString(functionName));
-      params.set(1, new JSONString(fileName));
-      params.set(2, new JSONString(packageName));
-      params.set(3, breakSteps);
-      sendRequest(RPC_SCOPE,
-                  SET_FUNCTION_BREAKPOINTS,
-                  params,
-                  requestCallback);
-   }
-
    @Override
    public void getFunctionState(
          String functionName,
@@ -4794,21 +4869,15 @@ public class RemoteServer implements Server
    }
 
    @Override
-   public void updateBreakpoints(ArrayList<Breakpoint> breakpoints,
-         boolean set, boolean arm, ServerRequestCallback<Void> requestCallback)
+   public void syncBreakpoints(
+         BreakpointSync sync,
+         ServerRequestCallback<JsArrayBoolean> requestCallback)
    {
-      JSONArray bps = new JSONArray();
-      for (int i = 0; i < breakpoints.size(); i++)
-      {
-         bps.set(i, new JSONObject(breakpoints.get(i)));
-      }
-
       JSONArray params = new JSONArray();
-      params.set(0, bps);
-      params.set(1, JSONBoolean.getInstance(set));
-      params.set(2, JSONBoolean.getInstance(arm));
+      params.set(0, new JSONArray(sync.getUpdates()));
+      params.set(1, new JSONArray(sync.getFunctions()));
       sendRequest(RPC_SCOPE,
-            UPDATE_BREAKPOINTS,
+            SYNC_BREAKPOINTS,
             params,
             requestCallback);
    }
@@ -6430,6 +6499,7 @@ public class RemoteServer implements Server
    private static final String GET_TERMINAL_SHELLS = "get_terminal_shells";
    private static final String START_TERMINAL = "start_terminal";
    private static final String SEARCH_CODE = "search_code";
+   private static final String GET_CODE_SEARCH_INDEX = "get_code_search_index";
    private static final String GET_SEARCH_PATH_FUNCTION_DEFINITION = "get_search_path_function_definition";
    private static final String GET_METHOD_DEFINITION = "get_method_definition";
    private static final String GET_FUNCTION_DEFINITION = "get_function_definition";
@@ -6585,6 +6655,7 @@ public class RemoteServer implements Server
    private static final String REMOVE_HISTORY_ITEMS = "remove_history_items";
    private static final String CLEAR_HISTORY = "clear_history";
    private static final String GET_HISTORY_ARCHIVE_ITEMS = "get_history_archive_items";
+   private static final String GET_HISTORY_ARCHIVE_SIZE = "get_history_archive_size";
    private static final String SEARCH_HISTORY = "search_history";
    private static final String SEARCH_HISTORY_ARCHIVE = "search_history_archive";
    private static final String SEARCH_HISTORY_ARCHIVE_BY_PREFIX = "search_history_archive_by_prefix";
@@ -6696,6 +6767,7 @@ public class RemoteServer implements Server
 
    private static final String BEGIN_FIND = "begin_find";
    private static final String STOP_FIND = "stop_find";
+   private static final String GET_FIND_RESULTS = "get_find_results";
 
    private static final String PREVIEW_REPLACE = "preview_replace";
    private static final String COMPLETE_REPLACE = "complete_replace";
@@ -6738,12 +6810,11 @@ public class RemoteServer implements Server
    private static final String IS_FUNCTION_MASKED = "is_function_masked";
 
    private static final String GET_FUNCTION_STEPS = "get_function_steps";
-   private static final String SET_FUNCTION_BREAKPOINTS = "set_function_breakpoints";
    private static final String GET_FUNCTION_STATE = "get_function_state";
    private static final String EXECUTE_DEBUG_SOURCE = "execute_debug_source";
    private static final String SET_ERROR_MANAGEMENT_TYPE = "set_error_management_type";
-   private static final String UPDATE_BREAKPOINTS = "update_breakpoints";
    private static final String REMOVE_ALL_BREAKPOINTS = "remove_all_breakpoints";
+   private static final String SYNC_BREAKPOINTS = "sync_breakpoints";
 
    private static final String LOG = "log";
    private static final String LOG_EXCEPTION = "log_exception";
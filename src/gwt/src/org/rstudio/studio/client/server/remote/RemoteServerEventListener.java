@@ -139,6 +139,11 @@ class RemoteServerEventListener
       listenTimer_.cancel();
       isListening_ = false;
       listenCount_ = 0;
+      if (eventSocket_ != null)
+      {
+         eventSocket_.close();
+         eventSocket_ = null;
+      }
       if (activeRequestCallback_ != null)
       {
          activeRequestCallback_.cancel();
@@ -192,6 +197,13 @@ class RemoteServerEventListener
          start();
      } 
      
+     // events pushed over an open socket don't need a watchdog: unlike a
+     // dropped poll, a dropped socket is always reported to us
+     else if (eventSocket_ != null && eventSocket_.isOpen())
+     {
+        return;
+     }
+
      // if we are listening then use the Watchdog to still make sure we 
      // receive the events even if it requires restarting
      else
@@ -248,6 +260,11 @@ class RemoteServerEventListener
       // abort if we are no longer running
       if (!isListening_)
          return;
+
+      // prefer a persistent socket if the session offers one (and it
+      // hasn't already failed us during this page load)
+      if (!eventSocketFailed_ && listenOnSocket())
+         return;
           
       // setup request callback (save reference for cancellation)
       activeRequestCallback_ = new ServerRequestCallback<JsArray<ClientEvent>>() 
@@ -263,33 +280,10 @@ class RemoteServerEventListener
             if (cancelled())
                return;
             
-            try
-            {
-               // only process events if we are still listening
-               if (isListening_ && (events != null))
-               {
-                  for (int i=0; i<events.length(); i++)
-                  {
-                     // we can stop listening in the middle of dispatching
-                     // events (e.g. if we dispatch a Suicide event) so we 
-                     // need to check the listening_ flag before each event
-                     // is dispatched
-                     if (!isListening_)
-                        return;
-                     
-                     // dispatch event
-                     ClientEvent event = events.get(i);
-                     dispatchEvent(event);
-                     lastEventId_ = event.getId();
-                  }   
-               }
-            }
-            // catch all here to make sure that in all cases we call
-            // listen() again after processing
-            catch(Throwable e)
-            {
-               GWT.log("ERROR: Processing client events", e);
-            }
+            // process events; bail if we stopped listening while
+            // dispatching them (e.g. if we dispatched a Suicide event)
+            if (!processEvents(events))
+               return;
             
             // listen for more events
             listen();
@@ -372,6 +366,86 @@ class RemoteServerEventListener
    }
    
    
+   // dispatches a batch of events received from the server, returning false
+   // if we stopped listening part way through
+   private boolean processEvents(JsArray<ClientEvent> events)
+   {
+      try
+      {
+         // only process events if we are still listening
+         if (isListening_ && (events != null))
+         {
+            for (int i=0; i<events.length(); i++)
+            {
+               // we can stop listening in the middle of dispatching
+               // events (e.g. if we dispatch a Suicide event) so we 
+               // need to check the listening_ flag before each event
+               // is dispatched
+               if (!isListening_)
+                  return false;
+               
+               // dispatch event
+               ClientEvent event = events.get(i);
+               dispatchEvent(event);
+               lastEventId_ = event.getId();
+            }   
+         }
+      }
+      // catch all here to make sure that in all cases we continue
+      // listening after processing
+      catch(Throwable e)
+      {
+         GWT.log("ERROR: Processing client events", e);
+      }
+
+      return true;
+   }
+
+   // start receiving events over the session's client event socket; returns
+   // false if the session doesn't offer one
+   private boolean listenOnSocket()
+   {
+      if (eventSocket_ != null)
+         return true;
+
+      String url = server_.getClientEventsSocketUrl();
+      if (url == null)
+         return false;
+
+      eventSocket_ = new ClientEventSocket(
+            url,
+            server_.getWebSocketConnectTimeout(),
+            server_.getWebSocketPingInterval(),
+            new ClientEventSocket.Observer()
+            {
+               @Override
+               public void onEventsReceived(JsArray<ClientEvent> events)
+               {
+                  watchdog_.cancel();
+                  listenErrorCount_ = 0;
+
+                  if (!processEvents(events) || eventSocket_ == null)
+                     return;
+
+                  // confirm receipt so the session can discard these events
+                  eventSocket_.acknowledge(lastEventId_);
+               }
+
+               @Override
+               public void onSocketFailed()
+               {
+                  // fall back to long-polling for the rest of this page load;
+                  // lastEventId_ ensures we pick up where the socket left off
+                  eventSocket_ = null;
+                  eventSocketFailed_ = true;
+                  if (isListening_)
+                     listen();
+               }
+            });
+      eventSocket_.connect(lastEventId_);
+      return true;
+   }
+   
    private void dispatchEvent(ClientEvent event)
    {
       // do some special handling before calling the standard dispatcher
@@ -476,6 +550,10 @@ class RemoteServerEventListener
    private int listenErrorCount_;
    private boolean sessionWasQuit_;
    
+   // persistent event socket (null when long-polling)
+   private ClientEventSocket eventSocket_;
+   private boolean eventSocketFailed_;
+
    private RpcRequest activeRequest_;
    private ServerRequestCallback<JsArray<ClientEvent>> activeRequestCallback_;
 
@@ -16,16 +16,17 @@ package org.rstudio.studio.client.workbench.codesearch;
 
 import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.List;
+import java.util.HashMap;
+import java.util.HashSet;
 
 import org.rstudio.core.client.CodeNavigationTarget;
 import org.rstudio.core.client.DuplicateHelper;
 import org.rstudio.core.client.FilePosition;
+import org.rstudio.core.client.FuzzyMatcher;
 import org.rstudio.core.client.Invalidation;
 import org.rstudio.core.client.StringUtil;
 import org.rstudio.core.client.TimeBufferedCommand;
 import org.rstudio.core.client.files.FileSystemItem;
-import org.rstudio.core.client.regex.Match;
 import org.rstudio.core.client.regex.Pattern;
 import org.rstudio.studio.client.RStudioGinjector;
 import org.rstudio.studio.client.server.ServerError;
@@ -43,78 +44,12 @@ public class CodeSearchOracle extends SuggestOracle
 {
    @Inject
    public CodeSearchOracle(CodeSearchServerOperations server,
-                           WorkbenchContext workbenchContext)
+                           WorkbenchContext workbenchContext,
+                           CodeSearchIndex index)
    {
       server_ = server;
       workbenchContext_ = workbenchContext;
-   }
-   
-   private static int scoreMatch(CodeSearchSuggestion suggestion, String query)
-   {
-      return scoreMatch(suggestion.getMatchedString(), query, suggestion.isFileTarget());
-   }
-   
-   // NOTE: When modifying this function, you should ensure that the associated
-   // code on the server side is modified to include the same logic as well!
-   // (see: SessionCodeSearch.cpp)
-   public static int scoreMatch(String suggestion, String query, boolean isFile)
-   {
-      String suggestionLower = suggestion.toLowerCase();
-      String queryLower = query.toLowerCase();
-      
-      // No penalty for identical results
-      if (suggestion == query)
-         return 0;
-      
-      int totalPenalty = 0;
-      
-      // Get query matches in string (ordered)
-      List<Integer> matches = StringUtil.subsequenceIndices(suggestionLower, queryLower);
-      
-      // Loop over the matches and assign a score
-      for (int j = 0, n = matches.size(); j < n; j++)
-      {
-         int matchPos = matches.get(j);
-         
-         // The initial penalty is equal to the match position
-         int penalty = matchPos;
-         
-         // Less penalty if character follows special delim
-         if (matchPos >= 1)
-         {
-            char prevChar = StringUtil.charAt(suggestionLower, matchPos - 1);
-            if (prevChar == '_' || prevChar == '-' ||
-                  (!isFile && prevChar == '.'))
-            {
-               penalty = j + 1;
-            }
-         }
-         
-         // Less penalty for case-sensitive matches
-         if (StringUtil.charAt(suggestion, matchPos) == query.charAt(j))
-            penalty--;
-         
-         // More penalty for 'uninteresting' files
-         if (suggestion == "RcppExports.R" ||
-             suggestion == "RcppExports.cpp")
-            penalty += 6;
-         
-         // More penalty for 'uninteresting' extensions (e.g. .Rd)
-         String extension = StringUtil.getExtension(suggestionLower);
-         if (extension.toLowerCase() == "rd")
-            penalty += 6;
-         
-         totalPenalty += penalty;
-      }
-      
-      // Penalize file targets
-      if (isFile)
-         totalPenalty++;
-      
-      // Penalize unmatched characters
-      totalPenalty += (query.length() - matches.size()) * query.length();
-      
-      return totalPenalty;
+      index_ = index;
    }
    
    @Override
@@ -143,34 +78,18 @@ public class CodeSearchOracle extends SuggestOracle
          if (!res.getMoreAvailable() && 
              request.getQuery().startsWith(res.getQuery()))
          {
-            Pattern pattern = null;
             String query = request.getQuery();
-            String queryLower = query.toLowerCase();
-            
-            if (queryLower.indexOf('*') != -1)
-               pattern = patternForTerm(queryLower);
+            Pattern pattern = CodeSearchIndex.patternForQuery(query);
+            FuzzyMatcher matcher = CodeSearchIndex.matcherForQuery(query);
             
             ArrayList<CodeSearchSuggestion> suggestions = new ArrayList<>();
             for (int s=0; s<res.getSuggestions().size(); s++)
             {
                CodeSearchSuggestion sugg = res.getSuggestions().get(s);
                
-               String name = sugg.getMatchedString().toLowerCase();
-               if (pattern != null)
-               {
-                  Match match = pattern.match(name, 0);
-                  if (match != null && match.getIndex() == 0)
-                     suggestions.add(sugg);
-               }
-               else
-               {
-                  int colonIndex = query.indexOf(":");
-                  if (colonIndex == -1)
-                     colonIndex = query.length();
-                  
-                  if (StringUtil.isSubsequence(name, query.substring(0, colonIndex), true))
-                     suggestions.add(sugg);
-               }
+               String name = FuzzyMatcher.fold(sugg.getMatchedString());
+               if (CodeSearchIndex.matches(name, matcher, pattern))
+                  suggestions.add(sugg);
             }
             
             // process and cache suggestions. note that this adds an item to
@@ -188,8 +107,25 @@ public class CodeSearchOracle extends SuggestOracle
          } 
       }
       
-      // failed to short-circuit via the cache, hit the server
-      codeSearch_.enqueRequest(request, callback); 
+      // next, try to answer from the client-side project index. the server
+      // is then only asked (after a delay) about the sources the index
+      // doesn't cover, e.g. unsaved source documents and C++ definitions
+      ArrayList<CodeSearchSuggestion> localSuggestions = null;
+      if (index_.isReady())
+      {
+         CodeSearchIndex.Result result =
+               index_.search(request.getQuery(), request.getLimit());
+         
+         localSuggestions = processSuggestions(request,
+                                               result.getSuggestions(),
+                                               result.getMoreAvailable());
+         sortSuggestions(localSuggestions, request.getQuery());
+         callback.onSuggestionsReady(request, new Response(localSuggestions));
+      }
+      
+      // hit the server for everything (if the index isn't ready) or just for
+      // what the index can't answer
+      codeSearch_.enqueRequest(request, callback, localSuggestions); 
    }
    
    // this method converts queries of the form 'foo:<line>:<col>' to
@@ -251,20 +187,6 @@ public class CodeSearchOracle extends SuggestOracle
       return true;
    }
    
-   private Pattern patternForTerm(String term)
-   {
-      // split the term on *
-      StringBuilder regex = new StringBuilder();
-      String[] components = term.split("\\*", -1);
-      for (int i=0; i<components.length; i++)
-      {
-         if (i > 0)
-            regex.append(".*");
-         regex.append(Pattern.escape(components[i]));
-      }    
-      return Pattern.create(regex.toString());
-   }
-   
    private class CodeSearchCommand extends TimeBufferedCommand  
    {
       public CodeSearchCommand()
@@ -272,10 +194,13 @@ public class CodeSearchOracle extends SuggestOracle
          super(300);
       }
       
-      public void enqueRequest(Request request, Callback callback)
+      public void enqueRequest(Request request,
+                               Callback callback,
+                               ArrayList<CodeSearchSuggestion> localSuggestions)
       {
          request_ = request;
          callback_ = callback;
+         localSuggestions_ = localSuggestions;
          invalidationToken_ = searchInvalidation_.getInvalidationToken();
          
          if (!executing_)
@@ -291,11 +216,19 @@ public class CodeSearchOracle extends SuggestOracle
          server_.searchCode(
                request_.getQuery(),
                request_.getLimit(),
+               localSuggestions_ != null,
                new ServerRequestCallback<CodeSearchResults>() {
             
             @Override
             public void onResponseReceived(CodeSearchResults response)
             {  
+               if (localSuggestions_ != null)
+               {
+                  mergeServerResults(response);
+                  executing_ = false;
+                  return;
+               }
+               
                ArrayList<CodeSearchSuggestion> suggestions = new ArrayList<>();
                
                // file results
@@ -347,8 +280,47 @@ public class CodeSearchOracle extends SuggestOracle
          
       }
       
+      // add any server results not already answered from the index (these
+      // come from sources the index doesn't cover) to the local results
+      private void mergeServerResults(CodeSearchResults response)
+      {
+         HashSet<String> known = new HashSet<>();
+         for (CodeSearchSuggestion suggestion : localSuggestions_)
+            known.add(suggestionKey(suggestion));
+         
+         FileSystemItem context = workbenchContext_.getActiveProjectDir();
+         ArrayList<SourceItem> srcResults = 
+                              response.getSourceItems().toArrayList();
+         ArrayList<CodeSearchSuggestion> added = new ArrayList<>();
+         for (int i = 0; i < srcResults.size(); i++)
+         {
+            CodeSearchSuggestion suggestion =
+                  new CodeSearchSuggestion(srcResults.get(i), context);
+            if (!known.contains(suggestionKey(suggestion)))
+               added.add(suggestion);
+         }
+         
+         if (added.isEmpty() || invalidationToken_.isInvalid())
+            return;
+         
+         ArrayList<CodeSearchSuggestion> suggestions =
+               new ArrayList<>(localSuggestions_);
+         suggestions.addAll(added);
+         sortSuggestions(suggestions, request_.getQuery());
+         callback_.onSuggestionsReady(request_, new Response(suggestions));
+      }
+      
+      private String suggestionKey(CodeSearchSuggestion suggestion)
+      {
+         CodeNavigationTarget target = suggestion.getNavigationTarget();
+         FilePosition position = target.getPosition();
+         return suggestion.getMatchedString() + "|" + target.getFile() + "|" +
+               (position != null ? position.getLine() : -1);
+      }
+      
       private Request request_;
       private Callback callback_;
+      private ArrayList<CodeSearchSuggestion> localSuggestions_;
       private Invalidation.Token invalidationToken_;
       private boolean executing_;
    }
@@ -363,6 +335,15 @@ public class CodeSearchOracle extends SuggestOracle
             query.substring(0, colonIndex) :
             query;
       
+      // score each suggestion once up front rather than in the comparator
+      FuzzyMatcher matcher = new FuzzyMatcher(localQuery);
+      final HashMap<CodeSearchSuggestion, Integer> scores = new HashMap<>();
+      for (CodeSearchSuggestion suggestion : suggestions)
+      {
+         scores.put(suggestion, matcher.score(suggestion.getMatchedString(),
+                                              suggestion.isFileTarget()));
+      }
+      
       java.util.Collections.sort(suggestions,
             new Comparator<CodeSearchSuggestion>() {
 
@@ -370,8 +351,8 @@ public class CodeSearchOracle extends SuggestOracle
          public int compare(CodeSearchSuggestion lhs,
                             CodeSearchSuggestion rhs)
          {
-            int lhsScore = scoreMatch(lhs, localQuery);
-            int rhsScore = scoreMatch(rhs, localQuery);
+            int lhsScore = scores.get(lhs);
+            int rhsScore = scores.get(rhs);
 
             if (lhsScore == rhsScore)
             {
@@ -434,6 +415,7 @@ public class CodeSearchOracle extends SuggestOracle
    
    private final CodeSearchServerOperations server_;
    private final WorkbenchContext workbenchContext_;
+   private final CodeSearchIndex index_;
    private final CodeSearchCommand codeSearch_ = new CodeSearchCommand();
    
    private final ArrayList<SearchResult> resultCache_ = new ArrayList<>();
@@ -16,16 +16,29 @@ package org.rstudio.studio.client.workbench.codesearch.model;
 
 import org.rstudio.studio.client.server.ServerRequestCallback;
 
+import com.google.gwt.core.client.JsArrayString;
+
 public interface CodeSearchServerOperations 
 {   
    /*
     * Search all currently managed code (project or open source docs
-    * for a file or function matching the specified term) 
+    * for a file or function matching the specified term). If unindexedOnly
+    * is true, only sources not covered by the project index (open source
+    * docs, C++ definitions, bookdown references) are searched
     */
    void searchCode(
          String term, 
          int maxResults,
+         boolean unindexedOnly,
          ServerRequestCallback<CodeSearchResults> requestCallback);
+
+   /*
+    * Get the files and source items in the project index, restricted to
+    * the given (aliased) paths if any are passed
+    */
+   void getCodeSearchIndex(
+         JsArrayString paths,
+         ServerRequestCallback<CodeSearchIndexResults> requestCallback);
    
    /**
     * Get the definition of the specified object (if known).
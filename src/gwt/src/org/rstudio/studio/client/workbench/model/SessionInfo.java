@@ -426,6 +426,12 @@ public class SessionInfo extends JavaScriptObject
       return this.websocket_connect_timeout;
    }-*/;
 
+   // port of the session's client event socket; 0 if client events
+   // should be received by long-polling
+   public final native int getClientEventsWebsocketPort() /*-{
+      return this.client_events_websocket_port || 0;
+   }-*/;
+
    public final native boolean getAllowExternalPublish() /*-{
       return this.allow_external_publish;
    }-*/;
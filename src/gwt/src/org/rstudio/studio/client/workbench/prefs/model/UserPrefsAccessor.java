@@ -189,6 +189,18 @@ public class UserPrefsAccessor extends Prefs
          false);
    }
 
+   /**
+    * The maximum number of history entries to download and index for searching in the browser. Larger histories are searched by the R session.
+    */
+   public PrefValue<Integer> historySearchIndexLimit()
+   {
+      return integer(
+         "history_search_index_limit",
+         "Maximum history entries to search in the browser", 
+         "The maximum number of history entries to download and index for searching in the browser. Larger histories are searched by the R session.", 
+         100000);
+   }
+
    /**
     * Show the result of the last expression (.Last.value) in the Environment pane.
     */
@@ -3143,6 +3155,8 @@ public class UserPrefsAccessor extends Prefs
          alwaysSaveHistory().setValue(layer, source.getBool("always_save_history"));
       if (source.hasKey("remove_history_duplicates"))
          removeHistoryDuplicates().setValue(layer, source.getBool("remove_history_duplicates"));
+      if (source.hasKey("history_search_index_limit"))
+         historySearchIndexLimit().setValue(layer, source.getInteger("history_search_index_limit"));
       if (source.hasKey("show_last_dot_value"))
          showLastDotValue().setValue(layer, source.getBool("show_last_dot_value"));
       if (source.hasKey("line_ending_conversion"))
@@ -3578,6 +3592,7 @@ public class UserPrefsAccessor extends Prefs
       prefs.add(bioconductorMirrorUrl());
       prefs.add(alwaysSaveHistory());
       prefs.add(removeHistoryDuplicates());
+      prefs.add(historySearchIndexLimit());
       prefs.add(showLastDotValue());
       prefs.add(lineEndingConversion());
       prefs.add(useNewlinesInMakefiles());
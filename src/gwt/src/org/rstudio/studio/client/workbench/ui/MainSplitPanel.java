@@ -18,12 +18,12 @@ import com.google.gwt.core.client.JavaScriptObject;
 import com.google.gwt.core.client.Scheduler;
 import com.google.gwt.core.client.Scheduler.ScheduledCommand;
 import com.google.gwt.dom.client.Element;
-import com.google.gwt.user.client.Command;
 import com.google.gwt.user.client.Window;
 import com.google.gwt.user.client.ui.SplitterResizedEvent;
 import com.google.gwt.user.client.ui.SplitterResizedHandler;
 import com.google.gwt.user.client.ui.Widget;
 import com.google.inject.Inject;
+import org.rstudio.core.client.dom.DomScheduler;
 import org.rstudio.core.client.js.JsObject;
 import org.rstudio.studio.client.application.events.EventBus;
 import org.rstudio.studio.client.application.ui.RStudioThemes;
@@ -340,7 +340,16 @@ public class MainSplitPanel extends NotifyingSplitLayoutPanel
    {
       super.onResize();
 
-      int offsetWidth = getOffsetWidth();
+      // Measure our new width and update the layout in the next animation
+      // frame (along with the other widgets resizing in response to this),
+      // so that if we receive many resize events before layout/paint occurs,
+      // we'll only update once.
+      resizeTask_.schedule();
+   }
+
+   private void applyResize()
+   {
+      int offsetWidth = measuredWidth_;
       if ((previousOffsetWidth_ == null || offsetWidth != previousOffsetWidth_.intValue())
           && splitPercent_ != null)
       {
@@ -350,20 +359,23 @@ public class MainSplitPanel extends NotifyingSplitLayoutPanel
          layoutData.size = splitPercent_ * offsetWidth;
 
          previousOffsetWidth_ = offsetWidth;
-
-         // Defer actually updating the layout, so that if we receive many
-         // mouse events before layout/paint occurs, we'll only update once.
-         if (layoutCommand_ == null) {
-           layoutCommand_ = new Command() {
-             public void execute() {
-               layoutCommand_ = null;
-               forceLayout();
-             }
-           };
-           Scheduler.get().scheduleDeferred(layoutCommand_);
-         }
+         forceLayout();
       }
    }
+
+   /**
+    * Sets the size of a widget without laying out the panel; the size takes
+    * effect on the next call to forceLayout() or animate(). Unlike
+    * setWidgetSize, this lets several widgets be resized with one layout
+    * pass (each of which resizes every child of the panel).
+    */
+   public void setWidgetSizeNoLayout(Widget widget, double size)
+   {
+      LayoutData layoutData = (LayoutData) widget.getLayoutData();
+      if (layoutData == null)
+         return;
+      layoutData.size = size;
+   }
    
    private Double splitPercent_ = null;
    private Integer previousOffsetWidth_ = null;
@@ -374,5 +386,8 @@ public class MainSplitPanel extends NotifyingSplitLayoutPanel
    private Widget right_;
    private static final String GROUP_WORKBENCH = "workbenchp";
    private static final String KEY_RIGHTPANESIZE = "rightpanesize";
-   private Command layoutCommand_;
+   private int measuredWidth_;
+   private final DomScheduler.Task resizeTask_ = DomScheduler.get().createTask(
+         () -> measuredWidth_ = getOffsetWidth(),
+         this::applyResize);
 }
@@ -1015,9 +1015,11 @@ public class PaneManager
                                    final ArrayList<Double> leftTargets,
                                    final Command afterComplete)
    {
-      panel_.setWidgetSize(right_, rightTarget);
+      // the animation below lays out the panel, so there's no need to do it
+      // for each column as well
+      panel_.setWidgetSizeNoLayout(right_, rightTarget);
       for (int i = 0; i < leftList_.size(); i++)
-         panel_.setWidgetSize(leftList_.get(i), leftTargets.get(i));
+         panel_.setWidgetSizeNoLayout(leftList_.get(i), leftTargets.get(i));
 
       int duration = (userPrefs_.reducedMotion().getValue() ? 0 : 300);
       panel_.animate(duration, new AnimationCallback()
@@ -1082,7 +1084,7 @@ public class PaneManager
     * be enough to display columns not provided.
     * @param widgets List of widgets to set sizes of. These widgets must be part of panel_.
     * @param widths List of ideal widths for each widget. This can be empty.
-    * @param set When true, sets the width on panel_.
+    * @param set When true, sets the width on panel_ (and lays it out).
     * @return The list of valid sizes
     */
    private ArrayList<Double> getValidColumnWidths(
@@ -1090,7 +1092,8 @@ public class PaneManager
       final ArrayList<Double> widths,
       boolean set)
    {
-      final double columnWidth = panel_.getOffsetWidth() / getColumnCount();
+      final double panelWidth = panel_.getOffsetWidth();
+      final double columnWidth = panelWidth / getColumnCount();
 
       // The pixels allocated for the widgets provided leave enough pixels so that each column
       // will have a width of at least half of columnWidth
@@ -1099,8 +1102,8 @@ public class PaneManager
 
       // Calculate the min and max amount of pixels we must leave for columns not specified.
       int remainingColumns = getColumnCount() - widgets.size();
-      double minAllocated = panel_.getOffsetWidth() - (remainingColumns * minColumnWidth);
-      double maxAllocated = panel_.getOffsetWidth() - (remainingColumns * maxColumnWidth);
+      double minAllocated = panelWidth - (remainingColumns * minColumnWidth);
+      double maxAllocated = panelWidth - (remainingColumns * maxColumnWidth);
 
       // Because each panel cannot take up the max threshold, leave enough space so every
       // remaining column can at least contain the minimum threshold.
@@ -1125,16 +1128,29 @@ public class PaneManager
                width = maxThreshold;
          }
          if (set)
-            panel_.setWidgetSize(widgets.get(i), width);
+            panel_.setWidgetSizeNoLayout(widgets.get(i), width);
          result.add(width);
       }
+
+      // lay out once for all of the widgets
+      if (set)
+         panel_.forceLayout();
       return result;
    }
 
    private void restoreColumnLayout()
    {
-      getValidColumnWidth(right_, true);
-      getValidColumnWidths(leftList_, leftWidgetSizePriorToZoom_, true);
+      // compute all of the widths before resizing anything, so that the
+      // panel is measured and laid out just once
+      double rightWidth = getValidColumnWidth(right_, false);
+      ArrayList<Double> leftWidths =
+            getValidColumnWidths(leftList_, leftWidgetSizePriorToZoom_, false);
+
+      panel_.setWidgetSizeNoLayout(right_, rightWidth);
+      for (int i = 0; i < leftList_.size(); i++)
+         panel_.setWidgetSizeNoLayout(leftList_.get(i), leftWidths.get(i));
+      panel_.forceLayout();
+
       invalidateSavedLayoutState(true);
    }
 
@@ -273,9 +273,12 @@ public class WorkbenchScreen extends Composite
             plotPanel.getOffsetWidth(),
             plotPanel.getOffsetHeight() - ModuleTabLayoutPanel.BAR_HEIGHT);
 
+      // round the plots size down to a multiple of PLOT_SIZE_BUCKET, so
+      // small pane adjustments don't force the session to re-render the
+      // plot and cached renderings at that size can be reused
       Size plotsSize = new Size(
-               Math.max(deckPanelSize.width, 0),
-               Math.max(deckPanelSize.height - Toolbar.DEFAULT_HEIGHT, 0));
+               bucketPlotSize(Math.max(deckPanelSize.width, 0)),
+               bucketPlotSize(Math.max(deckPanelSize.height - Toolbar.DEFAULT_HEIGHT, 0)));
 
       double devicePixelRatio = 1.0;
       if (BrowseCap.isMacintoshDesktop())
@@ -297,6 +300,11 @@ public class WorkbenchScreen extends Composite
       session_.persistClientState();
    }
 
+   private static int bucketPlotSize(int pixels)
+   {
+      return pixels - (pixels % PLOT_SIZE_BUCKET);
+   }
+
    public void onSelection(SelectionEvent<Integer> integerSelectionEvent)
    {
       eventBus_.fireEvent(new PushClientStateEvent());
@@ -482,6 +490,9 @@ public class WorkbenchScreen extends Composite
 
    private WorkbenchMetrics lastMetrics_ = WorkbenchMetrics.create(0,0,0,0,1.0);
 
+   // granularity (in pixels) of the plots size reported to the session
+   private static final int PLOT_SIZE_BUCKET = 8;
+
    private final GlobalDisplay globalDisplay_;
    private final EventBus eventBus_;
    private final Session session_;
@@ -66,6 +66,7 @@ import org.rstudio.studio.client.workbench.views.console.shell.assist.RCompletio
 import org.rstudio.studio.client.workbench.views.console.shell.editor.InputEditorDisplay;
 import org.rstudio.studio.client.workbench.views.console.shell.events.SuppressNextShellFocusEvent;
 import org.rstudio.studio.client.workbench.views.environment.events.DebugModeChangedEvent;
+import org.rstudio.studio.client.workbench.views.history.model.HistoryIndex;
 import org.rstudio.studio.client.workbench.views.source.SourceSatellite;
 import org.rstudio.studio.client.workbench.views.source.SourceWindowManager;
 import org.rstudio.studio.client.workbench.views.source.editors.text.DocDisplay;
@@ -116,7 +117,8 @@ public class Shell implements ConsoleHistoryAddedEvent.Handler,
                 ErrorManager errorManager,
                 DependencyManager dependencyManager,
                 ConsoleEditorProvider editorProvider,
-                ConsoleLanguageTracker languageTracker)
+                ConsoleLanguageTracker languageTracker,
+                HistoryIndex historyIndex)
    {
       super();
 
@@ -197,7 +199,8 @@ public class Shell implements ConsoleHistoryAddedEvent.Handler,
 
       historyCompletion_ = new HistoryCompletionManager(
             view_.getInputEditorDisplay(),
-            server);
+            server,
+            historyIndex);
       
       addKeyDownPreviewHandler(historyCompletion_);
 
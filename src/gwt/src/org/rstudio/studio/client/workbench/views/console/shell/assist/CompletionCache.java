@@ -19,15 +19,14 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 
+import org.rstudio.core.client.FuzzyMatcher;
 import org.rstudio.core.client.JsVectorBoolean;
 import org.rstudio.core.client.JsVectorInteger;
 import org.rstudio.core.client.JsVectorString;
 import org.rstudio.core.client.StringUtil;
 import org.rstudio.core.client.container.SafeMap;
 import org.rstudio.studio.client.common.codetools.Completions;
-import org.rstudio.studio.client.common.codetools.RCompletionType;
 import org.rstudio.studio.client.server.ServerRequestCallback;
-import org.rstudio.studio.client.workbench.codesearch.CodeSearchOracle;
 
 import com.google.gwt.core.client.JsArrayBoolean;
 import com.google.gwt.core.client.JsArrayInteger;
@@ -101,16 +100,22 @@ public class CompletionCache
       final JsVectorInteger typeNarrow       = JsVectorInteger.createVector().cast();
       final JsVectorString metaNarrow        = JsVectorString.createVector().cast();
       
+      // score each completion as it's matched, rather than in the comparator
+      final JsVectorInteger scoresNarrow     = JsVectorInteger.createVector().cast();
+      FuzzyMatcher matcher = new FuzzyMatcher(token);
+      
       for (int i = 0, n = completions.length(); i < n; i++)
       {
-         boolean isSubsequence = StringUtil.isSubsequence(completions.get(i), token, true);
-         if (isSubsequence)
+         String completion = completions.get(i);
+         String key = FuzzyMatcher.fold(completion);
+         if (matcher.matches(key))
          {
-            completionsNarrow.push(completions.get(i));
+            completionsNarrow.push(completion);
             packagesNarrow.push(packages.get(i));
             quoteNarrow.push(quote.get(i));
             typeNarrow.push(type.get(i));
             metaNarrow.push(meta.get(i));
+            scoresNarrow.push(matcher.score(completion, key, false));
          }
       }
       
@@ -125,17 +130,11 @@ public class CompletionCache
          @Override
          public int compare(Integer lhs, Integer rhs)
          {
-            int lhsType = typeNarrow.get(lhs);
-            int rhsType = typeNarrow.get(rhs);
-            
             String lhsName = completionsNarrow.get(lhs);
             String rhsName = completionsNarrow.get(rhs);
             
-            int lhsScore = CodeSearchOracle.scoreMatch(lhsName, token, false);
-            int rhsScore = CodeSearchOracle.scoreMatch(rhsName, token, false);
-            
-            if (lhsType == RCompletionType.ARGUMENT) lhsType -= 3;
-            if (rhsType == RCompletionType.ARGUMENT) rhsType -= 3;
+            int lhsScore = scoresNarrow.get(lhs);
+            int rhsScore = scoresNarrow.get(rhs);
             
             if (lhsScore == rhsScore)
                return lhsName.compareTo(rhsName);
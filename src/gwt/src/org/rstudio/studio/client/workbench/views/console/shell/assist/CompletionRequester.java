@@ -23,6 +23,7 @@ import com.google.gwt.safehtml.shared.SafeHtmlBuilder;
 import com.google.inject.Inject;
 
 import org.rstudio.core.client.resources.ImageResource2x;
+import org.rstudio.core.client.FuzzyMatcher;
 import org.rstudio.core.client.SafeHtmlUtil;
 import org.rstudio.core.client.StringUtil;
 import org.rstudio.core.client.js.JsUtil;
@@ -35,7 +36,6 @@ import org.rstudio.studio.client.common.filetypes.FileTypeRegistry;
 import org.rstudio.studio.client.common.icons.code.CodeIcons;
 import org.rstudio.studio.client.server.ServerError;
 import org.rstudio.studio.client.server.ServerRequestCallback;
-import org.rstudio.studio.client.workbench.codesearch.CodeSearchOracle;
 import org.rstudio.studio.client.workbench.prefs.model.UserPrefs;
 import org.rstudio.studio.client.workbench.snippets.SnippetHelper;
 import org.rstudio.studio.client.workbench.views.console.shell.ConsoleLanguageTracker;
@@ -57,6 +57,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 
 public class CompletionRequester
@@ -132,11 +133,6 @@ public class CompletionRequester
       return false;
    }
 
-   private String basename(String absolutePath)
-   {
-      return absolutePath.substring(absolutePath.lastIndexOf('/') + 1);
-   }
-
    private boolean filterStartsWithDot(String item,
                                        String token)
    {
@@ -164,20 +160,31 @@ public class CompletionRequester
       final String tokenSub   = token.substring(token.lastIndexOf('/') + 1);
       final String tokenFuzzy = fuzzy(tokenSub);
 
+      // File types are narrowed and scored only by the file name
+      FuzzyMatcher filter = new FuzzyMatcher(tokenFuzzy);
+      FuzzyMatcher fileMatcher = new FuzzyMatcher(tokenSub);
+      FuzzyMatcher nameMatcher = new FuzzyMatcher(token);
+
+      // score each completion once up front rather than in the comparator
+      final IdentityHashMap<QualifiedName, Integer> scores = new IdentityHashMap<>();
       for (QualifiedName qname : cachedResult.completions)
       {
-         // File types are narrowed only by the file name
-         if (RCompletionType.isFileType(qname.type))
-         {
-            if (StringUtil.isSubsequence(basename(qname.name), tokenFuzzy, true))
-               newCompletions.add(qname);
-         }
-         else
-         {
-            if (StringUtil.isSubsequence(qname.name, tokenFuzzy, true) &&
-                filterStartsWithDot(qname.name, token))
-               newCompletions.add(qname);
-         }
+         boolean isFile = RCompletionType.isFileType(qname.type);
+         if (!filter.matches(qname.getMatchKey()))
+            continue;
+         if (!isFile && !filterStartsWithDot(qname.name, token))
+            continue;
+
+         int score = isFile
+               ? fileMatcher.score(qname.getMatchName(), qname.getMatchKey(), true)
+               : nameMatcher.score(qname.name, qname.getMatchKey(), false);
+
+         // Place arguments higher (give less penalty)
+         if (qname.type == RCompletionType.ARGUMENT)
+            score -= 3;
+
+         newCompletions.add(qname);
+         scores.put(qname, score);
       }
 
       newCompletions.sort(new Comparator<QualifiedName>()
@@ -186,17 +193,8 @@ public class CompletionRequester
          @Override
          public int compare(QualifiedName lhs, QualifiedName rhs)
          {
-            int lhsScore = RCompletionType.isFileType(lhs.type)
-                  ? CodeSearchOracle.scoreMatch(basename(lhs.name), tokenSub, true)
-                  : CodeSearchOracle.scoreMatch(lhs.name, token, false);
-            
-            int rhsScore = RCompletionType.isFileType(rhs.type)
-               ? CodeSearchOracle.scoreMatch(basename(rhs.name), tokenSub, true)
-               : CodeSearchOracle.scoreMatch(rhs.name, token, false);
-
-            // Place arguments higher (give less penalty)
-            if (lhs.type == RCompletionType.ARGUMENT) lhsScore -= 3;
-            if (rhs.type == RCompletionType.ARGUMENT) rhsScore -= 3;
+            int lhsScore = scores.get(lhs);
+            int rhsScore = scores.get(rhs);
 
             if (lhsScore == rhsScore)
                return lhs.compareTo(rhs);
@@ -791,6 +789,28 @@ public class CompletionRequester
          this.language = language;
       }
 
+      /**
+       * The name the completion is matched against: the file name for
+       * files, or the full name otherwise.
+       */
+      public String getMatchName()
+      {
+         if (RCompletionType.isFileType(type))
+            return name.substring(name.lastIndexOf('/') + 1);
+         return name;
+      }
+
+      /**
+       * The matching key for getMatchName (see FuzzyMatcher.fold); computed
+       * once, as completions are narrowed repeatedly while typing.
+       */
+      public String getMatchKey()
+      {
+         if (matchKey_ == null)
+            matchKey_ = FuzzyMatcher.fold(getMatchName());
+         return matchKey_;
+      }
+
       public static QualifiedName createSnippet(String name)
       {
          return new QualifiedName(
@@ -1013,6 +1033,8 @@ public class CompletionRequester
       public final String helpHandler;
       public final String language;
 
+      private String matchKey_;
+
       private static final FileTypeRegistry FILE_TYPE_REGISTRY =
             RStudioGinjector.INSTANCE.getFileTypeRegistry();
    }
@@ -34,6 +34,7 @@ import org.rstudio.studio.client.workbench.views.console.shell.KeyDownPreviewHan
 import org.rstudio.studio.client.workbench.views.console.shell.KeyPressPreviewHandler;
 import org.rstudio.studio.client.workbench.views.console.shell.editor.InputEditorDisplay;
 import org.rstudio.studio.client.workbench.views.history.model.HistoryEntry;
+import org.rstudio.studio.client.workbench.views.history.model.HistoryIndex;
 import org.rstudio.studio.client.workbench.views.history.model.HistoryServerOperations;
 import org.rstudio.studio.client.workbench.views.source.editors.text.ace.Position;
 
@@ -49,10 +50,12 @@ public class HistoryCompletionManager implements KeyDownPreviewHandler,
    }
 
    public HistoryCompletionManager(InputEditorDisplay input,
-                                   HistoryServerOperations server)
+                                   HistoryServerOperations server,
+                                   HistoryIndex historyIndex)
    {
       input_ = input;
       server_ = server;
+      historyIndex_ = historyIndex;
       mode_ = PopupMode.PopupNone;
 
       // Last search executed
@@ -170,7 +173,7 @@ public class HistoryCompletionManager implements KeyDownPreviewHandler,
       else
       {
          // No last search results; start a new search
-         server_.searchHistoryArchiveByPrefix(
+         historyIndex_.searchHistoryArchiveByPrefix(
                getSearchText(), 20, true,
                new HistoryCallback(getSearchText(), PopupMode.PopupNone)
                {
@@ -200,7 +203,7 @@ public class HistoryCompletionManager implements KeyDownPreviewHandler,
 
    public void beginSuggest()
    {
-      server_.searchHistoryArchiveByPrefix(
+      historyIndex_.searchHistoryArchiveByPrefix(
             getSearchText(), 20, true,
             new HistoryCallback(getSearchText(), PopupMode.PopupPrefix));
    }
@@ -383,5 +386,6 @@ public class HistoryCompletionManager implements KeyDownPreviewHandler,
    private int offset_;
    private final InputEditorDisplay input_;
    private final HistoryServerOperations server_;
+   private final HistoryIndex historyIndex_;
    private final Invalidation historyRequestInvalidation_ = new Invalidation();
 }
@@ -26,9 +26,11 @@ import java.util.ArrayList;
 public class HelpSearchOracle extends SuggestOracle
 {
    @Inject
-   public HelpSearchOracle(HelpServerOperations server)
+   public HelpSearchOracle(HelpServerOperations server,
+                           HelpTopicIndex topicIndex)
    {
       server_ = server;
+      topicIndex_ = topicIndex;
    }
 
    @Override
@@ -36,6 +38,20 @@ public class HelpSearchOracle extends SuggestOracle
                                   final Callback callback)
    {
       String query = request.getQuery();
+
+      // answer from the local topic index when we can, so suggestions
+      // don't wait on R; otherwise ask the server (the index will be
+      // brought up to date in the background)
+      if (topicIndex_.isReady())
+      {
+         ArrayList<SearchSuggestion> results = new ArrayList<>();
+         for (String topic : topicIndex_.search(query, request.getLimit()))
+            results.add(new SearchSuggestion(topic));
+
+         callback.onSuggestionsReady(request, new Response(results));
+         return;
+      }
+
       server_.suggestTopics(query,
                              new ServerRequestCallback<JsArrayString>() {
          @Override
@@ -78,4 +94,5 @@ public class HelpSearchOracle extends SuggestOracle
    }
 
    private final HelpServerOperations server_;
+   private final HelpTopicIndex topicIndex_;
 }
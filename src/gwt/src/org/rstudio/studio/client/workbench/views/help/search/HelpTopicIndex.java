@@ -0,0 +1,246 @@
+/*
+ * HelpTopicIndex.java
+ *
+ * Copyright (C) 2021 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.help.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+
+import org.rstudio.core.client.FuzzyMatcher;
+import org.rstudio.studio.client.application.events.EventBus;
+import org.rstudio.studio.client.common.debugging.events.PackageLoadedEvent;
+import org.rstudio.studio.client.common.debugging.events.PackageUnloadedEvent;
+import org.rstudio.studio.client.server.ServerError;
+import org.rstudio.studio.client.server.ServerRequestCallback;
+import org.rstudio.studio.client.workbench.views.help.model.HelpServerOperations;
+import org.rstudio.studio.client.workbench.views.help.model.HelpTopicIndexUpdate;
+import org.rstudio.studio.client.workbench.views.packages.events.PackageStateChangedEvent;
+
+import com.google.gwt.core.client.JsArrayString;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+/**
+ * Client-side copy of the help topics of all attached packages, so that
+ * topic suggestions can be computed in the browser (and so don't wait on an
+ * R session that may be busy running user code). The index is downloaded
+ * on first use and then updated incrementally as packages are attached and
+ * detached: only the topics of packages we don't yet have are requested.
+ *
+ * Matching and ranking mirror the suggest_topics RPC (see SessionHelp.R).
+ */
+@Singleton
+public class HelpTopicIndex
+{
+   @Inject
+   public HelpTopicIndex(HelpServerOperations server, EventBus events)
+   {
+      server_ = server;
+
+      events.addHandler(PackageLoadedEvent.TYPE, event -> invalidate());
+      events.addHandler(PackageUnloadedEvent.TYPE, event -> invalidate());
+
+      // a package may have been reinstalled with different topics, so
+      // drop everything we have and download the index afresh
+      events.addHandler(PackageStateChangedEvent.TYPE, event ->
+      {
+         topics_.clear();
+         invalidate();
+      });
+   }
+
+   /**
+    * Returns true if the index is up to date with the attached packages.
+    * If it is not, an update is requested in the background.
+    */
+   public boolean isReady()
+   {
+      if (stale_)
+         update();
+      return !stale_ && !updatePending_;
+   }
+
+   /**
+    * Returns up to maxResults topics matching the query, best match first.
+    * A topic matches if the query is a (case-insensitive) subsequence of it
+    * and its first character (ignoring leading '.') matches the query's.
+    */
+   public ArrayList<String> search(String query, int maxResults)
+   {
+      // topics are scored in lower case, as the server does
+      String queryLower = FuzzyMatcher.fold(query);
+      FuzzyMatcher matcher = new FuzzyMatcher(queryLower);
+
+      // when the user is typing, each query extends the previous one, so
+      // only the topics that matched last time need to be considered
+      ArrayList<Integer> candidates;
+      if (lastMatches_ != null &&
+          !query.isEmpty() &&
+          lastQuery_ != null &&
+          !lastQuery_.isEmpty() &&
+          query.startsWith(lastQuery_))
+      {
+         candidates = lastMatches_;
+      }
+      else
+      {
+         candidates = new ArrayList<>(flat_.size());
+         for (int i = 0, n = flat_.size(); i < n; i++)
+            candidates.add(i);
+      }
+
+      ArrayList<Integer> matches = new ArrayList<>();
+      for (Integer index : candidates)
+      {
+         if (isMatch(index, query, matcher))
+            matches.add(index);
+      }
+
+      lastQuery_ = query;
+      lastMatches_ = matches;
+
+      final HashMap<Integer, Integer> scores = new HashMap<>();
+      for (Integer index : matches)
+      {
+         String topicLower = flatLower_.get(index);
+         scores.put(index, matcher.score(topicLower, topicLower, false));
+      }
+
+      ArrayList<Integer> ordered = new ArrayList<>(matches);
+      Collections.sort(ordered, (lhs, rhs) -> Integer.compare(scores.get(lhs), scores.get(rhs)));
+
+      LinkedHashSet<String> results = new LinkedHashSet<>();
+      for (Integer index : ordered)
+      {
+         results.add(flat_.get(index));
+         if (results.size() >= maxResults)
+            break;
+      }
+      return new ArrayList<>(results);
+   }
+
+   private boolean isMatch(int index, String query, FuzzyMatcher matcher)
+   {
+      if (query.isEmpty())
+         return true;
+
+      // the first character must match exactly, although leading dots are
+      // skipped so that e.g. 'libpaths' can match '.libPaths'
+      String topic = flat_.get(index);
+      char first = query.charAt(0);
+      int i = 0;
+      while (i < topic.length() && topic.charAt(i) == '.' && first != '.')
+         i++;
+      if (i == topic.length() || topic.charAt(i) != first)
+         return false;
+
+      return matcher.matches(flatLower_.get(index));
+   }
+
+   private void invalidate()
+   {
+      stale_ = true;
+      lastQuery_ = null;
+      lastMatches_ = null;
+   }
+
+   private void update()
+   {
+      if (updatePending_)
+         return;
+
+      updatePending_ = true;
+      stale_ = false;
+
+      JsArrayString known = JsArrayString.createArray().cast();
+      for (String packageName : topics_.keySet())
+         known.push(packageName);
+
+      server_.getHelpTopicIndex(known, new ServerRequestCallback<HelpTopicIndexUpdate>()
+      {
+         @Override
+         public void onResponseReceived(HelpTopicIndexUpdate update)
+         {
+            updatePending_ = false;
+            applyUpdate(update);
+         }
+
+         @Override
+         public void onError(ServerError error)
+         {
+            updatePending_ = false;
+            stale_ = true;
+         }
+      });
+   }
+
+   private void applyUpdate(HelpTopicIndexUpdate update)
+   {
+      JsArrayString indexed = update.getIndexedPackages();
+      for (int i = 0; i < indexed.length(); i++)
+      {
+         String packageName = indexed.get(i);
+         JsArrayString topics = update.getTopics(packageName);
+         String[] values = new String[topics.length()];
+         for (int j = 0; j < values.length; j++)
+            values[j] = topics.get(j);
+         topics_.put(packageName, values);
+      }
+
+      // rebuild the flattened index in search path order, dropping any
+      // packages which have since been detached
+      JsArrayString packages = update.getPackages();
+      HashSet<String> attached = new HashSet<>();
+      ArrayList<String> flat = new ArrayList<>();
+      for (int i = 0; i < packages.length(); i++)
+      {
+         String packageName = packages.get(i);
+         attached.add(packageName);
+         String[] values = topics_.get(packageName);
+         if (values == null)
+            continue;
+         for (String value : values)
+            flat.add(value);
+      }
+      topics_.keySet().retainAll(attached);
+
+      ArrayList<String> flatLower = new ArrayList<>(flat.size());
+      for (String value : flat)
+         flatLower.add(FuzzyMatcher.fold(value));
+
+      flat_ = flat;
+      flatLower_ = flatLower;
+      lastQuery_ = null;
+      lastMatches_ = null;
+   }
+
+   private final HelpServerOperations server_;
+
+   // topics for each attached package
+   private final HashMap<String, String[]> topics_ = new HashMap<>();
+
+   // all topics (and their lower-cased forms) in search path order
+   private ArrayList<String> flat_ = new ArrayList<>();
+   private ArrayList<String> flatLower_ = new ArrayList<>();
+
+   // results of the previous search, used to narrow the next one
+   private String lastQuery_;
+   private ArrayList<Integer> lastMatches_;
+
+   private boolean stale_ = true;
+   private boolean updatePending_ = false;
+}
@@ -55,6 +55,7 @@ import org.rstudio.studio.client.workbench.views.console.events.SendToConsoleEve
 import org.rstudio.studio.client.workbench.views.history.events.FetchCommandsEvent;
 import org.rstudio.studio.client.workbench.views.history.events.HistoryEntriesAddedEvent;
 import org.rstudio.studio.client.workbench.views.history.model.HistoryEntry;
+import org.rstudio.studio.client.workbench.views.history.model.HistoryIndex;
 import org.rstudio.studio.client.workbench.views.history.model.HistoryServerOperations;
 import org.rstudio.studio.client.workbench.views.source.events.InsertSourceEvent;
 
@@ -147,7 +148,7 @@ public class History extends BasePresenter implements SelectionCommitEvent.Handl
          final String query = searchQuery_;
          if (searchQuery_ != null && searchQuery_.length() > 0)
          {
-            server_.searchHistoryArchive(
+            historyIndex_.searchHistoryArchive(
                   searchQuery_, COMMAND_CHUNK_SIZE,
                   new SimpleRequestCallback<RpcObjectList<HistoryEntry>>()
                   {
@@ -191,6 +192,7 @@ public class History extends BasePresenter implements SelectionCommitEvent.Handl
    @Inject
    public History(final Display view,
                   HistoryServerOperations server,
+                  HistoryIndex historyIndex,
                   final GlobalDisplay globalDisplay,
                   ConsoleDispatcher consoleDispatcher,
                   EventBus events,
@@ -212,6 +214,7 @@ public class History extends BasePresenter implements SelectionCommitEvent.Handl
       view_.addFetchCommandsHandler(this);
 
       server_ = server;
+      historyIndex_ = historyIndex;
       events_.addHandler(ConsoleResetHistoryEvent.TYPE, new ConsoleResetHistoryEvent.Handler()
       {
          @Override
@@ -661,6 +664,7 @@ public class History extends BasePresenter implements SelectionCommitEvent.Handl
    private final GlobalDisplay globalDisplay_;
    private final SearchCommand searchCommand_;
    private HistoryServerOperations server_;
+   private HistoryIndex historyIndex_;
    private final Session session_;
    private final ConsoleDispatcher consoleDispatcher_;
 }
@@ -0,0 +1,555 @@
+/*
+ * HistoryIndex.java
+ *
+ * Copyright (C) 2021 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.history.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+
+import org.rstudio.core.client.FuzzyMatcher;
+import org.rstudio.core.client.JsVectorInteger;
+import org.rstudio.core.client.JsVectorNumber;
+import org.rstudio.core.client.JsVectorString;
+import org.rstudio.core.client.jsonrpc.RpcObjectList;
+import org.rstudio.studio.client.application.events.EventBus;
+import org.rstudio.studio.client.server.ServerError;
+import org.rstudio.studio.client.server.ServerRequestCallback;
+import org.rstudio.studio.client.workbench.prefs.model.UserPrefs;
+import org.rstudio.studio.client.workbench.views.history.events.HistoryEntriesAddedEvent;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+import com.google.inject.Singleton;
+
+/**
+ * A client-side copy of the history archive, indexed for searching.
+ *
+ * The archive is downloaded the first time it's searched and kept up to date
+ * as commands are added. Until it has loaded, or if it has more entries than
+ * the user has allowed us to keep, searches are passed through to the server.
+ *
+ * Searches return the same results the server would (newest first), along
+ * with, for single-word queries, fuzzy matches ranked as code completions
+ * are.
+ */
+@Singleton
+public class HistoryIndex
+{
+   @Inject
+   public HistoryIndex(HistoryServerOperations server,
+                       EventBus events,
+                       Provider<UserPrefs> pPrefs)
+   {
+      this(server, events,
+           () -> pPrefs.get().historySearchIndexLimit().getValue());
+   }
+
+   // for testing; 'pLimit' supplies the most entries we may index
+   HistoryIndex(HistoryServerOperations server,
+                EventBus events,
+                Provider<Integer> pLimit)
+   {
+      server_ = server;
+      pLimit_ = pLimit;
+
+      events.addHandler(HistoryEntriesAddedEvent.TYPE, event ->
+      {
+         if (state_ == State.Loaded)
+            addEntries(event.getEntries());
+         else if (state_ == State.Loading)
+            staleLoad_ = true;
+      });
+   }
+
+   /**
+    * Searches the history archive for entries containing all of the words in
+    * the query; see HistoryServerOperations.searchHistoryArchive.
+    */
+   public void searchHistoryArchive(
+         String query,
+         long maxEntries,
+         ServerRequestCallback<RpcObjectList<HistoryEntry>> requestCallback)
+   {
+      if (!ensureLoaded())
+      {
+         server_.searchHistoryArchive(query, maxEntries, requestCallback);
+         return;
+      }
+
+      requestCallback.onResponseReceived(search(query, (int) maxEntries));
+   }
+
+   /**
+    * Searches the history archive for entries with the given prefix; see
+    * HistoryServerOperations.searchHistoryArchiveByPrefix.
+    */
+   public void searchHistoryArchiveByPrefix(
+         String prefix,
+         long maxEntries,
+         boolean uniqueOnly,
+         ServerRequestCallback<RpcObjectList<HistoryEntry>> requestCallback)
+   {
+      if (!ensureLoaded())
+      {
+         server_.searchHistoryArchiveByPrefix(
+               prefix, maxEntries, uniqueOnly, requestCallback);
+         return;
+      }
+
+      requestCallback.onResponseReceived(
+            searchByPrefix(prefix.trim(), (int) maxEntries, uniqueOnly));
+   }
+
+   private RpcObjectList<HistoryEntry> search(String query, int maxEntries)
+   {
+      Results results = Results.create();
+      ArrayList<String> terms = tokenize(query);
+
+      // find the entries containing every term, newest first
+      HashSet<Integer> matched = new HashSet<>();
+      Candidates candidates = candidatesFor(terms);
+      for (int id = candidates.next();
+           id != -1 && results.length() < maxEntries;
+           id = candidates.next())
+      {
+         if (containsAll(commands_.get(id), terms))
+         {
+            addResult(results, id);
+            matched.add(id);
+         }
+      }
+
+      // for single word queries, fill out the results with the best fuzzy
+      // matches
+      String trimmed = query.trim();
+      if (terms.size() == 1 &&
+          trimmed.length() >= MIN_FUZZY_QUERY_LENGTH &&
+          results.length() < maxEntries)
+      {
+         addFuzzyMatches(results, trimmed, matched, maxEntries);
+      }
+
+      return results.cast();
+   }
+
+   private void addFuzzyMatches(Results results,
+                                String query,
+                                HashSet<Integer> matched,
+                                int maxEntries)
+   {
+      FuzzyMatcher matcher = new FuzzyMatcher(query);
+      int queryMask = charMask(FuzzyMatcher.fold(query));
+
+      // collect the newest matches (skipping repeats of the same command)
+      HashSet<String> seen = new HashSet<>();
+      final JsVectorInteger ids = JsVectorInteger.createVector();
+      final JsVectorInteger scores = JsVectorInteger.createVector();
+      for (int id = commands_.length() - 1;
+           id >= 0 && ids.length() < MAX_FUZZY_CANDIDATES;
+           id--)
+      {
+         if ((queryMask & ~masks_.get(id)) != 0 || matched.contains(id))
+            continue;
+
+         String key = keys_.get(id);
+         if (!matcher.matches(key))
+            continue;
+
+         String command = commands_.get(id);
+         if (!seen.add(command))
+            continue;
+
+         ids.push(id);
+         scores.push(matcher.score(command, key, false));
+      }
+
+      // rank by score, then by recency
+      ArrayList<Integer> order = new ArrayList<>(ids.length());
+      for (int i = 0, n = ids.length(); i < n; i++)
+         order.add(i);
+      Collections.sort(order, (lhs, rhs) ->
+      {
+         int result = Integer.compare(scores.get(lhs), scores.get(rhs));
+         return result != 0 ? result : Integer.compare(ids.get(rhs), ids.get(lhs));
+      });
+
+      for (int i = 0, n = order.size(); i < n && results.length() < maxEntries; i++)
+         addResult(results, ids.get(order.get(i)));
+   }
+
+   private RpcObjectList<HistoryEntry> searchByPrefix(String prefix,
+                                                      int maxEntries,
+                                                      boolean uniqueOnly)
+   {
+      Results results = Results.create();
+      HashSet<String> matched = new HashSet<>();
+      for (int id = commands_.length() - 1;
+           id >= 0 && results.length() < maxEntries;
+           id--)
+      {
+         String command = commands_.get(id);
+         if (!command.startsWith(prefix))
+            continue;
+
+         if (matched.add(command) || !uniqueOnly)
+            addResult(results, id);
+      }
+      return results.cast();
+   }
+
+   /**
+    * Returns true if the index is ready to search. If it isn't, starts
+    * loading it (if it's not already loading).
+    */
+   private boolean ensureLoaded()
+   {
+      if (state_ == State.Empty)
+         load();
+
+      return state_ == State.Loaded;
+   }
+
+   private void load()
+   {
+      state_ = State.Loading;
+      staleLoad_ = false;
+
+      // check the size of the archive first, so we don't download an archive
+      // that's too large to index
+      server_.getHistoryArchiveSize(new ServerRequestCallback<Double>()
+      {
+         @Override
+         public void onResponseReceived(Double size)
+         {
+            if (staleLoad_)
+            {
+               load();
+               return;
+            }
+
+            int count = size.intValue();
+            if (count > pLimit_.get())
+            {
+               state_ = State.TooLarge;
+               return;
+            }
+
+            loadEntries(count);
+         }
+
+         @Override
+         public void onError(ServerError error)
+         {
+            // try again on the next search
+            state_ = State.Empty;
+         }
+      });
+   }
+
+   private void loadEntries(int count)
+   {
+      server_.getHistoryArchiveItems(0, count,
+            new ServerRequestCallback<RpcObjectList<HistoryEntry>>()
+      {
+         @Override
+         public void onResponseReceived(RpcObjectList<HistoryEntry> entries)
+         {
+            // if commands were added while we were loading, we can't tell
+            // whether they're in the response; start over
+            if (staleLoad_)
+            {
+               load();
+               return;
+            }
+
+            clear();
+            state_ = State.Loaded;
+            addEntries(entries);
+         }
+
+         @Override
+         public void onError(ServerError error)
+         {
+            state_ = State.Empty;
+         }
+      });
+   }
+
+   private void clear()
+   {
+      commands_ = JsVectorString.createVector();
+      keys_ = JsVectorString.createVector();
+      masks_ = JsVectorInteger.createVector();
+      timestamps_ = JsVectorNumber.createVector();
+      trigrams_ = new HashMap<>();
+      unindexed_ = JsVectorInteger.createVector();
+   }
+
+   private void addEntries(RpcObjectList<HistoryEntry> entries)
+   {
+      for (int i = 0, n = entries.length(); i < n; i++)
+      {
+         HistoryEntry entry = entries.get(i);
+
+         // entries added during the session don't carry a timestamp (the
+         // server timestamps them as it archives them)
+         double timestamp = entry.getTimestamp().getTime();
+         if (timestamp == 0)
+            timestamp = System.currentTimeMillis();
+
+         addEntry(entry.getCommand(), timestamp);
+      }
+
+      // stop indexing if the archive has outgrown the limit
+      if (commands_.length() > pLimit_.get())
+      {
+         clear();
+         state_ = State.TooLarge;
+      }
+   }
+
+   private void addEntry(String command, double timestamp)
+   {
+      // entries are identified by their index in the archive
+      int id = commands_.length();
+      String key = FuzzyMatcher.fold(command);
+
+      commands_.push(command);
+      keys_.push(key);
+      masks_.push(charMask(key));
+      timestamps_.push(timestamp);
+
+      // very long commands (e.g. pasted data) would add a lot of trigrams
+      // for little benefit; they're checked on every search instead
+      if (key.length() > MAX_INDEXED_LENGTH)
+      {
+         unindexed_.push(id);
+         return;
+      }
+
+      for (int i = 0, n = key.length() - 2; i < n; i++)
+      {
+         String trigram = key.substring(i, i + 3);
+         JsVectorInteger ids = trigrams_.get(trigram);
+         if (ids == null)
+         {
+            ids = JsVectorInteger.createVector();
+            trigrams_.put(trigram, ids);
+         }
+
+         // a trigram can occur more than once in a command; since ids are
+         // added in order, any repeat is at the end of the list
+         int length = ids.length();
+         if (length == 0 || ids.get(length - 1) != id)
+            ids.push(id);
+      }
+   }
+
+   /**
+    * Returns the entries that might contain all of the given terms, newest
+    * first. Uses the smallest trigram list among the terms; if no term is
+    * long enough to have a trigram, every entry is a candidate.
+    */
+   private Candidates candidatesFor(ArrayList<String> terms)
+   {
+      JsVectorInteger best = null;
+      boolean canIndex = false;
+      for (String term : terms)
+      {
+         String key = FuzzyMatcher.fold(term);
+         for (int i = 0, n = key.length() - 2; i < n; i++)
+         {
+            canIndex = true;
+            JsVectorInteger ids = trigrams_.get(key.substring(i, i + 3));
+            if (ids == null)
+            {
+               // no indexed entry contains this term
+               best = JsVectorInteger.createVector();
+               break;
+            }
+
+            if (best == null || ids.length() < best.length())
+               best = ids;
+         }
+      }
+
+      if (!canIndex)
+         return new Candidates(null, null, commands_.length());
+
+      return new Candidates(best, unindexed_, 0);
+   }
+
+   /**
+    * Merges two ascending lists of entry ids (or, if the lists are null,
+    * counts down from the given count), returning ids in descending order.
+    */
+   private static class Candidates
+   {
+      Candidates(JsVectorInteger lhs, JsVectorInteger rhs, int count)
+      {
+         lhs_ = lhs;
+         rhs_ = rhs;
+         lhsPos_ = lhs == null ? -1 : lhs.length() - 1;
+         rhsPos_ = rhs == null ? -1 : rhs.length() - 1;
+         count_ = count;
+      }
+
+      int next()
+      {
+         if (lhs_ == null)
+            return --count_;
+
+         int lhs = lhsPos_ >= 0 ? lhs_.get(lhsPos_) : -1;
+         int rhs = rhsPos_ >= 0 ? rhs_.get(rhsPos_) : -1;
+         if (lhs > rhs)
+         {
+            lhsPos_--;
+            return lhs;
+         }
+         else
+         {
+            rhsPos_--;
+            return rhs;
+         }
+      }
+
+      private final JsVectorInteger lhs_;
+      private final JsVectorInteger rhs_;
+      private int lhsPos_;
+      private int rhsPos_;
+      private int count_;
+   }
+
+   private void addResult(Results results, int id)
+   {
+      results.push(id, timestamps_.get(id), commands_.get(id));
+   }
+
+   private static boolean containsAll(String command, ArrayList<String> terms)
+   {
+      for (int i = 0, n = terms.size(); i < n; i++)
+      {
+         if (!command.contains(terms.get(i)))
+            return false;
+      }
+      return true;
+   }
+
+   /**
+    * Splits a query into search terms as the server does: whitespace
+    * separates terms, and each punctuation character is a term of its own.
+    */
+   private static ArrayList<String> tokenize(String query)
+   {
+      ArrayList<String> terms = new ArrayList<>();
+      int start = -1;
+      for (int i = 0, n = query.length(); i <= n; i++)
+      {
+         char ch = i < n ? query.charAt(i) : ' ';
+         boolean space = Character.isWhitespace(ch);
+         boolean punct = !space && PUNCTUATION.indexOf(ch) != -1;
+         if (space || punct)
+         {
+            if (start != -1)
+               terms.add(query.substring(start, i));
+            start = -1;
+            if (punct)
+               terms.add(String.valueOf(ch));
+         }
+         else if (start == -1)
+         {
+            start = i;
+         }
+      }
+      return terms;
+   }
+
+   /**
+    * Summarizes which characters appear in a (folded) string, so that
+    * entries which can't fuzzy match a query can be skipped cheaply.
+    */
+   private static int charMask(String key)
+   {
+      int mask = 0;
+      for (int i = 0, n = key.length(); i < n; i++)
+      {
+         char ch = key.charAt(i);
+         if (ch >= 'a' && ch <= 'z')
+            mask |= 1 << (ch - 'a');
+         else if (ch >= '0' && ch <= '9')
+            mask |= 1 << 26;
+         else
+            mask |= 1 << 27;
+      }
+      return mask;
+   }
+
+   /**
+    * A list of history entries, in the (columnar) form the server returns.
+    */
+   private static class Results extends JavaScriptObject
+   {
+      protected Results()
+      {
+      }
+
+      public static final native Results create() /*-{
+         return { index: [], timestamp: [], command: [] };
+      }-*/;
+
+      public final native int length() /*-{
+         return this.index.length;
+      }-*/;
+
+      public final native void push(int index, double timestamp, String command) /*-{
+         this.index.push(index);
+         this.timestamp.push(timestamp);
+         this.command.push(command);
+      }-*/;
+   }
+
+   private enum State
+   {
+      Empty,
+      Loading,
+      Loaded,
+      TooLarge
+   }
+
+   private final HistoryServerOperations server_;
+   private final Provider<Integer> pLimit_;
+
+   private State state_ = State.Empty;
+   private boolean staleLoad_;
+
+   // entry data, by archive index
+   private JsVectorString commands_;
+   private JsVectorString keys_;
+   private JsVectorInteger masks_;
+   private JsVectorNumber timestamps_;
+
+   // ids of the entries containing each (folded) trigram, in ascending order
+   private HashMap<String, JsVectorInteger> trigrams_;
+
+   // ids of entries too long to index
+   private JsVectorInteger unindexed_;
+
+   private static final int MAX_INDEXED_LENGTH = 200;
+   private static final int MIN_FUZZY_QUERY_LENGTH = 3;
+   private static final int MAX_FUZZY_CANDIDATES = 1000;
+   private static final String PUNCTUATION = "!\"#$%&'()*+,-./:;<=>?@[\\]^_`{|}~";
+}
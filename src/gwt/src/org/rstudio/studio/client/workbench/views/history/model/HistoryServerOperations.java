@@ -70,6 +70,11 @@ public interface HistoryServerOperations
          long endIndex,   // exclusive
          ServerRequestCallback<RpcObjectList<HistoryEntry>> requestCallback);
    
+   /*
+    *  getHistoryArchiveSize -- return the number of items in the history
+    *  archive
+    */
+   void getHistoryArchiveSize(ServerRequestCallback<Double> requestCallback);
   
    /*
     *  searchHistoryDatabase - search the history archive for the query 
@@ -14,8 +14,13 @@
  */
 package org.rstudio.studio.client.workbench.views.output.find;
 
+import java.util.HashSet;
+
 import com.google.gwt.dom.client.Document;
+import com.google.gwt.dom.client.NodeList;
+import com.google.gwt.dom.client.Style.Display;
 import com.google.gwt.dom.client.TableCellElement;
+import com.google.gwt.dom.client.TableElement;
 import com.google.gwt.dom.client.TableRowElement;
 import org.rstudio.core.client.CodeNavigationTarget;
 import org.rstudio.core.client.FilePosition;
@@ -42,8 +47,9 @@ public class FindOutputCodec
          TableCellElement td = Document.get().createTDElement();
          td.setClassName(styles_.overflowWarning());
          td.setColSpan(2);
-         td.setInnerText("More than 1000 matching lines were found. " +
-                         "Only the first 1000 lines are shown.");
+         td.setInnerText("More than " + FindOutputPresenter.MAX_COUNT +
+                         " matching lines were found. Only the first " +
+                         FindOutputPresenter.MAX_COUNT + " lines are shown.");
          tr.appendChild(td);
          return tr;
       }
@@ -51,6 +57,8 @@ public class FindOutputCodec
       TableRowElement tr = Document.get().createTRElement();
       tr.setAttribute(DATA_FILE, entry.getFile());
       tr.setAttribute(DATA_LINE, entry.getLine() + "");
+      if (collapsedFiles_.contains(entry.getFile()))
+         tr.getStyle().setDisplay(Display.NONE);
 
       TableCellElement td1 = Document.get().createTDElement();
       td1.setClassName(styles_.line());
@@ -59,15 +67,84 @@ public class FindOutputCodec
 
       TableCellElement td2 = Document.get().createTDElement();
       td2.setClassName(styles_.lineValue());
-      if (!entry.getReplaceIndicator())
-         td2.setInnerHTML(entry.getLineHTML().asString());
-      else
-         td2.setInnerHTML(entry.getLineReplaceHTML().asString());
+      setLineValue(td2, entry);
       tr.appendChild(td2);
 
       return tr;
    }
 
+   /**
+    * Refreshes the line value of a row previously created by getRowForItem,
+    * e.g. after the entry's replace text has changed.
+    */
+   public void updateRowForItem(TableRowElement row, FindResult entry)
+   {
+      setLineValue(row.getCells().getItem(1), entry);
+   }
+
+   public boolean isHeaderRow(TableRowElement row)
+   {
+      return row.hasAttribute(DATA_HEADER_FILE);
+   }
+
+   public String getHeaderFile(TableRowElement row)
+   {
+      return row.getAttribute(DATA_HEADER_FILE);
+   }
+
+   public boolean isCollapsed(String file)
+   {
+      return collapsedFiles_.contains(file);
+   }
+
+   /**
+    * Shows or hides the matches in a file. Rows for the file's matches that
+    * are added afterwards follow suit.
+    */
+   public void setCollapsed(TableElement table, String file, boolean collapsed)
+   {
+      if (collapsed)
+         collapsedFiles_.add(file);
+      else
+         collapsedFiles_.remove(file);
+
+      NodeList<TableRowElement> rows = table.getRows();
+      for (int i = 0; i < rows.getLength(); i++)
+      {
+         TableRowElement row = rows.getItem(i);
+         if (StringUtil.equals(row.getAttribute(DATA_HEADER_FILE), file))
+         {
+            setHeaderText(row.getCells().getItem(0), file);
+         }
+         else if (StringUtil.equals(row.getAttribute(DATA_FILE), file))
+         {
+            if (collapsed)
+               row.getStyle().setDisplay(Display.NONE);
+            else
+               row.getStyle().clearDisplay();
+         }
+      }
+   }
+
+   public void clearCollapsed()
+   {
+      collapsedFiles_.clear();
+   }
+
+   private void setHeaderText(TableCellElement td, String file)
+   {
+      String marker = collapsedFiles_.contains(file) ? "\u25B8" : "\u25BE";
+      td.setInnerText(marker + "\u00A0" + file);
+   }
+
+   private void setLineValue(TableCellElement td, FindResult entry)
+   {
+      if (!entry.getReplaceIndicator())
+         td.setInnerHTML(entry.getLineHTML().asString());
+      else
+         td.setInnerHTML(entry.getLineReplaceHTML().asString());
+   }
+
    @Override
    protected boolean needsBreak(TableRowElement prevRow, TableRowElement row)
    {
@@ -82,11 +159,13 @@ public class FindOutputCodec
    protected int addBreak(TableRowElement row)
    {
       TableRowElement tr = Document.get().createTRElement();
+      String file = row.getAttribute(DATA_FILE);
       tr.setClassName(styles_.headerRow());
+      tr.setAttribute(DATA_HEADER_FILE, file);
 
       TableCellElement td = Document.get().createTDElement();
       td.setColSpan(2);
-      td.setInnerText(row.getAttribute(DATA_FILE));
+      setHeaderText(td, file);
       tr.appendChild(td);
 
       row.getParentElement().insertBefore(tr, row);
@@ -121,7 +200,9 @@ public class FindOutputCodec
    }
 
    private final Styles styles_;
+   private final HashSet<String> collapsedFiles_ = new HashSet<>();
 
    private static final String DATA_FILE = "data-file";
    private static final String DATA_LINE = "data-line";
+   private static final String DATA_HEADER_FILE = "data-header-file";
 }
@@ -15,11 +15,17 @@
 package org.rstudio.studio.client.workbench.views.output.find;
 
 import com.google.gwt.core.client.GWT;
+import com.google.gwt.dom.client.Element;
 import com.google.gwt.dom.client.NativeEvent;
+import com.google.gwt.dom.client.NodeList;
+import com.google.gwt.dom.client.Style.Display;
+import com.google.gwt.dom.client.TableElement;
 import com.google.gwt.dom.client.TableRowElement;
 import com.google.gwt.event.dom.client.*;
 import com.google.gwt.event.shared.HandlerRegistration;
 import com.google.gwt.safehtml.shared.SafeHtmlBuilder;
+import com.google.gwt.user.client.Command;
+import com.google.gwt.user.client.ui.FlowPanel;
 import com.google.gwt.user.client.ui.Label;
 import com.google.gwt.user.client.ui.ScrollPanel;
 import com.google.gwt.user.client.ui.SimplePanel;
@@ -32,6 +38,8 @@ import org.rstudio.core.client.dom.DomUtils;
 import org.rstudio.core.client.events.EnsureVisibleEvent;
 import org.rstudio.core.client.events.HasSelectionCommitHandlers;
 import org.rstudio.core.client.events.SelectionCommitEvent;
+import org.rstudio.core.client.virtualscroller.VirtualScroller;
+import org.rstudio.core.client.virtualscroller.VirtualScrollerManager;
 import org.rstudio.core.client.widget.*;
 import org.rstudio.core.client.widget.events.SelectionChangedEvent;
 import org.rstudio.studio.client.application.events.EventBus;
@@ -41,6 +49,7 @@ import org.rstudio.studio.client.workbench.views.output.find.model.FindResult;
 import org.rstudio.studio.client.workbench.views.output.find.events.PreviewReplaceEvent;
 
 import java.util.ArrayList;
+import java.util.List;
 
 
 public class FindOutputPane extends WorkbenchPane
@@ -162,8 +171,9 @@ public class FindOutputPane extends WorkbenchPane
       FindOutputResources resources = GWT.create(FindOutputResources.class);
       resources.styles().ensureInjected();
 
+      codec_ = new FindOutputCodec(resources);
       table_ = new FastSelectTable<>(
-            new FindOutputCodec(resources),
+            codec_,
             resources.styles().selectedRow(),
             true,
             false,
@@ -178,6 +188,14 @@ public class FindOutputPane extends WorkbenchPane
             if (event.getNativeButton() != NativeEvent.BUTTON_LEFT)
                return;
 
+            // clicking a file's header shows or hides its matches
+            TableRowElement header = getHeaderRow(event.getNativeEvent());
+            if (header != null)
+            {
+               toggleCollapsed(codec_.getHeaderFile(header));
+               return;
+            }
+
             if (dblClick_.checkForDoubleClick(event.getNativeEvent()))
                fireSelectionCommitted();
          }
@@ -205,9 +223,29 @@ public class FindOutputPane extends WorkbenchPane
       container_.setSize("100%", "100%");
       statusPanel_ = new StatusPanel();
       statusPanel_.setSize("100%", "100%");
-      scrollPanel_ = new ScrollPanel(table_);
+      moreResultsLabel_ = new Label("Loading more results...");
+      moreResultsLabel_.addStyleName(resources.styles().moreResults());
+      moreResultsLabel_.setVisible(false);
+      FlowPanel results = new FlowPanel();
+      results.add(table_);
+      results.add(moreResultsLabel_);
+
+      scrollPanel_ = new ScrollPanel(results);
       scrollPanel_.setSize("100%", "100%");
+      scrollPanel_.addScrollHandler(new ScrollHandler()
+      {
+         @Override
+         public void onScroll(ScrollEvent event)
+         {
+            maybeLoadMoreResults();
+         }
+      });
       container_.setWidget(scrollPanel_);
+
+      // only a window of the rows is visible at a time (see addRows)
+      scroller_ = VirtualScrollerManager.createForTable(
+            TableElement.as(table_.getElement()),
+            scrollPanel_.getElement());
       return container_;
    }
 
@@ -235,37 +273,51 @@ public class FindOutputPane extends WorkbenchPane
    @Override
    public void addMatches(ArrayList<FindResult> findResults)
    {
-      int matchesToAdd = Math.min(findResults.size(), MAX_COUNT - matchCount_);
-
-      if (matchesToAdd > 0)
-      {
-         matchCount_ += matchesToAdd;
+      if (findResults.isEmpty())
+         return;
 
-         if (matchCount_ > 0 && container_.getWidget() != scrollPanel_)
-            container_.setWidget(scrollPanel_);
+      matchCount_ += findResults.size();
+      if (container_.getWidget() != scrollPanel_)
+         container_.setWidget(scrollPanel_);
 
-         if (!replaceMode_ || regexPreviewMode_)
-            context_.addMatches(findResults.subList(0, matchesToAdd));
-         table_.addItems(findResults.subList(0, matchesToAdd), false);
+      if (!replaceMode_ || regexPreviewMode_)
+      {
+         // keep the rows backed by the context's copies so that replace
+         // previews can be applied to them in place
+         addRows(context_.addMatches(findResults));
+      }
+      else
+      {
+         addRows(findResults);
+         resultsFromContext_ = false;
       }
-
-      if (matchCount_ >= MAX_COUNT)
-         showOverflow();
    }
 
    public void addReplaceMatches(String value)
    {
-      table_.clear();
-      matchCount_ = 0;
       context_.updateFileMatches(value);
-      addMatches(context_.getFindResults());
+
+      if (resultsFromContext_)
+      {
+         // the rows already show the context's results; just refresh them
+         updateRows();
+         return;
+      }
+
+      ArrayList<FindResult> contextResults = context_.getFindResults();
+      resetRows();
+      resultsFromContext_ = true;
+      matchCount_ = contextResults.size();
+      addRows(contextResults);
    }
 
    @Override
    public void clearMatches()
    {
       context_.reset();
-      table_.clear();
+      codec_.clearCollapsed();
+      resetRows();
+      resultsFromContext_ = true;
       overflow_ = false;
       matchCount_ = 0;
       statusPanel_.setStatusText("");
@@ -317,10 +369,20 @@ public class FindOutputPane extends WorkbenchPane
       ArrayList<TableRowElement> rows = table_.getSelectedRows();
       if (rows.size() > 0)
       {
+         // the row may be outside the scroller's window
+         scroller_.ensureVisible(rows.get(0));
          DomUtils.ensureVisibleVert(scrollPanel_.getElement(),
                                     rows.get(0),
                                     20);
       }
+
+      // keyboard navigation onto the last row pulls in the next page
+      ArrayList<Integer> indices = table_.getSelectedRowIndexes();
+      if (!indices.isEmpty() &&
+          indices.get(indices.size() - 1) >= results_.size() - 1)
+      {
+         maybeLoadMoreResults();
+      }
    }
 
    @Override
@@ -335,9 +397,26 @@ public class FindOutputPane extends WorkbenchPane
       if (overflow_)
          return;
       overflow_ = true;
-      ArrayList<FindResult> items = new ArrayList<>();
-      items.add(null);
-      table_.addItems(items, false);
+      maybeAddOverflowRow();
+   }
+
+   @Override
+   public void setMoreResultsAvailable(boolean available)
+   {
+      moreResultsAvailable_ = available;
+      moreResultsLabel_.setVisible(available);
+
+      // the results shown so far may not fill the pane
+      if (available)
+         maybeLoadMoreResults();
+      else
+         maybeAddOverflowRow();
+   }
+
+   @Override
+   public void setOnLoadMoreResults(Command command)
+   {
+      onLoadMoreResults_ = command;
    }
 
    @Override
@@ -494,6 +573,104 @@ public class FindOutputPane extends WorkbenchPane
       };
    }
 
+   private void resetRows()
+   {
+      table_.clear();
+      scroller_.clear();
+      results_.clear();
+      overflowRendered_ = false;
+   }
+
+   // Adds rows for the results to the table. The rows are added in bodies
+   // of at most ROWS_PER_BODY rows, which the scroller groups into buckets;
+   // only a window of those is visible at a time, and the window moves as
+   // the user scrolls or selects rows outside it.
+   private void addRows(List<FindResult> findResults)
+   {
+      for (int i = 0; i < findResults.size(); i += ROWS_PER_BODY)
+      {
+         int end = Math.min(i + ROWS_PER_BODY, findResults.size());
+         table_.addItems(findResults.subList(i, end), false);
+         scroller_.append(table_.getElement().getLastChildElement());
+      }
+      results_.addAll(findResults);
+   }
+
+   // shows the overflow message once all of the results have been added
+   private void maybeAddOverflowRow()
+   {
+      if (!overflow_ || overflowRendered_ || moreResultsAvailable_)
+         return;
+
+      overflowRendered_ = true;
+      ArrayList<FindResult> items = new ArrayList<>();
+      items.add(null);
+      table_.addItems(items, false);
+      scroller_.append(table_.getElement().getLastChildElement());
+   }
+
+   // asks for more results from the server once the user has scrolled to
+   // the end of those received
+   private void maybeLoadMoreResults()
+   {
+      if (!moreResultsAvailable_ ||
+          onLoadMoreResults_ == null ||
+          !scroller_.isWindowAtBottom())
+      {
+         return;
+      }
+
+      Element scroller = scrollPanel_.getElement();
+      int remaining = scroller.getScrollHeight() -
+                      (scroller.getScrollTop() + scroller.getClientHeight());
+      if (remaining < scroller.getClientHeight())
+         onLoadMoreResults_.execute();
+   }
+
+   private TableRowElement getHeaderRow(NativeEvent event)
+   {
+      Element target = Element.as(event.getEventTarget());
+      Element row = DomUtils.findParentElement(target, true, element ->
+            element.hasTagName("tr"));
+      if (row == null || !codec_.isHeaderRow(TableRowElement.as(row)))
+         return null;
+      return TableRowElement.as(row);
+   }
+
+   private void toggleCollapsed(String file)
+   {
+      codec_.setCollapsed(TableElement.as(table_.getElement()),
+                          file,
+                          !codec_.isCollapsed(file));
+
+      // hidden rows can't stay selected
+      for (TableRowElement row : table_.getSelectedRows())
+      {
+         if (Display.NONE.getCssName().equals(row.getStyle().getDisplay()))
+         {
+            table_.clearSelection();
+            break;
+         }
+      }
+
+      // collapsing may have brought the end of the results into view
+      maybeLoadMoreResults();
+   }
+
+   private void updateRows()
+   {
+      NodeList<TableRowElement> rows =
+            TableElement.as(table_.getElement()).getRows();
+
+      int index = 0;
+      for (int i = 0; i < rows.getLength() && index < results_.size(); i++)
+      {
+         TableRowElement row = rows.getItem(i);
+         if (codec_.isValueRow(row))
+            codec_.updateRowForItem(row, results_.get(index++));
+      }
+   }
+
    private void fireSelectionCommitted()
    {
       ArrayList<CodeNavigationTarget> values = table_.getSelectedValues();
@@ -518,6 +695,7 @@ public class FindOutputPane extends WorkbenchPane
    }
 
    private FastSelectTable<FindResult, CodeNavigationTarget, Object> table_;
+   private FindOutputCodec codec_;
    private FindResultContext context_;
    private final Commands commands_;
    private final EventBus eventBus_;
@@ -527,8 +705,18 @@ public class FindOutputPane extends WorkbenchPane
    private ScrollPanel scrollPanel_;
    private StatusPanel statusPanel_;
    private boolean overflow_ = false;
+   private boolean overflowRendered_ = false;
+   private Label moreResultsLabel_;
+   private boolean moreResultsAvailable_;
+   private Command onLoadMoreResults_;
    private int matchCount_;
 
+   // all results received for the current search, in the order of their
+   // rows in the table
+   private final ArrayList<FindResult> results_ = new ArrayList<>();
+   private boolean resultsFromContext_ = true;
+   private VirtualScroller scroller_;
+
    private LeftRightToggleButton showFindButton_;
    private LeftRightToggleButton showReplaceButton_;
 
@@ -543,6 +731,6 @@ public class FindOutputPane extends WorkbenchPane
 
    private DebouncedCommand displayPreview_;
 
-   // This must be the same as MAX_COUNT in SessionFind.cpp
-   private static final int MAX_COUNT = 1000;
+   // the most result rows added to the table in one body
+   private static final int ROWS_PER_BODY = 50;
 }
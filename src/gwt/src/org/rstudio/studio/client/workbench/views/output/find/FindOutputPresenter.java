@@ -21,6 +21,7 @@ import com.google.gwt.event.dom.client.HasClickHandlers;
 import com.google.gwt.event.logical.shared.ValueChangeEvent;
 import com.google.gwt.event.logical.shared.ValueChangeHandler;
 import com.google.gwt.event.shared.HandlerRegistration;
+import com.google.gwt.user.client.Command;
 import com.google.inject.Inject;
 import org.rstudio.core.client.CodeNavigationTarget;
 import org.rstudio.core.client.Debug;
@@ -62,6 +63,7 @@ import org.rstudio.studio.client.workbench.views.output.find.events.ReplaceOpera
 import org.rstudio.studio.client.workbench.views.output.find.model.FindInFilesServerOperations;
 import org.rstudio.studio.client.workbench.views.output.find.model.FindInFilesState;
 import org.rstudio.studio.client.workbench.views.output.find.model.FindResult;
+import org.rstudio.studio.client.workbench.views.output.find.model.FindResultPage;
 
 import java.util.ArrayList;
 
@@ -84,6 +86,14 @@ public class FindOutputPresenter extends BasePresenter
 
       void showOverflow();
 
+      /**
+       * Shows whether the server has more results than have been added. The
+       * view asks for them (see setOnLoadMoreResults) when the user scrolls
+       * to the end of those it has.
+       */
+      void setMoreResultsAvailable(boolean available);
+      void setOnLoadMoreResults(Command command);
+
       void showSearchCompleted();
 
       void updateSearchLabel(String query, String path, boolean wholeWord);
@@ -134,6 +144,8 @@ public class FindOutputPresenter extends BasePresenter
       workbenchContext_ = workbenchContext;
       fileServer_ = fileServer;
 
+      view_.setOnLoadMoreResults(() -> loadMoreResults());
+
       view_.addSelectionChangedHandler(selectionChangedEvent ->
       {
          view_.ensureSelectedRowIsVisible();
@@ -167,17 +179,10 @@ public class FindOutputPresenter extends BasePresenter
                return;
 
             view_.ensureVisible(true);
-            {
-               int count = 0;
-               for (FindResult fr : event.getResults())
-               {
-                  count += fr.getMatchOns().size();
-                  if (view_.getRegexPreviewMode())
-                     fr.setRegexPreviewIndicator();
-               }
-               dialogState_.updateResultsCount(count);
-            }
-            view_.addMatches(event.getResults());
+            dialogState_.updateResultsCount(event.getMatchCount());
+            addFindResults(event.getResults());
+            totalCount_ = event.getTotal();
+            updateMoreResults();
          }
       });
 
@@ -233,6 +238,7 @@ public class FindOutputPresenter extends BasePresenter
                                       public void onResponseReceived(String handle)
                                       {
                                          view_.clearMatches();
+                                         resetResults(handle);
                                          currentFindHandle_ = handle;
                                          if (dialogState_ != null)
                                             dialogState_.clearResultsCount();
@@ -316,6 +322,8 @@ public class FindOutputPresenter extends BasePresenter
                                                    @Override
                                                    public void onResponseReceived(String handle)
                                                    {
+                                                      resetResults(handle);
+                                                      replaceResults_ = true;
                                                       currentFindHandle_ = handle;
                                                       updateSearchLabel(dialogState_.getQuery(),
                                                                         dialogState_.getPath(),
@@ -348,25 +356,14 @@ public class FindOutputPresenter extends BasePresenter
             if (!StringUtil.equals(event.getHandle(), currentFindHandle_))
                return;
 
-            // toggle replace mode so matches get added to context
-            view_.setReplaceMode(true);
-
             ArrayList<FindResult> results = event.getResults();
-            int errorCount = 0;
             for (FindResult fr : results)
-            {
-               fr.setReplaceIndicator();
-               if (!StringUtil.isNullOrEmpty(fr.getErrors()))
-               {
-                  errorCount++;
-               }
                dialogState_.updateReplaceErrors(fr.getErrors());
-            }
-            dialogState_.updateErrorCount(errorCount);
+            dialogState_.updateErrorCount(event.getErrorCount());
 
-            view_.setReplaceMode(false);
-            view_.addMatches(results);
-            view_.setReplaceMode(true);
+            addReplaceResults(results);
+            totalCount_ = event.getTotal();
+            updateMoreResults();
 
             view_.ensureVisible(true);
             view_.disableReplace();
@@ -459,7 +456,10 @@ public class FindOutputPresenter extends BasePresenter
 
       currentFindHandle_ = state.getHandle();
       view_.clearMatches();
-      view_.addMatches(state.getResults().toArrayList());
+      resetResults(state.getHandle());
+      addFindResults(state.getResults().toArrayList());
+      totalCount_ = state.getTotal();
+      updateMoreResults();
 
       updateSearchLabel(state.getInput(), state.getPath(), state.isWholeWord(), state.isRegex());
 
@@ -510,6 +510,7 @@ public class FindOutputPresenter extends BasePresenter
                                  @Override
                                  public void onResponseReceived(String handle)
                                  {
+                                    resetResults(handle);
                                     currentFindHandle_ = handle;
                                     updateSearchLabel(input.getQuery(),
                                                       input.getPath(),
@@ -651,6 +652,105 @@ public class FindOutputPresenter extends BasePresenter
       stopReplace();
       view_.clearMatches();
       view_.clearSearchLabel();
+      resetResults(null);
+   }
+
+   private void addFindResults(ArrayList<FindResult> results)
+   {
+      if (view_.getRegexPreviewMode())
+      {
+         for (FindResult fr : results)
+            fr.setRegexPreviewIndicator();
+      }
+
+      loadedCount_ += results.size();
+      view_.addMatches(results);
+   }
+
+   private void addReplaceResults(ArrayList<FindResult> results)
+   {
+      // toggle replace mode so matches get added to context
+      view_.setReplaceMode(true);
+      for (FindResult fr : results)
+         fr.setReplaceIndicator();
+
+      loadedCount_ += results.size();
+      view_.setReplaceMode(false);
+      view_.addMatches(results);
+      view_.setReplaceMode(true);
+   }
+
+   // forgets the results that have been loaded; the view is cleared
+   // separately
+   private void resetResults(String handle)
+   {
+      resultsHandle_ = handle;
+      replaceResults_ = false;
+      loadingMore_ = false;
+      loadedCount_ = 0;
+      totalCount_ = 0;
+      view_.setMoreResultsAvailable(false);
+   }
+
+   private boolean hasMoreResults()
+   {
+      // until the first results have all arrived, the rest aren't fetched
+      return resultsHandle_ != null &&
+             loadedCount_ >= STREAMED_COUNT &&
+             loadedCount_ < Math.min(totalCount_, MAX_COUNT);
+   }
+
+   private void updateMoreResults()
+   {
+      view_.setMoreResultsAvailable(hasMoreResults());
+      if (loadedCount_ >= MAX_COUNT && totalCount_ > MAX_COUNT)
+         view_.showOverflow();
+   }
+
+   private void loadMoreResults()
+   {
+      if (loadingMore_ || !hasMoreResults())
+         return;
+
+      loadingMore_ = true;
+      final String handle = resultsHandle_;
+      server_.getFindResults(
+            handle,
+            loadedCount_,
+            Math.min(PAGE_SIZE, MAX_COUNT - loadedCount_),
+            new ServerRequestCallback<FindResultPage>()
+            {
+               @Override
+               public void onResponseReceived(FindResultPage page)
+               {
+                  if (!StringUtil.equals(handle, resultsHandle_))
+                     return;
+
+                  loadingMore_ = false;
+                  ArrayList<FindResult> results = page.getResults().toArrayList();
+
+                  // the server no longer has the results (e.g. they were
+                  // cleared by another window); stop asking for them
+                  totalCount_ = results.isEmpty() ? loadedCount_ : page.getTotal();
+
+                  if (replaceResults_)
+                     addReplaceResults(results);
+                  else
+                     addFindResults(results);
+                  updateMoreResults();
+               }
+
+               @Override
+               public void onError(ServerError error)
+               {
+                  if (!StringUtil.equals(handle, resultsHandle_))
+                     return;
+
+                  // the view asks again when the user next scrolls
+                  loadingMore_ = false;
+                  Debug.logError(error);
+               }
+            });
    }
 
    private void stop()
@@ -677,6 +777,15 @@ public class FindOutputPresenter extends BasePresenter
    }
 
    private String currentFindHandle_;
+
+   // the operation whose results are shown, which outlives
+   // currentFindHandle_; beyond the first STREAMED_COUNT, its results are
+   // fetched a page at a time as the user scrolls to them
+   private String resultsHandle_;
+   private boolean replaceResults_;
+   private boolean loadingMore_;
+   private int loadedCount_;
+   private int totalCount_;
    private FindInFilesDialog.State dialogState_;
 
    private final Display view_;
@@ -687,6 +796,16 @@ public class FindOutputPresenter extends BasePresenter
    private final Commands commands_;
    private final EventBus events_;
 
+   // The most matching lines a search collects. This must be the same as
+   // MAX_COUNT in SessionFind.cpp
+   static final int MAX_COUNT = 50000;
+
+   // The number of matching lines sent as they're found. This must be the
+   // same as STREAMED_COUNT in SessionFind.cpp
+   private static final int STREAMED_COUNT = 1000;
+
+   private static final int PAGE_SIZE = 1000;
+
    private static final String GROUP_FIND_IN_FILES = "find-replace-in-files";
    private static final String KEY_DIALOG_STATE = "dialog-state";
    private final GlobalDisplay globalDisplay_;
@@ -28,6 +28,7 @@ public interface FindOutputResources extends ClientBundle
       String lineValue();
       String selectedRow();
       String overflowWarning();
+      String moreResults();
    }
 
    @Source("FindOutput.css")
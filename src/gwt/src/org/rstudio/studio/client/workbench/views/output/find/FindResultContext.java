@@ -21,6 +21,7 @@ import org.rstudio.studio.client.workbench.views.output.find.model.FindResult;
 
 import java.util.HashMap;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 
 public class FindResultContext
 {
@@ -157,20 +158,31 @@ public class FindResultContext
       maxLineWidth_ = 0;
    }
 
-   public void addMatches(Iterable<FindResult> findResults)
+   public ArrayList<FindResult> addMatches(Iterable<FindResult> findResults)
    {
       int origMaxLineWidth = maxLineWidth_;
+      ArrayList<FindResult> added = new ArrayList<>();
 
+      LinkedHashSet<File> touchedFiles = new LinkedHashSet<>();
       for (FindResult fr : findResults)
       {
          File file = getFile(fr.getFile());
 
          file.addMatch(fr.getLine(), 0, fr.getLineValue());
+         touchedFiles.add(file);
 
+         FindResult copy = fr.clone();
+         findResults_.add(copy);
+         added.add(copy);
+      }
+
+      // notify once per file rather than once per match; results usually
+      // arrive grouped by file so this is typically a single update
+      for (File file : touchedFiles)
+      {
          int index = data_.getList().indexOf(file);
          if (index >= 0) // not that we are expecting otherwise...
             data_.getList().set(index, file);
-         findResults_.add(fr.clone());
       }
 
       if (maxLineWidth_ != origMaxLineWidth)
@@ -178,6 +190,8 @@ public class FindResultContext
          for (File aFile : data_.getList())
             aFile.refresh();
       }
+
+      return added;
    }
 
    public void updateFileMatches(String replace)
@@ -41,12 +41,32 @@ public class FindResultEvent extends GwtEvent<FindResultEvent.Handler>
       public native final RpcObjectList<FindResult> getResults() /*-{
          return this.results;
       }-*/;
+
+      public native final int getMatchCount() /*-{
+         return this.matchCount;
+      }-*/;
+
+      public native final int getTotal() /*-{
+         return this.total;
+      }-*/;
    }
 
-   public FindResultEvent(String handle, ArrayList<FindResult> results)
+   /**
+    * @param results The results found, which are only the first ones found
+    *   by the operation; the rest are fetched from the server when needed.
+    * @param matchCount The number of matches in this batch, including those
+    *   whose results aren't included.
+    * @param total The number of matching lines found so far.
+    */
+   public FindResultEvent(String handle,
+                          ArrayList<FindResult> results,
+                          int matchCount,
+                          int total)
    {
       handle_ = handle;
       results_ = results;
+      matchCount_ = matchCount;
+      total_ = total;
    }
 
    public String getHandle()
@@ -59,6 +79,16 @@ public class FindResultEvent extends GwtEvent<FindResultEvent.Handler>
       return results_;
    }
 
+   public int getMatchCount()
+   {
+      return matchCount_;
+   }
+
+   public int getTotal()
+   {
+      return total_;
+   }
+
    @Override
    public Type<Handler> getAssociatedType()
    {
@@ -73,6 +103,8 @@ public class FindResultEvent extends GwtEvent<FindResultEvent.Handler>
 
    private final String handle_;
    private final ArrayList<FindResult> results_;
+   private final int matchCount_;
+   private final int total_;
 
    public static final Type<Handler> TYPE = new Type<>();
 }
\ No newline at end of file
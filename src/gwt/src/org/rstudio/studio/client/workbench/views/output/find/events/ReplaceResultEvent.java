@@ -41,12 +41,32 @@ public class ReplaceResultEvent extends GwtEvent<ReplaceResultEvent.Handler>
       public native final RpcObjectList<FindResult> getResults() /*-{
          return this.results;
       }-*/;
+
+      public native final int getErrorCount() /*-{
+         return this.errorCount;
+      }-*/;
+
+      public native final int getTotal() /*-{
+         return this.total;
+      }-*/;
    }
 
-   public ReplaceResultEvent(String handle, ArrayList<FindResult> results)
+   /**
+    * @param results The results found, which are only the first ones found
+    *   by the operation; the rest are fetched from the server when needed.
+    * @param errorCount The number of lines in this batch that couldn't be
+    *   replaced, including those whose results aren't included.
+    * @param total The number of matching lines found so far.
+    */
+   public ReplaceResultEvent(String handle,
+                             ArrayList<FindResult> results,
+                             int errorCount,
+                             int total)
    {
       handle_ = handle;
       results_ = results;
+      errorCount_ = errorCount;
+      total_ = total;
    }
 
    public String getHandle()
@@ -59,6 +79,16 @@ public class ReplaceResultEvent extends GwtEvent<ReplaceResultEvent.Handler>
       return results_;
    }
 
+   public int getErrorCount()
+   {
+      return errorCount_;
+   }
+
+   public int getTotal()
+   {
+      return total_;
+   }
+
    @Override
    public Type<Handler> getAssociatedType()
    {
@@ -73,6 +103,8 @@ public class ReplaceResultEvent extends GwtEvent<ReplaceResultEvent.Handler>
 
    private final String handle_;
    private final ArrayList<FindResult> results_;
+   private final int errorCount_;
+   private final int total_;
 
    public static final Type<Handler> TYPE = new Type<>();
 }
@@ -32,6 +32,15 @@ public interface FindInFilesServerOperations
    void stopFind(String findOperationHandle,
                  ServerRequestCallback<Void> requestCallback);
 
+   /**
+    * Gets the results of a find from offset (at most count of them), for
+    * results beyond those sent as they were found.
+    */
+   void getFindResults(String findOperationHandle,
+                       int offset,
+                       int count,
+                       ServerRequestCallback<FindResultPage> requestCallback);
+
    void clearFindResults(ServerRequestCallback<Void> requestCallback);
 
    void previewReplace(String searchString,
@@ -38,6 +38,14 @@ public class FindInFilesState extends JavaScriptObject
       return this.results;
    }-*/;
 
+   /**
+    * The number of matching lines found; only the first of them are included
+    * in the results.
+    */
+   public native final int getTotal() /*-{
+      return this.total || 0;
+   }-*/;
+
    public native final boolean isRunning() /*-{
       return this.running;
    }-*/;
@@ -0,0 +1,48 @@
+/*
+ * FindResultPage.java
+ *
+ * Copyright (C) 2021 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.output.find.model;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import org.rstudio.core.client.jsonrpc.RpcObjectList;
+
+/**
+ * A page of the results of a find (or replace) operation, as returned by
+ * get_find_results.
+ */
+public class FindResultPage extends JavaScriptObject
+{
+   protected FindResultPage()
+   {
+   }
+
+   public native final String getHandle() /*-{
+      return this.handle;
+   }-*/;
+
+   public native final RpcObjectList<FindResult> getResults() /*-{
+      return this.results;
+   }-*/;
+
+   /**
+    * The number of matching lines the server has found so far.
+    */
+   public native final int getTotal() /*-{
+      return this.total;
+   }-*/;
+
+   public native final boolean isRunning() /*-{
+      return this.running;
+   }-*/;
+}
@@ -0,0 +1,192 @@
+/*
+ * PlotImageCache.java
+ *
+ * Copyright (C) 2021 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.plots;
+
+import java.util.ArrayList;
+import java.util.Map;
+
+import org.rstudio.core.client.LruCache;
+import org.rstudio.studio.client.workbench.views.plots.model.PlotsState;
+
+import com.google.gwt.user.client.Timer;
+
+import elemental2.dom.Blob;
+import elemental2.dom.URL;
+import elemental2.dom.XMLHttpRequest;
+import jsinterop.base.Js;
+
+/**
+ * Client-side cache of rendered plot images, keyed by plot index and device
+ * size. Each image is downloaded once the pane is idle and held as a blob
+ * object URL, so it stays valid after the session re-renders the plot and
+ * removes the file it was served from. This lets the plots pane show a
+ * previously viewed plot immediately when navigating through the history,
+ * rather than waiting for the session to replay and re-render it.
+ */
+class PlotImageCache
+{
+   PlotImageCache()
+   {
+      images_ = new LruCache<String, String>(MAX_IMAGES)
+      {
+         @Override
+         protected boolean removeEldestEntry(Map.Entry<String, String> eldest)
+         {
+            boolean evict = super.removeEldestEntry(eldest);
+            if (evict)
+               URL.revokeObjectURL(eldest.getValue());
+            return evict;
+         }
+
+         private static final long serialVersionUID = 1L;
+      };
+   }
+
+   /**
+    * Records the plot described by the given state. Any change in the number
+    * of plots shifts or replaces entries in the history, so the whole cache
+    * is dropped; a new image for the same index and size means the plot was
+    * redrawn, so all sizes of that plot are dropped.
+    */
+   void onPlotsChanged(PlotsState state, String url)
+   {
+      if (state.getPlotCount() != plotCount_)
+         clear();
+      plotCount_ = state.getPlotCount();
+      plotIndex_ = state.getPlotIndex();
+
+      if (state.getFilename().startsWith("empty."))
+      {
+         pendingUrl_ = null;
+         prefetchTimer_.cancel();
+         return;
+      }
+
+      String key = key(plotIndex_, state.getWidth(), state.getHeight());
+      String previousUrl = sourceUrls_.get(key);
+      if (previousUrl != null && !previousUrl.equals(url))
+         removePlot(plotIndex_);
+
+      width_ = state.getWidth();
+      height_ = state.getHeight();
+
+      // fetch the image once the pane has been quiet for a moment, so we
+      // don't compete with the plot frame while it loads the same url
+      if (!images_.containsKey(key))
+      {
+         pendingKey_ = key;
+         pendingUrl_ = url;
+         prefetchTimer_.schedule(PREFETCH_DELAY_MS);
+      }
+   }
+
+   /**
+    * Returns a cached image of the plot adjacent to the active one (offset
+    * -1 or +1) at the current device size, or null if there is none.
+    */
+   String getNeighbour(int offset)
+   {
+      int index = plotIndex_ + offset;
+      if (index < 0 || index >= plotCount_)
+         return null;
+
+      return images_.get(key(index, width_, height_));
+   }
+
+   void clear()
+   {
+      prefetchTimer_.cancel();
+      pendingUrl_ = null;
+      for (String objectUrl : images_.values())
+         URL.revokeObjectURL(objectUrl);
+      images_.clear();
+      sourceUrls_.clear();
+   }
+
+   private void removePlot(int index)
+   {
+      String prefix = index + ":";
+      ArrayList<String> keys = new ArrayList<>();
+      for (String key : sourceUrls_.keySet())
+      {
+         if (key.startsWith(prefix))
+            keys.add(key);
+      }
+
+      for (String key : keys)
+      {
+         sourceUrls_.remove(key);
+         String objectUrl = images_.remove(key);
+         if (objectUrl != null)
+            URL.revokeObjectURL(objectUrl);
+      }
+   }
+
+   private void prefetch(final String key, final String url)
+   {
+      final XMLHttpRequest xhr = new XMLHttpRequest();
+      xhr.open("GET", url);
+      xhr.responseType = "blob";
+      xhr.onload = (event) ->
+      {
+         // drop the result if the plot was redrawn or the history cleared
+         // while the request was in flight
+         if (xhr.status != 200 || !url.equals(sourceUrls_.get(key)))
+            return;
+
+         Blob blob = Js.uncheckedCast(xhr.response);
+         String previous = images_.put(key, URL.createObjectURL(blob));
+         if (previous != null)
+            URL.revokeObjectURL(previous);
+      };
+
+      sourceUrls_.put(key, url);
+      xhr.send();
+   }
+
+   private static String key(int index, int width, int height)
+   {
+      return index + ":" + width + "x" + height;
+   }
+
+   private final Timer prefetchTimer_ = new Timer()
+   {
+      @Override
+      public void run()
+      {
+         if (pendingUrl_ == null)
+            return;
+
+         prefetch(pendingKey_, pendingUrl_);
+         pendingUrl_ = null;
+      }
+   };
+
+   // object urls of downloaded images
+   private final LruCache<String, String> images_;
+
+   // session urls the images were downloaded from
+   private final LruCache<String, String> sourceUrls_ = new LruCache<>(MAX_IMAGES * 2);
+
+   private String pendingKey_;
+   private String pendingUrl_;
+   private int plotIndex_ = -1;
+   private int plotCount_ = 0;
+   private int width_ = 0;
+   private int height_ = 0;
+
+   private static final int MAX_IMAGES = 40;
+   private static final int PREFETCH_DELAY_MS = 750;
+}
@@ -190,15 +190,16 @@ public class Plots extends BasePresenter implements PlotsChangedEvent.Handler,
       // the server. this is shown as a blank pane by Webkit, however
       // firefox shows the full URI of the empty.png rather than a blank
       // pane. therefore, we put in this workaround.
+      String url = server_.getGraphicsUrl(plotsState.getFilename());
       if (plotsState.getFilename().startsWith("empty."))
       {
          view_.showEmptyPlot();
       }
       else
       {
-         String url = server_.getGraphicsUrl(plotsState.getFilename());
          view_.showPlot(url);
       }
+      imageCache_.onPlotsChanged(plotsState, url);
 
       // activate the plots tab if requested
       if (plotsState.getActivatePlots())
@@ -226,15 +227,17 @@ public class Plots extends BasePresenter implements PlotsChangedEvent.Handler,
    void onNextPlot()
    {
       view_.bringToFront();
+      String restoreUrl = showCachedNeighbour(1);
       setChangePlotProgress();
-      server_.nextPlot(new PlotRequestCallback());
+      server_.nextPlot(new PlotRequestCallback(true, restoreUrl));
    }
 
    void onPreviousPlot()
    {
       view_.bringToFront();
+      String restoreUrl = showCachedNeighbour(-1);
       setChangePlotProgress();
-      server_.previousPlot(new PlotRequestCallback());
+      server_.previousPlot(new PlotRequestCallback(true, restoreUrl));
    }
 
    void onRemovePlot()
@@ -499,6 +502,22 @@ public class Plots extends BasePresenter implements PlotsChangedEvent.Handler,
       }
    }
 
+   // show our cached image of the plot we're navigating to (if we have one)
+   // while the session makes it the active plot; the PlotsChangedEvent that
+   // follows will show the session's image in its place (the session only
+   // replays the plot if its image is out of date). returns the url of the
+   // image that was replaced, if any
+   private String showCachedNeighbour(int offset)
+   {
+      String url = imageCache_.getNeighbour(offset);
+      if (url == null)
+         return null;
+
+      String previousUrl = view_.getPlotUrl();
+      view_.showPlot(url);
+      return previousUrl;
+   }
+
    private void setChangePlotProgress()
    {
       if (!Desktop.isDesktop())
@@ -513,8 +532,15 @@ public class Plots extends BasePresenter implements PlotsChangedEvent.Handler,
       }
 
       public PlotRequestCallback(boolean showErrors)
+      {
+         this(showErrors, null);
+      }
+
+      // restoreUrl: the image to show again if the request fails
+      public PlotRequestCallback(boolean showErrors, String restoreUrl)
       {
          showErrors_ = showErrors;
+         restoreUrl_ = restoreUrl;
       }
 
       @Override
@@ -530,6 +556,10 @@ public class Plots extends BasePresenter implements PlotsChangedEvent.Handler,
       {
          view_.setProgress(false);
 
+         // the session didn't change plots, so neither should we
+         if (restoreUrl_ != null)
+            view_.showPlot(restoreUrl_);
+
          if (showErrors_)
          {
             globalDisplay_.showErrorMessage("Server Error",
@@ -538,6 +568,7 @@ public class Plots extends BasePresenter implements PlotsChangedEvent.Handler,
       }
 
       private final boolean showErrors_;
+      private final String restoreUrl_;
    }
 
    public void onLocator(LocatorEvent event)
@@ -616,6 +647,9 @@ public class Plots extends BasePresenter implements PlotsChangedEvent.Handler,
    // export plot impl
    private final ExportPlot exportPlot_;
 
+   // images of recently viewed plots
+   private final PlotImageCache imageCache_ = new PlotImageCache();
+
    // size of most recently rendered plot
    Size plotSize_ = null;
 }
@@ -18,7 +18,6 @@ import com.google.gwt.aria.client.OrientationValue;
 import com.google.gwt.aria.client.Roles;
 import org.rstudio.core.client.ClassIds;
 import org.rstudio.core.client.CommandWithArg;
-import org.rstudio.core.client.Counter;
 import org.rstudio.core.client.HandlerRegistrations;
 import org.rstudio.core.client.StringUtil;
 import org.rstudio.core.client.a11y.A11y;
@@ -57,6 +56,9 @@ import com.google.gwt.user.client.ui.TreeItem;
 import com.google.gwt.user.client.ui.Widget;
 import com.google.inject.Inject;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+
 public class DocumentOutlineWidget extends Composite
                   implements EditorThemeStyleChangedEvent.Handler
 {
@@ -97,13 +99,13 @@ public class DocumentOutlineWidget extends Composite
 
    private class DocumentOutlineTreeEntry extends Composite
    {
-      public DocumentOutlineTreeEntry(Scope node, int depth)
+      public DocumentOutlineTreeEntry(Scope node, int depth, String text)
       {
          node_ = node;
          FlowPanel panel = new FlowPanel();
 
          setIndent(depth);
-         setLabel(node);
+         setLabel(node, text);
 
          panel.add(indent_);
          panel.add(label_);
@@ -135,29 +137,8 @@ public class DocumentOutlineWidget extends Composite
          initWidget(panel);
       }
 
-      private void setLabel(Scope node)
+      private void setLabel(Scope node, String text)
       {
-         String text = "";
-         if (node.isChunk())
-         {
-            text = node.getChunkLabel();
-            if (StringUtil.isNullOrEmpty(text))
-               text = "(" + node.getLabel().toLowerCase() + ")";
-         }
-         else if (node.isFunction())
-         {
-            ScopeFunction asFunctionNode = (ScopeFunction) node;
-            text = asFunctionNode.getFunctionName();
-         }
-         else if (node.isYaml())
-         {
-            text = "Title";
-         }
-         else
-         {
-            text = node.getLabel();
-         }
-
          if (label_ == null)
             label_ = new Label(text);
          else
@@ -191,11 +172,11 @@ public class DocumentOutlineWidget extends Composite
          indent_.getElement().getStyle().setFloat(Style.Float.LEFT);
       }
 
-      public void update(Scope node, int depth)
+      // the node's label and depth are unchanged (see getNodeKey), so only
+      // the reference to the (re-created) scope needs updating
+      public void setScopeNode(Scope node)
       {
          node_ = node;
-         setLabel(node);
-         setIndent(depth);
       }
 
       public Scope getScopeNode()
@@ -210,10 +191,11 @@ public class DocumentOutlineWidget extends Composite
 
    private class DocumentOutlineTreeItem extends TreeItem
    {
-      public DocumentOutlineTreeItem(DocumentOutlineTreeEntry entry)
+      public DocumentOutlineTreeItem(DocumentOutlineTreeEntry entry, String key)
       {
          super(entry);
          entry_ = entry;
+         key_ = key;
       }
 
       public DocumentOutlineTreeEntry getEntry()
@@ -221,7 +203,31 @@ public class DocumentOutlineWidget extends Composite
          return entry_;
       }
 
+      public String getKey()
+      {
+         return key_;
+      }
+
       private final DocumentOutlineTreeEntry entry_;
+      private final String key_;
+   }
+
+   // a scope to be displayed in the outline, along with its indent depth
+   // and the key identifying its tree item
+   private static class OutlineNode
+   {
+      public OutlineNode(Scope node, int depth, String text, String key)
+      {
+         this.node = node;
+         this.depth = depth;
+         this.text = text;
+         this.key = key;
+      }
+
+      public final Scope node;
+      public final int depth;
+      public final String text;
+      public final String key;
    }
 
    @Inject
@@ -293,7 +299,6 @@ public class DocumentOutlineWidget extends Composite
          public void onScopeTreeReady(ScopeTreeReadyEvent event)
          {
             rebuildScopeTree(event.getScopeTree(), event.getCurrentScope());
-            resetTreeStyles();
          }
       }));
 
@@ -304,7 +309,7 @@ public class DocumentOutlineWidget extends Composite
          {
             currentScope_ = event.getScope();
             currentVisibleScope_ = getCurrentVisibleScope(currentScope_);
-            resetTreeStyles();
+            updateActiveItem();
          }
       }));
 
@@ -317,7 +322,7 @@ public class DocumentOutlineWidget extends Composite
             {
                currentScope_ = target_.getDocDisplay().getCurrentScope();
                currentVisibleScope_ = getCurrentVisibleScope(currentScope_);
-               resetTreeStyles();
+               updateActiveItem();
             }
          }
       }));
@@ -342,26 +347,14 @@ public class DocumentOutlineWidget extends Composite
       outlineStyles.setColor(computed.getColor());
    }
 
-   private void addOrSetItem(Scope node, int depth, int index)
-   {
-      int treeSize = tree_.getItemCount();
-      if (index < treeSize)
-      {
-         DocumentOutlineTreeItem item =
-            (DocumentOutlineTreeItem) tree_.getItem(index);
-
-         item.getEntry().update(node, depth);
-      }
-      else
-      {
-         tree_.addItem(createEntry(node, depth));
-      }
-   }
-
    private void setActiveWidget(Widget widget)
    {
+      if (activeWidget_ == widget)
+         return;
+
       panel_.clear();
       panel_.add(widget);
+      activeWidget_ = widget;
    }
 
    private void rebuildScopeTreeOnPrefChange()
@@ -399,26 +392,21 @@ public class DocumentOutlineWidget extends Composite
 
       int initialDepth = h1Count == 1 ? -1 : 0;
 
-      Counter counter = new Counter(-1);
+      ArrayList<OutlineNode> nodes = new ArrayList<>();
       for (int i = 0; i < scopeTree_.length(); i++)
-         buildScopeTreeImpl(scopeTree_.get(i), initialDepth, counter);
-
-      // Clean up leftovers in the tree.
-      int oldTreeSize = tree_.getItemCount();
-      int newTreeSize = counter.increment();
+         collectNodes(scopeTree_.get(i), initialDepth, nodes);
 
-      for (int i = oldTreeSize - 1; i >= newTreeSize; i--)
-      {
-         TreeItem item = tree_.getItem(i);
-         if (item != null)
-            item.remove();
-      }
+      updateTreeItems(nodes);
+      updateActiveItem();
    }
 
-   private void buildScopeTreeImpl(Scope node, int depth, Counter counter)
+   private void collectNodes(Scope node, int depth, ArrayList<OutlineNode> nodes)
    {
       if (shouldDisplayNode(node))
-         addOrSetItem(node, depth, counter.increment());
+      {
+         String text = getNodeText(node);
+         nodes.add(new OutlineNode(node, depth, text, getNodeKey(node, depth, text)));
+      }
 
       JsArray<Scope> children = node.getChildren();
       for (int i = 0; i < children.length(); i++)
@@ -429,10 +417,103 @@ public class DocumentOutlineWidget extends Composite
          if (node.isNamespace())
             newDepth--;
 
-         buildScopeTreeImpl(children.get(i), newDepth, counter);
+         collectNodes(children.get(i), newDepth, nodes);
       }
    }
 
+   // Brings the tree in line with the given nodes, touching only the items
+   // that changed. Edits are typically local (e.g. typing in one section
+   // header), so the items are matched by key from both ends of the list
+   // and only those in between are replaced.
+   private void updateTreeItems(ArrayList<OutlineNode> nodes)
+   {
+      int oldCount = tree_.getItemCount();
+      int newCount = nodes.size();
+
+      int prefix = 0;
+      while (prefix < oldCount && prefix < newCount &&
+             getItem(prefix).getKey().equals(nodes.get(prefix).key))
+      {
+         getItem(prefix).getEntry().setScopeNode(nodes.get(prefix).node);
+         prefix++;
+      }
+
+      int suffix = 0;
+      while (suffix < oldCount - prefix && suffix < newCount - prefix &&
+             getItem(oldCount - suffix - 1).getKey().equals(nodes.get(newCount - suffix - 1).key))
+      {
+         getItem(oldCount - suffix - 1).getEntry().setScopeNode(
+               nodes.get(newCount - suffix - 1).node);
+         suffix++;
+      }
+
+      for (int i = oldCount - suffix - 1; i >= prefix; i--)
+      {
+         TreeItem item = tree_.getItem(i);
+         if (item == activeItem_)
+            activeItem_ = null;
+         item.remove();
+      }
+
+      for (int i = prefix; i < newCount - suffix; i++)
+         tree_.insertItem(i, createItem(nodes.get(i)));
+
+      itemsByScope_.clear();
+      for (int i = 0; i < newCount; i++)
+      {
+         DocumentOutlineTreeItem item = getItem(i);
+         itemsByScope_.put(item.getEntry().getScopeNode(), item);
+      }
+   }
+
+   private DocumentOutlineTreeItem getItem(int index)
+   {
+      return (DocumentOutlineTreeItem) tree_.getItem(index);
+   }
+
+   private String getNodeText(Scope node)
+   {
+      String text = "";
+      if (node.isChunk())
+      {
+         text = node.getChunkLabel();
+         if (StringUtil.isNullOrEmpty(text))
+            text = "(" + node.getLabel().toLowerCase() + ")";
+      }
+      else if (node.isFunction())
+      {
+         ScopeFunction asFunctionNode = (ScopeFunction) node;
+         text = asFunctionNode.getFunctionName();
+      }
+      else if (node.isYaml())
+      {
+         text = "Title";
+      }
+      else
+      {
+         text = node.getLabel();
+      }
+      return text;
+   }
+
+   // identifies the tree item for a node: everything that affects how the
+   // item is rendered (but not the node's position in the document, so
+   // that edits elsewhere don't invalidate it)
+   private String getNodeKey(Scope node, int depth, String text)
+   {
+      String kind;
+      if (node.isChunk())
+         kind = "c";
+      else if (node.isSection() && !node.isMarkdownHeader() && !node.isYaml())
+         kind = "s";
+      else if (node.isFunction())
+         kind = "f";
+      else
+         kind = "o";
+
+      return kind + depth + ":" + text;
+   }
+
    private boolean isUnnamedNode(Scope node)
    {
       if (node.isChunk())
@@ -480,25 +561,33 @@ public class DocumentOutlineWidget extends Composite
              node.isSection();
    }
 
-   private void resetTreeStyles()
+   // moves the active style from the previously active item (if any) to the
+   // item for the current visible scope, leaving all other items untouched
+   private void updateActiveItem()
    {
-      for (int i = 0; i < tree_.getItemCount(); i++)
-         setTreeItemStyles((DocumentOutlineTreeItem) tree_.getItem(i));
-   }
+      DocumentOutlineTreeItem item = currentVisibleScope_ == null ?
+            null :
+            itemsByScope_.get(currentVisibleScope_);
 
-   private DocumentOutlineTreeItem createEntry(Scope node, int depth)
-   {
-      DocumentOutlineTreeEntry entry = new DocumentOutlineTreeEntry(node, depth);
-      DocumentOutlineTreeItem item = new DocumentOutlineTreeItem(entry);
-      setTreeItemStyles(item);
-      return item;
+      if (item == activeItem_)
+         return;
+
+      if (activeItem_ != null)
+         DomUtils.toggleClass(activeItem_.getElement(), RES.styles().activeNode(), false);
+
+      if (item != null)
+         DomUtils.toggleClass(item.getElement(), RES.styles().activeNode(), true);
+
+      activeItem_ = item;
    }
 
-   private void setTreeItemStyles(DocumentOutlineTreeItem item)
+   private DocumentOutlineTreeItem createItem(OutlineNode node)
    {
-      Scope node = item.getEntry().getScopeNode();
+      DocumentOutlineTreeEntry entry =
+            new DocumentOutlineTreeEntry(node.node, node.depth, node.text);
+      DocumentOutlineTreeItem item = new DocumentOutlineTreeItem(entry, node.key);
       item.addStyleName(RES.styles().node());
-      DomUtils.toggleClass(item.getElement(), RES.styles().activeNode(), isActiveNode(node));
+      return item;
    }
 
    private Scope getCurrentVisibleScope(Scope node)
@@ -509,11 +598,6 @@ public class DocumentOutlineWidget extends Composite
       return null;
    }
 
-   private boolean isActiveNode(Scope node)
-   {
-      return node != null && currentVisibleScope_ != null && node.equals(currentVisibleScope_);
-   }
-
    private final DockLayoutPanel container_;
    private final FlowPanel panel_;
    private final VerticalSeparator separator_;
@@ -527,6 +611,10 @@ public class DocumentOutlineWidget extends Composite
    private Scope currentScope_;
    private Scope currentVisibleScope_;
 
+   private Widget activeWidget_;
+   private DocumentOutlineTreeItem activeItem_;
+   private final HashMap<Scope, DocumentOutlineTreeItem> itemsByScope_ = new HashMap<>();
+
    private UserPrefs userPrefs_;
 
    // Styles, Resources etc. ----
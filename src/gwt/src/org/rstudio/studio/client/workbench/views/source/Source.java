@@ -2852,7 +2852,7 @@ public class Source implements InsertSourceEvent.Handler,
       }
       else if (type == GetEditorContextEvent.TYPE_SOURCE_EDITOR)
       {
-         if (columnManager_.requestActiveEditorContext())
+         if (columnManager_.requestActiveEditorContext(data.isContentsRequired()))
             return;
       }
 
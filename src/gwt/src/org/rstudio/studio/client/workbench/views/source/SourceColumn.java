@@ -62,6 +62,7 @@ import org.rstudio.studio.client.workbench.views.source.editors.text.events.Sour
 import org.rstudio.studio.client.workbench.views.source.events.*;
 import org.rstudio.studio.client.workbench.views.source.model.DocUpdateSentinel;
 import org.rstudio.studio.client.workbench.views.source.model.SourceDocument;
+import org.rstudio.studio.client.workbench.views.source.model.SourceDocumentCache;
 import org.rstudio.studio.client.workbench.views.source.model.SourceNavigation;
 import org.rstudio.studio.client.workbench.views.source.model.SourceServerOperations;
 
@@ -1267,6 +1268,7 @@ public class SourceColumn implements BeforeShowEvent.Handler,
       if (closeDocument)
       {
          events_.fireEvent(new DocTabClosedEvent(target.getId()));
+         SourceDocumentCache.remove(target.getId());
          server_.closeDocument(target.getId(),
                                new VoidServerRequestCallback());
       }
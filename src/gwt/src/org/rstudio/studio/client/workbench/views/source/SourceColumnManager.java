@@ -832,7 +832,7 @@ public class SourceColumnManager implements CommandPaletteEntrySource,
       return getByName(name) == null || getByName(name).getTabCount() == 0;
    }
 
-   public boolean requestActiveEditorContext()
+   public boolean requestActiveEditorContext(boolean contentsRequired)
    {
       boolean hasActiveEditor =
             hasActiveEditor() &&
@@ -842,7 +842,7 @@ public class SourceColumnManager implements CommandPaletteEntrySource,
          return false;
 
       TextEditingTarget editingTarget = (TextEditingTarget) activeColumn_.getActiveEditor();
-      editingTarget.getEditorContext();
+      editingTarget.getEditorContext(contentsRequired);
       return true;
    }
 
@@ -2101,6 +2101,16 @@ public class SourceColumnManager implements CommandPaletteEntrySource,
 
    public static void getEditorContext(String id, String path, DocDisplay docDisplay,
                                        SourceServerOperations server)
+   {
+      getEditorContext(id, path, null, docDisplay, server);
+   }
+
+   // When a hash is given, the document's contents are left out of the
+   // context; the server uses its own copy of the document with that hash
+   // (see DocUpdateSentinel.getSyncedHash)
+   public static void getEditorContext(String id, String path, String hash,
+                                       DocDisplay docDisplay,
+                                       SourceServerOperations server)
    {
       AceEditor editor = (AceEditor) docDisplay;
       Selection selection = editor.getNativeSelection();
@@ -2129,7 +2139,8 @@ public class SourceColumnManager implements CommandPaletteEntrySource,
       id = StringUtil.notNull(id);
       path = StringUtil.notNull(path);
 
-      GetEditorContextEvent.SelectionData data =
+      GetEditorContextEvent.SelectionData data = hash != null ?
+         GetEditorContextEvent.SelectionData.createWithHash(id, path, hash, docSelections) :
          GetEditorContextEvent.SelectionData.create(id, path, editor.getCode(), docSelections);
 
       server.getEditorContextCompleted(data, new VoidServerRequestCallback());
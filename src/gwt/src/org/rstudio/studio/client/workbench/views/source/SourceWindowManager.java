@@ -66,6 +66,7 @@ import org.rstudio.studio.client.workbench.prefs.model.UserPrefsAccessor;
 import org.rstudio.studio.client.workbench.ui.PaneConfig;
 import org.rstudio.studio.client.workbench.views.source.events.*;
 import org.rstudio.studio.client.workbench.views.source.model.SourceDocument;
+import org.rstudio.studio.client.workbench.views.source.model.SourceDocumentCache;
 import org.rstudio.studio.client.workbench.views.source.model.SourcePosition;
 import org.rstudio.studio.client.workbench.views.source.model.SourceServerOperations;
 import org.rstudio.studio.client.workbench.views.source.model.SourceWindowParams;
@@ -1230,6 +1231,7 @@ public class SourceWindowManager implements PopoutDocEvent.Handler,
                      public void execute()
                      {
                         // close the document when finished
+                        SourceDocumentCache.remove(doc.getId());
                         server_.closeDocument(doc.getId(),
                               new VoidServerRequestCallback());
                }
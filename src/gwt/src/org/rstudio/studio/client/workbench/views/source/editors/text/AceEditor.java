@@ -4250,6 +4250,12 @@ public class AceEditor implements DocDisplay,
       return getSession().getTokens(row);
    }
 
+   @Override
+   public String getTokenizerState(int row)
+   {
+      return getSession().getState(row);
+   }
+
    @Override
    public TokenIterator createTokenIterator()
    {
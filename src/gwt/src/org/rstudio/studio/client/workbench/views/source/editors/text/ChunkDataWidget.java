@@ -132,6 +132,8 @@ public class ChunkDataWidget extends SimplePanel
       return typeof(PagedTable) != "undefined";
    }-*/;
 
+   // The PagedTable is given its source directly (rather than as JSON in a
+   // script element), sharing the output's rows with any other views of it
    private final native JavaScriptObject showDataOutputNative(JavaScriptObject data, 
          JavaScriptObject metadata, Element parent, boolean fullSize) /*-{
       var pagedTable = $doc.createElement("div");
@@ -144,24 +146,38 @@ public class ChunkDataWidget extends SimplePanel
 
       parent.appendChild(pagedTable);
 
-      var pagedTableSource = $doc.createElement("script");
-      pagedTableSource.setAttribute("data-pagedtable-source", "");
-      pagedTableSource.setAttribute("type", "application/json");
+      var rows = data.options.rows;
+      var columns = data.options.columns;
+      var options = {
+         columns: {
+            min: columns.min,
+            max: fullSize ? null : columns.max,
+            total: columns.total
+         },
+         rows: {
+            min: fullSize ? 1 : rows.min,
+            max: fullSize ? null : rows.max,
+            total: rows.total
+         },
+         pages: data.options.pages
+      };
 
-      var originalOptions = JSON.parse(JSON.stringify(data.options));
-      if (fullSize) {
-         data.options.rows.min = 1;
-         data.options.rows.max = null;
-         data.options.columns.max = null;
-      }
-      data.metadata = metadata;
+      var source = {
+         columns: data.columns,
+         data: data.data,
+         rowCount: data.rowCount,
+         options: options,
+         metadata: metadata
+      };
 
-      pagedTableSource.appendChild($doc.createTextNode(JSON.stringify(data)))
-      pagedTable.appendChild(pagedTableSource);
-
-      data.options = originalOptions;
+      // outputs with a URL for their rows may not have all of them
+      if (data.rows_url) {
+         source.fetchRows = function(start, end, callback) {
+            @org.rstudio.studio.client.workbench.views.source.editors.text.ChunkDataWidget::fetchRowsNative(*)(data, start, end, callback);
+         };
+      }
 
-      var pagedTableInstance = new PagedTable(pagedTable);
+      var pagedTableInstance = new PagedTable(pagedTable, source);
 
       var chunkWidget = this;
       pagedTableInstance.onChange(function() {
@@ -173,6 +189,105 @@ public class ChunkDataWidget extends SimplePanel
       return pagedTableInstance;
    }-*/;
 
+   // Fetches the given rows of a data output (in blocks of ROW_BLOCK_SIZE
+   // rows) into its data, then invokes the callback. The first block is
+   // always kept (it's used to size the columns), along with the most
+   // recently used MAX_ROW_BLOCKS others; rows in older blocks are dropped.
+   // Requests that fail because the session couldn't answer are retried;
+   // if the rows still can't be fetched, the callback is passed a message
+   // describing the problem.
+   private static final native void fetchRowsNative(JavaScriptObject data,
+         int start, int end, JavaScriptObject callback) /*-{
+      var blockSize = @org.rstudio.studio.client.workbench.views.source.editors.text.ChunkDataWidget::ROW_BLOCK_SIZE;
+      var maxBlocks = @org.rstudio.studio.client.workbench.views.source.editors.text.ChunkDataWidget::MAX_ROW_BLOCKS;
+      var maxRetries = @org.rstudio.studio.client.workbench.views.source.editors.text.ChunkDataWidget::MAX_FETCH_RETRIES;
+      var retryDelayMs = @org.rstudio.studio.client.workbench.views.source.editors.text.ChunkDataWidget::FETCH_RETRY_DELAY_MS;
+
+      var cache = data.row_cache;
+      if (!cache)
+         cache = data.row_cache = { blocks: [], pending: {} };
+
+      var from = Math.floor(start / blockSize) * blockSize;
+      var to = Math.min(Math.ceil(end / blockSize) * blockSize, data.rowCount);
+
+      // share requests for the same rows
+      var key = from + ":" + to;
+      if (cache.pending[key]) {
+         cache.pending[key].push(callback);
+         return;
+      }
+      var callbacks = cache.pending[key] = [callback];
+
+      var finish = function(error) {
+         delete cache.pending[key];
+         for (var i = 0; i < callbacks.length; i++)
+            callbacks[i](error);
+      };
+
+      var attempts = 0;
+      var retry = function(send) {
+         if (attempts >= maxRetries)
+            return false;
+         attempts++;
+         $wnd.setTimeout(send, retryDelayMs * attempts);
+         return true;
+      };
+
+      var send = function() {
+         var request = new XMLHttpRequest();
+         request.open("GET", data.rows_url + "?start=" + from + "&count=" + (to - from));
+         request.onload = function() {
+            // the session may be busy or restarting; try again (other
+            // failures, such as an output that's since been removed, won't
+            // go away by themselves)
+            if (request.status >= 500 && retry(send))
+               return;
+
+            if (request.status !== 200) {
+               finish("Couldn't load rows (" + (request.statusText || request.status) + ")");
+               return;
+            }
+
+            var rows;
+            try {
+               rows = JSON.parse(request.responseText);
+            } catch (e) {
+               finish("Couldn't load rows (invalid response)");
+               return;
+            }
+
+            for (var i = 0; i < rows.length; i++)
+               data.data[from + i] = rows[i];
+
+            // move the blocks we fetched to the end of the list, then drop
+            // the least recently used ones
+            for (var block = from / blockSize; block * blockSize < to; block++) {
+               if (block === 0)
+                  continue;
+               var idx = cache.blocks.indexOf(block);
+               if (idx !== -1)
+                  cache.blocks.splice(idx, 1);
+               cache.blocks.push(block);
+            }
+
+            while (cache.blocks.length > maxBlocks) {
+               var evicted = cache.blocks.shift() * blockSize;
+               for (var row = evicted; row < evicted + blockSize; row++)
+                  delete data.data[row];
+            }
+
+            finish(null);
+         };
+         request.onerror = function() {
+            if (!retry(send))
+               finish("Couldn't load rows (the R session could not be reached)");
+         };
+         request.send();
+      };
+
+      send();
+   }-*/;
+
    private static final native void applyDataOutputStyleNative(
       Element parent,
       String highlightColor,
@@ -212,4 +327,10 @@ public class ChunkDataWidget extends SimplePanel
    private final JavaScriptObject data_;
    private final NotebookFrameMetadata metadata_;
    private final ChunkOutputSize chunkOutputSize_;
+
+   // must match the number of rows sent with a data output (kDataOutputRows)
+   private static final int ROW_BLOCK_SIZE = 100;
+   private static final int MAX_ROW_BLOCKS = 5;
+   private static final int MAX_FETCH_RETRIES = 2;
+   private static final int FETCH_RETRY_DELAY_MS = 1000;
 }
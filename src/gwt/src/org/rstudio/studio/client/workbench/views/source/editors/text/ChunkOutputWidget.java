@@ -23,6 +23,7 @@ import org.rstudio.core.client.ColorUtil;
 import org.rstudio.core.client.CommandWithArg;
 import org.rstudio.core.client.Size;
 import org.rstudio.core.client.StringUtil;
+import org.rstudio.core.client.dom.DomScheduler;
 import org.rstudio.core.client.dom.DomUtils;
 import org.rstudio.core.client.widget.FontSizer;
 import org.rstudio.core.client.widget.ProgressSpinner;
@@ -332,13 +333,40 @@ public class ChunkOutputWidget extends Composite
          return;
 
       setVisible(true);
-      
+
+      // measure and resize in the next animation frame, together with any
+      // other chunks being synced, so that a notebook with many chunks
+      // doesn't force a layout for every chunk
+      syncScrollToBottom_ |= scrollToBottom;
+      syncEnsureVisible_ |= ensureVisible;
+      syncHeightTask_.schedule();
+   }
+
+   private void measureHeight()
+   {
+      measuredContentHeight_ = root_.getElement().getOffsetHeight();
+      measuredScrollHeight_ = root_.getElement().getScrollHeight();
+   }
+
+   private void applyHeight()
+   {
+      boolean scrollToBottom = syncScrollToBottom_;
+      boolean ensureVisible = syncEnsureVisible_;
+      syncScrollToBottom_ = false;
+      syncEnsureVisible_ = false;
+
+      // the output may have been hidden (or swapped out for a placeholder)
+      // since the sync was requested; in the latter case it is synced again
+      // when it is reattached
+      if (!isVisible() || !isAttached())
+         return;
+
       // clamp chunk height to min/max (the +19 is the sum of the vertical
       // padding on the element)
       int height = ChunkOutputUi.CHUNK_COLLAPSED_HEIGHT;
       if (expansionState_.getValue() == EXPANDED)
       {
-         int contentHeight = root_.getElement().getOffsetHeight() + 19;
+         int contentHeight = measuredContentHeight_ + 19;
          height = Math.max(ChunkOutputUi.MIN_CHUNK_HEIGHT, contentHeight);
          
          // clamp height of widgets if there's an htmlwidget present; if HTML
@@ -361,7 +389,7 @@ public class ChunkOutputWidget extends Composite
       // cache last reported render size
       renderedHeight_ = height;
       if (scrollToBottom)
-         root_.getElement().setScrollTop(root_.getElement().getScrollHeight());
+         root_.getElement().setScrollTop(measuredScrollHeight_);
       
       if (chunkOutputSize_ != ChunkOutputSize.Full &&
           chunkOutputSize_ != ChunkOutputSize.Natural)
@@ -970,6 +998,12 @@ public class ChunkOutputWidget extends Composite
    private String classId_;
    
    private Timer collapseTimer_ = null;
+   private final DomScheduler.Task syncHeightTask_ =
+         DomScheduler.get().createTask(this::measureHeight, this::applyHeight);
+   private boolean syncScrollToBottom_ = false;
+   private boolean syncEnsureVisible_ = false;
+   private int measuredContentHeight_;
+   private int measuredScrollHeight_;
    private final String documentId_;
    private final String chunkId_;
    private final Value<Integer> expansionState_;
@@ -362,6 +362,7 @@ public interface DocDisplay extends HasValueChangeHandlers<Void>,
    Token getTokenAt(int row, int column);
    Token getTokenAt(Position position);
    JsArray<Token> getTokens(int row);
+   String getTokenizerState(int row);
 
    TokenIterator createTokenIterator();
    TokenIterator createTokenIterator(Position position);
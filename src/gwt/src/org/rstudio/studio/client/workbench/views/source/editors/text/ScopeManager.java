@@ -36,6 +36,9 @@ public class ScopeManager
    public final native JsArray<Scope> getActiveScopes(Position position);
    public final native JsArray<Scope> getScopeList();
    public final native Position invalidateFrom(Position position);
+   public final native JsArray<Scope> detachTopLevelScopes(int row);
+   public final native void attachTopLevelScopes(JsArray<Scope> scopes, int from);
+   public final native void shiftScopes(JsArray<Scope> scopes, int from, int delta);
    
    @JsOverlay
    public final Scope getScopeAt(Position position)
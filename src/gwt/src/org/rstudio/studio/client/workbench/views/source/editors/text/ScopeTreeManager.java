@@ -14,7 +14,11 @@
  */
 package org.rstudio.studio.client.workbench.views.source.editors.text;
 
+import java.util.ArrayList;
+import java.util.TreeMap;
+
 import org.rstudio.studio.client.RStudioGinjector;
+import org.rstudio.studio.client.workbench.views.source.editors.text.ace.AceDocumentChangeEventNative;
 import org.rstudio.studio.client.workbench.views.source.editors.text.ace.Position;
 import org.rstudio.studio.client.workbench.views.source.editors.text.ace.Token;
 import org.rstudio.studio.client.workbench.views.source.editors.text.ace.TokenIterator;
@@ -58,14 +62,20 @@ public abstract class ScopeTreeManager
             }),
             
             docDisplay.addDocumentChangedHandler((DocumentChangedEvent event) -> {
-               final Position position = event.getEvent().getRange().getStart();
+               
+               // invalidate right away, so that the scope tree's positions
+               // stay in step with the document if there are several edits
+               // before we get to rebuild
+               worker_.invalidate(event.getEvent());
+               
+               if (rebuildPending_)
+                  return;
+               
+               rebuildPending_ = true;
                Scheduler.get().scheduleDeferred(() -> {
-                  
-                  Position rebuildPos = scopeManager_.invalidateFrom(Position.create(position));
-                  if (rebuildPos == null)
-                     rebuildPos = position;
-                     
-                  worker_.rebuildScopeTreeFromRow(rebuildPos.getRow());
+                  rebuildPending_ = false;
+                  worker_.rebuildScopeTreeFromRow(
+                        scopeManager_.getParsePosition().getRow());
                });
             }),
             
@@ -104,6 +114,17 @@ public abstract class ScopeTreeManager
          handler.removeHandler();
    }
    
+   // Builds the scope tree incrementally, a few hundred rows at a time.
+   //
+   // When the document is edited, the top-level scopes following the edit
+   // are set aside (shifted to account for any inserted or removed rows)
+   // rather than discarded. We also remember the tokenizer state at each
+   // row boundary that lies at the top level (outside of any scope). While
+   // rebuilding, once we reach the start of a set-aside scope with the same
+   // tokenizer state and no open scopes, the rest of the document must parse
+   // exactly as it did before, so we put the set-aside scopes back and stop.
+   // This keeps the cost of a small edit from depending on how much of the
+   // document follows it.
    private class Worker
    {
       private Worker()
@@ -118,8 +139,56 @@ public abstract class ScopeTreeManager
          };
       }
       
+      public void invalidate(AceDocumentChangeEventNative event)
+      {
+         int startRow = event.getRange().getStart().getRow();
+         int endRow = event.getRange().getEnd().getRow();
+         boolean insert = event.getAction().startsWith("insert");
+         
+         // the number of rows added (or removed), and the last row of the
+         // original document touched by the edit
+         int delta = insert ? endRow - startRow : startRow - endRow;
+         int lastEditedRow = insert ? startRow : endRow;
+         
+         if (complete_)
+         {
+            // set aside the scopes following the edit
+            memo_ = scopeManager_.detachTopLevelScopes(lastEditedRow + 1);
+            memoIndex_ = 0;
+            memoStates_ = new ArrayList<>();
+            for (int i = 0; i < memo_.length(); i++)
+               memoStates_.add(checkpoints_.get(memoRow(i)));
+            memoParsePosition_ = scopeManager_.getParsePosition();
+         }
+         else if (memo_ != null)
+         {
+            // still rebuilding after an earlier edit; drop any set-aside
+            // scopes this edit touches (or precedes)
+            while (memoIndex_ < memo_.length() && memoRow(memoIndex_) <= lastEditedRow)
+               memoIndex_++;
+         }
+         
+         if (memo_ != null && memoIndex_ == memo_.length())
+            memo_ = null;
+         
+         if (memo_ != null && delta != 0)
+         {
+            scopeManager_.shiftScopes(memo_, memoIndex_, delta);
+            memoParsePosition_ = Position.create(
+                  memoParsePosition_.getRow() + delta,
+                  memoParsePosition_.getColumn());
+         }
+         
+         // any work in progress is restarted by the rebuild that follows
+         timer_.cancel();
+         complete_ = false;
+         checkpoints_.tailMap(startRow, true).clear();
+         scopeManager_.invalidateFrom(Position.create(startRow, 0));
+      }
+      
       public void rebuildScopeTreeFromRow(int row)
       {
+         timer_.cancel();
          startRow_ = row;
          endRow_ = Math.min(docDisplay_.getRowCount(), startRow_ + ROWS_TOKENIZED_PER_ITERATION);
          work();
@@ -137,6 +206,7 @@ public abstract class ScopeTreeManager
          if (token == null)
             token = it.stepForward();
          
+         int lastRow = -1;
          while (true)
          {
             // if we don't have a token, that implies we've reached the end of the document.
@@ -145,15 +215,8 @@ public abstract class ScopeTreeManager
             {
                // save the parse position (needed when invalidating rows as the document mutates)
                scopeManager_.setParsePosition(Position.create(it.getCurrentTokenRow(), -1));
-               
-               // notify listeners that we have a scope tree + the current scope
-               JsArray<Scope> scopeTree = scopeManager_.getScopeList();
-               Scope currentScope = scopeManager_.getScopeAt(docDisplay_.getCursorPosition());
-               ScopeTreeReadyEvent event = new ScopeTreeReadyEvent(scopeTree, currentScope);
-               docDisplay_.fireEvent(event);
-               
-               // we're done!
-               return docDisplay_.getRowCount();
+               memo_ = null;
+               return finish();
             }
             
             // if we've walked past the end row, bail
@@ -161,6 +224,15 @@ public abstract class ScopeTreeManager
             if (row >= endRow_)
                break;
             
+            // if we've caught up with the scopes set aside after an edit,
+            // we're done
+            if (row != lastRow)
+            {
+               lastRow = row;
+               if (onRowStart(row))
+                  return finish();
+            }
+            
             // let subclass respond to current token, and move forward
             onToken(token, it.getCurrentTokenPosition(), scopeManager_);
             token = it.stepForward();
@@ -181,8 +253,79 @@ public abstract class ScopeTreeManager
          return it.getCurrentTokenRow();
       }
       
+      // Called before the tokens on each row are processed. Returns true if
+      // the parse has resynchronized with the scopes set aside after an edit
+      // (in which case they've been restored).
+      private boolean onRowStart(int row)
+      {
+         // only row boundaries outside of any scope can be resumed from
+         Position position = Position.create(row, 0);
+         if (scopeManager_.getActiveScopes(position).length() > 1)
+            return false;
+         
+         String state = row == 0 ? "start" : docDisplay_.getTokenizerState(row - 1);
+         checkpoints_.put(row, state);
+         
+         if (memo_ == null)
+            return false;
+         
+         // skip set-aside scopes we've already reparsed
+         while (memoIndex_ < memo_.length() && memoRow(memoIndex_) < row)
+            memoIndex_++;
+         
+         if (memoIndex_ == memo_.length())
+         {
+            memo_ = null;
+            return false;
+         }
+         
+         if (memoRow(memoIndex_) != row || !state.equals(memoStates_.get(memoIndex_)))
+            return false;
+         
+         for (int i = memoIndex_; i < memo_.length(); i++)
+         {
+            if (memoStates_.get(i) != null)
+               checkpoints_.put(memoRow(i), memoStates_.get(i));
+         }
+         
+         scopeManager_.attachTopLevelScopes(memo_, memoIndex_);
+         scopeManager_.setParsePosition(memoParsePosition_);
+         memo_ = null;
+         return true;
+      }
+      
+      private int finish()
+      {
+         complete_ = true;
+         
+         // notify listeners that we have a scope tree + the current scope
+         JsArray<Scope> scopeTree = scopeManager_.getScopeList();
+         Scope currentScope = scopeManager_.getScopeAt(docDisplay_.getCursorPosition());
+         ScopeTreeReadyEvent event = new ScopeTreeReadyEvent(scopeTree, currentScope);
+         docDisplay_.fireEvent(event);
+         
+         // we're done!
+         return docDisplay_.getRowCount();
+      }
+      
+      private int memoRow(int index)
+      {
+         return memo_.get(index).getPreamble().getRow();
+      }
+      
       private int startRow_;
       private int endRow_;
+      private boolean complete_;
+      
+      // tokenizer state at the end of the row preceding each top-level row
+      private final TreeMap<Integer, String> checkpoints_ = new TreeMap<>();
+      
+      // top-level scopes set aside after an edit, the tokenizer state
+      // preceding each, and the parse position following them
+      private JsArray<Scope> memo_;
+      private int memoIndex_;
+      private ArrayList<String> memoStates_;
+      private Position memoParsePosition_;
       
       private final Timer timer_;
       
@@ -191,6 +334,7 @@ public abstract class ScopeTreeManager
    }
    
    protected Scope lastActiveScope_;
+   private boolean rebuildPending_;
    
    protected final DocDisplay docDisplay_;
    private final Worker worker_;
@@ -8340,7 +8340,7 @@ public class TextEditingTarget implements
       visualMode_.onUserSwitchingToVisualMode();
    }
 
-   public void getEditorContext()
+   public void getEditorContext(boolean contentsRequired)
    {
       if (visualMode_.isActivated())
       {
@@ -8371,9 +8371,15 @@ public class TextEditingTarget implements
       {
          ensureTextEditorActive(() ->
          {
+            // leave out the contents if the server's copy is current
+            String hash = null;
+            if (!contentsRequired && docUpdateSentinel_ != null)
+               hash = docUpdateSentinel_.getSyncedHash();
+
             SourceColumnManager.getEditorContext(
                   getId(),
                   getPath(),
+                  hash,
                   getDocDisplay(),
                   server_);
          });
@@ -19,15 +19,11 @@ import java.util.List;
 
 import org.rstudio.core.client.BrowseCap;
 import org.rstudio.core.client.Debug;
-import org.rstudio.core.client.ListUtil;
-import org.rstudio.core.client.MapUtil;
-import org.rstudio.core.client.MapUtil.ForEachCommand;
+import org.rstudio.core.client.JsVectorInteger;
 import org.rstudio.core.client.StringUtil;
-import org.rstudio.core.client.ListUtil.FilterPredicate;
 import org.rstudio.core.client.MouseTracker;
 import org.rstudio.core.client.CommandWithArg;
 import org.rstudio.core.client.command.KeyboardShortcut;
-import org.rstudio.core.client.container.SafeMap;
 import org.rstudio.core.client.dom.DomUtils;
 import org.rstudio.core.client.files.FileSystemItem;
 import org.rstudio.core.client.regex.Match;
@@ -49,6 +45,7 @@ import org.rstudio.studio.client.workbench.views.source.editors.text.AceEditor;
 import org.rstudio.studio.client.workbench.views.source.editors.text.events.DocumentChangedEvent;
 import org.rstudio.studio.client.workbench.views.source.editors.text.events.EditorModeChangedEvent;
 import org.rstudio.studio.client.workbench.views.source.editors.text.events.CommandClickEvent;
+import org.rstudio.studio.client.workbench.views.source.events.ScrollYEvent;
 
 import com.google.gwt.core.client.GWT;
 import com.google.gwt.core.client.JavaScriptObject;
@@ -79,7 +76,8 @@ public class AceEditorBackgroundLinkHighlighter
             DocumentChangedEvent.Handler,
             EditorModeChangedEvent.Handler,
             MouseMoveHandler,
-            MouseUpHandler
+            MouseUpHandler,
+            ScrollYEvent.Handler
 {
    interface Highlighter
    {
@@ -107,24 +105,15 @@ public class AceEditorBackgroundLinkHighlighter
       RStudioGinjector.INSTANCE.injectMembers(this);
 
       editor_ = editor;
-      activeMarkers_ = new SafeMap<>();
+      activeMarkers_ = new ArrayList<>();
+      dirtyRows_ = new DirtyRows();
 
-      nextHighlightStart_ = 0;
       timer_ = new Timer()
       {
          @Override
          public void run()
          {
-            int n = editor_.getCurrentLineCount();
-            int startRow = nextHighlightStart_;
-            int endRow   = Math.min(nextHighlightStart_ + N_HIGHLIGHT_ROWS, n);
-
-            for (int row = startRow; row < endRow; row++)
-               highlightRow(row);
-
-            nextHighlightStart_ = endRow;
-            if (endRow != n)
-               timer_.schedule(5);
+            highlightDirtyRows();
          }
       };
 
@@ -138,6 +127,7 @@ public class AceEditorBackgroundLinkHighlighter
       handlers_.add(editor_.addEditorModeChangedHandler(this));
       handlers_.add(editor_.addMouseMoveHandler(this));
       handlers_.add(editor_.addMouseUpHandler(this));
+      handlers_.add(editor_.addScrollYHandler(this));
 
       refreshHighlighters(editor_.getModeId());
    }
@@ -165,45 +155,102 @@ public class AceEditorBackgroundLinkHighlighter
             }});
             if (fileType != null && (fileType.isMarkdown() || fileType.isRmd()))
                highlighters_.add(markdownLinkHighlighter());
-            nextHighlightStart_ = 0;
+            dirtyRows_.clear();
+            dirtyRows_.add(0, editor_.getCurrentLineCount());
             timer_.schedule(700);
          }
       });
    }
 
+   private void highlightDirtyRows()
+   {
+      int n = editor_.getCurrentLineCount();
+      int firstVisible = Math.max(0, editor_.getFirstVisibleRow());
+      int lastVisible = Math.min(n - 1, editor_.getLastVisibleRow());
+
+      // rows on screen come first, however many there are
+      for (int row = dirtyRows_.takeFirst(firstVisible, lastVisible + 1);
+           row != -1;
+           row = dirtyRows_.takeFirst(row + 1, lastVisible + 1))
+      {
+         highlightRow(row);
+      }
+
+      // then a batch of off-screen rows, starting below the viewport; edits
+      // reschedule the timer, so these are only reached once typing pauses
+      for (int i = 0; i < N_HIGHLIGHT_ROWS; i++)
+      {
+         int row = dirtyRows_.takeFirst(lastVisible + 1, n);
+         if (row == -1)
+            row = dirtyRows_.takeFirst(0, n);
+         if (row == -1)
+            break;
+         highlightRow(row);
+      }
+
+      dirtyRows_.removeFrom(n);
+      if (!dirtyRows_.isEmpty())
+         timer_.schedule(5);
+   }
+
    private void highlightRow(int row)
    {
       for (Highlighter highlighter : highlighters_)
          highlighter.highlight(editor_, editor_.getLine(row), row);
    }
 
-   private void registerActiveMarker(int row,
-                                     String id,
+   private void registerActiveMarker(String id,
                                      int markerId,
                                      final AnchoredRange range)
    {
-      if (!activeMarkers_.containsKey(row))
-         activeMarkers_.put(row, new ArrayList<>());
-      List<MarkerRegistration> markers = activeMarkers_.get(row);
-
       // if we're adding a marker that subsumes an old one, clear the old marker
-      List<MarkerRegistration> filtered = ListUtil.filter(markers, new FilterPredicate<MarkerRegistration>()
+      int row = range.getStart().getRow();
+      for (int i = firstMarkerOnRow(row);
+           i < activeMarkers_.size() && markerRow(i) == row;)
       {
-         @Override
-         public boolean test(MarkerRegistration marker)
+         MarkerRegistration marker = activeMarkers_.get(i);
+         if (range.intersects(marker.getRange()))
          {
-            if (range.intersects(marker.getRange()))
-            {
-               marker.detach();
-               return false;
-            }
-            return true;
+            marker.detach();
+            activeMarkers_.remove(i);
          }
-      });
+         else
+         {
+            i++;
+         }
+      }
+
+      // add our new marker, keeping the list in document order
+      int index = firstMarkerOnRow(row);
+      while (index < activeMarkers_.size() &&
+             activeMarkers_.get(index).getRange().getStart().isBefore(range.getStart()))
+      {
+         index++;
+      }
+      activeMarkers_.add(index, new MarkerRegistration(id, markerId, range));
+   }
 
-      // add our new marker
-      filtered.add(new MarkerRegistration(id, markerId, range));
-      activeMarkers_.put(row, filtered);
+   // Returns the index of the first active marker on or after the given row.
+   // Markers are anchored to the document, so they keep their relative order
+   // as it's edited, and the list stays sorted without re-indexing.
+   private int firstMarkerOnRow(int row)
+   {
+      int lo = 0;
+      int hi = activeMarkers_.size();
+      while (lo < hi)
+      {
+         int mid = (lo + hi) >>> 1;
+         if (markerRow(mid) < row)
+            lo = mid + 1;
+         else
+            hi = mid;
+      }
+      return lo;
+   }
+
+   private int markerRow(int index)
+   {
+      return activeMarkers_.get(index).getRange().getStart().getRow();
    }
 
    private boolean isRequiredClickModifier(int modifier)
@@ -228,14 +275,20 @@ public class AceEditorBackgroundLinkHighlighter
    private MarkerRegistration getTargetedMarker(int pageX, int pageY)
    {
       Position position = editor_.screenCoordinatesToDocumentPosition(pageX, pageY);
-      int row = position.getRow();
-      if (!activeMarkers_.containsKey(row))
-         return null;
+      return getMarkerAt(position);
+   }
 
-      List<MarkerRegistration> markers = activeMarkers_.get(row);
-      for (MarkerRegistration marker : markers)
+   private MarkerRegistration getMarkerAt(Position position)
+   {
+      int row = position.getRow();
+      for (int i = firstMarkerOnRow(row);
+           i < activeMarkers_.size() && markerRow(i) == row;
+           i++)
+      {
+         MarkerRegistration marker = activeMarkers_.get(i);
          if (marker.getRange().contains(position))
             return marker;
+      }
 
       return null;
    }
@@ -288,46 +341,28 @@ public class AceEditorBackgroundLinkHighlighter
 
    private void clearAllMarkers()
    {
-      MapUtil.forEach(activeMarkers_, new ForEachCommand<Integer, List<MarkerRegistration>>()
-      {
-         @Override
-         public void execute(Integer row, List<MarkerRegistration> markers)
-         {
-            for (MarkerRegistration marker : markers)
-               marker.detach();
-         }
-      });
+      for (MarkerRegistration marker : activeMarkers_)
+         marker.detach();
       activeMarkers_.clear();
    }
 
    private void clearMarkers(final Range range)
    {
-      for (int row = range.getStart().getRow();
-           row <= range.getEnd().getRow();
-           row++)
+      // clear markers that are included within this range
+      int endRow = range.getEnd().getRow();
+      for (int i = firstMarkerOnRow(range.getStart().getRow());
+           i < activeMarkers_.size() && markerRow(i) <= endRow;)
       {
-         if (!activeMarkers_.containsKey(row))
-            continue;
-
-         // clear markers that are included within this range
-         List<MarkerRegistration> markers = activeMarkers_.get(row);
-         List<MarkerRegistration> filtered = ListUtil.filter(markers, new FilterPredicate<MarkerRegistration>()
+         MarkerRegistration marker = activeMarkers_.get(i);
+         if (range.contains(marker.getRange()))
          {
-            @Override
-            public boolean test(MarkerRegistration marker)
-            {
-               if (range.contains(marker.getRange()))
-               {
-                  marker.detach();
-                  return false;
-               }
-
-               return true;
-            }
-         });
-
-         // update active markers for this row
-         activeMarkers_.put(row, filtered);
+            marker.detach();
+            activeMarkers_.remove(i);
+         }
+         else
+         {
+            i++;
+         }
       }
    }
 
@@ -399,14 +434,12 @@ public class AceEditorBackgroundLinkHighlighter
       Position start = Position.create(row, startColumn);
       Position end   = Position.create(row, endColumn);
       Range range = Range.fromPoints(start, end);
-      if (activeMarkers_.containsKey(row))
+      for (int i = firstMarkerOnRow(row);
+           i < activeMarkers_.size() && markerRow(i) == row;
+           i++)
       {
-         List<MarkerRegistration> markers = activeMarkers_.get(row);
-         for (MarkerRegistration marker : markers)
-         {
-            if (marker.getRange().isEqualTo(range))
-               return;
-         }
+         if (activeMarkers_.get(i).getRange().isEqualTo(range))
+            return;
       }
 
       // create an anchored range and add a marker for it
@@ -421,7 +454,7 @@ public class AceEditorBackgroundLinkHighlighter
             MarkerRenderer.create(editor.getWidget().getEditor(), styles, title);
 
       int markerId = editor.getSession().addMarker(anchoredRange, styles, renderer, true);
-      registerActiveMarker(row, id, markerId, anchoredRange);
+      registerActiveMarker(id, markerId, anchoredRange);
    }
 
    private Highlighter webLinkHighlighter()
@@ -441,7 +474,7 @@ public class AceEditorBackgroundLinkHighlighter
       // use a regex that captures all non-space characters within
       // a web link, and then fix up the captured link by removing
       // trailing punctuation, etc. as required
-      Pattern reWebLink = createWebLinkPattern();
+      Pattern reWebLink = WEB_LINK_PATTERN;
       for (Match match = reWebLink.match(line, 0);
            match != null;
            match = match.nextMatch())
@@ -458,7 +491,7 @@ public class AceEditorBackgroundLinkHighlighter
          String url = match.getValue();
 
          // trim off enclosing brackets
-         if (!url.matches(reWebLink()))
+         if (!WEB_LINK_EXACT_PATTERN.test(url))
          {
             startIdx++;
             endIdx--;
@@ -467,7 +500,7 @@ public class AceEditorBackgroundLinkHighlighter
 
          // trim off trailing punctuation (characters unlikely
          // to be found at the end of a url)
-         String trimmed = url.replaceAll("[,.?!@#$%^&*;:-]+$", "");
+         String trimmed = TRAILING_PUNCTUATION_PATTERN.replaceAll(url, "");
          endIdx -= (url.length() - trimmed.length());
          url = trimmed;
 
@@ -511,7 +544,7 @@ public class AceEditorBackgroundLinkHighlighter
                                         String line,
                                         int row)
    {
-      Pattern reMarkdownLink = Pattern.create("(\\[[^\\]]+\\])(\\([^\\)]+\\))");
+      Pattern reMarkdownLink = MARKDOWN_LINK_PATTERN;
       for (Match match = reMarkdownLink.match(line, 0);
            match != null;
            match = match.nextMatch())
@@ -591,37 +624,35 @@ public class AceEditorBackgroundLinkHighlighter
    public void onDocumentChanged(DocumentChangedEvent event)
    {
       // clear markers within the delete range
-      clearMarkers(event.getEvent().getRange());
+      Range range = event.getEvent().getRange();
+      clearMarkers(range);
+
+      // rows that haven't been highlighted yet move with the edit, and the
+      // edited rows need highlighting (again); markers are anchored, so they
+      // move on their own
+      int startRow = range.getStart().getRow();
+      int endRow = range.getEnd().getRow();
+      if (StringUtil.equals(event.getEvent().getAction(), "remove"))
+      {
+         dirtyRows_.removeRows(startRow + 1, endRow + 1);
+         dirtyRows_.add(startRow, startRow + 1);
+      }
+      else
+      {
+         dirtyRows_.insertRows(startRow, endRow - startRow);
+         dirtyRows_.add(startRow, endRow + 1);
+      }
 
-      // prepare highlighter
-      int row = event.getEvent().getRange().getStart().getRow();
-      nextHighlightStart_ = Math.min(nextHighlightStart_, row);
       timer_.schedule(700);
+   }
 
-      // update marker positions (deferred so that anchors update)
-      Scheduler.get().scheduleDeferred(new ScheduledCommand()
-      {
-         @Override
-         public void execute()
-         {
-            final SafeMap<Integer, List<MarkerRegistration>> newMarkers = new SafeMap<>();
-            MapUtil.forEach(activeMarkers_, new ForEachCommand<Integer, List<MarkerRegistration>>()
-            {
-               @Override
-               public void execute(Integer oldRow, List<MarkerRegistration> markers)
-               {
-                  if (markers == null || markers.isEmpty())
-                     return;
-
-                  // all markers here should have same row
-                  int newRow = markers.get(0).getRange().getStart().getRow();
-                  newMarkers.put(newRow, markers);
-               }
-            });
-            activeMarkers_.clear();
-            activeMarkers_ = newMarkers;
-         }
-      });
+   @Override
+   public void onScrollY(ScrollYEvent event)
+   {
+      // highlight rows scrolled into view soon, unless an edit (or a pass
+      // over off-screen rows) already has the timer running
+      if (!dirtyRows_.isEmpty() && !timer_.isRunning())
+         timer_.schedule(100);
    }
 
    @Override
@@ -634,21 +665,13 @@ public class AceEditorBackgroundLinkHighlighter
    public void onCommandClick(CommandClickEvent event)
    {
       Position position = event.getEvent().getDocumentPosition();
-      int row = position.getRow();
-      if (!activeMarkers_.containsKey(row))
+      MarkerRegistration registration = getMarkerAt(position);
+      if (registration == null)
          return;
 
-      List<MarkerRegistration> markers = activeMarkers_.get(row);
-      for (MarkerRegistration registration : markers)
-      {
-         if (registration.getRange().contains(position))
-         {
-            endDetectClickTarget();
-            String url = editor_.getTextForRange(registration.getRange());
-            navigateToUrl(url);
-            return;
-         }
-      }
+      endDetectClickTarget();
+      String url = editor_.getTextForRange(registration.getRange());
+      navigateToUrl(url);
    }
 
    @Override
@@ -733,6 +756,14 @@ public class AceEditorBackgroundLinkHighlighter
       RES.styles().ensureInjected();
    }
 
+   private static final Pattern WEB_LINK_PATTERN = createWebLinkPattern();
+   private static final Pattern WEB_LINK_EXACT_PATTERN =
+         Pattern.create("^(?:" + reWebLink() + ")$", "");
+   private static final Pattern TRAILING_PUNCTUATION_PATTERN =
+         Pattern.create("[,.?!@#$%^&*;:-]+$", "");
+   private static final Pattern MARKDOWN_LINK_PATTERN =
+         Pattern.create("(\\[[^\\]]+\\])(\\([^\\)]+\\))");
+
    // Private Members ----
 
    private static class MarkerRenderer extends JavaScriptObject
@@ -798,13 +829,176 @@ public class AceEditorBackgroundLinkHighlighter
       private final AnchoredRange range_;
    }
 
+   // The set of rows still to be highlighted, as sorted, disjoint [start, end)
+   // ranges; kept in step with the document as rows are inserted and removed.
+   private static class DirtyRows
+   {
+      public boolean isEmpty()
+      {
+         return starts_.length() == 0;
+      }
+
+      public void clear()
+      {
+         starts_ = JsVectorInteger.createVector();
+         ends_ = JsVectorInteger.createVector();
+      }
+
+      public void add(int start, int end)
+      {
+         if (start >= end)
+            return;
+
+         JsVectorInteger starts = JsVectorInteger.createVector();
+         JsVectorInteger ends = JsVectorInteger.createVector();
+         boolean added = false;
+         for (int i = 0, n = starts_.length(); i < n; i++)
+         {
+            int s = starts_.get(i);
+            int e = ends_.get(i);
+            if (e < start)
+            {
+               starts.push(s);
+               ends.push(e);
+            }
+            else if (s > end)
+            {
+               if (!added)
+               {
+                  starts.push(start);
+                  ends.push(end);
+                  added = true;
+               }
+               starts.push(s);
+               ends.push(e);
+            }
+            else
+            {
+               // overlapping or adjacent; merge
+               start = Math.min(start, s);
+               end = Math.max(end, e);
+            }
+         }
+         if (!added)
+         {
+            starts.push(start);
+            ends.push(end);
+         }
+         starts_ = starts;
+         ends_ = ends;
+      }
+
+      // Removes and returns the first row in [from, to), or -1 if there is none
+      public int takeFirst(int from, int to)
+      {
+         for (int i = 0, n = starts_.length(); i < n; i++)
+         {
+            int s = starts_.get(i);
+            int e = ends_.get(i);
+            if (e <= from)
+               continue;
+            if (s >= to)
+               return -1;
+
+            int row = Math.max(s, from);
+            if (row == s)
+            {
+               starts_.set(i, s + 1);
+            }
+            else if (row == e - 1)
+            {
+               ends_.set(i, e - 1);
+            }
+            else
+            {
+               // split the range around the row
+               ends_.set(i, row);
+               starts_.insert(i + 1, row + 1);
+               ends_.insert(i + 1, e);
+            }
+
+            if (starts_.get(i) >= ends_.get(i))
+            {
+               starts_.remove(i, 1);
+               ends_.remove(i, 1);
+            }
+            return row;
+         }
+         return -1;
+      }
+
+      // Forgets rows at or beyond the given row (e.g. past the end of the
+      // document)
+      public void removeFrom(int row)
+      {
+         while (!isEmpty() && starts_.peek() >= row)
+         {
+            starts_.pop();
+            ends_.pop();
+         }
+         if (!isEmpty() && ends_.peek() > row)
+            ends_.set(ends_.length() - 1, row);
+      }
+
+      // Called when count rows are inserted after the given row
+      public void insertRows(int row, int count)
+      {
+         if (count <= 0)
+            return;
+
+         for (int i = 0, n = starts_.length(); i < n; i++)
+         {
+            if (starts_.get(i) > row)
+               starts_.set(i, starts_.get(i) + count);
+            if (ends_.get(i) > row + 1)
+               ends_.set(i, ends_.get(i) + count);
+         }
+      }
+
+      // Called when the rows in [from, to) are removed
+      public void removeRows(int from, int to)
+      {
+         int count = to - from;
+         if (count <= 0)
+            return;
+
+         JsVectorInteger starts = JsVectorInteger.createVector();
+         JsVectorInteger ends = JsVectorInteger.createVector();
+         for (int i = 0, n = starts_.length(); i < n; i++)
+         {
+            int s = starts_.get(i);
+            int e = ends_.get(i);
+            s = s < from ? s : (s >= to ? s - count : from);
+            e = e <= from ? e : (e >= to ? e - count : from);
+            if (s >= e)
+               continue;
+
+            // ranges on either side of the removed rows may now touch
+            int last = ends.length() - 1;
+            if (last >= 0 && ends.get(last) >= s)
+            {
+               ends.set(last, Math.max(ends.get(last), e));
+               continue;
+            }
+            starts.push(s);
+            ends.push(e);
+         }
+         starts_ = starts;
+         ends_ = ends;
+      }
+
+      private JsVectorInteger starts_ = JsVectorInteger.createVector();
+      private JsVectorInteger ends_ = JsVectorInteger.createVector();
+   }
+
    private final AceEditor editor_;
    private final List<Highlighter> highlighters_;
    private final Timer timer_;
    private final List<HandlerRegistration> handlers_;
 
-   private SafeMap<Integer, List<MarkerRegistration>> activeMarkers_;
-   private int nextHighlightStart_;
+   // active markers, in document order
+   private final List<MarkerRegistration> activeMarkers_;
+   private final DirtyRows dirtyRows_;
    private static final int N_HIGHLIGHT_ROWS = 200;
 
    private HandlerRegistration previewHandler_;
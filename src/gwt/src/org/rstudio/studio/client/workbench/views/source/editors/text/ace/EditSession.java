@@ -174,6 +174,17 @@ public class EditSession extends JavaScriptObject
       return this.getUndoManager();
    }-*/;
 
+   // Starts a new undo group with the next change
+   public native final void markUndoGroup() /*-{
+      this.markUndoGroup();
+   }-*/;
+
+   // Merges the next change into the current undo group (which Ace otherwise
+   // closes once the current event loop turn ends)
+   public native final void mergeNextUndoDelta() /*-{
+      this.mergeUndoDeltas = true;
+   }-*/;
+
    public native final Document getDocument() /*-{
       return this.getDocument();
    }-*/;
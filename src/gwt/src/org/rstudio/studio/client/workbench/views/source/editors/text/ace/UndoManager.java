@@ -24,4 +24,9 @@ public class UndoManager extends JavaScriptObject
    public native final JavaScriptObject peek() /*-{
       return this.peek();
    }-*/;
+
+   // Changes whenever a change to the document is recorded, undone or redone
+   public native final int getRevision() /*-{
+      return this.getRevision();
+   }-*/;
 }
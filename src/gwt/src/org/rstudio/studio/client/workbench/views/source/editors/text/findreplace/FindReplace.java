@@ -14,6 +14,7 @@
  */
 package org.rstudio.studio.client.workbench.views.source.editors.text.findreplace;
 
+import com.google.gwt.core.client.Scheduler;
 import com.google.gwt.event.dom.client.ClickEvent;
 import com.google.gwt.event.dom.client.ClickHandler;
 import com.google.gwt.event.dom.client.HasClickHandlers;
@@ -22,19 +23,28 @@ import com.google.gwt.event.dom.client.KeyUpHandler;
 import com.google.gwt.event.logical.shared.ValueChangeEvent;
 import com.google.gwt.event.logical.shared.ValueChangeHandler;
 import com.google.gwt.user.client.ui.HasValue;
+import com.google.gwt.user.client.ui.Label;
 import com.google.gwt.user.client.ui.Widget;
 
+import org.rstudio.core.client.ElementIds;
+import org.rstudio.core.client.JsVectorInteger;
+import org.rstudio.core.client.JsVectorString;
+import org.rstudio.core.client.Mutable;
 import org.rstudio.core.client.StringUtil;
 import org.rstudio.core.client.command.KeyboardHelper;
 import org.rstudio.core.client.regex.Match;
 import org.rstudio.core.client.regex.Pattern;
 import org.rstudio.core.client.regex.Pattern.ReplaceOperation;
+import org.rstudio.core.client.widget.MessageDialog;
 import org.rstudio.studio.client.common.GlobalDisplay;
 import org.rstudio.studio.client.workbench.views.source.editors.text.AceEditor;
 import org.rstudio.studio.client.workbench.views.source.editors.text.DocDisplay.AnchoredSelection;
+import org.rstudio.studio.client.workbench.views.source.editors.text.ace.Document;
+import org.rstudio.studio.client.workbench.views.source.editors.text.ace.EditSession;
 import org.rstudio.studio.client.workbench.views.source.editors.text.ace.Position;
 import org.rstudio.studio.client.workbench.views.source.editors.text.ace.Range;
 import org.rstudio.studio.client.workbench.views.source.editors.text.ace.Search;
+import org.rstudio.studio.client.workbench.views.source.editors.text.ace.UndoManager;
 
 // TODO: For regex mode, stop using Ace's search code and do our own, in order
 //    to avoid bugs with context directives (lookahead/lookbehind, ^, $)
@@ -366,10 +376,16 @@ public class FindReplace
 
    private void replaceAll()
    {
+      // ignore requests while a previous Replace All is still being applied
+      if (replaceAllInProgress_)
+         return;
+
+      Position start = Position.create(0, 0);
       String code = null;
       if (targetSelection_ != null)
       {
          Range range = targetSelection_.getRange();
+         start = range.getStart();
          code = editor_.getCode(range.getStart(), range.getEnd());
       }
       else
@@ -377,75 +393,290 @@ public class FindReplace
          code = editor_.getCode();
       }
 
+      ReplaceAllEdits edits = new ReplaceAllEdits();
+      if (display_.getFindValue().getValue().length() > 0)
+         edits = findReplaceAllEdits(code, start);
+
+      applyReplaceAll(edits, start);
+   }
+
+   // Finds every match in the code (which begins at the given position in the
+   // document) and computes the edits that replace them. Matches that share
+   // a row are replaced with a single edit.
+   private ReplaceAllEdits findReplaceAllEdits(String code, Position start)
+   {
       boolean regex = display_.getRegex().getValue();
-      String find = display_.getFindValue().getValue();
       String repl = display_.getReplaceValue().getValue();
+      Document document = editor_.getSession().getDocument();
+      ReplaceAllEdits edits = new ReplaceAllEdits();
+
+      // we walk through the rows along with the matches, so that finding the
+      // position of a match doesn't mean rescanning the code before it;
+      // rowOffset is the offset (in the code) of the start of the current row
+      int row = start.getRow();
+      int rowOffset = -start.getColumn();
+
+      Position editStart = null;
+      Position editEnd = null;
+      int editEndOffset = 0;
+      int editCount = 0;
+      StringBuilder editText = new StringBuilder();
 
-      int occurrences = 0;
-      if (find.length() > 0)
+      Pattern pattern = createPattern();
+      for (Match m = pattern.match(code, 0);
+           m != null;
+           m = m.nextMatch())
       {
-         Pattern pattern = createPattern();
-         StringBuilder result = new StringBuilder();
+         int index = m.getIndex();
+         int length = m.getValue().length();
 
-         int pos = 0; // pointer into original string
-         for (Match m = pattern.match(code, 0);
-              m != null;
-              m = m.nextMatch())
-         {
-            occurrences++;
+         Position matchStart = document.indexToPosition(index - rowOffset, row);
+         row = matchStart.getRow();
+         rowOffset = index - matchStart.getColumn();
 
-            // Add everything between the end of the last match, and this one
-            int index = m.getIndex();
-            result.append(code, pos, index);
+         Position matchEnd = document.indexToPosition(index + length - rowOffset, row);
+         row = matchEnd.getRow();
+         rowOffset = index + length - matchEnd.getColumn();
 
-            // Add the replacement value
-            if (regex)
-               result.append(substitute(m, repl, code));
-            else
-               result.append(repl);
+         String replacement = regex ? substitute(m, repl, code) : repl;
 
-            // Point to the end of this match
-            pos = index + m.getValue().length();
+         boolean sameRow =
+               editStart != null &&
+               editStart.getRow() == editEnd.getRow() &&
+               editEnd.getRow() == matchStart.getRow() &&
+               matchStart.getRow() == matchEnd.getRow();
 
-            // If the data matched is an empty string (which can happen for
-            // regexps that don't consume characters such as ^ or $), then we
-            // didn't advance the state of the underlying RegExp object, and
-            // we'll loop forever (see case 4191). Bail out.
-            if (m.getValue().length() == 0)
-            {
-               break;
-            }
+         if (sameRow)
+         {
+            // extend the edit for this row to cover the match
+            editText.append(code, editEndOffset, index);
+         }
+         else
+         {
+            if (editStart != null)
+               edits.add(editStart, editEnd, editText.toString(), editCount);
+
+            editStart = matchStart;
+            editText.setLength(0);
+            editCount = 0;
          }
-         result.append(code, pos, code.length());
 
-         String newCode = result.toString();
+         editText.append(replacement);
+         editEnd = matchEnd;
+         editEndOffset = index + length;
+         editCount++;
 
-         // either replace all or replace just the target range
-         if (targetSelection_ != null)
+         // If the data matched is an empty string (which can happen for
+         // regexps that don't consume characters such as ^ or $), then we
+         // didn't advance the state of the underlying RegExp object, and
+         // we'll loop forever (see case 4191). Bail out.
+         if (length == 0)
          {
-            // restore and then replace the selection
-            editor_.setSelectionRange(targetSelection_.getRange());
-            editor_.replaceSelection(newCode, false);
+            break;
+         }
+      }
+
+      if (editStart != null)
+         edits.add(editStart, editEnd, editText.toString(), editCount);
 
-            // reset the target selection
-            resetTargetSelection();
+      return edits;
+   }
+
+   private void applyReplaceAll(final ReplaceAllEdits edits,
+                                final Position targetStart)
+   {
+      final EditSession session = editor_.getSession();
+
+      // all of the edits go into a single undo group
+      session.markUndoGroup();
+
+      if (edits.remaining() <= REPLACE_ALL_CHUNK_SIZE)
+      {
+         edits.apply(session, REPLACE_ALL_CHUNK_SIZE);
+         finishReplaceAll(edits, targetStart);
+         return;
+      }
+
+      // large replacements are applied in chunks, behind a (modal) progress
+      // dialog that keeps the document from changing in between them
+      final Label progress = new Label(replaceAllProgress(edits));
+      final MessageDialog dialog = new MessageDialog(MessageDialog.INFO,
+                                                     errorCaption_,
+                                                     progress);
+      dialog.addButton("Cancel",
+                       ElementIds.DIALOG_CANCEL_BUTTON,
+                       () -> edits.cancel(),
+                       false,
+                       true);
+      dialog.showModal();
+
+      // the dialog keeps the user from editing, but the document can still
+      // be changed in between chunks (e.g. from R, via rstudioapi); the edits
+      // were computed against the document as it is now, so note its
+      // revision and stop if it changes under us
+      final UndoManager undoManager = session.getUndoManager();
+      final Mutable<Integer> revision = new Mutable<>(undoManager.getRevision());
+
+      replaceAllInProgress_ = true;
+      Scheduler.get().scheduleIncremental(() ->
+      {
+         if (!edits.isCancelled() &&
+             (session != editor_.getSession() ||
+              undoManager != session.getUndoManager() ||
+              revision.get() != undoManager.getRevision()))
+         {
+            edits.abort();
          }
-         else
+
+         if (!edits.isCancelled())
          {
-            editor_.replaceCode(newCode);
+            // Ace closes the undo group at the end of each event loop turn
+            if (edits.replaced() > 0)
+               session.mergeNextUndoDelta();
+
+            edits.apply(session, REPLACE_ALL_CHUNK_SIZE);
+            revision.set(undoManager.getRevision());
+            progress.setText(replaceAllProgress(edits));
          }
+
+         if (!edits.isCancelled() && edits.remaining() > 0)
+            return true;
+
+         replaceAllInProgress_ = false;
+         if (dialog.isShowing())
+            dialog.closeDialog();
+         finishReplaceAll(edits, targetStart);
+         return false;
+      });
+   }
+
+   private void finishReplaceAll(ReplaceAllEdits edits, Position targetStart)
+   {
+      if (edits.isAborted())
+      {
+         resetTargetSelection();
+         globalDisplay_.showErrorMessage(
+               errorCaption_,
+               "Replace All was stopped because the document changed while " +
+               "it was in progress. " + edits.replaced() + " of " +
+               edits.total() + " occurrences were replaced.");
+         return;
+      }
+
+      // restore the target selection; we can't take its range as-is since the
+      // start anchor moves when text is replaced right at the start
+      if (targetSelection_ != null)
+      {
+         editor_.setSelectionRange(Range.fromPoints(
+               targetStart,
+               targetSelection_.getRange().getEnd()));
+         resetTargetSelection();
       }
+
       globalDisplay_.showMessage(GlobalDisplay.MSG_INFO,
                                  errorCaption_,
-                                 occurrences + " occurrences replaced.");
+                                 edits.replaced() + " occurrences replaced.");
+   }
+
+   private static String replaceAllProgress(ReplaceAllEdits edits)
+   {
+      return "Replacing occurrences (" + edits.replaced() + " of " +
+             edits.total() + ")...";
+   }
+
+   // The edits that make up a Replace All, in document order. They're applied
+   // from last to first, so that the positions of the edits yet to be applied
+   // don't change.
+   private static class ReplaceAllEdits
+   {
+      public void add(Position start, Position end, String text, int count)
+      {
+         startRows_.push(start.getRow());
+         startColumns_.push(start.getColumn());
+         endRows_.push(end.getRow());
+         endColumns_.push(end.getColumn());
+         text_.push(text);
+         counts_.push(count);
+         total_ += count;
+      }
+
+      // Applies up to n of the remaining edits
+      public void apply(EditSession session, int n)
+      {
+         int last = Math.max(0, next() - n);
+         for (int i = next() - 1; i >= last; i--)
+         {
+            Range range = Range.create(startRows_.get(i),
+                                       startColumns_.get(i),
+                                       endRows_.get(i),
+                                       endColumns_.get(i));
+            session.replace(range, text_.get(i));
+            replaced_ += counts_.get(i);
+            applied_++;
+         }
+      }
+
+      public int remaining()
+      {
+         return next();
+      }
+
+      // The number of occurrences replaced so far
+      public int replaced()
+      {
+         return replaced_;
+      }
+
+      public int total()
+      {
+         return total_;
+      }
+
+      public void cancel()
+      {
+         cancelled_ = true;
+      }
+
+      public boolean isCancelled()
+      {
+         return cancelled_;
+      }
+
+      // Stops applying edits because the document has changed
+      public void abort()
+      {
+         cancelled_ = true;
+         aborted_ = true;
+      }
+
+      public boolean isAborted()
+      {
+         return aborted_;
+      }
+
+      private int next()
+      {
+         return text_.length() - applied_;
+      }
+
+      private final JsVectorInteger startRows_ = JsVectorInteger.createVector();
+      private final JsVectorInteger startColumns_ = JsVectorInteger.createVector();
+      private final JsVectorInteger endRows_ = JsVectorInteger.createVector();
+      private final JsVectorInteger endColumns_ = JsVectorInteger.createVector();
+      private final JsVectorString text_ = JsVectorString.createVector();
+      private final JsVectorInteger counts_ = JsVectorInteger.createVector();
+      private int applied_ = 0;
+      private int replaced_ = 0;
+      private int total_ = 0;
+      private boolean cancelled_ = false;
+      private boolean aborted_ = false;
    }
 
    private String substitute(final Match match,
                              String replacement,
                              final String data)
    {
-      Pattern pattern = Pattern.create("[$\\\\]([1-9][0-9]?|.)");
-      return pattern.replaceAll(replacement, new ReplaceOperation()
+      return SUBSTITUTION_PATTERN.replaceAll(replacement, new ReplaceOperation()
       {
          public String replace(Match m)
          {
@@ -474,19 +705,18 @@ public class FindReplace
                      case '&':
                         return match.getValue();
                      case '`':
-                        String prefix = data.substring(0, match.getIndex());
-                        int lastLF = prefix.lastIndexOf("\n");
-                        if (lastLF > 0)
-                           prefix = prefix.substring(lastLF + 1);
-                        return prefix;
+                        // the text from the start of the line to the match
+                        int lineStart = data.lastIndexOf('\n', match.getIndex() - 1) + 1;
+                        return data.substring(lineStart, match.getIndex());
                      case '\'':
-                        String suffix = data.substring(match.getIndex() + match.getValue().length());
-                        int firstBreak = suffix.indexOf("\r");
-                        if (firstBreak < 0)
-                           firstBreak = suffix.indexOf("\n");
-                        if (firstBreak >= 0)
-                           suffix = suffix.substring(0, firstBreak);
-                        return suffix;
+                        // the text from the match to the end of the line
+                        int suffixStart = match.getIndex() + match.getValue().length();
+                        int lineEnd = data.indexOf('\r', suffixStart);
+                        if (lineEnd < 0)
+                           lineEnd = data.indexOf('\n', suffixStart);
+                        if (lineEnd < 0)
+                           lineEnd = data.length();
+                        return data.substring(suffixStart, lineEnd);
                   }
                   break;
             }
@@ -516,6 +746,13 @@ public class FindReplace
    private final String errorCaption_;
    private boolean defaultForward_ = true;
    private Position incrementalSearchPosition_ = null;
+   private boolean replaceAllInProgress_ = false;
+
+   private static final Pattern SUBSTITUTION_PATTERN =
+         Pattern.create("[$\\\\]([1-9][0-9]?|.)");
+
+   // the number of Replace All edits applied at a time
+   private static final int REPLACE_ALL_CHUNK_SIZE = 500;
 
    private class TargetSelectionTracker
    {
@@ -54,9 +54,11 @@ public class ChunkDefinition extends JavaScriptObject
    
    public final ChunkDefinition with(int row, String chunkLabel)
    {
-      return ChunkDefinition.create(row, getRowCount(), getVisible(), 
-            getExpansionState(), getOptions(), getDocumentId(),
+      ChunkDefinition def = ChunkDefinition.create(row, getRowCount(),
+            getVisible(), getExpansionState(), getOptions(), getDocumentId(),
             getChunkId(), chunkLabel);
+      def.setOutputHeight(getOutputHeight());
+      return def;
    }
    
    public native final int getRow()  /*-{
@@ -95,6 +97,16 @@ public class ChunkDefinition extends JavaScriptObject
       this.expansion_state = state;
    }-*/;
 
+   // the last rendered height of the chunk's output, in pixels (0 if not
+   // known); used to size the output's placeholder before it is loaded
+   public native final int getOutputHeight() /*-{
+      return this.output_height || 0;
+   }-*/;
+
+   public native final void setOutputHeight(int height) /*-{
+      this.output_height = height;
+   }-*/;
+
    public native final RmdChunkOptions getOptions() /*-{
       return this.options || {};
    }-*/;
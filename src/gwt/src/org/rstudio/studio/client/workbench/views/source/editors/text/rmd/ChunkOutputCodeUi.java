@@ -99,7 +99,13 @@ public class ChunkOutputCodeUi extends ChunkOutputUi
                CHUNK_COLLAPSED_HEIGHT :
                Math.max(MIN_CHUNK_HEIGHT, outputHeight);
 
+      // the output has real content now, so it no longer needs a
+      // placeholder height
+      if (placeholder_ && wrapped_)
+         clearPlaceholderHeight();
+
       applyHeight(height);
+      getDefinition().setOutputHeight(height);
       display_.onLineWidgetChanged(lineWidget_.getLineWidget());
       
       // if we need to ensure that this output is visible, wait for the event
@@ -190,6 +196,78 @@ public class ChunkOutputCodeUi extends ChunkOutputUi
       applyHeight(height_);
       wrapper_.add(outputWidget_);
       wrapped_ = true;
+      clearPlaceholderHeight();
+   }
+
+   /**
+    * Reserves space for output that hasn't been loaded yet, so that the
+    * document doesn't jump around as outputs are loaded while scrolling.
+    */
+   public void showPlaceholder(int heightPx)
+   {
+      if (heightPx <= 0 || outputWidget_.isVisible())
+         return;
+
+      setPlaceholderHeight(heightPx);
+      display_.onLineWidgetChanged(lineWidget_.getLineWidget());
+   }
+
+   /**
+    * Swaps the output widget out of the document for an empty placeholder of
+    * the same height. This unloads any frames in the output (plots, HTML
+    * widgets, etc.); they're reloaded from the notebook cache when the
+    * output is rehydrated.
+    */
+   public void dehydrate(int heightPx)
+   {
+      if (!wrapped_ || placeholder_)
+         return;
+
+      setPlaceholderHeight(heightPx);
+      wrapper_.clear();
+      wrapped_ = false;
+   }
+
+   /**
+    * Restores output which was swapped out by dehydrate.
+    */
+   public void rehydrate()
+   {
+      if (wrapped_ || !placeholder_)
+         return;
+
+      reattach();
+      outputWidget_.syncHeight(false, false);
+   }
+
+   public boolean isDehydrated()
+   {
+      return placeholder_ && !wrapped_;
+   }
+
+   /**
+    * @return The rendered height of the output, or 0 if it's not visible.
+    */
+   public int measureHeight()
+   {
+      if (!wrapped_ || !outputWidget_.isVisible())
+         return 0;
+      return wrapper_.getElement().getOffsetHeight();
+   }
+
+   private void setPlaceholderHeight(int heightPx)
+   {
+      wrapper_.getElement().getStyle().setHeight(heightPx, Unit.PX);
+      placeholder_ = true;
+   }
+
+   private void clearPlaceholderHeight()
+   {
+      if (!placeholder_)
+         return;
+
+      wrapper_.getElement().getStyle().clearHeight();
+      placeholder_ = false;
    }
 
    @Override
@@ -216,6 +294,7 @@ public class ChunkOutputCodeUi extends ChunkOutputUi
 
    private HandlerRegistration renderHandlerReg_ = null;
    private boolean wrapped_;
+   private boolean placeholder_;
 
    private final PinnedLineWidget lineWidget_;
    private final DocDisplay display_;
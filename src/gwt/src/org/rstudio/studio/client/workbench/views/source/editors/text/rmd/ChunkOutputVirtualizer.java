@@ -0,0 +1,331 @@
+/*
+ * ChunkOutputVirtualizer.java
+ *
+ * Copyright (C) 2021 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.source.editors.text.rmd;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+
+import org.rstudio.core.client.dom.DomScheduler;
+import org.rstudio.studio.client.workbench.views.source.editors.text.DocDisplay;
+import org.rstudio.studio.client.workbench.views.source.events.ScrollYEvent;
+
+import com.google.gwt.event.shared.HandlerRegistration;
+import com.google.gwt.user.client.Timer;
+
+/**
+ * Keeps only the chunk outputs near the viewport live in code editing mode.
+ *
+ * Outputs are loaded from the notebook cache as they come within a screen
+ * or so of the viewport (until then they're shown as placeholders sized to
+ * their last known height). Outputs which later scroll well out of view are
+ * dehydrated: the output widget (along with any plot and HTML widget frames
+ * it hosts) is swapped out for a placeholder of the same height, and swapped
+ * back in as it approaches the viewport again. Output widgets keep their
+ * content, so only the frames need to be reloaded.
+ *
+ * Outputs that are executing, queued, or otherwise not settled are never
+ * dehydrated.
+ */
+public class ChunkOutputVirtualizer implements ScrollYEvent.Handler
+{
+   public interface Host
+   {
+      Collection<ChunkOutputUi> getCodeOutputs();
+      boolean canDehydrate(ChunkOutputCodeUi output);
+      void loadChunkOutput(String chunkId);
+   }
+
+   public ChunkOutputVirtualizer(DocDisplay display, Host host)
+   {
+      display_ = display;
+      host_ = host;
+      updateTask_ = DomScheduler.get().createTask(this::measure, this::apply);
+      scrollReg_ = display_.addScrollYHandler(this);
+   }
+
+   /**
+    * Marks the given outputs as not yet loaded, and starts loading the ones
+    * near the viewport.
+    */
+   public void start(Collection<ChunkOutputUi> outputs)
+   {
+      for (ChunkOutputUi output : outputs)
+      {
+         if (!(output instanceof ChunkOutputCodeUi))
+            continue;
+
+         states_.put(output.getChunkId(), STATE_UNLOADED);
+         ((ChunkOutputCodeUi) output).showPlaceholder(
+               output.getDefinition().getOutputHeight());
+      }
+
+      started_ = true;
+      update();
+   }
+
+   /**
+    * Notes that the chunk's output is (or is about to be) shown, e.g.
+    * because output arrived for it or because it's executing.
+    */
+   public void ensureLive(String chunkId)
+   {
+      Integer state = states_.get(chunkId);
+      if (state == null || state == STATE_LIVE)
+         return;
+
+      states_.put(chunkId, STATE_LIVE);
+      if (state == STATE_PLACEHOLDER)
+      {
+         ChunkOutputUi output = findOutput(chunkId);
+         if (output instanceof ChunkOutputCodeUi)
+            ((ChunkOutputCodeUi) output).rehydrate();
+      }
+   }
+
+   public void remove(String chunkId)
+   {
+      states_.remove(chunkId);
+   }
+
+   /**
+    * Restores every output (loading any which haven't been loaded), and
+    * stops virtualizing until resumed; used when outputs are handed over
+    * to the visual editor.
+    */
+   public void suspend()
+   {
+      updateTask_.cancel();
+      updateTimer_.cancel();
+      suspended_ = true;
+
+      for (String chunkId : new ArrayList<>(states_.keySet()))
+      {
+         if (getState(chunkId) == STATE_UNLOADED)
+         {
+            states_.put(chunkId, STATE_LOADING);
+            host_.loadChunkOutput(chunkId);
+         }
+         else
+         {
+            ensureLive(chunkId);
+         }
+      }
+   }
+
+   public void resume()
+   {
+      suspended_ = false;
+      update();
+   }
+
+   public void detach()
+   {
+      updateTask_.cancel();
+      updateTimer_.cancel();
+      scrollReg_.removeHandler();
+      states_.clear();
+   }
+
+   @Override
+   public void onScrollY(ScrollYEvent event)
+   {
+      // scroll events arrive for every frame of a scroll; only catch up once
+      // scrolling pauses
+      updateTimer_.schedule(UPDATE_DELAY_MS);
+   }
+
+   private void update()
+   {
+      if (started_ && !suspended_)
+         updateTask_.schedule();
+   }
+
+   private void measure()
+   {
+      toLoad_.clear();
+      toHydrate_.clear();
+      toDehydrate_.clear();
+      dehydrateHeights_.clear();
+
+      int first = display_.getFirstVisibleRow();
+      int last = display_.getLastVisibleRow();
+      int span = Math.max(last - first, MIN_SPAN_ROWS);
+
+      // outputs within a screen of the viewport are made live; live outputs
+      // are only dehydrated once they're a few screens away, so that small
+      // scrolls back and forth don't churn the frames
+      int liveStart = first - span;
+      int liveEnd = last + span;
+      int keepStart = first - KEEP_SCREENS * span;
+      int keepEnd = last + KEEP_SCREENS * span;
+
+      ChunkOutputCodeUi nearestUnloaded = null;
+      int nearestDistance = Integer.MAX_VALUE;
+      boolean loading = false;
+
+      for (ChunkOutputUi output : host_.getCodeOutputs())
+      {
+         if (!(output instanceof ChunkOutputCodeUi))
+            continue;
+
+         ChunkOutputCodeUi codeOutput = (ChunkOutputCodeUi) output;
+         Integer state = states_.get(output.getChunkId());
+         if (state == null)
+            continue;
+
+         int row = codeOutput.getCurrentRow();
+         boolean near = row >= liveStart && row <= liveEnd;
+         if (state == STATE_UNLOADED)
+         {
+            if (near)
+            {
+               toLoad_.add(output.getChunkId());
+            }
+            else
+            {
+               int distance = row < first ? first - row : row - last;
+               if (distance < nearestDistance)
+               {
+                  nearestDistance = distance;
+                  nearestUnloaded = codeOutput;
+               }
+            }
+         }
+         else if (state == STATE_LOADING)
+         {
+            loading = true;
+         }
+         else if (state == STATE_PLACEHOLDER && near)
+         {
+            toHydrate_.add(codeOutput);
+         }
+         else if (state == STATE_LIVE &&
+                  (row < keepStart || row > keepEnd) &&
+                  host_.canDehydrate(codeOutput))
+         {
+            int height = codeOutput.measureHeight();
+            if (height > 0)
+            {
+               toDehydrate_.add(codeOutput);
+               dehydrateHeights_.add(height);
+            }
+         }
+      }
+
+      // if nothing near the viewport has output, still load the nearest
+      // output so that the notebook's state is synchronized with the server
+      if (toLoad_.isEmpty() && !loading && !initialized_ &&
+          nearestUnloaded != null)
+      {
+         toLoad_.add(nearestUnloaded.getChunkId());
+      }
+   }
+
+   private void apply()
+   {
+      for (String chunkId : toLoad_)
+      {
+         if (getState(chunkId) != STATE_UNLOADED)
+            continue;
+         states_.put(chunkId, STATE_LOADING);
+         initialized_ = true;
+         host_.loadChunkOutput(chunkId);
+      }
+
+      for (ChunkOutputCodeUi output : toHydrate_)
+      {
+         if (getState(output.getChunkId()) != STATE_PLACEHOLDER)
+            continue;
+         states_.put(output.getChunkId(), STATE_LIVE);
+         output.rehydrate();
+      }
+
+      for (int i = 0; i < toDehydrate_.size(); i++)
+      {
+         ChunkOutputCodeUi output = toDehydrate_.get(i);
+         if (getState(output.getChunkId()) != STATE_LIVE)
+            continue;
+         states_.put(output.getChunkId(), STATE_PLACEHOLDER);
+         output.dehydrate(dehydrateHeights_.get(i));
+      }
+
+      toLoad_.clear();
+      toHydrate_.clear();
+      toDehydrate_.clear();
+      dehydrateHeights_.clear();
+   }
+
+   private int getState(String chunkId)
+   {
+      Integer state = states_.get(chunkId);
+      return state == null ? STATE_NONE : state;
+   }
+
+   private ChunkOutputUi findOutput(String chunkId)
+   {
+      for (ChunkOutputUi output : host_.getCodeOutputs())
+      {
+         if (output.getChunkId() == chunkId)
+            return output;
+      }
+      return null;
+   }
+
+   private final DocDisplay display_;
+   private final Host host_;
+   private final DomScheduler.Task updateTask_;
+   private final HandlerRegistration scrollReg_;
+   private final Timer updateTimer_ = new Timer()
+   {
+      @Override
+      public void run()
+      {
+         update();
+      }
+   };
+
+   // chunk ID to state, for outputs which have been virtualized
+   private final HashMap<String, Integer> states_ = new HashMap<>();
+
+   // work found in the measure phase, to be done in the mutate phase
+   private final ArrayList<String> toLoad_ = new ArrayList<>();
+   private final ArrayList<ChunkOutputCodeUi> toHydrate_ = new ArrayList<>();
+   private final ArrayList<ChunkOutputCodeUi> toDehydrate_ = new ArrayList<>();
+   private final ArrayList<Integer> dehydrateHeights_ = new ArrayList<>();
+
+   private boolean started_;
+   private boolean suspended_;
+   private boolean initialized_;
+
+   // output not virtualized
+   private final static int STATE_NONE        = -1;
+
+   // output not yet requested from the server
+   private final static int STATE_UNLOADED    = 0;
+
+   // output requested but not yet received
+   private final static int STATE_LOADING     = 1;
+
+   // output widget in the document
+   private final static int STATE_LIVE        = 2;
+
+   // output widget swapped out for a placeholder
+   private final static int STATE_PLACEHOLDER = 3;
+
+   private final static int UPDATE_DELAY_MS = 100;
+   private final static int MIN_SPAN_ROWS = 50;
+   private final static int KEEP_SCREENS = 3;
+}
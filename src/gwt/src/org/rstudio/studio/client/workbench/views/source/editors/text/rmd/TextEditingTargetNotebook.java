@@ -16,6 +16,7 @@
 package org.rstudio.studio.client.workbench.views.source.editors.text.rmd;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 
@@ -733,6 +734,9 @@ public class TextEditingTargetNotebook
       // show output in matching chunk
       if (chunkHasOutput(chunkId))
       {
+         if (virtualizer_ != null)
+            virtualizer_.ensureLive(chunkId);
+
          // by default, ensure chunks are visible if we aren't replaying them
          // from the cache
          boolean ensureVisible = !event.getOutput().isReplay();
@@ -986,7 +990,13 @@ public class TextEditingTargetNotebook
                   @Override
                   public void execute(Boolean arg)
                   {
-                     loadInitialChunkOutput();
+                     // in code mode, only load the outputs near the viewport
+                     // (the rest are loaded as they're scrolled to); the
+                     // visual editor needs all of them up front
+                     if (editingTarget_.isVisualModeActivated())
+                        loadInitialChunkOutput();
+                     else
+                        virtualizeChunkOutput();
                   }
                });
          }
@@ -1290,6 +1300,9 @@ public class TextEditingTargetNotebook
                )
          );
 
+         if (virtualizer_ != null)
+            virtualizer_.ensureLive(chunkId);
+
          output.getOutputWidget().setCodeExecuting(mode, execScope);
 
          // scroll the widget into view if it's a single-shot exec
@@ -1401,6 +1414,8 @@ public class TextEditingTargetNotebook
    public void onDismiss()
    {
       closeAllSatelliteChunks();
+      if (virtualizer_ != null)
+         virtualizer_.detach();
    }
 
    // set the output mode based on the global pref (or our local
@@ -1539,6 +1554,9 @@ public class TextEditingTargetNotebook
             codeOutputs_.put(output.getChunkId(), codeOutput);
          }
       }
+
+      if (virtualizer_ != null)
+         virtualizer_.resume();
    }
 
    /**
@@ -1546,6 +1564,11 @@ public class TextEditingTargetNotebook
     */
    public void migrateCodeModeOutput()
    {
+      // the visual editor shows every output, so bring back any that are
+      // unloaded or dehydrated
+      if (virtualizer_ != null)
+         virtualizer_.suspend();
+
       // Iterate over all known code chunk outputs
       for (ChunkOutputUi output: codeOutputs_.values())
       {
@@ -1614,12 +1637,62 @@ public class TextEditingTargetNotebook
 
       state_ = STATE_INITIALIZING;
       requestId_ = nextRequestId_++;
+      refreshChunkOutput(Integer.toHexString(requestId_), "");
+   }
+
+   private void virtualizeChunkOutput()
+   {
+      if (state_ != STATE_NONE || virtualizer_ != null)
+         return;
+
+      virtualizer_ = new ChunkOutputVirtualizer(docDisplay_,
+            new ChunkOutputVirtualizer.Host()
+      {
+         @Override
+         public Collection<ChunkOutputUi> getCodeOutputs()
+         {
+            return codeOutputs_.values();
+         }
+
+         @Override
+         public boolean canDehydrate(ChunkOutputCodeUi output)
+         {
+            String chunkId = output.getChunkId();
+            return !queue_.isChunkExecuting(chunkId) &&
+                   !queue_.isChunkQueued(chunkId) &&
+                   output.getOutputWidget().getState() ==
+                      ChunkOutputWidget.CHUNK_READY;
+         }
+
+         @Override
+         public void loadChunkOutput(String chunkId)
+         {
+            // the first load synchronizes the notebook's state with the
+            // server
+            if (state_ == STATE_NONE)
+            {
+               state_ = STATE_INITIALIZING;
+               requestId_ = nextRequestId_++;
+               refreshChunkOutput(Integer.toHexString(requestId_), chunkId);
+            }
+            else
+            {
+               refreshChunkOutput(Integer.toHexString(nextRequestId_++),
+                     chunkId);
+            }
+         }
+      });
+      virtualizer_.start(codeOutputs_.values());
+   }
+
+   private void refreshChunkOutput(String requestId, String chunkId)
+   {
       server_.refreshChunkOutput(
             docUpdateSentinel_.getPath(),
             docUpdateSentinel_.getId(),
             contextId_,
-            Integer.toHexString(requestId_),
-            "",
+            requestId,
+            chunkId,
             new ServerRequestCallback<NotebookDocQueue>()
             {
                @Override
@@ -1704,6 +1777,8 @@ public class TextEditingTargetNotebook
                codeOutputs_.get(chunkId).remove();
                codeOutputs_.remove(chunkId);
             }
+            if (virtualizer_ != null)
+               virtualizer_.remove(chunkId);
 
             // mark doc dirty if interactive (this is not undoable)
             if (StringUtil.isNullOrEmpty(requestId))
@@ -2087,6 +2162,7 @@ public class TextEditingTargetNotebook
    private JsArray<ChunkDefinition> initialChunkDefs_;
    private HashMap<String, ChunkOutputUi> codeOutputs_;
    private HashMap<String, ChunkOutputUi> visualOutputs_;
+   private ChunkOutputVirtualizer virtualizer_;
    private ArrayList<String> satelliteChunkRequestIds_;
    private HandlerRegistration progressClickReg_;
    private HandlerRegistration scopeTreeReg_;
@@ -643,6 +643,7 @@ public class DocUpdateSentinel
       changesPending_ = false;
       sourceDoc_.setContents(contents);
       sourceDoc_.setHash(hash);
+      cacheUpdater_.nudge();
       if (path != null)
       {
          sourceDoc_.setDirty(false);
@@ -853,11 +854,33 @@ public class DocUpdateSentinel
       return sourceDoc_;
    }
 
+   /**
+    * Gets the hash of the server's copy of the document, if the editor's
+    * contents match it.
+    *
+    * @return The hash, or null if the editor has changes the server hasn't
+    *   seen yet.
+    */
+   public String getSyncedHash()
+   {
+      if (changeTracker_.hasChanged())
+         return null;
+
+      // the change tracker isn't reset by every update to the server's copy,
+      // so confirm the contents really match
+      if (!docDisplay_.getCode().equals(sourceDoc_.getContents()))
+         return null;
+
+      return sourceDoc_.getHash();
+   }
+
    public void stop()
    {
       if (autosaver_ != null)
          autosaver_.suspend();
 
+      cacheUpdater_.suspend();
+
       if (closeHandlerReg_ != null)
       {
          closeHandlerReg_.removeHandler();
@@ -943,6 +966,18 @@ public class DocUpdateSentinel
    private final DirtyState dirtyState_;
    private final EventBus eventBus_;
    private DebouncedCommand autosaver_;
+
+   // keeps the browser's copy of the document (see SourceDocumentCache) in
+   // step with the server's, without rewriting it on every update
+   private final DebouncedCommand cacheUpdater_ =
+         new DebouncedCommand(CACHE_UPDATE_DELAY_MS)
+   {
+      @Override
+      protected void execute()
+      {
+         SourceDocumentCache.put(sourceDoc_);
+      }
+   };
    private final UserPrefs prefs_;
    private HandlerRegistration closeHandlerReg_;
    private HandlerRegistration lastChanceSaveHandlerReg_;
@@ -954,5 +989,7 @@ public class DocUpdateSentinel
    public final static String PROPERTY_TRUE = "true";
    public final static String PROPERTY_FALSE = "false";
 
+   private final static int CACHE_UPDATE_DELAY_MS = 5000;
+
 
 }
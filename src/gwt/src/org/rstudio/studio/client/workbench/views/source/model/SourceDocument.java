@@ -79,6 +79,18 @@ public class SourceDocument extends JavaScriptObject
       this.contents = contents;
    }-*/;
 
+   /**
+    * True if the server omitted the contents because the client has them
+    * cached (see SourceDocumentCache).
+    */
+   public native final boolean isContentsCached() /*-{
+      return !!this.contents_cached;
+   }-*/;
+
+   public native final void setContentsCached(boolean cached) /*-{
+      this.contents_cached = cached;
+   }-*/;
+
    /**
     * True if changes have been saved to the ID that have not been persisted
     * to the file.
@@ -0,0 +1,348 @@
+/*
+ * SourceDocumentCache.java
+ *
+ * Copyright (C) 2021 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.source.model;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+
+import org.rstudio.core.client.StringUtil;
+import org.rstudio.core.client.js.JsObject;
+import org.rstudio.studio.client.workbench.model.SessionInfo;
+
+import com.google.gwt.core.client.GWT;
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArray;
+import com.google.gwt.http.client.URL;
+import com.google.gwt.storage.client.Storage;
+
+/**
+ * Keeps copies of the contents of open source documents in the browser, so
+ * that on reload the server only needs to send the contents of documents
+ * that have changed since (see clientInitDocuments on the server).
+ *
+ * Each document is stored under its own key, scoped to the session's URL,
+ * user and session id, along with the hash of the contents; a copy is only
+ * used when its hash matches the server's and it was written for the same
+ * user and session. Separate keys keep windows (e.g. source satellites)
+ * from overwriting each other's copies. The cache is cleared when the user
+ * signs out or quits, and the total size of all copies is capped.
+ */
+public class SourceDocumentCache
+{
+   /**
+    * Gets the hashes of the cached documents, keyed by document id, to send
+    * to the server with client_init.
+    */
+   public static JsObject getCachedHashes()
+   {
+      JsObject hashes = JsObject.createJsObject();
+      Storage storage = Storage.getLocalStorageIfSupported();
+      if (storage == null)
+         return hashes;
+
+      String prefix = keyPrefix(storage);
+      if (prefix == null)
+         return hashes;
+
+      for (String key : keys(storage, prefix))
+      {
+         CachedDocument doc = parse(storage.getItem(key));
+         if (doc != null)
+            hashes.setString(key.substring(prefix.length()), doc.getHash());
+      }
+      return hashes;
+   }
+
+   /**
+    * Fills in the contents of documents the server omitted because they were
+    * cached.
+    *
+    * @return False if a document's contents couldn't be restored (e.g. the
+    *   cached copy has since been changed by another window, or belongs to
+    *   another user or session), in which case the documents need to be
+    *   requested again without the cache.
+    */
+   public static boolean restoreContents(SessionInfo sessionInfo)
+   {
+      JsArray<SourceDocument> docs = sessionInfo.getSourceDocuments();
+      if (docs == null)
+         return true;
+
+      Storage storage = Storage.getLocalStorageIfSupported();
+      String prefix = storage == null ? null : keyPrefix(storage);
+      boolean sameScope = StringUtil.equals(prefix, keyPrefix(sessionInfo));
+      for (int i = 0; i < docs.length(); i++)
+      {
+         SourceDocument doc = docs.get(i);
+         if (!doc.isContentsCached())
+            continue;
+
+         CachedDocument cached = !sameScope ? null :
+               parse(storage.getItem(prefix + doc.getId()));
+         if (cached == null || !StringUtil.equals(cached.getHash(), doc.getHash()))
+            return false;
+
+         doc.setContents(cached.getContents());
+         doc.setContentsCached(false);
+      }
+      return true;
+   }
+
+   /**
+    * Replaces the cache with the given session's (complete) set of open
+    * documents, dropping copies kept for other users or sessions.
+    */
+   public static void reset(SessionInfo sessionInfo)
+   {
+      Storage storage = Storage.getLocalStorageIfSupported();
+      JsArray<SourceDocument> docs = sessionInfo.getSourceDocuments();
+      if (storage == null || docs == null)
+         return;
+
+      String prefix = keyPrefix(sessionInfo);
+      if (!StringUtil.equals(prefix, keyPrefix(storage)))
+      {
+         clear();
+         storage.setItem(scopeKey(), scope(sessionInfo));
+      }
+
+      HashSet<String> ids = new HashSet<>();
+      for (int i = 0; i < docs.length(); i++)
+         ids.add(docs.get(i).getId());
+
+      for (String key : keys(storage, prefix))
+      {
+         if (!ids.contains(key.substring(prefix.length())))
+            storage.removeItem(key);
+      }
+
+      for (int i = 0; i < docs.length(); i++)
+      {
+         // skip documents whose contents we already have
+         SourceDocument doc = docs.get(i);
+         CachedDocument cached = parse(storage.getItem(prefix + doc.getId()));
+         if (cached == null || !StringUtil.equals(cached.getHash(), doc.getHash()))
+            put(doc);
+      }
+   }
+
+   /**
+    * Caches the contents of a document (which must match the hash of the
+    * server's copy).
+    */
+   public static void put(SourceDocument doc)
+   {
+      Storage storage = Storage.getLocalStorageIfSupported();
+      if (storage == null)
+         return;
+
+      String prefix = keyPrefix(storage);
+      if (prefix == null)
+         return;
+
+      String key = prefix + doc.getId();
+      String contents = doc.getContents();
+      if (contents == null || contents.length() > MAX_CACHED_LENGTH)
+      {
+         storage.removeItem(key);
+         return;
+      }
+
+      String value = CachedDocument.stringify(doc.getHash(), contents);
+      if (!makeRoom(storage, prefix, key, value.length()))
+      {
+         storage.removeItem(key);
+         return;
+      }
+
+      try
+      {
+         storage.setItem(key, value);
+      }
+      catch (Exception e)
+      {
+         // storage quota exceeded; the server will send the contents instead
+         storage.removeItem(key);
+      }
+   }
+
+   /**
+    * Drops the cached copy of a document that has been closed.
+    */
+   public static void remove(String docId)
+   {
+      Storage storage = Storage.getLocalStorageIfSupported();
+      if (storage == null)
+         return;
+
+      String prefix = keyPrefix(storage);
+      if (prefix != null)
+         storage.removeItem(prefix + docId);
+   }
+
+   /**
+    * Drops all of the copies kept for this URL, whichever user or session
+    * they belong to.
+    */
+   public static void clear()
+   {
+      Storage storage = Storage.getLocalStorageIfSupported();
+      if (storage == null)
+         return;
+
+      for (String key : keys(storage, urlPrefix()))
+         storage.removeItem(key);
+      storage.removeItem(scopeKey());
+   }
+
+   private static class CachedDocument extends JavaScriptObject
+   {
+      protected CachedDocument()
+      {
+      }
+
+      public static final native String stringify(String hash,
+                                                  String contents) /*-{
+         return JSON.stringify({
+            version: @org.rstudio.studio.client.workbench.views.source.model.SourceDocumentCache::VERSION,
+            hash: hash,
+            contents: contents
+         });
+      }-*/;
+
+      public final native int getVersion() /*-{
+         return this.version || 0;
+      }-*/;
+
+      public final native String getHash() /*-{
+         return this.hash;
+      }-*/;
+
+      public final native String getContents() /*-{
+         return this.contents;
+      }-*/;
+   }
+
+   private static CachedDocument parse(String value)
+   {
+      if (StringUtil.isNullOrEmpty(value))
+         return null;
+
+      CachedDocument doc = parseNative(value);
+      if (doc == null || doc.getVersion() != VERSION)
+         return null;
+      return doc;
+   }
+
+   private static native CachedDocument parseNative(String value) /*-{
+      try
+      {
+         return JSON.parse(value);
+      }
+      catch (e)
+      {
+         return null;
+      }
+   }-*/;
+
+   // removes copies kept for other URLs, users or sessions until there is
+   // room for a copy of the given length under the given key; returns false
+   // if there still isn't
+   private static boolean makeRoom(Storage storage,
+                                   String prefix,
+                                   String key,
+                                   int length)
+   {
+      int total = length;
+      ArrayList<String> others = new ArrayList<>();
+      for (String k : keys(storage, KEY_PREFIX))
+      {
+         if (k.equals(key))
+            continue;
+
+         String value = storage.getItem(k);
+         total += value == null ? 0 : value.length();
+         if (!k.startsWith(prefix))
+            others.add(k);
+      }
+
+      for (int i = 0; i < others.size() && total > MAX_TOTAL_LENGTH; i++)
+      {
+         String value = storage.getItem(others.get(i));
+         total -= value == null ? 0 : value.length();
+         storage.removeItem(others.get(i));
+      }
+      return total <= MAX_TOTAL_LENGTH;
+   }
+
+   private static ArrayList<String> keys(Storage storage, String prefix)
+   {
+      ArrayList<String> keys = new ArrayList<>();
+      for (int i = 0; i < storage.getLength(); i++)
+      {
+         String key = storage.key(i);
+         if (key != null && key.startsWith(prefix))
+            keys.add(key);
+      }
+      return keys;
+   }
+
+   // the prefix of the keys of the copies kept for the user and session the
+   // cache was last reset for, or null if it hasn't been
+   private static String keyPrefix(Storage storage)
+   {
+      String scope = storage.getItem(scopeKey());
+      if (StringUtil.isNullOrEmpty(scope))
+         return null;
+      return urlPrefix() + scope + "#";
+   }
+
+   private static String keyPrefix(SessionInfo sessionInfo)
+   {
+      return urlPrefix() + scope(sessionInfo) + "#";
+   }
+
+   private static String scope(SessionInfo sessionInfo)
+   {
+      return URL.encodeQueryString(StringUtil.notNull(sessionInfo.getUserIdentity())) +
+             "#" +
+             URL.encodeQueryString(StringUtil.notNull(sessionInfo.getSessionId()));
+   }
+
+   private static String urlPrefix()
+   {
+      return KEY_PREFIX + GWT.getHostPageBaseURL() + "#";
+   }
+
+   private static String scopeKey()
+   {
+      return SCOPE_KEY_PREFIX + GWT.getHostPageBaseURL();
+   }
+
+   private static final String KEY_PREFIX = "rstudio.sourcedocs.";
+
+   // the user and session the copies kept for a URL belong to
+   private static final String SCOPE_KEY_PREFIX = "rstudio.sourcedocs-scope.";
+
+   // bump when the format of cached documents changes
+   private static final int VERSION = 1;
+
+   // larger documents are always sent by the server
+   private static final int MAX_CACHED_LENGTH = 1000000;
+
+   // the most (in characters) kept for all sessions, well inside the usual
+   // localStorage quota
+   private static final int MAX_TOTAL_LENGTH = 4000000;
+}
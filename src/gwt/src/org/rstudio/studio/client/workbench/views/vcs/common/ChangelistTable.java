@@ -28,6 +28,8 @@ import com.google.gwt.text.shared.SafeHtmlRenderer;
 import com.google.gwt.user.cellview.client.CellTable;
 import com.google.gwt.user.cellview.client.Column;
 import com.google.gwt.user.cellview.client.ColumnSortEvent;
+import com.google.gwt.user.cellview.client.ColumnSortList;
+import com.google.gwt.user.cellview.client.ColumnSortList.ColumnSortInfo;
 import com.google.gwt.user.client.ui.Composite;
 import com.google.gwt.user.client.ui.LayoutPanel;
 import com.google.gwt.user.client.ui.ScrollPanel;
@@ -37,10 +39,14 @@ import org.rstudio.core.client.widget.InfoBar;
 import org.rstudio.core.client.widget.MultiSelectCellTable;
 import org.rstudio.core.client.widget.ProgressPanel;
 import org.rstudio.studio.client.common.vcs.StatusAndPath;
+import org.rstudio.studio.client.workbench.views.vcs.common.model.VcsStatusDelta;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 public abstract class ChangelistTable extends Composite
@@ -316,6 +322,113 @@ public abstract class ChangelistTable extends Composite
       }
    }
 
+   /**
+    * Applies the given status changes to the displayed items. Only the
+    * affected rows are redrawn, leaving the rest of the table (and so the
+    * selection and scroll position) as it is.
+    */
+   public void applyDelta(VcsStatusDelta delta)
+   {
+      setProgress(false);
+
+      List<StatusAndPath> list = dataProvider_.getList();
+      HashMap<String, Integer> index = new HashMap<>();
+      for (int i = 0; i < list.size(); i++)
+         index.put(list.get(i).getRawPath(), i);
+
+      Comparator<StatusAndPath> comparator = getSortComparator();
+      boolean resort = false;
+
+      ArrayList<StatusAndPath> added = new ArrayList<>();
+      for (StatusAndPath item : delta.getUpdated())
+      {
+         Integer i = index.get(item.getRawPath());
+         if (i == null)
+         {
+            added.add(item);
+            continue;
+         }
+
+         list.set(i, item);
+         if (comparator != null && !isInOrder(list, i, comparator))
+            resort = true;
+      }
+
+      ArrayList<Integer> removed = new ArrayList<>();
+      for (String path : delta.getRemoved())
+      {
+         Integer i = index.get(path);
+         if (i != null)
+            removed.add(i);
+      }
+      Collections.sort(removed, Collections.reverseOrder());
+      for (Integer i : removed)
+         list.remove((int) i);
+
+      for (StatusAndPath item : added)
+      {
+         if (comparator == null || resort)
+            list.add(item);
+         else
+            list.add(insertionPoint(list, item, comparator), item);
+      }
+
+      if (list.size() > table_.getPageSize())
+         table_.setPageSize(list.size());
+
+      // an entry's status changed such that it now sorts elsewhere
+      if (resort)
+         ColumnSortEvent.fire(table_, table_.getColumnSortList());
+   }
+
+   @SuppressWarnings("unchecked")
+   private Comparator<StatusAndPath> getSortComparator()
+   {
+      ColumnSortList sortList = table_.getColumnSortList();
+      if (sortList.size() == 0)
+         return null;
+
+      ColumnSortInfo info = sortList.get(0);
+      final Comparator<StatusAndPath> comparator = sortHandler_.getComparator(
+            (Column<StatusAndPath, ?>) info.getColumn());
+      if (comparator == null || info.isAscending())
+         return comparator;
+
+      return new Comparator<StatusAndPath>()
+      {
+         @Override
+         public int compare(StatusAndPath a, StatusAndPath b)
+         {
+            return comparator.compare(b, a);
+         }
+      };
+   }
+
+   private static boolean isInOrder(List<StatusAndPath> list,
+                                    int i,
+                                    Comparator<StatusAndPath> comparator)
+   {
+      return (i == 0 || comparator.compare(list.get(i - 1), list.get(i)) <= 0) &&
+             (i == list.size() - 1 || comparator.compare(list.get(i), list.get(i + 1)) <= 0);
+   }
+
+   private static int insertionPoint(List<StatusAndPath> list,
+                                     StatusAndPath item,
+                                     Comparator<StatusAndPath> comparator)
+   {
+      int lo = 0;
+      int hi = list.size();
+      while (lo < hi)
+      {
+         int mid = (lo + hi) >>> 1;
+         if (comparator.compare(list.get(mid), item) <= 0)
+            lo = mid + 1;
+         else
+            hi = mid;
+      }
+      return lo;
+   }
+
    public ArrayList<StatusAndPath> getSelectedItems()
    {
       SelectionModel<? super StatusAndPath> selectionModel = table_.getSelectionModel();
@@ -0,0 +1,222 @@
+/*
+ * LazyUnifiedDiff.java
+ *
+ * Copyright (C) 2021 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.vcs.common.diff;
+
+import java.util.ArrayList;
+import java.util.Collections;
+
+/**
+ * A single-file unified diff whose chunks are parsed on demand. The data is
+ * scanned once up front to find each chunk header and count its lines,
+ * which is all that's needed to lay out the rows; the lines of a chunk are
+ * only parsed (by UnifiedParser) the first time one of its rows is
+ * requested, e.g. when it is scrolled into view.
+ *
+ * Rows are laid out as in ChunkOrLine.fromChunk (each chunk header followed
+ * by its lines), and the index of a row is also its diff index.
+ */
+public class LazyUnifiedDiff
+{
+   public LazyUnifiedDiff(String data)
+   {
+      this(data, null);
+   }
+
+   /**
+    * Creates a diff for the given data, taking over the parsed chunks of a
+    * previous diff of the same file wherever they are unchanged (same text
+    * at the same row). Staging or discarding a chunk then leaves the rows
+    * before it untouched, so they don't need to be parsed or rendered again.
+    */
+   public LazyUnifiedDiff(String data, LazyUnifiedDiff previous)
+   {
+      data_ = data;
+      scan();
+
+      if (previous != null)
+         reuseChunks(previous);
+   }
+
+   public int getRowCount()
+   {
+      return rowCount_;
+   }
+
+   public int getChunkCount()
+   {
+      return offsets_.length;
+   }
+
+   public ChunkOrLine getRow(int row)
+   {
+      int chunk = chunkForRow(row);
+      return getChunkRows(chunk).get(row - rowStarts_[chunk]);
+   }
+
+   /**
+    * Returns true if the given row is a chunk header. This doesn't require
+    * the chunk to be parsed.
+    */
+   public boolean isChunkRow(int row)
+   {
+      return rowStarts_[chunkForRow(row)] == row;
+   }
+
+   public DiffChunk getChunk(int index)
+   {
+      ensureParsed(index);
+      return chunks_.get(index);
+   }
+
+   /**
+    * Returns the chunks the given lines belong to, in diff order.
+    */
+   public ArrayList<DiffChunk> getChunksContaining(ArrayList<Line> lines)
+   {
+      ArrayList<Integer> indices = new ArrayList<>();
+      for (Line line : lines)
+      {
+         int index = chunkForRow(line.getDiffIndex());
+         if (!indices.contains(index))
+            indices.add(index);
+      }
+      Collections.sort(indices);
+
+      ArrayList<DiffChunk> chunks = new ArrayList<>();
+      for (Integer index : indices)
+         chunks.add(getChunk(index));
+      return chunks;
+   }
+
+   private ArrayList<ChunkOrLine> getChunkRows(int index)
+   {
+      ensureParsed(index);
+      return rows_.get(index);
+   }
+
+   private void ensureParsed(int index)
+   {
+      if (chunks_.get(index) != null)
+         return;
+
+      UnifiedParser parser = new UnifiedParser(data_,
+                                               offsets_[index],
+                                               rowStarts_[index]);
+      DiffChunk chunk = parser.nextChunk();
+      if (chunk == null || chunk.getLines().size() != lineCounts_[index])
+         throw new DiffFormatException("Chunk didn't match scanned layout");
+
+      chunks_.set(index, chunk);
+      rows_.set(index, ChunkOrLine.fromChunk(chunk));
+   }
+
+   private int chunkForRow(int row)
+   {
+      if (row < 0 || row >= rowCount_)
+         throw new IndexOutOfBoundsException("Row " + row + " out of range");
+
+      // find the last chunk starting at or before the row
+      int lo = 0;
+      int hi = rowStarts_.length - 1;
+      while (lo < hi)
+      {
+         int mid = (lo + hi + 1) >>> 1;
+         if (rowStarts_[mid] <= row)
+            lo = mid;
+         else
+            hi = mid - 1;
+      }
+      return lo;
+   }
+
+   private void reuseChunks(LazyUnifiedDiff previous)
+   {
+      for (int i = 0; i < offsets_.length; i++)
+      {
+         if (rowStarts_[i] >= previous.rowCount_)
+            break;
+
+         int j = previous.chunkForRow(rowStarts_[i]);
+         if (previous.rowStarts_[j] != rowStarts_[i] ||
+             previous.chunks_.get(j) == null ||
+             !getChunkText(i).equals(previous.getChunkText(j)))
+         {
+            continue;
+         }
+
+         chunks_.set(i, previous.chunks_.get(j));
+         rows_.set(i, previous.rows_.get(j));
+      }
+   }
+
+   private String getChunkText(int index)
+   {
+      return data_.substring(offsets_[index], ends_[index]);
+   }
+
+   // Finds the chunk headers and counts the lines in each chunk, without
+   // building the lines themselves (see UnifiedParser.skipChunk)
+   private void scan()
+   {
+      ArrayList<Integer> offsets = new ArrayList<>();
+      ArrayList<Integer> ends = new ArrayList<>();
+      ArrayList<Integer> lineCounts = new ArrayList<>();
+
+      UnifiedParser parser = new UnifiedParser(data_);
+      parser.nextFilePair();
+      for (int lineCount; -1 != (lineCount = parser.skipChunk());)
+      {
+         offsets.add(parser.getChunkStart());
+         lineCounts.add(lineCount);
+         ends.add(parser.getPosition());
+      }
+
+      int count = offsets.size();
+      offsets_ = new int[count];
+      ends_ = new int[count];
+      rowStarts_ = new int[count];
+      lineCounts_ = new int[count];
+      chunks_ = new ArrayList<>(count);
+      rows_ = new ArrayList<>(count);
+
+      int row = 0;
+      for (int i = 0; i < count; i++)
+      {
+         offsets_[i] = offsets.get(i);
+         ends_[i] = ends.get(i);
+         lineCounts_[i] = lineCounts.get(i);
+         rowStarts_[i] = row;
+         row += lineCounts_[i] + 1;
+
+         chunks_.add(null);
+         rows_.add(null);
+      }
+      rowCount_ = row;
+   }
+
+   private final String data_;
+
+   // for each chunk: the offsets of its header and of the end of its last
+   // line, the row of its header, and the number of lines it contains
+   private int[] offsets_;
+   private int[] ends_;
+   private int[] rowStarts_;
+   private int[] lineCounts_;
+   private int rowCount_;
+
+   // parsed chunks and their rows (null until needed)
+   private ArrayList<DiffChunk> chunks_;
+   private ArrayList<ArrayList<ChunkOrLine>> rows_;
+}
@@ -27,6 +27,7 @@ public class LineTablePresenter
    public interface Display
    {
       void setData(ArrayList<ChunkOrLine> diffData, PatchMode patchMode);
+      void setDiff(LazyUnifiedDiff diff, PatchMode patchMode);
       void clear();
       ArrayList<Line> getSelectedLines();
       ArrayList<Line> getAllLines();
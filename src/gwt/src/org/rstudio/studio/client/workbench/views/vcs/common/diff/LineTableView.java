@@ -17,18 +17,25 @@ package org.rstudio.studio.client.workbench.views.vcs.common.diff;
 import com.google.gwt.cell.client.AbstractCell;
 import com.google.gwt.cell.client.ValueUpdater;
 import com.google.gwt.core.client.GWT;
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.core.client.Scheduler.ScheduledCommand;
 import com.google.gwt.dom.client.Element;
 import com.google.gwt.dom.client.NativeEvent;
 import com.google.gwt.dom.client.Node;
+import com.google.gwt.dom.client.Style;
 import com.google.gwt.dom.client.Style.Unit;
+import com.google.gwt.event.dom.client.ScrollEvent;
+import com.google.gwt.event.dom.client.ScrollHandler;
 import com.google.gwt.event.shared.HandlerRegistration;
 import com.google.gwt.safehtml.shared.SafeHtmlBuilder;
 import com.google.gwt.user.cellview.client.CellTable;
 import com.google.gwt.user.cellview.client.Column;
 import com.google.gwt.user.cellview.client.RowStyles;
 import com.google.gwt.user.cellview.client.TextColumn;
+import com.google.gwt.user.client.ui.ScrollPanel;
 import com.google.gwt.view.client.MultiSelectionModel;
 import com.google.gwt.view.client.ProvidesKey;
+import com.google.gwt.view.client.Range;
 import com.google.gwt.view.client.SelectionChangeEvent;
 import com.google.gwt.view.client.SelectionChangeEvent.Handler;
 import com.google.inject.Inject;
@@ -46,7 +53,8 @@ import org.rstudio.studio.client.workbench.views.vcs.common.events.DiffChunkActi
 import org.rstudio.studio.client.workbench.views.vcs.common.events.DiffLinesActionEvent;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.List;
 
 public class LineTableView extends MultiSelectCellTable<ChunkOrLine> implements Display
 {
@@ -302,9 +310,9 @@ public class LineTableView extends MultiSelectCellTable<ChunkOrLine> implements
             else
             {
                String prefix = "";
-               if (startRows_.contains(rowIndex))
+               if (isStartRow(rowIndex))
                   prefix += res.cellTableStyle().start() + " ";
-               if (endRows_.contains(rowIndex))
+               if (isEndRow(rowIndex))
                   prefix += res.cellTableStyle().end() + " ";
 
                switch (line.getType())
@@ -382,14 +390,23 @@ public class LineTableView extends MultiSelectCellTable<ChunkOrLine> implements
 
    private void refreshValue(ChunkOrLine value)
    {
-      int index = lines_.indexOf(value);
-      if (index >= 0)
+      int index;
+      if (diff_ != null)
+         index = value.getLine() != null
+                 ? value.getLine().getDiffIndex()
+                 : value.getChunk().getDiffIndex();
+      else
+         index = lines_.indexOf(value);
+
+      // rows outside the rendered window pick up the change when they are
+      // scrolled into view
+      Range range = getVisibleRange();
+      if (index >= range.getStart() && index < range.getStart() + range.getLength())
       {
          ArrayList<ChunkOrLine> list = new ArrayList<>();
          list.add(value);
          setRowData(index, list);
       }
-
    }
 
    private String intToString(Integer value)
@@ -425,8 +442,42 @@ public class LineTableView extends MultiSelectCellTable<ChunkOrLine> implements
       useEndBorder_ = useEndBorder;
    }
 
+   /**
+    * Renders only the rows near the visible part of the given scroll panel
+    * (once there are more than VIRTUALIZE_THRESHOLD rows), padding the table
+    * above and below so that the scrollbar reflects the full diff.
+    */
+   public void setScrollContainer(ScrollPanel scrollPanel)
+   {
+      scrollPanel_ = scrollPanel;
+      scrollPanel_.addScrollHandler(new ScrollHandler()
+      {
+         @Override
+         public void onScroll(ScrollEvent event)
+         {
+            if (virtualized_ && !isWindowCurrent())
+               renderWindow();
+         }
+      });
+   }
+
    @Override
    public void setData(ArrayList<ChunkOrLine> diffData, PatchMode patchMode)
+   {
+      lines_ = diffData;
+      diff_ = null;
+      onDataChanged(patchMode);
+   }
+
+   @Override
+   public void setDiff(LazyUnifiedDiff diff, PatchMode patchMode)
+   {
+      lines_ = null;
+      diff_ = diff;
+      onDataChanged(patchMode);
+   }
+
+   private void onDataChanged(PatchMode patchMode)
    {
       removeStyleName(RES.cellTableStyle().stageMode());
       removeStyleName(RES.cellTableStyle().workingMode());
@@ -440,55 +491,205 @@ public class LineTableView extends MultiSelectCellTable<ChunkOrLine> implements
             break;
       }
 
-      lines_ = diffData;
-      setPageSize(diffData.size());
       selectionModel_.clear();
       firstSelectedLine_ = null;
-      setRowData(diffData);
 
-      startRows_.clear();
-      endRows_.clear();
+      boolean wasVirtualized = virtualized_;
+      virtualized_ = scrollPanel_ != null && getDataSize() > VIRTUALIZE_THRESHOLD;
+      if (virtualized_ && !wasVirtualized)
+         measureRowHeight_ = true;
+
+      renderWindow();
+   }
+
+   private int getDataSize()
+   {
+      return diff_ != null ? diff_.getRowCount() : lines_.size();
+   }
 
-      Line.Type state = Line.Type.Same;
-      boolean suppressNextStart = true; // Suppress at start to avoid 2px border
-      for (int i = 0; i < lines_.size(); i++)
+   private ChunkOrLine getDataRow(int index)
+   {
+      return diff_ != null ? diff_.getRow(index) : lines_.get(index);
+   }
+
+   // returns the type of the line at the given row, or null for chunk rows
+   private Line.Type getDataRowType(int index)
+   {
+      if (diff_ != null && diff_.isChunkRow(index))
+         return null;
+
+      Line line = getDataRow(index).getLine();
+      return line == null ? null : line.getType();
+   }
+
+   // Borders are determined from the neighbouring rows, so that they can be
+   // computed for just the rows being rendered. No border is drawn at the
+   // start of a region that follows a chunk header, nor at the end of an
+   // insertion that is followed by a deletion (or vice versa); this avoids
+   // 2px borders between these regions when just about everything else
+   // is 1px.
+   private boolean isStartRow(int index)
+   {
+      if (useStartBorder_ && index == 0)
+         return true;
+
+      Line.Type type = getDataRowType(index);
+      if (index == 0 || type == null || type == Line.Type.Same)
+         return false;
+
+      Line.Type prevType = getDataRowType(index - 1);
+      return prevType != null && prevType != type;
+   }
+
+   private boolean isEndRow(int index)
+   {
+      int size = getDataSize();
+
+      // Edge case: last line is a diff line
+      if (useEndBorder_ && index == size - 1)
+         return true;
+
+      Line.Type type = getDataRowType(index);
+      if (index + 1 >= size || type == null || type == Line.Type.Same)
+         return false;
+
+      return getDataRowType(index + 1) == Line.Type.Same;
+   }
+
+   private boolean isWindowCurrent()
+   {
+      int first = getFirstVisibleRow();
+      int last = first + getVisibleRowCount();
+      Range range = getVisibleRange();
+      int start = range.getStart();
+      int end = start + range.getLength();
+
+      return (start == 0 || first >= start + OVERSCAN_ROWS / 2) &&
+             (end >= getDataSize() || last <= end - OVERSCAN_ROWS / 2);
+   }
+
+   private int getFirstVisibleRow()
+   {
+      return (int) (scrollPanel_.getVerticalScrollPosition() / rowHeight_);
+   }
+
+   private int getVisibleRowCount()
+   {
+      return (int) Math.ceil(scrollPanel_.getOffsetHeight() / rowHeight_);
+   }
+
+   // Renders the rows in the current window. Rows already displayed at the
+   // same position are left alone, so an update that only changes a later
+   // part of the diff doesn't redraw the rows above it.
+   private void renderWindow()
+   {
+      int size = getDataSize();
+      int start = 0;
+      int end = size;
+      if (virtualized_)
+      {
+         int first = getFirstVisibleRow();
+         start = Math.max(0, Math.min(size, first - OVERSCAN_ROWS));
+         end = Math.min(size, first + getVisibleRowCount() + OVERSCAN_ROWS);
+      }
+
+      Range range = getVisibleRange();
+      int redrawFrom = start;
+      if (range.getStart() == start &&
+          range.getLength() == end - start &&
+          getRowCount() == size)
       {
-         ChunkOrLine chunkOrLine = lines_.get(i);
-         Line line = chunkOrLine.getLine();
-         boolean isChunk = line == null;
-         Line.Type newState = isChunk ? Line.Type.Same : line.getType();
+         List<ChunkOrLine> displayed = getVisibleItems();
+         int n = Math.min(displayed.size(), end - start);
+         int same = 0;
+         while (same < n && displayed.get(same) == getDataRow(start + same))
+            same++;
 
-         if (useStartBorder_ && i == 0)
-            startRows_.add(i);
+         if (same == end - start)
+            return;
+
+         // the last unchanged row may need its borders updated
+         redrawFrom = Math.max(start, start + same - 1);
+      }
 
-         // Edge case: last line is a diff line
-         if (useEndBorder_ && i == lines_.size() - 1)
-            endRows_.add(i);
+      ArrayList<ChunkOrLine> rows = new ArrayList<>(end - redrawFrom);
+      for (int i = redrawFrom; i < end; i++)
+         rows.add(getDataRow(i));
 
-         if (newState != state)
+      setRowCount(size, true);
+      setVisibleRange(start, end - start);
+      setRowData(redrawFrom, rows);
+
+      updateSpacers(start, end, size);
+
+      if (measureRowHeight_)
+      {
+         measureRowHeight_ = false;
+         Scheduler.get().scheduleDeferred(new ScheduledCommand()
          {
-            // Note: endRows_ doesn't include the borders between insertions and
-            // deletions, or vice versa. This is to avoid 2px borders between
-            // these regions when just about everything else is 1px.
-            if (state != Line.Type.Same && newState == Line.Type.Same && !isChunk)
-               endRows_.add(i-1);
-            if (!suppressNextStart && newState != Line.Type.Same)
-               startRows_.add(i);
-
-            state = newState;
-         }
+            @Override
+            public void execute()
+            {
+               measureRowHeight();
+            }
+         });
+      }
+   }
+
+   private void updateSpacers(int start, int end, int size)
+   {
+      Style style = getElement().getStyle();
+      if (virtualized_)
+      {
+         style.setMarginTop(start * rowHeight_, Unit.PX);
+         style.setMarginBottom((size - end) * rowHeight_, Unit.PX);
+      }
+      else
+      {
+         style.clearMarginTop();
+         style.clearMarginBottom();
+      }
+   }
+
+   // estimates the row height from the rendered rows; this is used to size
+   // the space taken up by the rows that aren't rendered
+   private void measureRowHeight()
+   {
+      int rendered = getVisibleItemCount();
+      int height = getTableBodyElement().getOffsetHeight();
+      if (!virtualized_ || rendered == 0 || height == 0)
+         return;
+
+      rowHeight_ = Math.max(1.0, (double) height / rendered);
+
+      Range range = getVisibleRange();
+      updateSpacers(range.getStart(),
+                    range.getStart() + range.getLength(),
+                    getDataSize());
+      if (!isWindowCurrent())
+         renderWindow();
+   }
 
-         suppressNextStart = isChunk;
+   @Override
+   protected void selectAll()
+   {
+      if (!virtualized_)
+      {
+         super.selectAll();
+         return;
       }
+
+      for (int i = 0; i < getDataSize(); i++)
+         selectionModel_.setSelected(getDataRow(i), true);
    }
 
    @Override
    protected boolean canSelectVisibleRow(int visibleRow)
    {
-      if (visibleRow < 0 || visibleRow >= lines_.size())
+      if (visibleRow < 0 || visibleRow >= getVisibleItemCount())
          return false;
 
-      Line line = lines_.get(visibleRow).getLine();
+      Line line = getVisibleItem(visibleRow).getLine();
       return line != null && (line.getType() == Type.Insertion
                               || line.getType() == Type.Deletion);
    }
@@ -503,9 +704,10 @@ public class LineTableView extends MultiSelectCellTable<ChunkOrLine> implements
    public ArrayList<Line> getSelectedLines()
    {
       ArrayList<Line> selected = new ArrayList<>();
-      for (ChunkOrLine line : lines_)
-         if (line.getLine() != null && selectionModel_.isSelected(line))
+      for (ChunkOrLine line : selectionModel_.getSelectedSet())
+         if (line.getLine() != null)
             selected.add(line.getLine());
+      Collections.sort(selected);
       return selected;
    }
 
@@ -513,9 +715,12 @@ public class LineTableView extends MultiSelectCellTable<ChunkOrLine> implements
    public ArrayList<Line> getAllLines()
    {
       ArrayList<Line> selected = new ArrayList<>();
-      for (ChunkOrLine line : lines_)
+      for (int i = 0; i < getDataSize(); i++)
+      {
+         ChunkOrLine line = getDataRow(i);
          if (line.getLine() != null)
             selected.add(line.getLine());
+      }
       return selected;
    }
 
@@ -543,10 +748,18 @@ public class LineTableView extends MultiSelectCellTable<ChunkOrLine> implements
    }
 
    private boolean showActions_ = true;
+
+   // the rows are held either as a list (setData) or as a lazily parsed
+   // diff (setDiff)
    private ArrayList<ChunkOrLine> lines_;
+   private LazyUnifiedDiff diff_;
+
+   private ScrollPanel scrollPanel_;
+   private boolean virtualized_ = false;
+   private boolean measureRowHeight_ = false;
+   private double rowHeight_ = DEFAULT_ROW_HEIGHT;
+
    private SwitchableSelectionModel<ChunkOrLine> selectionModel_;
-   private HashSet<Integer> startRows_ = new HashSet<>();
-   private HashSet<Integer> endRows_ = new HashSet<>();
    private boolean useStartBorder_ = false;
    private boolean useEndBorder_ = true;
    // Keep explicit track of the first selected line so we can render it differently
@@ -554,4 +767,8 @@ public class LineTableView extends MultiSelectCellTable<ChunkOrLine> implements
    private static final LineTableViewCellTableResources RES = GWT.create(LineTableViewCellTableResources.class);
    private static final LineActionButtonRenderer blueButtonRenderer_ = LineActionButtonRenderer.createBlue();
    private static final LineActionButtonRenderer grayButtonRenderer_ = LineActionButtonRenderer.createGray();
+
+   private static final int VIRTUALIZE_THRESHOLD = 1000;
+   private static final int OVERSCAN_ROWS = 100;
+   private static final double DEFAULT_ROW_HEIGHT = 16;
 }
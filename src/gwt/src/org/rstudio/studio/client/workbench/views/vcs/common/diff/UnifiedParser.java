@@ -27,8 +27,18 @@ public class UnifiedParser implements DiffParser
    }
 
    public UnifiedParser(String data, int startDiffIndex)
+   {
+      this(data, 0, startDiffIndex);
+   }
+
+   /**
+    * Creates a parser that starts reading at the given offset into the data
+    * (e.g. at a chunk header found by LazyUnifiedDiff).
+    */
+   public UnifiedParser(String data, int startPos, int startDiffIndex)
    {
       data_ = data;
+      pos_ = startPos;
       diffIndex_ = startDiffIndex;
    }
 
@@ -68,25 +78,9 @@ public class UnifiedParser implements DiffParser
    @Override
    public DiffChunk nextChunk()
    {
-      String nextLine = peekLine();
-      if (nextLine != null && isNewFileLine(nextLine))
-         return null;
-
-      String line;
-      while (null != (line = nextLine()) && !(line.startsWith("@@") || line.startsWith("--- ")))
-      {
-      }
-
-      if (line == null)
-         return null;
-
-      if (line.startsWith("--- "))
-         return null;
-
-
-      ChunkHeaderInfo chunkHeaderInfo = new ChunkHeaderParser(line).parse();
+      ChunkHeaderInfo chunkHeaderInfo = nextChunkHeader();
       if (chunkHeaderInfo == null)
-         throw new DiffFormatException("Malformed chunk header");
+         return null;
 
       int chunkDiffIndex = diffIndex_++;
 
@@ -95,12 +89,9 @@ public class UnifiedParser implements DiffParser
       int[] positions = new int[ranges.length];
       boolean[] MASK_NONE = new boolean[ranges.length];
       boolean[] MASK_ALL = new boolean[ranges.length];
+      initCounts(ranges, counts, positions);
       for (int i = 0; i < ranges.length; i++)
-      {
-         counts[i] = ranges[i].rowCount;
-         positions[i] = ranges[i].startRow-1;
          MASK_ALL[i] = true;
-      }
       int columns = ranges.length - 1;
 
       boolean[] mask = new boolean[ranges.length];
@@ -110,32 +101,13 @@ public class UnifiedParser implements DiffParser
            !isEmpty(counts) || nextLineIsComment();
            diffIndex_++)
       {
-         String diffLine = nextLine();
-         if (diffLine == null)
-            throw new DiffFormatException("Diff ended prematurely");
-         if (diffLine.length() < columns)
-            throw new DiffFormatException("Unexpected line format");
-
-         int directive = ' ';
-         for (int i = 0; i < columns; i++)
-         {
-            mask[i] = StringUtil.charAt(diffLine, i) != ' ';
-            if (mask[i])
-            {
-               if (directive == ' ')
-                  directive = StringUtil.charAt(diffLine, i);
-               else if (directive != StringUtil.charAt(diffLine,i))
-                  throw new DiffFormatException("Conflicting directives");
-            }
-         }
+         String diffLine = nextChunkLine(columns);
+         int directive = readDirective(diffLine, columns, mask);
+         advance(directive, mask, counts, positions);
 
          switch (directive)
          {
             case ' ':
-               // All positions increase by one (including new)
-
-               addToSelected(positions, MASK_ALL, +1);
-               addToSelected(counts, MASK_ALL, -1);
                lines.add(new Line(Type.Same,
                                   MASK_ALL,
                                   clone(positions),
@@ -143,10 +115,6 @@ public class UnifiedParser implements DiffParser
                                   diffIndex_));
                break;
             case '-':
-               // Masked positions increase by one
-
-               addToSelected(positions, mask, +1);
-               addToSelected(counts, mask, -1);
                lines.add(new Line(Type.Deletion,
                                   clone(mask),
                                   clone(positions),
@@ -154,10 +122,6 @@ public class UnifiedParser implements DiffParser
                                   diffIndex_));
                break;
             case '+':
-               // Unmasked positions increase by one (including new)
-
-               addToUnselected(positions, mask, +1);
-               addToUnselected(counts, mask, -1);
                lines.add(new Line(Type.Insertion,
                                   complement(mask),
                                   clone(positions),
@@ -165,8 +129,6 @@ public class UnifiedParser implements DiffParser
                                   diffIndex_));
                break;
             case '\\':
-               // No positions move??
-
                // e.g. "\\ No newline at end of file"
                lines.add(new Line(Type.Comment,
                                   MASK_NONE,
@@ -174,8 +136,6 @@ public class UnifiedParser implements DiffParser
                                   diffLine.substring(columns),
                                   diffIndex_));
                break;
-            default:
-               throw new DiffFormatException("Unexpected leading character");
          }
       }
 
@@ -185,6 +145,148 @@ public class UnifiedParser implements DiffParser
       return new DiffChunk(ranges, chunkHeaderInfo.extraInfo, lines, chunkDiffIndex);
    }
 
+   /**
+    * Reads past the next chunk in the same way as nextChunk, but without
+    * building its lines (see LazyUnifiedDiff). Returns the number of lines
+    * in the chunk, or -1 if there are no more chunks in the current file.
+    * The chunk's header starts at getChunkStart(), and its last line ends
+    * at getPosition().
+    */
+   public int skipChunk()
+   {
+      ChunkHeaderInfo chunkHeaderInfo = nextChunkHeader();
+      if (chunkHeaderInfo == null)
+         return -1;
+
+      diffIndex_++;
+
+      Range[] ranges = chunkHeaderInfo.ranges;
+      int[] counts = new int[ranges.length];
+      int[] positions = new int[ranges.length];
+      initCounts(ranges, counts, positions);
+      int columns = ranges.length - 1;
+
+      boolean[] mask = new boolean[ranges.length];
+
+      int lines = 0;
+      for (;
+           !isEmpty(counts) || nextLineIsComment();
+           diffIndex_++, lines++)
+      {
+         String diffLine = nextChunkLine(columns);
+         advance(readDirective(diffLine, columns, mask), mask, counts, positions);
+      }
+
+      if (!isZero(counts))
+         throw new DiffFormatException("Diff didn't match header ranges");
+
+      return lines;
+   }
+
+   public int getPosition()
+   {
+      return pos_;
+   }
+
+   public int getChunkStart()
+   {
+      return chunkStart_;
+   }
+
+   // Finds and parses the next chunk header in the current file
+   private ChunkHeaderInfo nextChunkHeader()
+   {
+      String nextLine = peekLine();
+      if (nextLine != null && isNewFileLine(nextLine))
+         return null;
+
+      String line;
+      int lineStart = pos_;
+      while (null != (line = nextLine()) && !(line.startsWith("@@") || line.startsWith("--- ")))
+      {
+         lineStart = pos_;
+      }
+
+      if (line == null)
+         return null;
+
+      if (line.startsWith("--- "))
+         return null;
+
+      ChunkHeaderInfo chunkHeaderInfo = new ChunkHeaderParser(line).parse();
+      if (chunkHeaderInfo == null)
+         throw new DiffFormatException("Malformed chunk header");
+
+      chunkStart_ = lineStart;
+      return chunkHeaderInfo;
+   }
+
+   private void initCounts(Range[] ranges, int[] counts, int[] positions)
+   {
+      for (int i = 0; i < ranges.length; i++)
+      {
+         counts[i] = ranges[i].rowCount;
+         positions[i] = ranges[i].startRow-1;
+      }
+   }
+
+   private String nextChunkLine(int columns)
+   {
+      String diffLine = nextLine();
+      if (diffLine == null)
+         throw new DiffFormatException("Diff ended prematurely");
+      if (diffLine.length() < columns)
+         throw new DiffFormatException("Unexpected line format");
+      return diffLine;
+   }
+
+   // Fills in which columns of the line are marked, and returns the line's
+   // directive (' ', '-', '+' or '\')
+   private int readDirective(String diffLine, int columns, boolean[] mask)
+   {
+      int directive = ' ';
+      for (int i = 0; i < columns; i++)
+      {
+         mask[i] = StringUtil.charAt(diffLine, i) != ' ';
+         if (mask[i])
+         {
+            if (directive == ' ')
+               directive = StringUtil.charAt(diffLine, i);
+            else if (directive != StringUtil.charAt(diffLine,i))
+               throw new DiffFormatException("Conflicting directives");
+         }
+      }
+      return directive;
+   }
+
+   // Moves the positions (and consumes the counts) the directive applies to
+   private void advance(int directive, boolean[] mask, int[] counts, int[] positions)
+   {
+      switch (directive)
+      {
+         case ' ':
+            // All positions increase by one (including new)
+            addToAll(positions, +1);
+            addToAll(counts, -1);
+            break;
+         case '-':
+            // Masked positions increase by one
+            addToSelected(positions, mask, +1);
+            addToSelected(counts, mask, -1);
+            break;
+         case '+':
+            // Unmasked positions increase by one (including new)
+            addToUnselected(positions, mask, +1);
+            addToUnselected(counts, mask, -1);
+            break;
+         case '\\':
+            // No positions move
+            break;
+         default:
+            throw new DiffFormatException("Unexpected leading character");
+      }
+   }
+
    private boolean isNewFileLine(String nextLine)
    {
       return nextLine.startsWith("diff ") || nextLine.startsWith("Index: ");
@@ -212,6 +314,12 @@ public class UnifiedParser implements DiffParser
       return newArray;
    }
 
+   private void addToAll(int[] array, int value)
+   {
+      for (int i = 0; i < array.length; i++)
+         array[i] += value;
+   }
+
    private void addToSelected(int[] array, boolean[] mask, int value)
    {
       for (int i = 0; i < mask.length; i++)
@@ -304,6 +412,7 @@ public class UnifiedParser implements DiffParser
 
    private final String data_;
    private int pos_;
+   private int chunkStart_;
    private int diffIndex_;
 }
 
@@ -16,6 +16,7 @@ package org.rstudio.studio.client.workbench.views.vcs.common.events;
 
 import com.google.gwt.event.shared.EventHandler;
 import com.google.gwt.event.shared.GwtEvent;
+import org.rstudio.studio.client.workbench.views.vcs.common.model.VcsStatusDelta;
 
 public class VcsRefreshEvent extends GwtEvent<VcsRefreshEvent.Handler>
 {
@@ -23,6 +24,7 @@ public class VcsRefreshEvent extends GwtEvent<VcsRefreshEvent.Handler>
 
    private final Reason reason_;
    private final int delayMs_;
+   private final VcsStatusDelta statusDelta_;
 
    public static final Type<Handler> TYPE = new Type<>();
 
@@ -40,6 +42,14 @@ public class VcsRefreshEvent extends GwtEvent<VcsRefreshEvent.Handler>
    {
       reason_ = reason;
       delayMs_ = delayMs;
+      statusDelta_ = null;
+   }
+
+   public VcsRefreshEvent(Reason reason, VcsStatusDelta statusDelta)
+   {
+      reason_ = reason;
+      delayMs_ = 0;
+      statusDelta_ = statusDelta;
    }
 
    public Reason getReason()
@@ -52,6 +62,15 @@ public class VcsRefreshEvent extends GwtEvent<VcsRefreshEvent.Handler>
       return delayMs_;
    }
 
+   /**
+    * The changes made to the VCS status by this refresh, or null if they
+    * aren't known (in which case the full status should be reloaded).
+    */
+   public VcsStatusDelta getStatusDelta()
+   {
+      return statusDelta_;
+   }
+
    @Override
    public Type<Handler> getAssociatedType()
    {
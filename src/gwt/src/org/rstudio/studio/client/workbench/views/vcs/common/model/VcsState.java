@@ -35,6 +35,8 @@ import org.rstudio.studio.client.workbench.views.vcs.common.events.VcsRefreshEve
 import org.rstudio.studio.client.workbench.views.vcs.common.events.VcsRefreshEvent.Reason;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 
 public abstract class VcsState
 {
@@ -102,25 +104,22 @@ public abstract class VcsState
 
             if (status_ != null && status != null)
             {
-               for (int i = 0; i < status_.size(); i++)
-               {
-                  if (status.getRawPath() == status_.get(i).getRawPath())
-                  {
-                     if (StringUtil.notNull(status.getStatus()).trim().length() == 0)
-                        status_.remove(i);
-                     else
-                        status_.set(i, status);
-                     handlers_.fireEvent(new VcsRefreshEvent(Reason.FileChange));
-                     return;
-                  }
-               }
-
-               if (status.getStatus().trim().length() != 0)
-               {
-                  status_.add(status);
-                  handlers_.fireEvent(new VcsRefreshEvent(Reason.FileChange));
+               boolean clean = StringUtil.notNull(status.getStatus()).trim().length() == 0;
+               Integer index = statusIndex_.get(status.getRawPath());
+               if (index == null && clean)
                   return;
-               }
+
+               // the event is fired even if the status is unchanged (e.g. a
+               // modified file was saved again), as listeners showing the
+               // file's contents need to update
+               VcsStatusDelta delta = new VcsStatusDelta(statusVersion_);
+               if (clean)
+                  delta.remove(status.getRawPath());
+               else if (index == null || !VcsStatusDelta.isSame(status_.get(index), status))
+                  delta.update(status);
+
+               applyStatusDelta(delta);
+               handlers_.fireEvent(new VcsRefreshEvent(Reason.FileChange, delta));
             }
          }
       }));
@@ -170,6 +169,68 @@ public abstract class VcsState
       return status_;
    }
 
+   /**
+    * Returns a number identifying the current contents of getStatus(); it
+    * changes whenever the status list does.
+    */
+   public int getStatusVersion()
+   {
+      return statusVersion_;
+   }
+
+   /**
+    * Replaces the status list, returning the changes from the previous one
+    * (or null if there was none).
+    */
+   protected VcsStatusDelta setStatus(ArrayList<StatusAndPath> status)
+   {
+      VcsStatusDelta delta = status_ == null
+            ? null
+            : VcsStatusDelta.compute(statusVersion_, status_, status);
+
+      status_ = status;
+      statusVersion_++;
+      indexStatus();
+      return delta;
+   }
+
+   private void applyStatusDelta(VcsStatusDelta delta)
+   {
+      for (StatusAndPath item : delta.getUpdated())
+      {
+         Integer index = statusIndex_.get(item.getRawPath());
+         if (index != null)
+            status_.set(index, item);
+         else
+         {
+            statusIndex_.put(item.getRawPath(), status_.size());
+            status_.add(item);
+         }
+      }
+
+      if (!delta.getRemoved().isEmpty())
+      {
+         HashSet<String> removed = new HashSet<>(delta.getRemoved());
+         ArrayList<StatusAndPath> status = new ArrayList<>(status_.size());
+         for (StatusAndPath item : status_)
+         {
+            if (!removed.contains(item.getRawPath()))
+               status.add(item);
+         }
+         status_ = status;
+         indexStatus();
+      }
+
+      statusVersion_++;
+   }
+
+   private void indexStatus()
+   {
+      statusIndex_.clear();
+      for (int i = 0; i < status_.size(); i++)
+         statusIndex_.put(status_.get(i).getRawPath(), i);
+   }
+
    public void refresh()
    {
       if (session_.getSessionInfo().isVcsEnabled())
@@ -186,6 +247,10 @@ public abstract class VcsState
 
    protected final HandlerManager handlers_ = new HandlerManager(this);
    protected ArrayList<StatusAndPath> status_;
+   private int statusVersion_ = 0;
+
+   // index of each entry in status_, by raw path
+   private final HashMap<String, Integer> statusIndex_ = new HashMap<>();
    protected final EventBus eventBus_;
    protected final GlobalDisplay globalDisplay_;
    protected final Session session_;
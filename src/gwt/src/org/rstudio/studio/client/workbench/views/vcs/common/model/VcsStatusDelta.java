@@ -0,0 +1,105 @@
+/*
+ * VcsStatusDelta.java
+ *
+ * Copyright (C) 2021 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.vcs.common.model;
+
+import org.rstudio.core.client.StringUtil;
+import org.rstudio.studio.client.common.vcs.StatusAndPath;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * The difference between two VCS status lists, keyed by raw path: the
+ * entries that were added or whose status changed, and the paths that were
+ * removed. The delta applies to the status list with the given version
+ * (see VcsState.getStatusVersion); views that last saw another version
+ * must reload the full list instead.
+ */
+public class VcsStatusDelta
+{
+   public VcsStatusDelta(int baseVersion)
+   {
+      baseVersion_ = baseVersion;
+   }
+
+   public static VcsStatusDelta compute(int baseVersion,
+                                        ArrayList<StatusAndPath> oldStatus,
+                                        ArrayList<StatusAndPath> newStatus)
+   {
+      VcsStatusDelta delta = new VcsStatusDelta(baseVersion);
+
+      HashMap<String, StatusAndPath> previous = new HashMap<>();
+      for (StatusAndPath item : oldStatus)
+         previous.put(item.getRawPath(), item);
+
+      for (StatusAndPath item : newStatus)
+      {
+         StatusAndPath old = previous.remove(item.getRawPath());
+         if (old == null || !isSame(old, item))
+            delta.updated_.add(item);
+      }
+
+      delta.removed_.addAll(previous.keySet());
+      return delta;
+   }
+
+   public static boolean isSame(StatusAndPath a, StatusAndPath b)
+   {
+      return StringUtil.notNull(a.getStatus()).equals(StringUtil.notNull(b.getStatus())) &&
+             StringUtil.notNull(a.getPath()).equals(StringUtil.notNull(b.getPath())) &&
+             StringUtil.notNull(a.getChangelist()).equals(StringUtil.notNull(b.getChangelist())) &&
+             a.isDiscardable() == b.isDiscardable();
+   }
+
+   public void update(StatusAndPath item)
+   {
+      updated_.add(item);
+   }
+
+   public void remove(String rawPath)
+   {
+      removed_.add(rawPath);
+   }
+
+   public int getBaseVersion()
+   {
+      return baseVersion_;
+   }
+
+   /**
+    * Entries that are new or whose status changed.
+    */
+   public ArrayList<StatusAndPath> getUpdated()
+   {
+      return updated_;
+   }
+
+   /**
+    * Raw paths of entries that are no longer present.
+    */
+   public ArrayList<String> getRemoved()
+   {
+      return removed_;
+   }
+
+   public boolean isEmpty()
+   {
+      return updated_.isEmpty() && removed_.isEmpty();
+   }
+
+   private final int baseVersion_;
+   private final ArrayList<StatusAndPath> updated_ = new ArrayList<>();
+   private final ArrayList<String> removed_ = new ArrayList<>();
+}
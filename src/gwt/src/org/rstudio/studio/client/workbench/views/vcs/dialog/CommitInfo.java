@@ -47,6 +47,10 @@ public class CommitInfo extends JavaScriptObject
       return this.graph || "";
    }-*/;
 
+   public native final void setGraph(String graph) /*-{
+      this.graph = graph;
+   }-*/;
+
    public final Date getDate()
    {
       return new Date((long) getDateRaw() * 1000);
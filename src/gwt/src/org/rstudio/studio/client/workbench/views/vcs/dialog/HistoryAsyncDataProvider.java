@@ -14,20 +14,35 @@
  */
 package org.rstudio.studio.client.workbench.views.vcs.dialog;
 
+import com.google.gwt.event.shared.HandlerRegistration;
 import com.google.gwt.user.cellview.client.AbstractHasData;
+import com.google.gwt.user.client.Timer;
 import com.google.gwt.user.client.ui.HasValue;
 import com.google.gwt.view.client.AsyncDataProvider;
 import com.google.gwt.view.client.HasData;
 import com.google.gwt.view.client.Range;
 import com.google.inject.Inject;
 import org.rstudio.core.client.Debug;
+import org.rstudio.core.client.LruCache;
+import org.rstudio.core.client.StringUtil;
 import org.rstudio.core.client.files.FileSystemItem;
 import org.rstudio.core.client.jsonrpc.RpcObjectList;
 import org.rstudio.studio.client.common.SimpleRequestCallback;
 import org.rstudio.studio.client.common.Value;
 import org.rstudio.studio.client.server.ServerError;
 import org.rstudio.studio.client.server.ServerRequestCallback;
+import org.rstudio.studio.client.workbench.views.vcs.common.events.VcsRefreshEvent;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Pages of history are cached by revision, file filter and search text, so
+ * paging back, or returning to an earlier branch or search, doesn't go back
+ * to the server. While the user is idle, the page after the one shown is
+ * prefetched. The cache is cleared after VCS operations and when the
+ * history is explicitly refreshed.
+ */
 public abstract class HistoryAsyncDataProvider extends AsyncDataProvider<CommitInfo>
 {
    @Inject
@@ -47,6 +62,16 @@ public abstract class HistoryAsyncDataProvider extends AsyncDataProvider<CommitI
    public void addDataDisplay(HasData<CommitInfo> display)
    {
       super.addDataDisplay(display);
+
+      if (refreshHandler_ == null)
+      {
+         // commits, checkouts, pulls etc. can change any page of history
+         refreshHandler_ = strategy_.addVcsRefreshHandler(event ->
+         {
+            if (event.getReason() == VcsRefreshEvent.Reason.VcsOperation)
+               clearCache();
+         });
+      }
    }
 
    public void setSearchText(HasValue<String> searchText)
@@ -64,10 +89,25 @@ public abstract class HistoryAsyncDataProvider extends AsyncDataProvider<CommitI
       rev_ = rev;
    }
    
-   
+   public void clearCache()
+   {
+      pages_.clear();
+      counts_.clear();
+      pending_.clear();
+      prefetchTimer_.cancel();
+      generation_++;
+      onCacheCleared();
+   }
 
    public void refreshCount()
    {
+      final String query = getQueryKey();
+      final int generation = generation_;
+
+      Integer cachedCount = counts_.get(query);
+      if (cachedCount != null)
+         updateRowCount(cachedCount, true);
+
       getHistoryCount(
             rev_, 
             fileFilter_.getValue(), 
@@ -77,6 +117,16 @@ public abstract class HistoryAsyncDataProvider extends AsyncDataProvider<CommitI
          @Override
          public void onResponseReceived(CommitCount response)
          {
+            if (generation == generation_)
+            {
+               // if the number of commits changed, so (most likely) did the
+               // pages we have for this query
+               Integer previous = counts_.get(query);
+               if (previous != null && previous != response.getCount())
+                  removePages(query);
+               counts_.put(query, response.getCount());
+            }
+
             updateRowCount(response.getCount(), true);
          }
 
@@ -98,35 +148,128 @@ public abstract class HistoryAsyncDataProvider extends AsyncDataProvider<CommitI
       if (length == 0)
          return;
 
+      prefetchTimer_.cancel();
+
+      loadPage(start, length, new PageCallback()
+      {
+         @Override
+         public void onLoaded(ArrayList<CommitInfo> commits)
+         {
+            if (commits.size() < length)
+               updateRowCount(start + commits.size(), true);
+            updateRowData(start, commits);
+
+            if (commits.size() == length)
+               schedulePrefetch(start + length, length);
+         }
+
+         @Override
+         public void onError(ServerError error)
+         {
+            if (display instanceof AbstractHasData)
+            {
+               display.setVisibleRangeAndClearData(new Range(start, 0), true);
+            }
+            if (strategy_.getShowHistoryErrors())
+               new SimpleRequestCallback<Void>("Error Fetching History").onError(error);
+            else
+               Debug.logError(error);
+         }
+      });
+   }
+
+   private void schedulePrefetch(int start, int length)
+   {
+      Integer count = counts_.get(getQueryKey());
+      if (count != null && start >= count)
+         return;
+
+      prefetchStart_ = start;
+      prefetchLength_ = length;
+      prefetchTimer_.schedule(PREFETCH_DELAY_MS);
+   }
+
+   private void loadPage(int start, int length, PageCallback callback)
+   {
+      final String key = getPageKey(getQueryKey(), start, length);
+
+      ArrayList<CommitInfo> cached = pages_.get(key);
+      if (cached != null)
+      {
+         callback.onLoaded(cached);
+         return;
+      }
+
+      // if this page is already being fetched (e.g. it's being prefetched),
+      // just wait for it to arrive
+      ArrayList<PageCallback> waiting = pending_.get(key);
+      if (waiting != null)
+      {
+         waiting.add(callback);
+         return;
+      }
+
+      final ArrayList<PageCallback> callbacks = new ArrayList<>();
+      callbacks.add(callback);
+      pending_.put(key, callbacks);
+
+      final int generation = generation_;
       getHistory(
             rev_, fileFilter_.getValue(),
             start, length, searchText_.getValue(),
-            new SimpleRequestCallback<RpcObjectList<CommitInfo>>("Error Fetching History")
+            new ServerRequestCallback<RpcObjectList<CommitInfo>>()
             {
                @Override
                public void onResponseReceived(RpcObjectList<CommitInfo> response)
                {
-                  super.onResponseReceived(response);
-                  if (response.length() < length)
-                     updateRowCount(start + response.length(), true);
-                  updateRowData(start, response.toArrayList());
+                  ArrayList<CommitInfo> commits = response.toArrayList();
+                  if (generation == generation_)
+                  {
+                     pending_.remove(key);
+                     pages_.put(key, commits);
+                  }
+                  for (PageCallback callback : callbacks)
+                     callback.onLoaded(commits);
                }
 
                @Override
                public void onError(ServerError error)
                {
-                  if (display instanceof AbstractHasData)
-                  {
-                     display.setVisibleRangeAndClearData(new Range(start, 0), true);
-                  }
-                  if (strategy_.getShowHistoryErrors())
-                     super.onError(error);
-                  else
-                     Debug.logError(error);
+                  if (generation == generation_)
+                     pending_.remove(key);
+                  for (PageCallback callback : callbacks)
+                     callback.onError(error);
                }
             });
    }
 
+   private void removePages(String query)
+   {
+      String prefix = query + "\n";
+      pages_.keySet().removeIf(key -> key.startsWith(prefix));
+   }
+
+   private String getQueryKey()
+   {
+      FileSystemItem fileFilter = fileFilter_.getValue();
+      return StringUtil.notNull(rev_) + "\n" +
+             (fileFilter != null ? fileFilter.getPath() : "") + "\n" +
+             StringUtil.notNull(searchText_.getValue()).trim();
+   }
+
+   private String getPageKey(String query, int start, int length)
+   {
+      return query + "\n" + start + "\n" + length;
+   }
+
+   /**
+    * Called when cached pages are dropped, so that subclasses can drop any
+    * state derived from them.
+    */
+   protected void onCacheCleared()
+   {
+   }
+
    protected abstract void getHistoryCount(
          String revision,
          FileSystemItem fileFilter,
@@ -141,8 +284,54 @@ public abstract class HistoryAsyncDataProvider extends AsyncDataProvider<CommitI
          String searchText,
          ServerRequestCallback<RpcObjectList<CommitInfo>> requestCallback);
 
+   private interface PageCallback
+   {
+      void onLoaded(ArrayList<CommitInfo> commits);
+      void onError(ServerError error);
+   }
+
+   private final Timer prefetchTimer_ = new Timer()
+   {
+      @Override
+      public void run()
+      {
+         loadPage(prefetchStart_, prefetchLength_, new PageCallback()
+         {
+            @Override
+            public void onLoaded(ArrayList<CommitInfo> commits)
+            {
+            }
+
+            @Override
+            public void onError(ServerError error)
+            {
+               Debug.logError(error);
+            }
+         });
+      }
+   };
+
    private String rev_;
    private HasValue<String> searchText_;
    private HasValue<FileSystemItem> fileFilter_;
    private HistoryStrategy strategy_;
+   private HandlerRegistration refreshHandler_;
+
+   // fetched pages, keyed by query and range, and commit counts by query
+   private final LruCache<String, ArrayList<CommitInfo>> pages_ = new LruCache<>(MAX_PAGES);
+   private final LruCache<String, Integer> counts_ = new LruCache<>(MAX_COUNTS);
+
+   // pages being fetched, and the callbacks waiting on them
+   private final HashMap<String, ArrayList<PageCallback>> pending_ = new HashMap<>();
+
+   // incremented whenever the cache is cleared, so that responses to
+   // requests made before then aren't cached
+   private int generation_ = 0;
+
+   private int prefetchStart_;
+   private int prefetchLength_;
+
+   private static final int MAX_PAGES = 20;
+   private static final int MAX_COUNTS = 20;
+   private static final int PREFETCH_DELAY_MS = 500;
 }
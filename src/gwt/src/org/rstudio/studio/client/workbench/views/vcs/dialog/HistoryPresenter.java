@@ -193,6 +193,7 @@ public class HistoryPresenter
          @Override
          public void onClick(ClickEvent event)
          {
+            strategy_.clearCache();
             refreshHistory();
          }
       });
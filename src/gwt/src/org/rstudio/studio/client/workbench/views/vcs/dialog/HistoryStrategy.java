@@ -56,6 +56,7 @@ public interface HistoryStrategy
    void onRangeChanged(HasData<CommitInfo> display);
 
    void refreshCount();
+   void clearCache();
 
    void initializeHistory(HasData<CommitInfo> dataDisplay);
 
@@ -0,0 +1,133 @@
+/*
+ * GitGraph.java
+ *
+ * Copyright (C) 2021 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.vcs.dialog.graph;
+
+import java.util.ArrayList;
+
+/**
+ * Client-side port of core::gitgraph::GitGraph (see GitGraph.cpp). Commits
+ * must be added in the same order as the server would (rev-list
+ * --date-order, newest first); each call yields the graph line for that
+ * commit, in the format parsed by GraphLine.
+ *
+ * Since the layout of a commit only depends on the commits before it, the
+ * graph can be built up a page at a time as the history is browsed.
+ */
+public class GitGraph
+{
+   public String addCommit(String commit, String[] parents)
+   {
+      // If this commit is a merge, the other branches are inserted just to
+      // the right of the column expecting it; if no column expects it, new
+      // columns go to the right of all the existing ones.
+      int insertNewColumnsAt = -1;
+      int parentsUsed = 0;
+
+      for (int i = 0; i < pendingLine_.size(); i++)
+      {
+         Column column = pendingLine_.get(i);
+         if (!column.preCommit.equals(commit))
+            continue;
+
+         // Only the first column expecting this commit carries on (with the
+         // first parent); any others terminate here.
+         if (insertNewColumnsAt == -1)
+         {
+            insertNewColumnsAt = i + 1;
+            if (parentsUsed == parents.length)
+               column.postCommit = "";
+            else
+               column.postCommit = parents[parentsUsed++];
+         }
+         else
+         {
+            column.postCommit = "";
+         }
+      }
+
+      if (insertNewColumnsAt == -1)
+         insertNewColumnsAt = pendingLine_.size();
+
+      // Make new columns for any parents we haven't already used.
+      while (parentsUsed != parents.length)
+      {
+         pendingLine_.add(insertNewColumnsAt++,
+                          new Column(nextColumnId_++, "", parents[parentsUsed++]));
+      }
+
+      String result = toString(pendingLine_);
+
+      // Get ready for the next commit: drop the columns that terminated and
+      // carry the others forward.
+      ArrayList<Column> nextLine = new ArrayList<>(pendingLine_.size());
+      for (Column column : pendingLine_)
+      {
+         if (column.postCommit.isEmpty())
+            continue;
+         column.preCommit = column.postCommit;
+         nextLine.add(column);
+      }
+      pendingLine_ = nextLine;
+
+      return result;
+   }
+
+   // Same format as Line::string() on the server.
+   private static String toString(ArrayList<Column> line)
+   {
+      StringBuilder output = new StringBuilder();
+      boolean sawNexus = false;
+      for (int i = 0; i < line.size(); i++)
+      {
+         Column c = line.get(i);
+         if (!c.preCommit.equals(c.postCommit))
+         {
+            if (!sawNexus)
+            {
+               sawNexus = true;
+               output.append("*");
+            }
+
+            if (c.preCommit.isEmpty())
+               output.append("+");
+            if (c.postCommit.isEmpty())
+               output.append("-");
+         }
+
+         output.append(c.id);
+
+         if (i < line.size() - 1)
+            output.append(" ");
+      }
+      return output.toString();
+   }
+
+   private static class Column
+   {
+      Column(int id, String preCommit, String postCommit)
+      {
+         this.id = id;
+         this.preCommit = preCommit;
+         this.postCommit = postCommit;
+      }
+
+      final int id;
+      String preCommit;
+      String postCommit;
+   }
+
+   private int nextColumnId_ = 0;
+   private ArrayList<Column> pendingLine_ = new ArrayList<>();
+}
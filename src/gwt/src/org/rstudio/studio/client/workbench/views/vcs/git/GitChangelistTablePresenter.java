@@ -22,6 +22,7 @@ import org.rstudio.studio.client.common.vcs.StatusAndPath;
 import org.rstudio.studio.client.workbench.prefs.model.UserPrefs;
 import org.rstudio.studio.client.workbench.views.vcs.common.events.StageUnstageEvent;
 import org.rstudio.studio.client.workbench.views.vcs.common.events.VcsRefreshEvent;
+import org.rstudio.studio.client.workbench.views.vcs.common.model.VcsStatusDelta;
 import org.rstudio.studio.client.workbench.views.vcs.git.model.GitState;
 
 import java.util.ArrayList;
@@ -66,7 +67,14 @@ public class GitChangelistTablePresenter
          @Override
          public void onVcsRefresh(VcsRefreshEvent event)
          {
-            view_.setItems(gitState_.getStatus());
+            // patch the rows that changed if we're up to date with the
+            // status the changes were made to; otherwise reload them all
+            VcsStatusDelta delta = event.getStatusDelta();
+            if (delta != null && delta.getBaseVersion() == statusVersion_)
+               view_.applyDelta(delta);
+            else
+               view_.setItems(gitState_.getStatus());
+            statusVersion_ = gitState_.getStatusVersion();
 
             RemoteBranchInfo remote = gitState_.getRemoteBranchInfo();
             if (remote != null && remote.getCommitsBehind() > 0)
@@ -100,4 +108,7 @@ public class GitChangelistTablePresenter
    private final GitChangelistTable view_;
    private final GitState gitState_;
    private final UserPrefs prefs_;
+
+   // version of the git status currently displayed
+   private int statusVersion_ = -1;
 }
@@ -15,13 +15,18 @@
 package org.rstudio.studio.client.workbench.views.vcs.git.dialog;
 
 import com.google.inject.Inject;
+import org.rstudio.core.client.StringUtil;
 import org.rstudio.core.client.files.FileSystemItem;
 import org.rstudio.core.client.jsonrpc.RpcObjectList;
 import org.rstudio.studio.client.common.vcs.GitServerOperations;
+import org.rstudio.studio.client.server.ServerError;
 import org.rstudio.studio.client.server.ServerRequestCallback;
 import org.rstudio.studio.client.workbench.views.vcs.dialog.CommitCount;
 import org.rstudio.studio.client.workbench.views.vcs.dialog.CommitInfo;
 import org.rstudio.studio.client.workbench.views.vcs.dialog.HistoryAsyncDataProvider;
+import org.rstudio.studio.client.workbench.views.vcs.dialog.graph.GitGraph;
+
+import java.util.ArrayList;
 
 public class GitHistoryAsyncDataProvider extends HistoryAsyncDataProvider
 {
@@ -44,20 +49,91 @@ public class GitHistoryAsyncDataProvider extends HistoryAsyncDataProvider
    }
 
    @Override
-   protected void getHistory(String revision,
+   protected void getHistory(final String revision,
                              FileSystemItem fileFilter,
-                             int skip,
+                             final int skip,
                              int maxEntries,
                              String searchText,
-                             ServerRequestCallback<RpcObjectList<CommitInfo>> requestCallback)
+                             final ServerRequestCallback<RpcObjectList<CommitInfo>> requestCallback)
    {
+      // The graph is only drawn for unfiltered history. We lay it out
+      // ourselves when the page starts within the commits laid out so far,
+      // which is always the case when paging forward from the top; the
+      // server only has to do it when we jump straight to a later page.
+      boolean unfiltered = fileFilter == null &&
+                           StringUtil.isNullOrEmpty(StringUtil.notNull(searchText).trim());
+      if (unfiltered && skip == 0 && !StringUtil.notNull(revision).equals(graphRev_))
+         resetGraph(revision);
+
+      final boolean layOut = unfiltered &&
+                             StringUtil.notNull(revision).equals(graphRev_) &&
+                             skip <= graphLines_.size();
+      final GitGraph graph = graph_;
+
       server_.gitHistory(revision,
                          fileFilter,
                          skip,
                          maxEntries,
                          searchText,
-                         requestCallback);
+                         unfiltered && !layOut,
+                         new ServerRequestCallback<RpcObjectList<CommitInfo>>()
+      {
+         @Override
+         public void onResponseReceived(RpcObjectList<CommitInfo> response)
+         {
+            if (layOut && graph == graph_)
+               layOutGraph(skip, response);
+            requestCallback.onResponseReceived(response);
+         }
+
+         @Override
+         public void onError(ServerError error)
+         {
+            requestCallback.onError(error);
+         }
+      });
+   }
+
+   @Override
+   protected void onCacheCleared()
+   {
+      resetGraph(null);
+   }
+
+   private void layOutGraph(int skip, RpcObjectList<CommitInfo> commits)
+   {
+      for (int i = 0; i < commits.length(); i++)
+      {
+         CommitInfo commit = commits.get(i);
+         int row = skip + i;
+
+         // rows we've already laid out (e.g. a page that was evicted from
+         // the cache) are reused; the next row extends the layout
+         if (row == graphLines_.size())
+         {
+            String parents = commit.getParent();
+            graphLines_.add(graph_.addCommit(
+                  commit.getId(),
+                  parents.isEmpty() ? new String[] {} : parents.split(" ")));
+         }
+
+         if (row < graphLines_.size())
+            commit.setGraph(graphLines_.get(row));
+      }
+   }
+
+   private void resetGraph(String revision)
+   {
+      graphRev_ = revision == null ? null : StringUtil.notNull(revision);
+      graph_ = new GitGraph();
+      graphLines_ = new ArrayList<>();
    }
 
    private final GitServerOperations server_;
+
+   // the graph of the unfiltered history of graphRev_, laid out up to the
+   // last row of graphLines_
+   private String graphRev_;
+   private GitGraph graph_ = new GitGraph();
+   private ArrayList<String> graphLines_ = new ArrayList<>();
 }
@@ -58,11 +58,10 @@ import org.rstudio.studio.client.workbench.commands.Commands;
 import org.rstudio.studio.client.workbench.prefs.model.UserPrefs;
 import org.rstudio.studio.client.workbench.views.vcs.CheckoutBranchToolbarButton;
 import org.rstudio.studio.client.workbench.views.vcs.common.ChangelistTable;
-import org.rstudio.studio.client.workbench.views.vcs.common.diff.ChunkOrLine;
+import org.rstudio.studio.client.workbench.views.vcs.common.diff.LazyUnifiedDiff;
 import org.rstudio.studio.client.workbench.views.vcs.common.diff.LineTablePresenter;
 import org.rstudio.studio.client.workbench.views.vcs.common.diff.LineTableView;
 import org.rstudio.studio.client.workbench.views.vcs.dialog.SharedStyles;
-import org.rstudio.studio.client.workbench.views.vcs.dialog.SizeWarningWidget;
 import org.rstudio.studio.client.workbench.views.vcs.git.dialog.GitReviewPresenter.Display;
 import org.rstudio.studio.client.workbench.views.vcs.git.GitChangelistTablePresenter;
 
@@ -232,8 +231,6 @@ public class GitReviewPanel extends ResizeComposite implements Display
       lines_ = diffPane;
       lines_.getElement().setTabIndex(-1);
 
-      overrideSizeWarning_ = new SizeWarningWidget("diff");
-
       topToolbar_ = new Toolbar("Git Review");
       diffToolbar_ = new Toolbar("Git Diff");
 
@@ -242,6 +239,8 @@ public class GitReviewPanel extends ResizeComposite implements Display
       Widget widget = GWT.<Binder>create(Binder.class).createAndBindUi(this);
       initWidget(widget);
 
+      lines_.setScrollContainer(diffScroll_);
+
       topToolbar_.addStyleName(RES.styles().toolbar());
       topToolbar_.getWrapper().addStyleName(RES.styles().toolbarInnerWrapper());
 
@@ -493,12 +492,12 @@ public class GitReviewPanel extends ResizeComposite implements Display
    }
 
    @Override
-   public void setData(ArrayList<ChunkOrLine> lines, PatchMode patchMode)
+   public void setDiff(LazyUnifiedDiff diff, PatchMode patchMode)
    {
       int vscroll = diffScroll_.getVerticalScrollPosition();
       int hscroll = diffScroll_.getHorizontalScrollPosition();
 
-      getLineTableDisplay().setData(lines, patchMode);
+      getLineTableDisplay().setDiff(diff, patchMode);
 
       diffScroll_.setVerticalScrollPosition(vscroll);
       diffScroll_.setHorizontalScrollPosition(hscroll);
@@ -590,25 +589,6 @@ public class GitReviewPanel extends ResizeComposite implements Display
       return listBoxAdapter_;
    }
 
-   @Override
-   public HasClickHandlers getOverrideSizeWarningButton()
-   {
-      return overrideSizeWarning_;
-   }
-
-   @Override
-   public void showSizeWarning(long sizeInBytes)
-   {
-      overrideSizeWarning_.setSize(sizeInBytes);
-      diffScroll_.setWidget(overrideSizeWarning_);
-   }
-
-   @Override
-   public void hideSizeWarning()
-   {
-      diffScroll_.setWidget(lines_);
-   }
-
    @Override
    public void showContextMenu(final int clientX,
                                final int clientY,
@@ -771,7 +751,6 @@ public class GitReviewPanel extends ResizeComposite implements Display
    private final Provider<UserPrefs> pPrefs_;
    private LeftRightToggleButton switchViewButton_;
 
-   private SizeWarningWidget overrideSizeWarning_;
 
    private static final Resources RES = GWT.create(Resources.class);
    static {
@@ -23,7 +23,6 @@ import com.google.gwt.event.logical.shared.HasAttachHandlers;
 import com.google.gwt.event.logical.shared.ValueChangeEvent;
 import com.google.gwt.event.logical.shared.ValueChangeHandler;
 import com.google.gwt.event.shared.HandlerRegistration;
-import com.google.gwt.json.client.JSONNumber;
 import com.google.gwt.user.client.Command;
 import com.google.gwt.user.client.ui.HasText;
 import com.google.gwt.user.client.ui.HasValue;
@@ -109,11 +108,7 @@ public class GitReviewPresenter implements ReviewPresenter
 
       HasValue<Boolean> getCommitIsAmend();
 
-      void setData(ArrayList<ChunkOrLine> lines, PatchMode patchMode);
-
-      HasClickHandlers getOverrideSizeWarningButton();
-      void showSizeWarning(long sizeInBytes);
-      void hideSizeWarning();
+      void setDiff(LazyUnifiedDiff diff, PatchMode patchMode);
 
       void showContextMenu(int clientX,
                            int clientY,
@@ -177,7 +172,9 @@ public class GitReviewPresenter implements ReviewPresenter
       public void onDiffLinesAction(DiffLinesActionEvent event)
       {
          ArrayList<Line> lines = view_.getLineTableDisplay().getSelectedLines();
-         doPatch(event.getAction(), lines, activeChunks_);
+         if (currentDiff_ == null)
+            return;
+         doPatch(event.getAction(), lines, currentDiff_.getChunksContaining(lines));
       }
 
       private void doPatch(Action action,
@@ -295,7 +292,6 @@ public class GitReviewPresenter implements ReviewPresenter
          @Override
          public void onSelectionChange(SelectionChangeEvent event)
          {
-            overrideSizeWarning_ = false;
             view_.setFilesCommandsEnabled(view_.getSelectedPaths().size() > 0);
             if (initialized_)
                updateDiff(true);
@@ -427,7 +423,7 @@ public class GitReviewPresenter implements ReviewPresenter
          @Override
          public void onValueChange(ValueChangeEvent<Boolean> booleanValueChangeEvent)
          {
-            server_.gitHistory("", null, 0, 1, null, new ServerRequestCallback<RpcObjectList<CommitInfo>>() {
+            server_.gitHistory("", null, 0, 1, null, false, new ServerRequestCallback<RpcObjectList<CommitInfo>>() {
                @Override
                public void onResponseReceived(RpcObjectList<CommitInfo> response)
                {
@@ -684,16 +680,6 @@ public class GitReviewPresenter implements ReviewPresenter
 
 
       });
-
-      view_.getOverrideSizeWarningButton().addClickHandler(new ClickHandler()
-      {
-         @Override
-         public void onClick(ClickEvent event)
-         {
-            overrideSizeWarning_ = true;
-            updateDiff(false);
-         }
-      });
    }
 
    private GitChangelistTable getTable()
@@ -732,8 +718,6 @@ public class GitReviewPresenter implements ReviewPresenter
 
    private void updateDiff(boolean allowModeSwitch)
    {
-      view_.hideSizeWarning();
-
       final ArrayList<StatusAndPath> paths = view_.getChangelistTable().getSelectedItems();
       if (paths.size() != 1)
       {
@@ -793,7 +777,7 @@ public class GitReviewPresenter implements ReviewPresenter
             item.getPath(),
             patchMode,
             view_.getContextLines().getValue(),
-            overrideSizeWarning_,
+            true,  // large diffs are parsed and rendered on demand
             uiPrefs_.gitDiffIgnoreWhitespace().getValue(),
             new SimpleRequestCallback<DiffResult>("Diff Error")
             {
@@ -810,38 +794,22 @@ public class GitReviewPresenter implements ReviewPresenter
                   currentResponse_ = response;
                   currentSourceEncoding_ = diffResult.getSourceEncoding();
 
-                  UnifiedParser parser = new UnifiedParser(response);
-                  parser.nextFilePair();
-
-                  ArrayList<ChunkOrLine> allLines = new ArrayList<>();
-
-                  activeChunks_.clear();
-                  for (DiffChunk chunk;
-                       null != (chunk = parser.nextChunk());)
-                  {
-                     activeChunks_.add(chunk);
-                     allLines.add(new ChunkOrLine(chunk));
-                     for (Line line : chunk.getLines())
-                        allLines.add(new ChunkOrLine(line));
-                  }
+                  // chunks are parsed as they're displayed; those unchanged
+                  // since the last diff of this file (e.g. after staging a
+                  // later chunk) are carried over as they are
+                  currentDiff_ = new LazyUnifiedDiff(response, currentDiff_);
 
                   view_.setShowActions(
                         !"??".equals(item.getStatus()) &&
                         !"UU".equals(item.getStatus()));
-                  view_.setData(allLines, patchMode);
+                  view_.setDiff(currentDiff_, patchMode);
                }
 
                @Override
                public void onError(ServerError error)
                {
-                  JSONNumber size = error.getClientInfo().isNumber();
-                  if (size != null)
-                     view_.showSizeWarning((long) size.doubleValue());
-                  else
-                  {
-                     if (error.getCode() != ServerError.TRANSMISSION)
-                        super.onError(error);
-                  }
+                  if (error.getCode() != ServerError.TRANSMISSION)
+                     super.onError(error);
                }
             });
    }
@@ -850,6 +818,7 @@ public class GitReviewPresenter implements ReviewPresenter
    {
       softModeSwitch_ = false;
       currentResponse_ = null;
+      currentDiff_ = null;
       currentFilename_ = null;
       view_.getLineTableDisplay().clear();
    }
@@ -929,7 +898,7 @@ public class GitReviewPresenter implements ReviewPresenter
    private final GitPresenterCore gitPresenterCore_;
    private final Display view_;
    private final GlobalDisplay globalDisplay_;
-   private ArrayList<DiffChunk> activeChunks_ = new ArrayList<>();
+   private LazyUnifiedDiff currentDiff_;
    private String currentResponse_;
    private String currentSourceEncoding_;
    private String currentFilename_;
@@ -944,5 +913,4 @@ public class GitReviewPresenter implements ReviewPresenter
    private static final String KEY_CONTEXT_LINES = "context_lines";
    private final int gitCommitLargeFileSize_;
 
-   private boolean overrideSizeWarning_ = false;
 }
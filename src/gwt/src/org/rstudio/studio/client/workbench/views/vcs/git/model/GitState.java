@@ -28,6 +28,7 @@ import org.rstudio.studio.client.workbench.model.Session;
 import org.rstudio.studio.client.workbench.views.vcs.common.events.VcsRefreshEvent;
 import org.rstudio.studio.client.workbench.views.vcs.common.events.VcsRefreshEvent.Reason;
 import org.rstudio.studio.client.workbench.views.vcs.common.model.VcsState;
+import org.rstudio.studio.client.workbench.views.vcs.common.model.VcsStatusDelta;
 
 @Singleton
 public class GitState extends VcsState
@@ -87,10 +88,10 @@ public class GitState extends VcsState
          @Override
          public void onResponseReceived(AllStatus response)
          {
-            status_ = StatusAndPath.fromInfos(response.getStatus());
+            VcsStatusDelta delta = setStatus(StatusAndPath.fromInfos(response.getStatus()));
             branches_ = response.getBranches();
             remoteBranchInfo_ = response.getRemoteBranchInfo();
-            handlers_.fireEvent(new VcsRefreshEvent(Reason.VcsOperation));
+            handlers_.fireEvent(new VcsRefreshEvent(Reason.VcsOperation, delta));
             if (onCompleted != null)
                onCompleted.execute();
          }
@@ -136,6 +136,12 @@ public class SVNHistoryStrategy implements HistoryStrategy
    {
    }
 
+   @Override
+   public void clearCache()
+   {
+      dataProvider_.clearCache();
+   }
+
    @Override
    public void initializeHistory(final HasData<CommitInfo> dataDisplay)
    {
@@ -30,6 +30,7 @@ import org.rstudio.studio.client.workbench.model.Session;
 import org.rstudio.studio.client.workbench.views.vcs.common.events.VcsRefreshEvent;
 import org.rstudio.studio.client.workbench.views.vcs.common.events.VcsRefreshEvent.Reason;
 import org.rstudio.studio.client.workbench.views.vcs.common.model.VcsState;
+import org.rstudio.studio.client.workbench.views.vcs.common.model.VcsStatusDelta;
 
 @Singleton
 public class SVNState extends VcsState
@@ -64,8 +65,8 @@ public class SVNState extends VcsState
          @Override
          public void onResponseReceived(JsArray<StatusAndPathInfo> response)
          {
-            status_ = StatusAndPath.fromInfos(response);
-            handlers_.fireEvent(new VcsRefreshEvent(Reason.VcsOperation));
+            VcsStatusDelta delta = setStatus(StatusAndPath.fromInfos(response));
+            handlers_.fireEvent(new VcsRefreshEvent(Reason.VcsOperation, delta));
          }
 
          @Override
@@ -0,0 +1,197 @@
+/*
+ * FuzzyMatcherTests.java
+ *
+ * Copyright (C) 2021 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.core.client;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.google.gwt.junit.client.GWTTestCase;
+
+public class FuzzyMatcherTests extends GWTTestCase
+{
+   @Override
+   public String getModuleName()
+   {
+      return "org.rstudio.studio.RStudioTests";
+   }
+
+   // Port of scoreMatch from SessionCodeSearch.cpp (matching against the
+   // lower-cased strings, as the client always has); the matcher must rank
+   // candidates exactly as this does
+   private static int referenceScore(String suggestion, String query, boolean isFile)
+   {
+      if (suggestion.equals(query))
+         return 0;
+
+      String suggestionLower = suggestion.toLowerCase();
+      String queryLower = query.toLowerCase();
+
+      List<Integer> matches = new ArrayList<>();
+      int prevMatchIndex = -1;
+      for (int i = 0; i < queryLower.length(); i++)
+      {
+         int index = suggestionLower.indexOf(queryLower.charAt(i), prevMatchIndex + 1);
+         if (index == -1)
+            continue;
+         matches.add(index);
+         prevMatchIndex = index;
+      }
+
+      int totalPenalty = 0;
+      for (int j = 0; j < matches.size(); j++)
+      {
+         int matchPos = matches.get(j);
+         int penalty = matchPos;
+
+         if (matchPos >= 1)
+         {
+            char prevChar = suggestionLower.charAt(matchPos - 1);
+            if (prevChar == '_' || prevChar == '-' || (!isFile && prevChar == '.'))
+               penalty = j + 1;
+         }
+
+         if (suggestion.charAt(matchPos) == query.charAt(j))
+            penalty--;
+
+         if (suggestion.equals("RcppExports.R") || suggestion.equals("RcppExports.cpp"))
+            penalty += 6;
+
+         if (StringUtil.getExtension(suggestionLower).equals("rd"))
+            penalty += 6;
+
+         totalPenalty += penalty;
+      }
+
+      if (isFile)
+         totalPenalty++;
+
+      totalPenalty += (query.length() - matches.size()) * query.length();
+      return totalPenalty;
+   }
+
+   private static final String[] CANDIDATES = new String[] {
+         "read_csv", "read.csv", "readRDS", "readLines", "read.table",
+         "foo.Rd", "RcppExports.R", "RcppExports.cpp", "server.R", "ui.R",
+         "data-raw", "abc", "mean", "a_b_c", "Reduce", "rev", "rowMeans",
+         "R_csv_reader.cpp", ".libPaths", "rstudioapi"
+   };
+
+   private static final String[] QUERIES = new String[] {
+         "rc", "RC", "rds", "RDS", "foo", "rcpp", "sr", "dr", "abc", "xyz",
+         "man", "r", "R", "rdcsv", "lib", ""
+   };
+
+   public void testKnownScores()
+   {
+      assertEquals(0, new FuzzyMatcher("rc").score("read_csv", false));
+      assertEquals(0, new FuzzyMatcher("rc").score("read.csv", false));
+      assertEquals(7, new FuzzyMatcher("rds").score("readRDS", false));
+      assertEquals(8, new FuzzyMatcher("RDS").score("readRDS", false));
+      assertEquals(19, new FuzzyMatcher("foo").score("foo.Rd", true));
+      assertEquals(28, new FuzzyMatcher("rcpp").score("RcppExports.R", true));
+      assertEquals(1, new FuzzyMatcher("sr").score("server.R", true));
+      assertEquals(1, new FuzzyMatcher("dr").score("data-raw", true));
+      assertEquals(0, new FuzzyMatcher("abc").score("abc", false));
+      assertEquals(9, new FuzzyMatcher("xyz").score("abc", false));
+      assertEquals(2, new FuzzyMatcher("man").score("mean", false));
+      assertEquals(2, new FuzzyMatcher("abc").score("a_b_c", false));
+   }
+
+   public void testScoresMatchReference()
+   {
+      for (String query : QUERIES)
+      {
+         FuzzyMatcher matcher = new FuzzyMatcher(query);
+         for (String candidate : CANDIDATES)
+         {
+            String key = FuzzyMatcher.fold(candidate);
+            for (boolean isFile : new boolean[] { false, true })
+            {
+               assertEquals(candidate + " / " + query,
+                     referenceScore(candidate, query, isFile),
+                     matcher.score(candidate, key, isFile));
+            }
+         }
+      }
+   }
+
+   public void testRankingMatchesReference()
+   {
+      for (final String query : QUERIES)
+      {
+         final FuzzyMatcher matcher = new FuzzyMatcher(query);
+
+         List<String> expected = new ArrayList<>(Arrays.asList(CANDIDATES));
+         Collections.sort(expected, (lhs, rhs) ->
+         {
+            int result = Integer.compare(referenceScore(lhs, query, false),
+                                         referenceScore(rhs, query, false));
+            return result != 0 ? result : lhs.compareTo(rhs);
+         });
+
+         List<String> actual = new ArrayList<>(Arrays.asList(CANDIDATES));
+         Collections.sort(actual, (lhs, rhs) ->
+         {
+            int result = Integer.compare(matcher.score(lhs, false),
+                                         matcher.score(rhs, false));
+            return result != 0 ? result : lhs.compareTo(rhs);
+         });
+
+         assertEquals(query, expected, actual);
+      }
+   }
+
+   public void testMatchPositions()
+   {
+      FuzzyMatcher matcher = new FuzzyMatcher("RDS");
+      matcher.score("readRDS", false);
+      assertEquals(3, matcher.getMatchCount());
+      assertEquals(0, matcher.getMatchPosition(0));
+      assertEquals(3, matcher.getMatchPosition(1));
+      assertEquals(6, matcher.getMatchPosition(2));
+
+      // unmatched characters are skipped
+      matcher = new FuzzyMatcher("mxn");
+      matcher.score("mean", false);
+      assertEquals(2, matcher.getMatchCount());
+      assertEquals(0, matcher.getMatchPosition(0));
+      assertEquals(3, matcher.getMatchPosition(1));
+   }
+
+   public void testMatches()
+   {
+      assertTrue(new FuzzyMatcher("RC").matches(FuzzyMatcher.fold("read_csv")));
+      assertTrue(new FuzzyMatcher("rds").matches(FuzzyMatcher.fold("readRDS")));
+      assertTrue(new FuzzyMatcher("").matches("anything"));
+      assertFalse(new FuzzyMatcher("csvr").matches(FuzzyMatcher.fold("read_csv")));
+      assertFalse(new FuzzyMatcher("readcsvs").matches(FuzzyMatcher.fold("read_csv")));
+
+      for (String query : QUERIES)
+      {
+         if (query.isEmpty())
+            continue;
+
+         FuzzyMatcher matcher = new FuzzyMatcher(query);
+         for (String candidate : CANDIDATES)
+         {
+            assertEquals(candidate + " / " + query,
+                  StringUtil.isSubsequence(candidate, query, true),
+                  matcher.matches(FuzzyMatcher.fold(candidate)));
+         }
+      }
+   }
+}
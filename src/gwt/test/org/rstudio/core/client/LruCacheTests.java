@@ -0,0 +1,66 @@
+/*
+ * LruCacheTests.java
+ *
+ * Copyright (C) 2021 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.core.client;
+
+import com.google.gwt.junit.client.GWTTestCase;
+
+public class LruCacheTests extends GWTTestCase
+{
+   @Override
+   public String getModuleName()
+   {
+      return "org.rstudio.studio.RStudioTests";
+   }
+
+   public void testEvictsEldestWhenFull()
+   {
+      LruCache<String, Integer> cache = new LruCache<>(2);
+      cache.put("a", 1);
+      cache.put("b", 2);
+      cache.put("c", 3);
+
+      assertEquals(2, cache.size());
+      assertFalse(cache.containsKey("a"));
+      assertEquals(Integer.valueOf(2), cache.get("b"));
+      assertEquals(Integer.valueOf(3), cache.get("c"));
+   }
+
+   public void testAccessRefreshesEntry()
+   {
+      LruCache<String, Integer> cache = new LruCache<>(2);
+      cache.put("a", 1);
+      cache.put("b", 2);
+
+      // reading "a" makes "b" the least recently used entry
+      cache.get("a");
+      cache.put("c", 3);
+
+      assertTrue(cache.containsKey("a"));
+      assertFalse(cache.containsKey("b"));
+      assertTrue(cache.containsKey("c"));
+   }
+
+   public void testReplaceDoesNotEvict()
+   {
+      LruCache<String, Integer> cache = new LruCache<>(2);
+      cache.put("a", 1);
+      cache.put("b", 2);
+      cache.put("a", 10);
+
+      assertEquals(2, cache.size());
+      assertEquals(Integer.valueOf(10), cache.get("a"));
+      assertEquals(Integer.valueOf(2), cache.get("b"));
+   }
+}
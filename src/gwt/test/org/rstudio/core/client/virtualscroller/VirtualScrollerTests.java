@@ -0,0 +1,250 @@
+/*
+ * VirtualScrollerTests.java
+ *
+ * Copyright (C) 2021 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.core.client.virtualscroller;
+
+import org.rstudio.core.client.theme.res.ThemeStyles;
+
+import com.google.gwt.dom.client.Document;
+import com.google.gwt.dom.client.Element;
+import com.google.gwt.dom.client.Style.Overflow;
+import com.google.gwt.dom.client.Style.Unit;
+import com.google.gwt.dom.client.TableElement;
+import com.google.gwt.junit.client.GWTTestCase;
+
+public class VirtualScrollerTests extends GWTTestCase
+{
+   @Override
+   public String getModuleName()
+   {
+      return "org.rstudio.studio.RStudioTests";
+   }
+
+   @Override
+   protected void gwtSetUp()
+   {
+      scrollElement_ = Document.get().createDivElement();
+      scrollElement_.getStyle().setHeight(100, Unit.PX);
+      scrollElement_.getStyle().setOverflow(Overflow.AUTO);
+      container_ = Document.get().createPreElement();
+      scrollElement_.appendChild(container_);
+      Document.get().getBody().appendChild(scrollElement_);
+   }
+
+   @Override
+   protected void gwtTearDown()
+   {
+      VirtualScrollerManager.remove(container_);
+      scrollElement_.removeFromParent();
+   }
+
+   public void testAppendsAreBatched()
+   {
+      VirtualScroller scroller = VirtualScrollerManager.create(container_, scrollElement_);
+      scroller.append(line("hello"));
+      assertEquals("", getTextContent(container_));
+
+      scroller.flush();
+      assertEquals("hello\n", getTextContent(container_));
+   }
+
+   public void testFillsBucketsByLines()
+   {
+      VirtualScroller scroller = VirtualScrollerManager.create(container_, scrollElement_);
+      appendLines(scroller, BUCKET_LINES * 2 + 20);
+      scroller.flush();
+
+      assertEquals(3, container_.getChildCount());
+      assertEquals(BUCKET_LINES, container_.getFirstChildElement().getChildCount() - 1);
+   }
+
+   public void testMovesExistingOutputIntoBuckets()
+   {
+      container_.appendChild(line("before"));
+      VirtualScroller scroller = VirtualScrollerManager.create(container_, scrollElement_);
+      scroller.append(line("after"));
+      scroller.flush();
+
+      assertEquals(1, container_.getChildCount());
+      assertEquals("before\nafter\n", getTextContent(container_));
+   }
+
+   public void testShowsLatestBuckets()
+   {
+      VirtualScroller scroller = VirtualScrollerManager.create(container_, scrollElement_);
+      appendLines(scroller, BUCKET_LINES * (VISIBLE_BUCKETS + 2));
+      scroller.flush();
+
+      assertEquals(VISIBLE_BUCKETS + 2, container_.getChildCount());
+      assertHidden(container_, 0, 1);
+      assertVisible(container_, 2, VISIBLE_BUCKETS + 1);
+      assertTrue(scroller.isWindowAtBottom());
+   }
+
+   public void testEnsureVisibleMovesWindow()
+   {
+      VirtualScroller scroller = VirtualScrollerManager.create(container_, scrollElement_);
+      appendLines(scroller, BUCKET_LINES * (VISIBLE_BUCKETS + 2));
+      scroller.flush();
+
+      Element first = container_.getFirstChildElement().getFirstChildElement();
+      scroller.ensureVisible(first);
+      assertVisible(container_, 0, VISIBLE_BUCKETS - 1);
+      assertHidden(container_, VISIBLE_BUCKETS, VISIBLE_BUCKETS + 1);
+      assertFalse(scroller.isWindowAtBottom());
+
+      // new output brings the latest buckets back into view
+      appendLines(scroller, 1);
+      scroller.flush();
+      assertHidden(container_, 0, 1);
+      assertTrue(scroller.isWindowAtBottom());
+   }
+
+   public void testClear()
+   {
+      VirtualScroller scroller = VirtualScrollerManager.create(container_, scrollElement_);
+      appendLines(scroller, BUCKET_LINES * 3);
+      scroller.append(line("pending"));
+      scroller.clear();
+      scroller.flush();
+
+      assertEquals(1, container_.getChildCount());
+      assertEquals("", getTextContent(container_));
+
+      scroller.append(line("again"));
+      scroller.flush();
+      assertEquals("again\n", getTextContent(container_));
+   }
+
+   public void testRemoveShowsHiddenOutput()
+   {
+      VirtualScroller scroller = VirtualScrollerManager.create(container_, scrollElement_);
+      appendLines(scroller, BUCKET_LINES * (VISIBLE_BUCKETS + 2));
+      scroller.append(line("pending"));
+
+      VirtualScrollerManager.remove(container_);
+      assertNull(VirtualScrollerManager.scrollerForElement(container_));
+      assertVisible(container_, 0, VISIBLE_BUCKETS + 1);
+      assertTrue(getTextContent(container_).endsWith("pending\n"));
+   }
+
+   public void testTableBodiesStayInPlace()
+   {
+      TableElement table = Document.get().createTableElement();
+      table.appendChild(body(BUCKET_LINES));
+      container_.appendChild(table);
+
+      VirtualScroller scroller = VirtualScrollerManager.createForTable(table, scrollElement_);
+      for (int i = 1; i < VISIBLE_BUCKETS + 2; i++)
+      {
+         Element body = body(BUCKET_LINES);
+         body.setAttribute("data-index", i + "");
+         table.appendChild(body);
+         scroller.append(body);
+      }
+      scroller.flush();
+
+      // the bodies keep their order, and the window stays at the top
+      assertEquals(VISIBLE_BUCKETS + 2, table.getChildCount());
+      for (int i = 1; i < VISIBLE_BUCKETS + 2; i++)
+         assertEquals(i + "", Element.as(table.getChild(i)).getAttribute("data-index"));
+      assertVisible(table, 0, VISIBLE_BUCKETS - 1);
+      assertHidden(table, VISIBLE_BUCKETS, VISIBLE_BUCKETS + 1);
+      assertFalse(scroller.isWindowAtBottom());
+
+      // selecting a row in a hidden body shows it
+      Element last = Element.as(table.getLastChild()).getFirstChildElement();
+      scroller.ensureVisible(last);
+      assertHidden(table, 0, 1);
+      assertVisible(table, 2, VISIBLE_BUCKETS + 1);
+      assertTrue(scroller.isWindowAtBottom());
+
+      VirtualScrollerManager.remove(table);
+   }
+
+   public void testSmallTableBodiesShareBuckets()
+   {
+      TableElement table = Document.get().createTableElement();
+      container_.appendChild(table);
+
+      VirtualScroller scroller = VirtualScrollerManager.createForTable(table, scrollElement_);
+      for (int i = 0; i < (VISIBLE_BUCKETS + 1) * 5; i++)
+      {
+         Element body = body(BUCKET_LINES / 5);
+         table.appendChild(body);
+         scroller.append(body);
+      }
+      scroller.flush();
+
+      // five bodies fill a bucket, so only the last five are hidden
+      int count = table.getChildCount();
+      assertVisible(table, 0, count - 6);
+      assertHidden(table, count - 5, count - 1);
+
+      VirtualScrollerManager.remove(table);
+   }
+
+   private static void appendLines(VirtualScroller scroller, int count)
+   {
+      for (int i = 0; i < count; i++)
+         scroller.append(line("line " + i));
+   }
+
+   private static Element line(String text)
+   {
+      Element span = Document.get().createSpanElement();
+      span.setInnerText(text + "\n");
+      return span;
+   }
+
+   private static Element body(int rows)
+   {
+      Element body = Document.get().createTBodyElement();
+      for (int i = 0; i < rows; i++)
+      {
+         Element row = Document.get().createTRElement();
+         Element cell = Document.get().createTDElement();
+         cell.setInnerText("row " + i);
+         row.appendChild(cell);
+         body.appendChild(row);
+      }
+      return body;
+   }
+
+   private static void assertHidden(Element parent, int first, int last)
+   {
+      for (int i = first; i <= last; i++)
+         assertTrue("child " + i, Element.as(parent.getChild(i)).hasClassName(HIDDEN_CLASS));
+   }
+
+   private static void assertVisible(Element parent, int first, int last)
+   {
+      for (int i = first; i <= last; i++)
+         assertFalse("child " + i, Element.as(parent.getChild(i)).hasClassName(HIDDEN_CLASS));
+   }
+
+   private static native String getTextContent(Element ele) /*-{
+      return ele.textContent;
+   }-*/;
+
+   private Element scrollElement_;
+   private Element container_;
+
+   // these must match BUCKET_MAX_LINES and MAX_VISIBLE_BUCKETS in
+   // VirtualScroller
+   private static final int BUCKET_LINES = 50;
+   private static final int VISIBLE_BUCKETS = 10;
+
+   private static final String HIDDEN_CLASS = ThemeStyles.INSTANCE.visuallyHidden();
+}
@@ -0,0 +1,79 @@
+/*
+ * BenchmarkResultsServlet.java
+ *
+ * Copyright (C) 2021 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.benchmark;
+
+import java.io.BufferedReader;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+// Receives results posted by client benchmarks (BenchmarkTestCase) and
+// appends them, one JSON object per line, to the file named by the
+// rstudio.benchmark.output system property. Each line records the commit
+// being measured (rstudio.benchmark.commit) and the time of the run along
+// with the result itself.
+public class BenchmarkResultsServlet extends HttpServlet
+{
+   @Override
+   protected void doPost(HttpServletRequest request,
+                         HttpServletResponse response) throws IOException
+   {
+      StringBuilder result = new StringBuilder();
+      BufferedReader reader = request.getReader();
+      String line;
+      while ((line = reader.readLine()) != null)
+         result.append(line.trim());
+
+      if (result.length() == 0 || result.charAt(0) != '{')
+      {
+         response.sendError(HttpServletResponse.SC_BAD_REQUEST,
+                            "Expected a JSON object");
+         return;
+      }
+
+      String record =
+            "{\"commit\":\"" + escape(System.getProperty(COMMIT_PROPERTY, "")) +
+            "\",\"timestamp\":" + System.currentTimeMillis() +
+            ",\"result\":" + result + "}\n";
+
+      synchronized (BenchmarkResultsServlet.class)
+      {
+         String path = System.getProperty(OUTPUT_PROPERTY, DEFAULT_OUTPUT);
+         try (Writer writer = new OutputStreamWriter(
+               new FileOutputStream(path, true), StandardCharsets.UTF_8))
+         {
+            writer.write(record);
+         }
+      }
+
+      response.setStatus(HttpServletResponse.SC_OK);
+   }
+
+   private static String escape(String value)
+   {
+      return value.trim().replace("\\", "\\\\").replace("\"", "\\\"");
+   }
+
+   private static final String OUTPUT_PROPERTY = "rstudio.benchmark.output";
+   private static final String COMMIT_PROPERTY = "rstudio.benchmark.commit";
+   private static final String DEFAULT_OUTPUT = "benchmark-results.jsonl";
+   private static final long serialVersionUID = 1L;
+}
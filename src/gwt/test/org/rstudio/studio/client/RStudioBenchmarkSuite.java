@@ -0,0 +1,45 @@
+/*
+ * RStudioBenchmarkSuite.java
+ *
+ * Copyright (C) 2021 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client;
+
+import org.rstudio.studio.client.benchmark.AnsiCodeBenchmarks;
+import org.rstudio.studio.client.benchmark.CsvReaderBenchmarks;
+import org.rstudio.studio.client.benchmark.RTokenizerBenchmarks;
+import org.rstudio.studio.client.benchmark.StringUtilBenchmarks;
+import org.rstudio.studio.client.benchmark.SubstringDiffBenchmarks;
+import org.rstudio.studio.client.benchmark.UnifiedParserBenchmarks;
+import org.rstudio.studio.client.benchmark.VirtualConsoleBenchmarks;
+
+import com.google.gwt.junit.tools.GWTTestSuite;
+
+import junit.framework.Test;
+
+// Client micro-benchmarks; run with 'ant benchmark' (see build.xml)
+public class RStudioBenchmarkSuite extends GWTTestSuite
+{
+   public static Test suite()
+   {
+      GWTTestSuite suite = new GWTTestSuite("RStudio Benchmark Suite");
+      suite.addTestSuite(VirtualConsoleBenchmarks.class);
+      suite.addTestSuite(AnsiCodeBenchmarks.class);
+      suite.addTestSuite(SubstringDiffBenchmarks.class);
+      suite.addTestSuite(UnifiedParserBenchmarks.class);
+      suite.addTestSuite(CsvReaderBenchmarks.class);
+      suite.addTestSuite(StringUtilBenchmarks.class);
+      suite.addTestSuite(RTokenizerBenchmarks.class);
+
+      return suite;
+   }
+}
@@ -17,13 +17,20 @@ package org.rstudio.studio.client;
 import org.rstudio.core.client.AnsiCodeTests;
 import org.rstudio.core.client.ConsoleOutputWriterTests;
 import org.rstudio.core.client.ElementIdsTests;
+import org.rstudio.core.client.FuzzyMatcherTests;
+import org.rstudio.core.client.LruCacheTests;
 import org.rstudio.core.client.SafeHtmlUtilTests;
 import org.rstudio.core.client.StringUtilTests;
 import org.rstudio.core.client.URIUtilsTests;
 import org.rstudio.core.client.VirtualConsoleTests;
 import org.rstudio.core.client.dom.DomUtilsTests;
+import org.rstudio.core.client.virtualscroller.VirtualScrollerTests;
 import org.rstudio.studio.client.application.model.SessionScopeTests;
+import org.rstudio.studio.client.common.debugging.BreakpointRegistryTests;
 import org.rstudio.studio.client.common.r.RTokenizerTests;
+import org.rstudio.studio.client.common.spelling.SpellingDictionaryTests;
+import org.rstudio.studio.client.workbench.codesearch.CodeSearchIndexTests;
+import org.rstudio.studio.client.workbench.views.history.model.HistoryIndexTests;
 import org.rstudio.studio.client.workbench.views.jobs.model.JobManagerTests;
 import org.rstudio.studio.client.workbench.views.jobs.view.JobsListTests;
 // Disabled in v1.3 due to failures. See #4249.
@@ -31,6 +38,7 @@ import org.rstudio.studio.client.workbench.views.jobs.view.JobsListTests;
 import org.rstudio.studio.client.workbench.views.terminal.TerminalLocalEchoTests;
 import org.rstudio.studio.client.workbench.views.terminal.TerminalSessionSocketTests;
 import org.rstudio.studio.client.workbench.views.source.editors.text.rmd.ChunkContextUiTests;
+import org.rstudio.studio.client.workbench.views.source.model.SourceDocumentCacheTests;
 
 import com.google.gwt.junit.tools.GWTTestSuite;
 
@@ -58,6 +66,14 @@ public class RStudioUnitTestSuite extends GWTTestSuite
       suite.addTestSuite(ElementIdsTests.class);
       suite.addTestSuite(ChunkContextUiTests.class);
       suite.addTestSuite(SafeHtmlUtilTests.class);
+      suite.addTestSuite(FuzzyMatcherTests.class);
+      suite.addTestSuite(LruCacheTests.class);
+      suite.addTestSuite(SpellingDictionaryTests.class);
+      suite.addTestSuite(CodeSearchIndexTests.class);
+      suite.addTestSuite(HistoryIndexTests.class);
+      suite.addTestSuite(BreakpointRegistryTests.class);
+      suite.addTestSuite(SourceDocumentCacheTests.class);
+      suite.addTestSuite(VirtualScrollerTests.class);
 
       return suite;
    }
@@ -0,0 +1,75 @@
+/*
+ * AnsiCodeBenchmarks.java
+ *
+ * Copyright (C) 2021 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.benchmark;
+
+import org.rstudio.core.client.AnsiCode;
+import org.rstudio.core.client.regex.Match;
+
+import com.google.gwt.user.client.Command;
+
+public class AnsiCodeBenchmarks extends BenchmarkTestCase
+{
+   public void testProcessSgrCodes()
+   {
+      // text interleaved with color, background and style changes
+      StringBuilder corpus = new StringBuilder();
+      for (int i = 0; i < CODES; i++)
+      {
+         switch (nextInt(4))
+         {
+         case 0:
+            corpus.append(AnsiCode.CSI)
+                  .append(AnsiCode.FOREGROUND_MIN + nextInt(8))
+                  .append(AnsiCode.SGR);
+            break;
+         case 1:
+            corpus.append(AnsiCode.CSI)
+                  .append(AnsiCode.BACKGROUND_EXT).append(';')
+                  .append(AnsiCode.EXT_BY_INDEX).append(';')
+                  .append(nextInt(256))
+                  .append(AnsiCode.SGR);
+            break;
+         case 2:
+            corpus.append(AnsiCode.CSI)
+                  .append(AnsiCode.BOLD).append(';')
+                  .append(AnsiCode.UNDERLINE)
+                  .append(AnsiCode.SGR);
+            break;
+         default:
+            corpus.append(AnsiCode.DEFAULTCOLORS);
+            break;
+         }
+         corpus.append(nextWord(1, 12)).append(' ');
+      }
+
+      final String data = corpus.toString();
+      benchmark("match and process SGR codes", data.length(), new Command()
+      {
+         @Override
+         public void execute()
+         {
+            AnsiCode ansi = new AnsiCode();
+            Match match = AnsiCode.SGR_ESCAPE_PATTERN.match(data, 0);
+            while (match != null)
+            {
+               ansi.processCode(match.getValue());
+               match = match.nextMatch();
+            }
+         }
+      });
+   }
+
+   private static final int CODES = 5000;
+}
@@ -0,0 +1,158 @@
+/*
+ * BenchmarkTestCase.java
+ *
+ * Copyright (C) 2021 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.benchmark;
+
+import java.util.Arrays;
+
+import com.google.gwt.core.client.GWT;
+import com.google.gwt.http.client.Request;
+import com.google.gwt.http.client.RequestBuilder;
+import com.google.gwt.http.client.RequestCallback;
+import com.google.gwt.http.client.RequestException;
+import com.google.gwt.http.client.Response;
+import com.google.gwt.json.client.JSONNumber;
+import com.google.gwt.json.client.JSONObject;
+import com.google.gwt.json.client.JSONString;
+import com.google.gwt.junit.client.GWTTestCase;
+import com.google.gwt.user.client.Command;
+
+// Base class for client micro-benchmarks (see RStudioBenchmarkSuite).
+//
+// Each test method measures one operation over a fixed synthetic corpus by
+// calling benchmark(). The operation stores what it computes in result_ (so
+// the work can't be optimized away), and the test checks the result once
+// timing is done. The timings are posted to BenchmarkResultsServlet,
+// which appends them (one JSON object per line) to the file named by the
+// rstudio.benchmark.output system property so that runs from different
+// commits can be compared.
+public abstract class BenchmarkTestCase extends GWTTestCase
+{
+   @Override
+   public String getModuleName()
+   {
+      return "org.rstudio.studio.RStudioBenchmarks";
+   }
+
+   @Override
+   protected void gwtSetUp()
+   {
+      seed_ = SEED;
+      result_ = null;
+   }
+
+   // Runs the command WARMUP_ROUNDS times, then times SAMPLE_ROUNDS further
+   // runs and records the result. 'size' is the size of the corpus the
+   // command processes (e.g. its length in characters), reported alongside
+   // the timings so throughput can be derived.
+   protected void benchmark(String name, int size, Command command)
+   {
+      for (int i = 0; i < WARMUP_ROUNDS; i++)
+         command.execute();
+
+      double[] samples = new double[SAMPLE_ROUNDS];
+      for (int i = 0; i < SAMPLE_ROUNDS; i++)
+      {
+         double start = now();
+         command.execute();
+         samples[i] = now() - start;
+      }
+
+      report(name, size, samples);
+   }
+
+   // Deterministic pseudo-random numbers for building corpora; the sequence
+   // is reset before each test so corpora are identical between runs
+   protected int nextInt(int bound)
+   {
+      // Park-Miller generator; computed in a long to avoid int overflow
+      seed_ = (int) ((seed_ * 16807L) % 2147483647L);
+      return seed_ % bound;
+   }
+
+   protected String nextWord(int minLength, int maxLength)
+   {
+      int length = minLength + nextInt(maxLength - minLength + 1);
+      StringBuilder word = new StringBuilder();
+      for (int i = 0; i < length; i++)
+         word.append((char) ('a' + nextInt(26)));
+      return word.toString();
+   }
+
+   private void report(String name, int size, double[] samples)
+   {
+      double total = 0;
+      for (double sample : samples)
+         total += sample;
+      Arrays.sort(samples);
+
+      JSONObject result = new JSONObject();
+      result.put("suite", new JSONString(getClass().getName()));
+      result.put("benchmark", new JSONString(name));
+      result.put("size", new JSONNumber(size));
+      result.put("rounds", new JSONNumber(samples.length));
+      result.put("median_ms", new JSONNumber(samples[samples.length / 2]));
+      result.put("mean_ms", new JSONNumber(total / samples.length));
+      result.put("min_ms", new JSONNumber(samples[0]));
+      result.put("max_ms", new JSONNumber(samples[samples.length - 1]));
+
+      RequestBuilder builder = new RequestBuilder(
+            RequestBuilder.POST,
+            GWT.getModuleBaseURL() + RESULTS_PATH);
+      builder.setHeader("Content-Type", "application/json");
+
+      delayTestFinish(REPORT_TIMEOUT_MS);
+      try
+      {
+         builder.sendRequest(result.toString(), new RequestCallback()
+         {
+            @Override
+            public void onResponseReceived(Request request, Response response)
+            {
+               assertEquals(200, response.getStatusCode());
+               finishTest();
+            }
+
+            @Override
+            public void onError(Request request, Throwable exception)
+            {
+               fail("Failed to record benchmark result: " +
+                    exception.getMessage());
+            }
+         });
+      }
+      catch (RequestException e)
+      {
+         fail("Failed to record benchmark result: " + e.getMessage());
+      }
+   }
+
+   private static final native double now() /*-{
+      var performance = $wnd.performance;
+      return performance && performance.now ? performance.now() : Date.now();
+   }-*/;
+
+   // the result of the last run of the benchmarked command
+   protected Object result_;
+
+   private int seed_ = SEED;
+
+   private static final int SEED = 20210101;
+   private static final int WARMUP_ROUNDS = 5;
+   private static final int SAMPLE_ROUNDS = 25;
+   private static final int REPORT_TIMEOUT_MS = 10000;
+
+   // must match the servlet path in RStudioBenchmarks.gwt.xml
+   private static final String RESULTS_PATH = "benchmark_results";
+}
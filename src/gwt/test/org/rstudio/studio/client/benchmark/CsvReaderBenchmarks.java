@@ -0,0 +1,77 @@
+/*
+ * CsvReaderBenchmarks.java
+ *
+ * Copyright (C) 2021 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.benchmark;
+
+import java.util.Iterator;
+
+import org.rstudio.core.client.CsvReader;
+
+import com.google.gwt.user.client.Command;
+
+public class CsvReaderBenchmarks extends BenchmarkTestCase
+{
+   public void testReadCsv()
+   {
+      StringBuilder corpus = new StringBuilder();
+      for (int row = 0; row < ROWS; row++)
+      {
+         for (int column = 0; column < COLUMNS; column++)
+         {
+            if (column > 0)
+               corpus.append(',');
+
+            switch (column % 4)
+            {
+            case 0:
+               corpus.append(nextInt(100000));
+               break;
+            case 1:
+               corpus.append(nextWord(1, 12));
+               break;
+            case 2:
+               // quoted, with embedded separators and escaped quotes
+               corpus.append('"').append(nextWord(1, 8)).append(", ")
+                     .append(nextWord(1, 8)).append(" \"\"")
+                     .append(nextWord(1, 8)).append("\"\"\"");
+               break;
+            default:
+               corpus.append(nextInt(1000)).append('.').append(nextInt(1000));
+               break;
+            }
+         }
+         corpus.append('\n');
+      }
+
+      final String data = corpus.toString();
+      benchmark("read rows", data.length(), new Command()
+      {
+         @Override
+         public void execute()
+         {
+            int fields = 0;
+            Iterator<String[]> rows = new CsvReader(data).iterator();
+            while (rows.hasNext())
+               fields += rows.next().length;
+            result_ = fields;
+         }
+      });
+
+      // quoted separators and quotes stay within their fields
+      assertEquals(ROWS * COLUMNS, result_);
+   }
+
+   private static final int ROWS = 2000;
+   private static final int COLUMNS = 8;
+}
@@ -0,0 +1,90 @@
+/*
+ * RTokenizerBenchmarks.java
+ *
+ * Copyright (C) 2021 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.benchmark;
+
+import org.rstudio.studio.client.common.r.RToken;
+import org.rstudio.studio.client.common.r.RTokenizer;
+
+import com.google.gwt.user.client.Command;
+
+public class RTokenizerBenchmarks extends BenchmarkTestCase
+{
+   public void testTokenize()
+   {
+      // function definitions exercising identifiers, numbers, strings,
+      // comments and operators
+      StringBuilder corpus = new StringBuilder();
+      for (int i = 0; i < FUNCTIONS; i++)
+      {
+         String name = nextWord(3, 10);
+         corpus.append("# ").append(nextWord(3, 10)).append(' ')
+               .append(nextWord(3, 10)).append('\n')
+               .append(name).append(" <- function(x, ")
+               .append(nextWord(1, 6)).append(" = ")
+               .append(nextInt(100)).append("L, ...)\n{\n");
+         for (int line = 0, n = 2 + nextInt(8); line < n; line++)
+         {
+            switch (nextInt(4))
+            {
+            case 0:
+               corpus.append("   ").append(nextWord(1, 8)).append(" <- x[[\"")
+                     .append(nextWord(1, 8)).append("\"]] * ")
+                     .append(nextInt(1000)).append('.')
+                     .append(nextInt(100)).append("e-3\n");
+               break;
+            case 1:
+               corpus.append("   if (length(x) >= ").append(nextInt(10))
+                     .append(" && !is.null(").append(nextWord(1, 8))
+                     .append(")) x$").append(nextWord(1, 8))
+                     .append(" else NULL\n");
+               break;
+            case 2:
+               corpus.append("   x %>% ").append(nextWord(1, 8))
+                     .append("(`").append(nextWord(1, 8))
+                     .append(" col`, '").append(nextWord(1, 8))
+                     .append("') # ").append(nextWord(1, 8)).append('\n');
+               break;
+            default:
+               corpus.append("   for (i in seq_len(").append(nextInt(100))
+                     .append(")) ").append(nextWord(1, 8))
+                     .append("[i] <- i ^ 2 %% ").append(1 + nextInt(9))
+                     .append('\n');
+               break;
+            }
+         }
+         corpus.append("   invisible(x)\n}\n\n");
+      }
+
+      final String data = corpus.toString();
+      benchmark("tokenize R code", data.length(), new Command()
+      {
+         @Override
+         public void execute()
+         {
+            RTokenizer tokenizer = new RTokenizer(data);
+            RToken last = null;
+            for (RToken token; null != (token = tokenizer.nextToken());)
+               last = token;
+            result_ = last;
+         }
+      });
+
+      // the whole corpus was tokenized
+      RToken last = (RToken) result_;
+      assertEquals(data.length(), last.getOffset() + last.getLength());
+   }
+
+   private static final int FUNCTIONS = 500;
+}
@@ -0,0 +1,91 @@
+/*
+ * StringUtilBenchmarks.java
+ *
+ * Copyright (C) 2021 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.benchmark;
+
+import org.rstudio.core.client.StringUtil;
+
+import com.google.gwt.user.client.Command;
+
+public class StringUtilBenchmarks extends BenchmarkTestCase
+{
+   // Identifiers like those offered by completion and fuzzy file search
+   private String[] candidates()
+   {
+      String[] candidates = new String[CANDIDATES];
+      for (int i = 0; i < CANDIDATES; i++)
+      {
+         StringBuilder candidate = new StringBuilder(nextWord(2, 8));
+         for (int part = 0, n = nextInt(4); part < n; part++)
+            candidate.append(nextInt(2) == 0 ? '.' : '_').append(nextWord(2, 8));
+         candidates[i] = candidate.toString();
+      }
+      return candidates;
+   }
+
+   public void testIsSubsequence()
+   {
+      final String[] candidates = candidates();
+      benchmark("isSubsequence", candidates.length * QUERIES.length, new Command()
+      {
+         @Override
+         public void execute()
+         {
+            int matches = 0;
+            for (String query : QUERIES)
+               for (String candidate : candidates)
+                  if (StringUtil.isSubsequence(candidate, query, true))
+                     matches++;
+            result_ = matches;
+         }
+      });
+
+      int matches = (Integer) result_;
+      assertTrue(matches > 0);
+      assertTrue(matches < candidates.length * QUERIES.length);
+   }
+
+   public void testSubsequenceIndices()
+   {
+      final String[] candidates = candidates();
+      benchmark("subsequenceIndices", candidates.length * QUERIES.length, new Command()
+      {
+         @Override
+         public void execute()
+         {
+            int indices = 0;
+            for (String query : QUERIES)
+               for (String candidate : candidates)
+                  indices += StringUtil.subsequenceIndices(candidate, query).size();
+            result_ = indices;
+         }
+      });
+
+      // at most one index for each character of each query
+      int indices = (Integer) result_;
+      assertTrue(indices > 0);
+      assertTrue(indices <= candidates.length * totalQueryLength());
+   }
+
+   private static int totalQueryLength()
+   {
+      int length = 0;
+      for (String query : QUERIES)
+         length += query.length();
+      return length;
+   }
+
+   private static final int CANDIDATES = 5000;
+   private static final String[] QUERIES = { "a", "df", "rea", "str_s", "getx" };
+}
@@ -0,0 +1,86 @@
+/*
+ * SubstringDiffBenchmarks.java
+ *
+ * Copyright (C) 2021 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.benchmark;
+
+import org.rstudio.core.client.patch.SubstringDiff;
+
+import com.google.gwt.user.client.Command;
+
+public class SubstringDiffBenchmarks extends BenchmarkTestCase
+{
+   private String document()
+   {
+      StringBuilder document = new StringBuilder();
+      for (int line = 0; line < LINES; line++)
+      {
+         for (int word = 0, n = 1 + nextInt(8); word < n; word++)
+            document.append(nextWord(1, 10)).append(' ');
+         document.append('\n');
+      }
+      return document.toString();
+   }
+
+   private void benchmarkDiff(String name,
+                              final String origVal,
+                              final String newVal)
+   {
+      benchmark(name, origVal.length(), new Command()
+      {
+         @Override
+         public void execute()
+         {
+            result_ = new SubstringDiff(origVal, newVal);
+         }
+      });
+
+      // applying the diff to the original gives the new value
+      SubstringDiff diff = (SubstringDiff) result_;
+      assertTrue(diff.isValid());
+      assertEquals(newVal,
+                   origVal.substring(0, diff.getOffset()) +
+                   diff.getReplacement() +
+                   origVal.substring(diff.getOffset() + diff.getLength()));
+   }
+
+   public void testSingleEdit()
+   {
+      // the common case: a small insertion while typing
+      String origVal = document();
+      int middle = origVal.length() / 2;
+      String newVal =
+            origVal.substring(0, middle) + "x" + origVal.substring(middle);
+      benchmarkDiff("single character insertion", origVal, newVal);
+   }
+
+   public void testDistantEdits()
+   {
+      // edits near both ends, e.g. after a reformat or Replace All
+      String origVal = document();
+      int length = origVal.length();
+      String newVal =
+            origVal.substring(0, 10) + "edit" +
+            origVal.substring(10, length - 10) + "edit" +
+            origVal.substring(length - 10);
+      benchmarkDiff("edits at start and end", origVal, newVal);
+   }
+
+   public void testIdentical()
+   {
+      String origVal = document();
+      benchmarkDiff("identical documents", origVal, new String(origVal));
+   }
+
+   private static final int LINES = 5000;
+}
@@ -0,0 +1,77 @@
+/*
+ * UnifiedParserBenchmarks.java
+ *
+ * Copyright (C) 2021 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.benchmark;
+
+import org.rstudio.studio.client.workbench.views.vcs.common.diff.UnifiedParser;
+
+import com.google.gwt.user.client.Command;
+
+public class UnifiedParserBenchmarks extends BenchmarkTestCase
+{
+   public void testParseDiff()
+   {
+      StringBuilder corpus = new StringBuilder();
+      for (int file = 0; file < FILES; file++)
+      {
+         String path = "R/" + nextWord(4, 12) + ".R";
+         corpus.append("diff --git a/").append(path)
+               .append(" b/").append(path).append('\n')
+               .append("index 1234567..89abcde 100644\n")
+               .append("--- a/").append(path).append('\n')
+               .append("+++ b/").append(path).append('\n');
+
+         int line = 1;
+         for (int chunk = 0; chunk < CHUNKS_PER_FILE; chunk++)
+         {
+            line += 10 + nextInt(50);
+            corpus.append("@@ -").append(line).append(",7 +")
+                  .append(line).append(",7 @@ ")
+                  .append(nextWord(4, 12)).append(" <- function()\n");
+            for (int i = 0; i < 7; i++)
+            {
+               char type = i == 3 ? '-' : i == 4 ? '+' : ' ';
+               corpus.append(type).append("   ")
+                     .append(nextWord(1, 10)).append(" <- ")
+                     .append(nextWord(1, 10)).append("(x, ")
+                     .append(nextInt(100)).append(")\n");
+            }
+            // closing context line; 7 lines on each side in all
+            corpus.append(' ').append("   invisible(x)\n");
+         }
+      }
+
+      final String data = corpus.toString();
+      benchmark("parse unified diff", data.length(), new Command()
+      {
+         @Override
+         public void execute()
+         {
+            int chunks = 0;
+            UnifiedParser parser = new UnifiedParser(data);
+            while (parser.nextFilePair() != null)
+            {
+               while (parser.nextChunk() != null)
+                  chunks++;
+            }
+            result_ = chunks;
+         }
+      });
+
+      assertEquals(FILES * CHUNKS_PER_FILE, result_);
+   }
+
+   private static final int FILES = 50;
+   private static final int CHUNKS_PER_FILE = 10;
+}
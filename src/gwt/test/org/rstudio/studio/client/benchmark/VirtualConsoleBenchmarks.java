@@ -0,0 +1,159 @@
+/*
+ * VirtualConsoleBenchmarks.java
+ *
+ * Copyright (C) 2021 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.benchmark;
+
+import org.rstudio.core.client.AnsiCode;
+import org.rstudio.core.client.VirtualConsole;
+import org.rstudio.studio.client.workbench.prefs.model.UserPrefs;
+
+import com.google.gwt.dom.client.Document;
+import com.google.gwt.user.client.Command;
+
+public class VirtualConsoleBenchmarks extends BenchmarkTestCase
+{
+   private static class FakePrefs implements VirtualConsole.Preferences
+   {
+      @Override
+      public int truncateLongLinesInConsoleHistory()
+      {
+         return 1000;
+      }
+
+      @Override
+      public String consoleAnsiMode()
+      {
+         return UserPrefs.ANSI_CONSOLE_MODE_ON;
+      }
+
+      @Override
+      public boolean screenReaderEnabled()
+      {
+         return false;
+      }
+
+      @Override
+      public boolean limitConsoleVisible()
+      {
+         return false;
+      }
+   }
+
+   // Submits the chunks, in order, to a fresh console rendering into a
+   // detached <pre> element, and checks that the console ends up with the
+   // expected text
+   private void benchmarkSubmit(String name,
+                                final String[] chunks,
+                                String expected)
+   {
+      int size = 0;
+      for (String chunk : chunks)
+         size += chunk.length();
+
+      benchmark(name, size, new Command()
+      {
+         @Override
+         public void execute()
+         {
+            VirtualConsole console = new VirtualConsole(
+                  Document.get().createPreElement(),
+                  new FakePrefs());
+            for (String chunk : chunks)
+               console.submit(chunk);
+            result_ = console;
+         }
+      });
+
+      assertEquals(expected, result_.toString());
+   }
+
+   public void testSubmitPlainOutput()
+   {
+      String[] chunks = new String[CHUNKS];
+      StringBuilder expected = new StringBuilder();
+      for (int i = 0; i < CHUNKS; i++)
+      {
+         StringBuilder chunk = new StringBuilder();
+         for (int line = 0; line < LINES_PER_CHUNK; line++)
+         {
+            for (int word = 0, n = 2 + nextInt(10); word < n; word++)
+               chunk.append(nextWord(1, 10)).append(' ');
+            chunk.append('\n');
+         }
+         chunks[i] = chunk.toString();
+         expected.append(chunks[i]);
+      }
+      benchmarkSubmit("submit plain output", chunks, expected.toString());
+   }
+
+   public void testSubmitAnsiOutput()
+   {
+      // the console's text doesn't include the escape codes
+      String[] chunks = new String[CHUNKS];
+      StringBuilder expected = new StringBuilder();
+      for (int i = 0; i < CHUNKS; i++)
+      {
+         StringBuilder chunk = new StringBuilder();
+         for (int line = 0; line < LINES_PER_CHUNK; line++)
+         {
+            for (int word = 0, n = 2 + nextInt(10); word < n; word++)
+            {
+               int color = AnsiCode.FOREGROUND_MIN + nextInt(8);
+               String text = nextWord(1, 10);
+               chunk.append(AnsiCode.CSI)
+                    .append(color)
+                    .append(AnsiCode.SGR)
+                    .append(text)
+                    .append(AnsiCode.DEFAULTCOLORS)
+                    .append(' ');
+               expected.append(text).append(' ');
+            }
+            chunk.append('\n');
+            expected.append('\n');
+         }
+         chunks[i] = chunk.toString();
+      }
+      benchmarkSubmit("submit ANSI colored output", chunks, expected.toString());
+   }
+
+   public void testSubmitProgressOutput()
+   {
+      // progress bars redrawn in place with carriage returns; each bar is at
+      // least as long as the one before, so only the last remains
+      String[] chunks = new String[CHUNKS];
+      StringBuilder expected = new StringBuilder();
+      for (int i = 0; i < CHUNKS; i++)
+      {
+         StringBuilder chunk = new StringBuilder();
+         StringBuilder bar = new StringBuilder();
+         for (int step = 0; step < LINES_PER_CHUNK; step++)
+         {
+            int percent = step * 100 / LINES_PER_CHUNK;
+            bar.setLength(0);
+            bar.append('|');
+            for (int j = 0; j < 50; j++)
+               bar.append(j < percent / 2 ? '=' : ' ');
+            bar.append("| ").append(percent).append('%');
+            chunk.append('\r').append(bar);
+         }
+         chunk.append('\n');
+         chunks[i] = chunk.toString();
+         expected.append(bar).append('\n');
+      }
+      benchmarkSubmit("submit carriage return progress", chunks, expected.toString());
+   }
+
+   private static final int CHUNKS = 20;
+   private static final int LINES_PER_CHUNK = 50;
+}
@@ -0,0 +1,212 @@
+/*
+ * BreakpointRegistryTests.java
+ *
+ * Copyright (C) 2021 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.common.debugging;
+
+import java.util.ArrayList;
+
+import org.rstudio.studio.client.common.debugging.model.Breakpoint;
+
+import com.google.gwt.junit.client.GWTTestCase;
+
+public class BreakpointRegistryTests extends GWTTestCase
+{
+   @Override
+   public String getModuleName()
+   {
+      return "org.rstudio.studio.RStudioTests";
+   }
+
+   public void testAddAndLookup()
+   {
+      BreakpointRegistry registry = new BreakpointRegistry();
+      Breakpoint a = create(1, "~/a.R", "f", 10);
+      Breakpoint b = create(2, "~/a.R", "g", 20);
+      Breakpoint c = create(3, "~/dir/c.R", "f", 5);
+      registry.add(a);
+      registry.add(b);
+      registry.add(c);
+
+      assertEquals(3, registry.size());
+      assertSame(b, registry.get(2));
+      assertNull(registry.get(4));
+      assertEquals(ids(1, 2, 3), ids(registry.all()));
+      assertEquals(ids(1, 2), ids(registry.inFile("~/a.R")));
+      assertEquals(ids(1, 3), ids(registry.inFunction("f")));
+      assertEquals(ids(3), ids(registry.inPath("~/dir")));
+      assertTrue(registry.inFile("~/none.R").isEmpty());
+      assertTrue(registry.inPackage("pkg").isEmpty());
+   }
+
+   public void testAddReplacesSameId()
+   {
+      BreakpointRegistry registry = new BreakpointRegistry();
+      registry.add(create(1, "~/a.R", "f", 10));
+      Breakpoint replacement = create(1, "~/b.R", "g", 3);
+      registry.add(replacement);
+
+      assertEquals(1, registry.size());
+      assertSame(replacement, registry.get(1));
+      assertTrue(registry.inFile("~/a.R").isEmpty());
+      assertTrue(registry.inFunction("f").isEmpty());
+      assertTrue(registry.inLines("~/a.R", 0, 100).isEmpty());
+      assertEquals(ids(1), ids(registry.inLines("~/b.R", 3, 3)));
+   }
+
+   public void testRemove()
+   {
+      BreakpointRegistry registry = new BreakpointRegistry();
+      Breakpoint a = create(1, "~/a.R", "f", 10);
+      Breakpoint b = create(2, "~/a.R", "f", 10);
+      registry.add(a);
+      registry.add(b);
+
+      registry.remove(a);
+      assertEquals(1, registry.size());
+      assertEquals(ids(2), ids(registry.inFile("~/a.R")));
+      assertEquals(ids(2), ids(registry.inFunction("f")));
+      assertEquals(ids(2), ids(registry.inLines("~/a.R", 10, 10)));
+
+      // removing again (or removing nothing) is harmless
+      registry.remove(a);
+      registry.remove(null);
+      assertEquals(1, registry.size());
+
+      registry.remove(b);
+      assertEquals(0, registry.size());
+      assertTrue(registry.inLines("~/a.R", 0, 100).isEmpty());
+   }
+
+   public void testInLines()
+   {
+      BreakpointRegistry registry = new BreakpointRegistry();
+      registry.add(create(1, "~/a.R", "f", 10));
+      registry.add(create(2, "~/a.R", "f", 12));
+      registry.add(create(3, "~/a.R", "g", 20));
+      registry.add(create(4, "~/b.R", "h", 11));
+
+      // the range is inclusive at both ends, and limited to the file
+      assertEquals(ids(1, 2), ids(registry.inLines("~/a.R", 10, 12)));
+      assertEquals(ids(2, 3), ids(registry.inLines("~/a.R", 11, 20)));
+      assertTrue(registry.inLines("~/a.R", 13, 19).isEmpty());
+      assertEquals(ids(4), ids(registry.inLines("~/b.R", 0, 100)));
+   }
+
+   public void testMovedFollowsLineChanges()
+   {
+      BreakpointRegistry registry = new BreakpointRegistry();
+      Breakpoint a = create(1, "~/a.R", "f", 10);
+      registry.add(a);
+
+      // the editor moves the breakpoint, then reports it
+      a.moveToLineNumber(15);
+      registry.moved(a);
+      assertTrue(registry.inLines("~/a.R", 10, 10).isEmpty());
+      assertEquals(ids(1), ids(registry.inLines("~/a.R", 15, 15)));
+
+      // a breakpoint that has been moved can still be removed cleanly
+      a.moveToLineNumber(30);
+      registry.remove(a);
+      assertTrue(registry.inLines("~/a.R", 0, 100).isEmpty());
+   }
+
+   public void testSetFunctionSteps()
+   {
+      BreakpointRegistry registry = new BreakpointRegistry();
+      Breakpoint a = create(1, "~/a.R", "", 10);
+      registry.add(a);
+
+      registry.setFunctionSteps(a, "f", 12, "2");
+      assertEquals("f", a.getFunctionName());
+      assertTrue(registry.inFunction("").isEmpty());
+      assertEquals(ids(1), ids(registry.inFunction("f")));
+      assertEquals(ids(1), ids(registry.inLines("~/a.R", 12, 12)));
+      assertTrue(registry.inLines("~/a.R", 10, 10).isEmpty());
+
+      // breakpoints that aren't registered are updated but not indexed
+      Breakpoint b = create(2, "~/a.R", "", 10);
+      registry.setFunctionSteps(b, "g", 11, "1");
+      assertEquals("g", b.getFunctionName());
+      assertTrue(registry.inFunction("g").isEmpty());
+   }
+
+   public void testMarkAsPackageBreakpoint()
+   {
+      BreakpointRegistry registry = new BreakpointRegistry();
+      Breakpoint a = create(1, "~/pkg/R/a.R", "f", 10);
+      registry.add(a);
+
+      registry.markAsPackageBreakpoint(a, "pkg");
+      assertEquals(ids(1), ids(registry.inPackage("pkg")));
+
+      registry.markAsPackageBreakpoint(a, "other");
+      assertTrue(registry.inPackage("pkg").isEmpty());
+      assertEquals(ids(1), ids(registry.inPackage("other")));
+
+      registry.remove(a);
+      assertTrue(registry.inPackage("other").isEmpty());
+   }
+
+   public void testClear()
+   {
+      BreakpointRegistry registry = new BreakpointRegistry();
+      registry.add(create(1, "~/a.R", "f", 10));
+      registry.add(create(2, "~/b.R", "g", 20));
+      registry.clear();
+
+      assertEquals(0, registry.size());
+      assertTrue(registry.all().isEmpty());
+      assertTrue(registry.inFile("~/a.R").isEmpty());
+      assertTrue(registry.inFunction("g").isEmpty());
+      assertTrue(registry.inLines("~/b.R", 0, 100).isEmpty());
+   }
+
+   public void testLookupsReturnCopies()
+   {
+      BreakpointRegistry registry = new BreakpointRegistry();
+      Breakpoint a = create(1, "~/a.R", "f", 10);
+      registry.add(a);
+
+      // callers may modify the registry while iterating over a lookup
+      for (Breakpoint breakpoint : registry.inFile("~/a.R"))
+         registry.remove(breakpoint);
+      assertEquals(0, registry.size());
+   }
+
+   private static Breakpoint create(int id,
+                                    String path,
+                                    String functionName,
+                                    int line)
+   {
+      return Breakpoint.create(id, path, functionName, line,
+                               Breakpoint.STATE_ACTIVE,
+                               Breakpoint.TYPE_FUNCTION);
+   }
+
+   private static ArrayList<Integer> ids(int... ids)
+   {
+      ArrayList<Integer> result = new ArrayList<>();
+      for (int id : ids)
+         result.add(id);
+      return result;
+   }
+
+   private static ArrayList<Integer> ids(ArrayList<Breakpoint> breakpoints)
+   {
+      ArrayList<Integer> result = new ArrayList<>();
+      for (Breakpoint breakpoint : breakpoints)
+         result.add(breakpoint.getBreakpointId());
+      return result;
+   }
+}
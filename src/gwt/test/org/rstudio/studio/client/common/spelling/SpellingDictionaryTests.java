@@ -0,0 +1,127 @@
+/*
+ * SpellingDictionaryTests.java
+ *
+ * Copyright (C) 2021 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.common.spelling;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+import com.google.gwt.junit.client.GWTTestCase;
+
+public class SpellingDictionaryTests extends GWTTestCase
+{
+   @Override
+   public String getModuleName()
+   {
+      return "org.rstudio.studio.RStudioTests";
+   }
+
+   private static SpellingDictionary dictionary(String... words)
+   {
+      SpellingDictionary dictionary = new SpellingDictionary();
+      for (String word : words)
+         dictionary.add(word);
+      return dictionary;
+   }
+
+   private static ArrayList<String> sorted(ArrayList<String> words)
+   {
+      Collections.sort(words);
+      return words;
+   }
+
+   public void testAddAndContains()
+   {
+      SpellingDictionary dictionary = dictionary("the", "then", "there");
+
+      assertEquals(3, dictionary.size());
+      assertTrue(dictionary.contains("the"));
+      assertTrue(dictionary.contains("then"));
+      assertTrue(dictionary.contains("there"));
+
+      // prefixes of known words aren't words themselves
+      assertFalse(dictionary.contains("th"));
+      assertFalse(dictionary.contains("ther"));
+      assertFalse(dictionary.contains("thereby"));
+      assertFalse(dictionary.contains(""));
+      assertFalse(dictionary.contains(null));
+   }
+
+   public void testAddDuplicate()
+   {
+      SpellingDictionary dictionary = new SpellingDictionary();
+      assertTrue(dictionary.add("word"));
+      assertFalse(dictionary.add("word"));
+      assertFalse(dictionary.add(""));
+      assertEquals(1, dictionary.size());
+   }
+
+   public void testClear()
+   {
+      SpellingDictionary dictionary = dictionary("one", "two");
+      dictionary.clear();
+
+      assertEquals(0, dictionary.size());
+      assertFalse(dictionary.contains("one"));
+      assertTrue(dictionary.getWords().isEmpty());
+   }
+
+   public void testGrowsBeyondInitialCapacity()
+   {
+      SpellingDictionary dictionary = new SpellingDictionary();
+      for (int i = 0; i < 2000; i++)
+         dictionary.add("word" + i);
+
+      assertEquals(2000, dictionary.size());
+      assertTrue(dictionary.contains("word0"));
+      assertTrue(dictionary.contains("word1999"));
+      assertFalse(dictionary.contains("word2000"));
+   }
+
+   public void testGetWords()
+   {
+      SpellingDictionary dictionary = dictionary("b", "a", "ab", "ba");
+      assertEquals(Arrays.asList("a", "ab", "b", "ba"),
+                   sorted(dictionary.getWords()));
+   }
+
+   public void testSuggestSingleEdits()
+   {
+      SpellingDictionary dictionary =
+            dictionary("spelling", "speling", "spellings", "spilling", "sepll");
+
+      // deletion, insertion and substitution
+      assertEquals(Arrays.asList("speling", "spellings", "spilling"),
+                   sorted(dictionary.suggest("spelling", 10)));
+
+      // transposition
+      assertEquals(Arrays.asList("spell"),
+                   dictionary("spell").suggest("sepll", 10));
+   }
+
+   public void testSuggestExcludesDistantWords()
+   {
+      SpellingDictionary dictionary = dictionary("apple", "banana");
+      assertTrue(dictionary.suggest("aple", 10).contains("apple"));
+      assertTrue(dictionary.suggest("bnanaa", 10).isEmpty());
+      assertTrue(dictionary.suggest("", 10).isEmpty());
+   }
+
+   public void testSuggestLimit()
+   {
+      SpellingDictionary dictionary = dictionary("cat", "bat", "hat", "mat");
+      assertEquals(2, dictionary.suggest("rat", 2).size());
+   }
+}
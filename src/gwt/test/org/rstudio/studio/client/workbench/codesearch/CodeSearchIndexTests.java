@@ -0,0 +1,213 @@
+/*
+ * CodeSearchIndexTests.java
+ *
+ * Copyright (C) 2021 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.codesearch;
+
+import java.util.ArrayList;
+
+import org.rstudio.core.client.FuzzyMatcher;
+import org.rstudio.studio.client.application.events.EventBus;
+import org.rstudio.studio.client.server.ServerRequestCallback;
+import org.rstudio.studio.client.workbench.WorkbenchContext;
+import org.rstudio.studio.client.workbench.codesearch.model.CodeSearchIndexResults;
+import org.rstudio.studio.client.workbench.codesearch.model.CodeSearchResults;
+import org.rstudio.studio.client.workbench.codesearch.model.CodeSearchServerOperations;
+import org.rstudio.studio.client.workbench.codesearch.model.ObjectDefinition;
+import org.rstudio.studio.client.workbench.codesearch.model.SearchPathFunctionDefinition;
+import org.rstudio.studio.client.workbench.model.Session;
+
+import com.google.gwt.core.client.JsArrayString;
+import com.google.gwt.core.client.JsonUtils;
+import com.google.gwt.junit.client.GWTTestCase;
+
+public class CodeSearchIndexTests extends GWTTestCase
+{
+   @Override
+   public String getModuleName()
+   {
+      return "org.rstudio.studio.RStudioTests";
+   }
+
+   public void testNotReadyWhenUnavailable()
+   {
+      CodeSearchIndex index = createIndex("{\"available\": false}");
+      assertFalse(index.isReady());
+   }
+
+   public void testReadyAfterLoad()
+   {
+      CodeSearchIndex index = createIndex(INDEX);
+      assertTrue(index.isReady());
+   }
+
+   public void testSearchFilesAndSymbols()
+   {
+      CodeSearchIndex index = createIndex(INDEX);
+      assertTrue(index.isReady());
+
+      CodeSearchIndex.Result result = index.search("plot", 10);
+      ArrayList<String> matches = matchedStrings(result);
+
+      // file targets come first
+      assertEquals("plots.R", matches.get(0));
+      assertTrue(result.getSuggestions().get(0).isFileTarget());
+      assertTrue(matches.contains("plot_data"));
+      assertFalse(matches.contains("read_data"));
+      assertFalse(result.getMoreAvailable());
+   }
+
+   public void testSearchLimitsResults()
+   {
+      CodeSearchIndex index = createIndex(INDEX);
+      assertTrue(index.isReady());
+
+      CodeSearchIndex.Result result = index.search("d", 2);
+      assertEquals(2, result.getSuggestions().size());
+      assertTrue(result.getMoreAvailable());
+   }
+
+   public void testSearchIgnoresPosition()
+   {
+      CodeSearchIndex index = createIndex(INDEX);
+      assertTrue(index.isReady());
+
+      ArrayList<String> matches = matchedStrings(index.search("read:12:4", 10));
+      assertTrue(matches.contains("read.R"));
+      assertTrue(matches.contains("read_data"));
+   }
+
+   public void testSearchSkipsRcppExports()
+   {
+      CodeSearchIndex index = createIndex(INDEX);
+      assertTrue(index.isReady());
+
+      ArrayList<String> matches = matchedStrings(index.search("rcpp_helper", 10));
+      assertFalse(matches.contains("rcpp_helper"));
+   }
+
+   public void testMatchesSubsequence()
+   {
+      FuzzyMatcher matcher = CodeSearchIndex.matcherForQuery("rdd:10");
+      assertTrue(CodeSearchIndex.matches("read_data", matcher, null));
+      assertFalse(CodeSearchIndex.matches("plot_data", matcher, null));
+   }
+
+   public void testMatchesWildcard()
+   {
+      String query = "p*data";
+      FuzzyMatcher matcher = CodeSearchIndex.matcherForQuery(query);
+      assertTrue(CodeSearchIndex.matches("plot_data", matcher,
+                                         CodeSearchIndex.patternForQuery(query)));
+
+      // wildcard patterns must match at the start of the name
+      assertFalse(CodeSearchIndex.matches("read_plot_data", matcher,
+                                          CodeSearchIndex.patternForQuery(query)));
+      assertNull(CodeSearchIndex.patternForQuery("plot"));
+   }
+
+   private ArrayList<String> matchedStrings(CodeSearchIndex.Result result)
+   {
+      ArrayList<String> matches = new ArrayList<>();
+      for (CodeSearchSuggestion suggestion : result.getSuggestions())
+         matches.add(suggestion.getMatchedString());
+      return matches;
+   }
+
+   private CodeSearchIndex createIndex(String json)
+   {
+      EventBus events = new EventBus(null, null);
+      WorkbenchContext context =
+            new WorkbenchContext(new Session(events), events, null, null);
+      return new CodeSearchIndex(new FakeServer(json), context, events);
+   }
+
+   private static class FakeServer implements CodeSearchServerOperations
+   {
+      FakeServer(String json)
+      {
+         json_ = json;
+      }
+
+      @Override
+      public void getCodeSearchIndex(
+            JsArrayString paths,
+            ServerRequestCallback<CodeSearchIndexResults> requestCallback)
+      {
+         requestCallback.onResponseReceived(
+               JsonUtils.<CodeSearchIndexResults>safeEval(json_));
+      }
+
+      @Override
+      public void searchCode(
+            String term,
+            int maxResults,
+            boolean unindexedOnly,
+            ServerRequestCallback<CodeSearchResults> requestCallback)
+      {
+         fail("index queries should not hit the server");
+      }
+
+      @Override
+      public void getObjectDefinition(
+            String line,
+            int pos,
+            ServerRequestCallback<ObjectDefinition> requestCallback)
+      {
+      }
+
+      @Override
+      public void findFunctionInSearchPath(
+            String line,
+            int pos,
+            String fromWhere,
+            ServerRequestCallback<SearchPathFunctionDefinition> requestCallback)
+      {
+      }
+
+      @Override
+      public void getSearchPathFunctionDefinition(
+            String name,
+            String namespace,
+            ServerRequestCallback<SearchPathFunctionDefinition> requestCallback)
+      {
+      }
+
+      @Override
+      public void getMethodDefinition(
+            String name,
+            ServerRequestCallback<SearchPathFunctionDefinition> requestCallback)
+      {
+      }
+
+      private final String json_;
+   }
+
+   private static final String INDEX =
+         "{" +
+         "\"available\": true," +
+         "\"file_items\": {" +
+         "  \"filename\": [\"plots.R\", \"read.R\", \"RcppExports.R\"]," +
+         "  \"path\": [\"~/proj/R/plots.R\", \"~/proj/R/read.R\", \"~/proj/R/RcppExports.R\"]" +
+         "}," +
+         "\"source_items\": {" +
+         "  \"type\": [1, 1, 1, 1]," +
+         "  \"name\": [\"plot_data\", \"read_data\", \"describe_data\", \"rcpp_helper\"]," +
+         "  \"parent_name\": [\"\", \"\", \"\", \"\"]," +
+         "  \"extra_info\": [\"\", \"\", \"\", \"\"]," +
+         "  \"context\": [\"~/proj/R/plots.R\", \"~/proj/R/read.R\", \"~/proj/R/read.R\", \"~/proj/R/RcppExports.R\"]," +
+         "  \"line\": [1, 1, 10, 1]," +
+         "  \"column\": [1, 1, 1, 1]" +
+         "}" +
+         "}";
+}
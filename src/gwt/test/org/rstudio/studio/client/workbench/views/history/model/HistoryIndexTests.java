@@ -0,0 +1,399 @@
+/*
+ * HistoryIndexTests.java
+ *
+ * Copyright (C) 2021 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.history.model;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+
+import org.rstudio.core.client.jsonrpc.RpcObjectList;
+import org.rstudio.studio.client.application.events.EventBus;
+import org.rstudio.studio.client.server.ServerRequestCallback;
+import org.rstudio.studio.client.server.Void;
+import org.rstudio.studio.client.workbench.views.history.events.HistoryEntriesAddedEvent;
+
+import com.google.gwt.core.client.JsArrayNumber;
+import com.google.gwt.junit.client.GWTTestCase;
+
+public class HistoryIndexTests extends GWTTestCase
+{
+   @Override
+   public String getModuleName()
+   {
+      return "org.rstudio.studio.RStudioTests";
+   }
+
+   public void testSearchMatchesServer()
+   {
+      FakeServer server = new FakeServer(HISTORY);
+      HistoryIndex index = new HistoryIndex(server, new EventBus(null, null), () -> 100);
+
+      // multi-term and punctuation queries return exactly what the server
+      // would
+      String[] queries = { "plot data", "x <- 1", "library(", "( )", "mean na.rm",
+                           "nothing here", "" };
+      for (String query : queries)
+      {
+         assertEquals(query,
+                      commands(server.search(query, 5)),
+                      commands(search(index, query, 5)));
+      }
+      assertEquals(1, server.itemRequests_);
+   }
+
+   public void testSingleWordSearchStartsWithServerResults()
+   {
+      FakeServer server = new FakeServer(HISTORY);
+      HistoryIndex index = new HistoryIndex(server, new EventBus(null, null), () -> 100);
+
+      // single word queries are filled out with fuzzy matches after the
+      // server's results
+      String[] queries = { "plot", "data", "mean", "lib" };
+      for (String query : queries)
+      {
+         ArrayList<String> expected = commands(server.search(query, 20));
+         ArrayList<String> actual = commands(search(index, query, 20));
+         assertTrue(query, actual.size() >= expected.size());
+         assertEquals(query, expected, actual.subList(0, expected.size()));
+      }
+   }
+
+   public void testSearchReturnsArchiveIndexes()
+   {
+      FakeServer server = new FakeServer(HISTORY);
+      HistoryIndex index = new HistoryIndex(server, new EventBus(null, null), () -> 100);
+
+      RpcObjectList<HistoryEntry> expected = server.search("plot data", 10);
+      RpcObjectList<HistoryEntry> actual = search(index, "plot data", 10);
+      assertEquals(expected.length(), actual.length());
+      for (int i = 0; i < expected.length(); i++)
+         assertEquals(expected.get(i).getIndex(), actual.get(i).getIndex());
+   }
+
+   public void testSearchByPrefixMatchesServer()
+   {
+      FakeServer server = new FakeServer(HISTORY);
+      HistoryIndex index = new HistoryIndex(server, new EventBus(null, null), () -> 100);
+
+      String[] prefixes = { "plot", " x", "library(", "zzz" };
+      for (String prefix : prefixes)
+      {
+         for (boolean uniqueOnly : new boolean[] { false, true })
+         {
+            assertEquals(prefix,
+                         commands(server.searchByPrefix(prefix, 4, uniqueOnly)),
+                         commands(searchByPrefix(index, prefix, 4, uniqueOnly)));
+         }
+      }
+   }
+
+   public void testTooLargeArchiveIsNotDownloaded()
+   {
+      FakeServer server = new FakeServer(HISTORY);
+      HistoryIndex index = new HistoryIndex(server, new EventBus(null, null),
+                                            () -> HISTORY.length - 1);
+
+      assertEquals(commands(server.search("plot", 5)),
+                   commands(search(index, "plot", 5)));
+      assertEquals(0, server.itemRequests_);
+      assertEquals(1, server.searchRequests_);
+
+      // the size isn't checked again
+      search(index, "data", 5);
+      assertEquals(1, server.sizeRequests_);
+      assertEquals(2, server.searchRequests_);
+   }
+
+   public void testArchiveAtLimitIsIndexed()
+   {
+      FakeServer server = new FakeServer(HISTORY);
+      HistoryIndex index = new HistoryIndex(server, new EventBus(null, null),
+                                            () -> HISTORY.length);
+
+      search(index, "plot", 5);
+      assertEquals(1, server.itemRequests_);
+      assertEquals(HISTORY.length, server.lastItemCount_);
+      assertEquals(0, server.searchRequests_);
+   }
+
+   public void testAddedEntriesAreSearched()
+   {
+      FakeServer server = new FakeServer(HISTORY);
+      EventBus events = new EventBus(null, null);
+      HistoryIndex index = new HistoryIndex(server, events, () -> 100);
+      search(index, "plot", 5);
+
+      RpcObjectList<HistoryEntry> added = createList();
+      push(added, HISTORY.length, "plot(added)", 0);
+      server.add("plot(added)");
+      events.fireEvent(new HistoryEntriesAddedEvent(added));
+
+      assertEquals(commands(server.search("plot (", 5)),
+                   commands(search(index, "plot (", 5)));
+      assertEquals("plot(added)", search(index, "plot (", 5).get(0).getCommand());
+      assertEquals(1, server.itemRequests_);
+   }
+
+   public void testAddedEntriesPastLimitFallBackToServer()
+   {
+      FakeServer server = new FakeServer(HISTORY);
+      EventBus events = new EventBus(null, null);
+      HistoryIndex index = new HistoryIndex(server, events, () -> HISTORY.length);
+      search(index, "plot", 5);
+
+      RpcObjectList<HistoryEntry> added = createList();
+      push(added, HISTORY.length, "plot(added)", 0);
+      server.add("plot(added)");
+      events.fireEvent(new HistoryEntriesAddedEvent(added));
+
+      assertEquals(commands(server.search("plot", 5)),
+                   commands(search(index, "plot", 5)));
+      assertEquals(1, server.searchRequests_);
+   }
+
+   private static RpcObjectList<HistoryEntry> search(HistoryIndex index,
+                                                     String query,
+                                                     int maxEntries)
+   {
+      Result result = new Result();
+      index.searchHistoryArchive(query, maxEntries, result);
+      assertNotNull(result.entries_);
+      return result.entries_;
+   }
+
+   private static RpcObjectList<HistoryEntry> searchByPrefix(HistoryIndex index,
+                                                             String prefix,
+                                                             int maxEntries,
+                                                             boolean uniqueOnly)
+   {
+      Result result = new Result();
+      index.searchHistoryArchiveByPrefix(prefix, maxEntries, uniqueOnly, result);
+      assertNotNull(result.entries_);
+      return result.entries_;
+   }
+
+   private static ArrayList<String> commands(RpcObjectList<HistoryEntry> entries)
+   {
+      ArrayList<String> commands = new ArrayList<>();
+      for (int i = 0; i < entries.length(); i++)
+         commands.add(entries.get(i).getCommand());
+      return commands;
+   }
+
+   private static class Result
+         extends ServerRequestCallback<RpcObjectList<HistoryEntry>>
+   {
+      @Override
+      public void onResponseReceived(RpcObjectList<HistoryEntry> entries)
+      {
+         entries_ = entries;
+      }
+
+      RpcObjectList<HistoryEntry> entries_;
+   }
+
+   // Answers requests as the session's history module does
+   // (see SessionHistory.cpp)
+   private static class FakeServer implements HistoryServerOperations
+   {
+      FakeServer(String[] commands)
+      {
+         for (String command : commands)
+            add(command);
+      }
+
+      void add(String command)
+      {
+         commands_.add(command);
+      }
+
+      RpcObjectList<HistoryEntry> search(String query, int maxEntries)
+      {
+         // boost::char_separator's defaults: whitespace separates terms, and
+         // punctuation characters are terms of their own
+         ArrayList<String> terms = new ArrayList<>();
+         StringBuilder term = new StringBuilder();
+         for (char ch : (query + " ").toCharArray())
+         {
+            boolean punct = ch > ' ' && ch < 127 && !Character.isLetterOrDigit(ch);
+            if (Character.isWhitespace(ch) || punct)
+            {
+               if (term.length() > 0)
+                  terms.add(term.toString());
+               term.setLength(0);
+               if (punct)
+                  terms.add(String.valueOf(ch));
+            }
+            else
+            {
+               term.append(ch);
+            }
+         }
+
+         RpcObjectList<HistoryEntry> results = createList();
+         for (int i = commands_.size() - 1;
+              i >= 0 && results.length() < maxEntries;
+              i--)
+         {
+            boolean matches = true;
+            for (String t : terms)
+               matches = matches && commands_.get(i).contains(t);
+            if (matches)
+               push(results, i, commands_.get(i), timestamp(i));
+         }
+         return results;
+      }
+
+      RpcObjectList<HistoryEntry> searchByPrefix(String prefix,
+                                                 int maxEntries,
+                                                 boolean uniqueOnly)
+      {
+         prefix = prefix.trim();
+         HashSet<String> matched = new HashSet<>();
+         RpcObjectList<HistoryEntry> results = createList();
+         for (int i = commands_.size() - 1;
+              i >= 0 && results.length() < maxEntries;
+              i--)
+         {
+            String command = commands_.get(i);
+            if (command.startsWith(prefix) &&
+                (!uniqueOnly || !matched.contains(command)))
+            {
+               push(results, i, command, timestamp(i));
+               matched.add(command);
+            }
+         }
+         return results;
+      }
+
+      @Override
+      public void getHistoryArchiveSize(ServerRequestCallback<Double> requestCallback)
+      {
+         sizeRequests_++;
+         requestCallback.onResponseReceived((double) commands_.size());
+      }
+
+      @Override
+      public void getHistoryArchiveItems(
+            long startIndex,
+            long endIndex,
+            ServerRequestCallback<RpcObjectList<HistoryEntry>> requestCallback)
+      {
+         itemRequests_++;
+         lastItemCount_ = (int) (endIndex - startIndex);
+
+         RpcObjectList<HistoryEntry> results = createList();
+         for (int i = (int) startIndex; i < Math.min(endIndex, commands_.size()); i++)
+            push(results, i, commands_.get(i), timestamp(i));
+         requestCallback.onResponseReceived(results);
+      }
+
+      @Override
+      public void searchHistoryArchive(
+            String query,
+            long maxEntries,
+            ServerRequestCallback<RpcObjectList<HistoryEntry>> requestCallback)
+      {
+         searchRequests_++;
+         requestCallback.onResponseReceived(search(query, (int) maxEntries));
+      }
+
+      @Override
+      public void searchHistoryArchiveByPrefix(
+            String prefix,
+            long maxEntries,
+            boolean uniqueOnly,
+            ServerRequestCallback<RpcObjectList<HistoryEntry>> requestCallback)
+      {
+         searchRequests_++;
+         requestCallback.onResponseReceived(
+               searchByPrefix(prefix, (int) maxEntries, uniqueOnly));
+      }
+
+      @Override
+      public void getRecentHistory(
+            long maxItems,
+            ServerRequestCallback<RpcObjectList<HistoryEntry>> requestCallback)
+      {
+      }
+
+      @Override
+      public void getHistoryItems(
+            long startIndex,
+            long endIndex,
+            ServerRequestCallback<RpcObjectList<HistoryEntry>> requestCallback)
+      {
+      }
+
+      @Override
+      public void removeHistoryItems(JsArrayNumber itemIndexes,
+                                     ServerRequestCallback<Void> requestCallback)
+      {
+      }
+
+      @Override
+      public void searchHistory(
+            String query,
+            long maxEntries,
+            ServerRequestCallback<RpcObjectList<HistoryEntry>> requestCallback)
+      {
+      }
+
+      @Override
+      public void clearHistory(ServerRequestCallback<Void> requestCallback)
+      {
+      }
+
+      private double timestamp(int index)
+      {
+         return 1000000 + index;
+      }
+
+      private final ArrayList<String> commands_ = new ArrayList<>();
+      int sizeRequests_;
+      int itemRequests_;
+      int lastItemCount_;
+      int searchRequests_;
+   }
+
+   private static native RpcObjectList<HistoryEntry> createList() /*-{
+      return { index: [], timestamp: [], command: [] };
+   }-*/;
+
+   private static native void push(RpcObjectList<HistoryEntry> list,
+                                   int index,
+                                   String command,
+                                   double timestamp) /*-{
+      list.index.push(index);
+      list.timestamp.push(timestamp);
+      list.command.push(command);
+   }-*/;
+
+   private static final String[] HISTORY = {
+      "library(ggplot2)",
+      "data <- read.csv(\"data.csv\")",
+      "x <- 1",
+      "plot(data)",
+      "mean(data$x, na.rm = TRUE)",
+      "x <- 1",
+      "plot(data, type = \"l\")",
+      "summary(data)",
+      "library(dplyr)",
+      "plot_data <- subset(data, x > 1)",
+      "plot(plot_data)",
+      "x <- 10",
+      "mean(x)",
+      "plot(data)",
+   };
+}
@@ -0,0 +1,212 @@
+/*
+ * SourceDocumentCacheTests.java
+ *
+ * Copyright (C) 2021 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.source.model;
+
+import org.rstudio.core.client.js.JsObject;
+import org.rstudio.studio.client.workbench.model.SessionInfo;
+
+import com.google.gwt.junit.client.GWTTestCase;
+import com.google.gwt.storage.client.Storage;
+
+public class SourceDocumentCacheTests extends GWTTestCase
+{
+   @Override
+   public String getModuleName()
+   {
+      return "org.rstudio.studio.RStudioTests";
+   }
+
+   @Override
+   protected void gwtSetUp()
+   {
+      SourceDocumentCache.clear();
+      Storage.getLocalStorageIfSupported().removeItem(OTHER_URL_KEY);
+   }
+
+   @Override
+   protected void gwtTearDown()
+   {
+      gwtSetUp();
+   }
+
+   public void testRestoresCachedContents()
+   {
+      SessionInfo init = createSessionInfo("alice", "s1");
+      addDoc(init, "a", "h1", "A");
+      addDoc(init, "b", "h2", "B");
+      SourceDocumentCache.reset(init);
+
+      JsObject hashes = SourceDocumentCache.getCachedHashes();
+      assertEquals("h1", hashes.getString("a"));
+      assertEquals("h2", hashes.getString("b"));
+
+      // the server skips "a", whose hash matches
+      SessionInfo reload = createSessionInfo("alice", "s1");
+      addDoc(reload, "a", "h1", null);
+      addDoc(reload, "b", "h3", "B2");
+      assertTrue(SourceDocumentCache.restoreContents(reload));
+      assertEquals("A", reload.getSourceDocuments().get(0).getContents());
+      assertFalse(reload.getSourceDocuments().get(0).isContentsCached());
+      assertEquals("B2", reload.getSourceDocuments().get(1).getContents());
+
+      SourceDocumentCache.reset(reload);
+      assertEquals("h3", SourceDocumentCache.getCachedHashes().getString("b"));
+   }
+
+   public void testRestoreFailsForStaleCopy()
+   {
+      SessionInfo init = createSessionInfo("alice", "s1");
+      addDoc(init, "a", "h1", "A");
+      SourceDocumentCache.reset(init);
+
+      SessionInfo reload = createSessionInfo("alice", "s1");
+      addDoc(reload, "a", "h2", null);
+      assertFalse(SourceDocumentCache.restoreContents(reload));
+
+      SessionInfo missing = createSessionInfo("alice", "s1");
+      addDoc(missing, "b", "h1", null);
+      assertFalse(SourceDocumentCache.restoreContents(missing));
+   }
+
+   public void testRestoreFailsForOtherUser()
+   {
+      SessionInfo init = createSessionInfo("alice", "s1");
+      addDoc(init, "a", "h1", "A");
+      SourceDocumentCache.reset(init);
+
+      SessionInfo reload = createSessionInfo("bob", "s1");
+      addDoc(reload, "a", "h1", null);
+      assertFalse(SourceDocumentCache.restoreContents(reload));
+
+      // once reset for the new user, the old user's copies are gone
+      SessionInfo retry = createSessionInfo("bob", "s1");
+      addDoc(retry, "b", "h2", "B");
+      SourceDocumentCache.reset(retry);
+      JsObject hashes = SourceDocumentCache.getCachedHashes();
+      assertFalse(hashes.hasKey("a"));
+      assertEquals("h2", hashes.getString("b"));
+   }
+
+   public void testRestoreFailsForOtherSession()
+   {
+      SessionInfo init = createSessionInfo("alice", "s1");
+      addDoc(init, "a", "h1", "A");
+      SourceDocumentCache.reset(init);
+
+      SessionInfo reload = createSessionInfo("alice", "s2");
+      addDoc(reload, "a", "h1", null);
+      assertFalse(SourceDocumentCache.restoreContents(reload));
+   }
+
+   public void testResetDropsClosedDocuments()
+   {
+      SessionInfo init = createSessionInfo("alice", "s1");
+      addDoc(init, "a", "h1", "A");
+      addDoc(init, "b", "h2", "B");
+      addDoc(init, "c", "h3", "C");
+      SourceDocumentCache.reset(init);
+
+      SourceDocumentCache.remove("c");
+      assertFalse(SourceDocumentCache.getCachedHashes().hasKey("c"));
+
+      SessionInfo reload = createSessionInfo("alice", "s1");
+      addDoc(reload, "a", "h1", null);
+      SourceDocumentCache.reset(reload);
+      JsObject hashes = SourceDocumentCache.getCachedHashes();
+      assertEquals("h1", hashes.getString("a"));
+      assertFalse(hashes.hasKey("b"));
+   }
+
+   public void testClear()
+   {
+      SessionInfo init = createSessionInfo("alice", "s1");
+      addDoc(init, "a", "h1", "A");
+      SourceDocumentCache.reset(init);
+      SourceDocumentCache.clear();
+
+      assertFalse(SourceDocumentCache.getCachedHashes().hasKey("a"));
+
+      SessionInfo reload = createSessionInfo("alice", "s1");
+      addDoc(reload, "a", "h1", null);
+      assertFalse(SourceDocumentCache.restoreContents(reload));
+   }
+
+   public void testSkipsLargeDocuments()
+   {
+      SessionInfo init = createSessionInfo("alice", "s1");
+      addDoc(init, "a", "h1", repeat('a', 1000001));
+      SourceDocumentCache.reset(init);
+
+      assertFalse(SourceDocumentCache.getCachedHashes().hasKey("a"));
+   }
+
+   public void testCapsTotalSize()
+   {
+      // copies kept for other sessions make way for this session's
+      Storage storage = Storage.getLocalStorageIfSupported();
+      storage.setItem(OTHER_URL_KEY, repeat('x', 900000));
+
+      String contents = repeat('a', 900000);
+      SessionInfo init = createSessionInfo("alice", "s1");
+      for (int i = 0; i < 5; i++)
+         addDoc(init, "doc" + i, "h" + i, contents);
+      SourceDocumentCache.reset(init);
+
+      // only four documents fit
+      assertNull(storage.getItem(OTHER_URL_KEY));
+      JsObject hashes = SourceDocumentCache.getCachedHashes();
+      for (int i = 0; i < 4; i++)
+         assertEquals("h" + i, hashes.getString("doc" + i));
+      assertFalse(hashes.hasKey("doc4"));
+
+      // closing a document makes room for another
+      SourceDocumentCache.remove("doc0");
+      SourceDocumentCache.put(init.getSourceDocuments().get(4));
+      assertEquals("h4", SourceDocumentCache.getCachedHashes().getString("doc4"));
+   }
+
+   private static String repeat(char c, int count)
+   {
+      StringBuilder builder = new StringBuilder(count);
+      for (int i = 0; i < count; i++)
+         builder.append(c);
+      return builder.toString();
+   }
+
+   private static native SessionInfo createSessionInfo(String userIdentity,
+                                                       String sessionId) /*-{
+      return {
+         userIdentity: userIdentity,
+         session_id: sessionId,
+         source_documents: []
+      };
+   }-*/;
+
+   // adds a document; null contents mark it as skipped by the server
+   private static native void addDoc(SessionInfo sessionInfo,
+                                     String id,
+                                     String hash,
+                                     String contents) /*-{
+      sessionInfo.source_documents.push({
+         id: id,
+         hash: hash,
+         contents: contents,
+         contents_cached: contents == null
+      });
+   }-*/;
+
+   private static final String OTHER_URL_KEY =
+         "rstudio.sourcedocs.http://other.example.com/#bob#s9#doc";
+}
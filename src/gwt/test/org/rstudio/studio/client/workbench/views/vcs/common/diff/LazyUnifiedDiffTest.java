@@ -0,0 +1,164 @@
+/*
+ * LazyUnifiedDiffTest.java
+ *
+ * Copyright (C) 2021 by RStudio, PBC
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.vcs.common.diff;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+
+public class LazyUnifiedDiffTest extends TestCase
+{
+   public void testMatchesParser() throws Exception
+   {
+      String data = TWO_CHUNKS + NO_NEWLINE_CHUNK;
+      LazyUnifiedDiff diff = new LazyUnifiedDiff(data);
+
+      UnifiedParser parser = new UnifiedParser(data);
+      parser.nextFilePair();
+      ArrayList<ChunkOrLine> expected = new ArrayList<>();
+      for (DiffChunk chunk; null != (chunk = parser.nextChunk());)
+         expected.addAll(ChunkOrLine.fromChunk(chunk));
+
+      assertEquals(3, diff.getChunkCount());
+      assertEquals(expected.size(), diff.getRowCount());
+      for (int i = 0; i < expected.size(); i++)
+      {
+         ChunkOrLine row = diff.getRow(i);
+         if (expected.get(i).getChunk() != null)
+         {
+            assertNotNull(row.getChunk());
+            assertEquals(expected.get(i).getChunk().getDiffIndex(),
+                         row.getChunk().getDiffIndex());
+         }
+         else
+         {
+            assertEquals(expected.get(i).getLine().getText(),
+                         row.getLine().getText());
+            assertEquals(expected.get(i).getLine().getDiffIndex(),
+                         row.getLine().getDiffIndex());
+         }
+      }
+   }
+
+   public void testMultiFileDiff() throws Exception
+   {
+      // only the first file is read, as with UnifiedParser
+      LazyUnifiedDiff diff = new LazyUnifiedDiff(TWO_CHUNKS + SECOND_FILE);
+      assertEquals(2, diff.getChunkCount());
+      assertEquals(10, diff.getRowCount());
+      assertEquals("c", diff.getRow(9).getLine().getText());
+   }
+
+   public void testNoNewlineAtEndOfFile() throws Exception
+   {
+      LazyUnifiedDiff diff = new LazyUnifiedDiff(HEADER + NO_NEWLINE_CHUNK);
+      assertEquals(1, diff.getChunkCount());
+
+      // the marker is a line of the chunk, but doesn't count against the
+      // header's ranges
+      assertEquals(1 + 4, diff.getRowCount());
+      DiffChunk chunk = diff.getChunk(0);
+      assertEquals(4, chunk.getLines().size());
+      assertEquals(Line.Type.Deletion, chunk.getLines().get(0).getType());
+      assertEquals(Line.Type.Comment, chunk.getLines().get(1).getType());
+      assertEquals(Line.Type.Insertion, chunk.getLines().get(2).getType());
+      assertEquals(Line.Type.Comment, chunk.getLines().get(3).getType());
+   }
+
+   public void testChunkBoundaries() throws Exception
+   {
+      LazyUnifiedDiff diff = new LazyUnifiedDiff(TWO_CHUNKS);
+
+      // rows: 0 = header, 1-3 = lines, 4 = header, 5-9 = lines
+      assertEquals(10, diff.getRowCount());
+      assertTrue(diff.isChunkRow(0));
+      assertFalse(diff.isChunkRow(3));
+      assertTrue(diff.isChunkRow(4));
+      assertFalse(diff.isChunkRow(5));
+      assertFalse(diff.isChunkRow(9));
+
+      assertEquals("c", diff.getRow(3).getLine().getText());
+      assertEquals(4, diff.getRow(4).getChunk().getDiffIndex());
+      assertEquals("x", diff.getRow(5).getLine().getText());
+      assertEquals("c", diff.getRow(9).getLine().getText());
+
+      // lines on either side of a boundary belong to different chunks
+      ArrayList<Line> lines = new ArrayList<>();
+      lines.add(diff.getRow(3).getLine());
+      lines.add(diff.getRow(5).getLine());
+      ArrayList<DiffChunk> chunks = diff.getChunksContaining(lines);
+      assertEquals(2, chunks.size());
+      assertEquals(0, chunks.get(0).getDiffIndex());
+      assertEquals(4, chunks.get(1).getDiffIndex());
+
+      try
+      {
+         diff.getRow(10);
+         fail("Expected IndexOutOfBoundsException");
+      }
+      catch (IndexOutOfBoundsException e)
+      {
+      }
+   }
+
+   public void testReusesUnchangedChunks() throws Exception
+   {
+      LazyUnifiedDiff previous = new LazyUnifiedDiff(TWO_CHUNKS);
+      DiffChunk first = previous.getChunk(0);
+      DiffChunk second = previous.getChunk(1);
+
+      // the second chunk has changed; the first is carried over
+      LazyUnifiedDiff diff = new LazyUnifiedDiff(
+            TWO_CHUNKS.replace("+y\n", "+z\n"), previous);
+      assertSame(first, diff.getChunk(0));
+      assertNotSame(second, diff.getChunk(1));
+      assertEquals("z", diff.getRow(7).getLine().getText());
+   }
+
+   private static final String HEADER =
+         "diff --git a/file.txt b/file.txt\n" +
+         "index 1111111..2222222 100644\n" +
+         "--- a/file.txt\n" +
+         "+++ b/file.txt\n";
+
+   private static final String TWO_CHUNKS =
+         HEADER +
+         "@@ -1,3 +1,2 @@\n" +
+         " a\n" +
+         "-b\n" +
+         " c\n" +
+         "@@ -10,3 +9,4 @@\n" +
+         " x\n" +
+         "-y\n" +
+         "+y\n" +
+         "+y2\n" +
+         " c\n";
+
+   private static final String NO_NEWLINE_CHUNK =
+         "@@ -20 +20 @@\n" +
+         "-last\n" +
+         "\\ No newline at end of file\n" +
+         "+last line\n" +
+         "\\ No newline at end of file\n";
+
+   private static final String SECOND_FILE =
+         "diff --git a/other.txt b/other.txt\n" +
+         "index 3333333..4444444 100644\n" +
+         "--- a/other.txt\n" +
+         "+++ b/other.txt\n" +
+         "@@ -1 +1 @@\n" +
+         "-old\n" +
+         "+new\n";
+}